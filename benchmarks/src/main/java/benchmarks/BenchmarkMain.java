@@ -0,0 +1,33 @@
+package benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Entry point of benchmarks.jar.
+ *
+ * Same as org.openjdk.jmh.Main, but results default to JSON in jmh-result.json
+ * so runs can be diffed and fed to regression tooling. Passing -rf / -rff overrides this; with
+ * only -rf the file is jmh-result.<format>.
+ *
+ * Usage: java -jar benchmarks/target/benchmarks.jar [jmh options] [benchmark regex]
+ */
+public class BenchmarkMain {
+    public static void main(String[] args) throws Exception {
+        List<String> jmhArgs = new ArrayList<>(Arrays.asList(args));
+        int format = jmhArgs.indexOf("-rf");
+        if (format < 0) {
+            jmhArgs.add(0, "json");
+            jmhArgs.add(0, "-rf");
+            format = 0;
+        }
+        if (!jmhArgs.contains("-rff") && format + 1 < jmhArgs.size()) {
+            // Named after the format, so -rf csv alone writes jmh-result.csv
+            jmhArgs.add(0, "jmh-result." + jmhArgs.get(format + 1).toLowerCase(Locale.ROOT));
+            jmhArgs.add(0, "-rff");
+        }
+        org.openjdk.jmh.Main.main(jmhArgs.toArray(new String[0]));
+    }
+}
@@ -0,0 +1,29 @@
+package benchmarks;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+/**
+ * Most classes under test log with System.out.println. Benchmarks swap stdout for a
+ * null stream so the console does not dominate (or flood) the measurement -
+ * the string building and PrintStream locking are still measured.
+ */
+public final class SilentOutput {
+    private static PrintStream original;
+
+    private SilentOutput() {}
+
+    public static synchronized void install() {
+        if (original == null) {
+            original = System.out;
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        }
+    }
+
+    public static synchronized void restore() {
+        if (original != null) {
+            System.setOut(original);
+            original = null;
+        }
+    }
+}
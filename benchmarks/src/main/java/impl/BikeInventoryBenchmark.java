@@ -0,0 +1,90 @@
+package impl;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Eight threads renting and returning random bikes. With few bikes most rentals find the bike
+ * already taken and the threads fight over the same slots; with many they rarely meet. The
+ * baseline is the same rent / return on a boolean array behind one lock, and processRental is the
+ * whole path a rental takes, through BikeRentalService with a customer per thread: the
+ * inventory CAS plus the session store and observers.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class BikeInventoryBenchmark {
+    @Param({"16", "1024", "65536"})
+    public int bikes;
+
+    private static final AtomicInteger CUSTOMER_IDS = new AtomicInteger();
+
+    private BikeInventory inventory;
+    private boolean[] rented;
+    private BikeRentalService service;
+
+    @Setup
+    public void setUp() {
+        inventory = new BikeInventory();
+        for (int i = 0; i < bikes; i++) {
+            inventory.addBike("B" + i);
+        }
+        rented = new boolean[bikes];
+        service = new BikeRentalService();
+    }
+
+    @State(Scope.Thread)
+    public static class Rider {
+        final BikeRentalCustomer customer = new BikeRentalCustomer("C" + CUSTOMER_IDS.incrementAndGet());
+        long time = 1_717_372_800L;
+    }
+
+    @Benchmark
+    public boolean rentAndReturn() {
+        int slot = ThreadLocalRandom.current().nextInt(bikes);
+        return inventory.rent(slot) && inventory.giveBack(slot);
+    }
+
+    @Benchmark
+    public RentalSession processRental(Rider rider) {
+        Bike bike = inventory.get(ThreadLocalRandom.current().nextInt(bikes));
+        if (!service.processRental(rider.customer, bike, rider.time)) {
+            return null;
+        }
+        rider.time += 1_800;
+        return service.processReturn(rider.customer, bike, rider.time);
+    }
+
+    @Benchmark
+    public boolean synchronizedBaseline() {
+        int slot = ThreadLocalRandom.current().nextInt(bikes);
+        synchronized (this) {
+            if (rented[slot]) {
+                return false;
+            }
+            rented[slot] = true;
+        }
+        synchronized (this) {
+            rented[slot] = false;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package impl;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One rental and its return, billed through the pipeline, against charging each return inline
+ * with its own payment request. The processor takes 50us per request either way.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BillingPipelineBenchmark {
+    private BillingPipeline billing;
+    private BikeRentalService billedService;
+    private BikeRentalService unbilledService;
+    private LocalPaymentProcessor inlinePayments;
+    private BikeRentalCustomer customer;
+    private Bike bike;
+    private long time = 1_717_372_800L;
+    private long chargeId;
+
+    @Setup
+    public void setUp() {
+        BikeInventory inventory = new BikeInventory();
+        bike = inventory.addBike("B1");
+        customer = new BikeRentalCustomer("C1");
+        billing = new BillingPipeline(new LocalPaymentProcessor(50, 0));
+        billedService = new BikeRentalService(RentalPricing.DEFAULT, billing);
+        unbilledService = new BikeRentalService();
+        inlinePayments = new LocalPaymentProcessor(50, 0);
+    }
+
+    @TearDown
+    public void tearDown() {
+        billing.close();
+    }
+
+    @Benchmark
+    public RentalSession billedAsync() {
+        billedService.processRental(customer, bike, time);
+        time += 1_800;
+        return billedService.processReturn(customer, bike, time);
+    }
+
+    @Benchmark
+    public RentalSession chargedInline() {
+        unbilledService.processRental(customer, bike, time);
+        time += 1_800;
+        RentalSession session = unbilledService.processReturn(customer, bike, time);
+        inlinePayments.charge(Collections.singletonList(new Charge(++chargeId, customer.getCustomerId(),
+                Collections.singletonList(session))));
+        return session;
+    }
+}
@@ -0,0 +1,89 @@
+package impl;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Park + exit throughput with 1, 2, 4 and 8 gates (threads) sharing one 100k-spot garage.
+ * Goes through ParkingGarage, so it covers spot assignment, the spot state machine, ticket
+ * ids and the active-ticket store.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConcurrentGateBenchmark {
+    private static final int SPOTS = 100_000;
+
+    @State(Scope.Benchmark)
+    public static class Garage {
+        final ParkingGarage garage = new ParkingGarage(new CarParkingSpaceFactory());
+        final AtomicInteger gates = new AtomicInteger();
+
+        @Setup
+        public void setUp() {
+            for (int i = 0; i < SPOTS; i++) {
+                garage.addParkingSlot();
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Gate {
+        GenericVehicle[] fleet;
+        int next;
+
+        @Setup
+        public void setUp(Garage garage) {
+            int gate = garage.gates.getAndIncrement();
+            fleet = new GenericVehicle[256];
+            for (int i = 0; i < fleet.length; i++) {
+                fleet[i] = new GenericVehicle("G" + gate + "-" + i, 2);
+            }
+        }
+    }
+
+    private static ParkingTicket parkAndExit(Garage garage, Gate gate) {
+        GenericVehicle vehicle = gate.fleet[gate.next++ & 255];
+        ParkingTicket ticket = garage.garage.issueParkingTicket(vehicle, 0);
+        garage.garage.removeVehicle(vehicle);
+        return ticket;
+    }
+
+    @Benchmark
+    @Threads(1)
+    public ParkingTicket gates1(Garage garage, Gate gate) {
+        return parkAndExit(garage, gate);
+    }
+
+    @Benchmark
+    @Threads(2)
+    public ParkingTicket gates2(Garage garage, Gate gate) {
+        return parkAndExit(garage, gate);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public ParkingTicket gates4(Garage garage, Gate gate) {
+        return parkAndExit(garage, gate);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public ParkingTicket gates8(Garage garage, Gate gate) {
+        return parkAndExit(garage, gate);
+    }
+}
@@ -0,0 +1,95 @@
+package impl;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Nearest site with room for a size-3 vehicle: from the coordinator's packed summary, against
+ * asking every garage for its counters and computing haversine distances.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GarageCoordinatorBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int sites;
+
+    private GarageCoordinator coordinator;
+    private ParkingGarage[] garages;
+    private double[] latitude;
+    private double[] longitude;
+    private Random random;
+
+    @Setup
+    public void setUp() {
+        coordinator = new GarageCoordinator(4, sites, 1000);
+        garages = new ParkingGarage[sites];
+        latitude = new double[sites];
+        longitude = new double[sites];
+        random = new Random(13);
+        for (int i = 0; i < sites; i++) {
+            garages[i] = new ParkingGarage(new MultiLevelParkingSpaceFactory(2, 3, 20, 2));
+            for (int spot = 0; spot < 50; spot++) {
+                garages[i].addParkingSlot();
+            }
+            // Large spots taken at most sites, so a size-3 query has to skip some
+            if (i % 3 != 0) {
+                for (int car = 0; car < 4; car++) {
+                    garages[i].issueParkingTicket(new GenericVehicle("L" + i + "-" + car, 3), 0);
+                }
+            }
+            latitude[i] = 12.97 + (random.nextDouble() - 0.5) * 0.27;
+            longitude[i] = 77.59 + (random.nextDouble() - 0.5) * 0.28;
+            coordinator.addSite("Site-" + i, latitude[i], longitude[i], garages[i]);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        coordinator.close();
+    }
+
+    @Benchmark
+    public SiteAvailability summary() {
+        return coordinator.nearest(12.97 + (random.nextDouble() - 0.5) * 0.27, 77.59 + (random.nextDouble() - 0.5) * 0.28, 3);
+    }
+
+    @Benchmark
+    public int scanGarages() {
+        double lat = Math.toRadians(12.97 + (random.nextDouble() - 0.5) * 0.27);
+        double lon = Math.toRadians(77.59 + (random.nextDouble() - 0.5) * 0.28);
+        int best = -1;
+        double bestDistance = Double.MAX_VALUE;
+        for (int i = 0; i < sites; i++) {
+            if (garages[i].availableSpots(3) == 0) {
+                continue;
+            }
+            double dLat = Math.toRadians(latitude[i]) - lat;
+            double dLon = Math.toRadians(longitude[i]) - lon;
+            double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                    + Math.cos(lat) * Math.cos(Math.toRadians(latitude[i])) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+            if (a < bestDistance) {
+                bestDistance = a;
+                best = i;
+            }
+        }
+        return best;
+    }
+}
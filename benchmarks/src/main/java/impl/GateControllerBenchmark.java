@@ -0,0 +1,96 @@
+package impl;
+
+import benchmarks.SilentOutput;
+import interfaces.GateListener;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One vehicle in and out through the gate controller (detect, plate, barrier, clear at the entry;
+ * detect, plate, pay, barrier, clear at the exit), waiting for each barrier, against the same
+ * garage calls made directly on the caller's thread.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GateControllerBenchmark {
+    private ParkingGarage garage;
+    private GateController controller;
+    private int entryGate;
+    private int exitGate;
+    private final AtomicInteger barriers = new AtomicInteger();
+    private GenericVehicle car;
+
+    @Setup
+    public void setUp() {
+        garage = new ParkingGarage(new CarParkingSpaceFactory());
+        for (int i = 0; i < 1024; i++) {
+            garage.addParkingSlot();
+        }
+        controller = new GateController(garage, 2, new GateListener() {
+            @Override
+            public void barrierOpened(int gateId, ParkingTicket ticket) {
+                controller.submit(GateEvent.vehicleCleared(gateId));
+                barriers.incrementAndGet();
+            }
+
+            @Override
+            public void paymentDue(int gateId, ParkingTicket ticket, double amount) {
+                controller.submit(GateEvent.payment(gateId, amount));
+            }
+        });
+        entryGate = controller.addGate(GateController.Direction.ENTRY);
+        exitGate = controller.addGate(GateController.Direction.EXIT);
+        car = new GenericVehicle("CAR001", 2);
+        // payParkingTicket prints a receipt line per payment
+        SilentOutput.install();
+    }
+
+    @TearDown
+    public void tearDown() {
+        controller.close();
+        SilentOutput.restore();
+    }
+
+    @Benchmark
+    public int throughGates() {
+        int opened = barriers.get();
+        controller.submit(GateEvent.vehicleDetected(entryGate));
+        controller.submit(GateEvent.plateRead(entryGate, car, 1_000));
+        while (barriers.get() == opened) {
+            Thread.onSpinWait();
+        }
+        controller.submit(GateEvent.vehicleDetected(exitGate));
+        controller.submit(GateEvent.plateRead(exitGate, car, 4_600));
+        while (barriers.get() == opened + 1) {
+            Thread.onSpinWait();
+        }
+        return opened;
+    }
+
+    @Benchmark
+    public double direct() {
+        ParkingTicket ticket = garage.issueParkingTicket(car, 1_000);
+        ticket.setExitTimeStamp(4_600);
+        double cost = garage.calculateParkingCost(ticket);
+        garage.payParkingTicket(ticket, cost);
+        garage.removeVehicle(car);
+        garage.notifyObservers(ticket);
+        return cost;
+    }
+}
@@ -0,0 +1,70 @@
+package impl;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Nearest available bikes and position updates on a 500k fleet spread over a 22km x 24km box of
+ * 100m cells.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GeoGridBenchmark {
+    private static final double MIN_LATITUDE = 52.40;
+    private static final double MIN_LONGITUDE = 13.20;
+    private static final double HEIGHT = 0.20;
+    private static final double WIDTH = 0.35;
+
+    @Param({"500000"})
+    public int bikes;
+
+    @Param({"1", "10"})
+    public int k;
+
+    private BikeInventory inventory;
+
+    @Setup
+    public void setUp() {
+        inventory = new BikeInventory(new GeoGrid(MIN_LATITUDE, MIN_LONGITUDE, MIN_LATITUDE + HEIGHT, MIN_LONGITUDE + WIDTH, 100));
+        Random random = new Random(42);
+        for (int i = 0; i < bikes; i++) {
+            inventory.addBike("B" + i, MIN_LATITUDE + random.nextDouble() * HEIGHT, MIN_LONGITUDE + random.nextDouble() * WIDTH);
+        }
+        // A third of the fleet is out on rides
+        for (int i = 0; i < bikes; i += 3) {
+            inventory.rent(i);
+        }
+    }
+
+    @Benchmark
+    public List<Bike> nearestAvailable() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return inventory.nearestAvailable(MIN_LATITUDE + random.nextDouble() * HEIGHT, MIN_LONGITUDE + random.nextDouble() * WIDTH, k);
+    }
+
+    @Benchmark
+    public int moveBike() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int slot = random.nextInt(bikes);
+        inventory.move(slot, MIN_LATITUDE + random.nextDouble() * HEIGHT, MIN_LONGITUDE + random.nextDouble() * WIDTH);
+        return slot;
+    }
+}
@@ -0,0 +1,93 @@
+package impl;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Feeding a day of 100k park and exit events into the analytics, and answering the 24h dashboard
+ * query from the ring buffers against scanning the same day of ticket history.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class OccupancyAnalyticsBenchmark {
+    private static final long DAY_START = 1_717_372_800L;
+
+    private ParkingGarage garage;
+    private List<ParkingEvent> events;
+    private List<ParkingTicket> history;
+    private OccupancyAnalytics analytics;
+
+    @Setup
+    public void setUp() {
+        MultiLevelParkingSpaceFactory factory = new MultiLevelParkingSpaceFactory(3, 100, 700, 200);
+        garage = new ParkingGarage(factory);
+        for (int i = 0; i < factory.capacity(); i++) {
+            garage.addParkingSlot();
+        }
+        Random random = new Random(5);
+        events = new ArrayList<>();
+        history = new ArrayList<>();
+        for (int i = 0; i < 50_000; i++) {
+            // Short stays on a 1.7 s arrival spacing, so events stay close to time order
+            long entry = DAY_START + i * 86_400L / 50_000;
+            ParkingTicket ticket = new ParkingTicket(i, new GenericVehicle("KA" + random.nextInt(20_000), 2),
+                    random.nextInt(factory.capacity()), entry);
+            ticket.setExitTimeStamp(entry + 1 + random.nextInt(60));
+            ticket.calculateCost();
+            events.add(new ParkingEvent(ParkingEvent.Type.ENTERED, ticket));
+            events.add(new ParkingEvent(ParkingEvent.Type.EXITED, ticket));
+            history.add(ticket);
+        }
+        analytics = new OccupancyAnalytics(garage, 48);
+        analytics.onEvents(events);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public OccupancyAnalytics ingestDay() {
+        OccupancyAnalytics fresh = new OccupancyAnalytics(garage, 48);
+        fresh.onEvents(events);
+        return fresh;
+    }
+
+    @Benchmark
+    public UtilizationReport report24h() {
+        return analytics.report(24);
+    }
+
+    @Benchmark
+    public double scanHistory24h() {
+        long exits = 0;
+        long stay = 0;
+        double revenue = 0;
+        Set<String> plates = new HashSet<>();
+        for (ParkingTicket ticket : history) {
+            if (ticket.getExitTimeStamp() >= DAY_START) {
+                exits++;
+                stay += ticket.getExitTimeStamp() - ticket.getEntryTimeStamp();
+                revenue += ticket.getCost();
+                plates.add(ticket.getVehicle().getLicensePlate());
+            }
+        }
+        return revenue + (double) stay / exits + plates.size();
+    }
+}
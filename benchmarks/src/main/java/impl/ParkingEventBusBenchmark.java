@@ -0,0 +1,73 @@
+package impl;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gate path (park, exit, exit notification) with no observer, a fast one, and a billing
+ * observer that takes 5 ms per batch. The slow observer should not show up in the gate latency.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ParkingEventBusBenchmark {
+
+    @Param({"none", "fast", "slow"})
+    public String observer;
+
+    private ParkingGarage garage;
+    private GenericVehicle[] fleet;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        garage = new ParkingGarage(new CarParkingSpaceFactory());
+        for (int i = 0; i < 1024; i++) {
+            garage.addParkingSlot();
+        }
+        if (observer.equals("fast")) {
+            garage.addObserver(ticket -> { });
+        } else if (observer.equals("slow")) {
+            garage.addObserver(ticket -> {
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        fleet = new GenericVehicle[256];
+        for (int i = 0; i < fleet.length; i++) {
+            fleet[i] = new GenericVehicle("CAR" + i, 2);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        garage.close();
+    }
+
+    @Benchmark
+    public ParkingTicket parkExitNotify() {
+        GenericVehicle vehicle = fleet[next++ & 255];
+        ParkingTicket ticket = garage.issueParkingTicket(vehicle, 0);
+        garage.removeVehicle(vehicle);
+        garage.notifyObservers(ticket);
+        return ticket;
+    }
+}
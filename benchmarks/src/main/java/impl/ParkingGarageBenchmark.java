@@ -0,0 +1,48 @@
+package impl;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * issueParkingTicket on a full garage - before the free-spot index this scanned every spot.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ParkingGarageBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int spots;
+
+    private ParkingGarage garage;
+    private GenericVehicle arriving;
+
+    @Setup
+    public void setUp() {
+        garage = new ParkingGarage(new CarParkingSpaceFactory());
+        for (int i = 0; i < spots; i++) {
+            garage.addParkingSlot();
+            garage.issueParkingTicket(new GenericVehicle("CAR" + i, 2), i);
+        }
+        arriving = new GenericVehicle("LATE001", 2);
+    }
+
+    @Benchmark
+    public ParkingTicket issueParkingTicketWhenFull() {
+        return garage.issueParkingTicket(arriving, 0);
+    }
+}
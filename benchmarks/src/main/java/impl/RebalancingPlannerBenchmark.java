@@ -0,0 +1,91 @@
+package impl;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counting a rental or return into the planner's ring, and a full plan over a 22km x 24km box of
+ * 350m or 150m zones (4,352 or 23,691 zones) after a day and a half of random trips.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RebalancingPlannerBenchmark {
+    private static final double MIN_LATITUDE = 52.40;
+    private static final double MIN_LONGITUDE = 13.20;
+    private static final double HEIGHT = 0.20;
+    private static final double WIDTH = 0.35;
+    private static final long DAY_START = 1_717_372_800L;
+    private static final int BUCKET = 900;
+    private static final int BIKES = 50_000;
+    private static final int SESSIONS = 4096;
+
+    @Param({"350", "150"})
+    public int zoneMeters;
+
+    private RebalancingPlanner planner;
+    private RentalSession[] sessions;
+    private long planTime;
+
+    @Setup
+    public void setUp() {
+        BikeInventory inventory = new BikeInventory(new GeoGrid(MIN_LATITUDE, MIN_LONGITUDE, MIN_LATITUDE + HEIGHT, MIN_LONGITUDE + WIDTH, 100));
+        Random random = new Random(42);
+        for (int i = 0; i < BIKES; i++) {
+            inventory.addBike("B" + i, MIN_LATITUDE + random.nextDouble() * HEIGHT, MIN_LONGITUDE + random.nextDouble() * WIDTH);
+        }
+        GeoGrid zones = new GeoGrid(MIN_LATITUDE, MIN_LONGITUDE, MIN_LATITUDE + HEIGHT, MIN_LONGITUDE + WIDTH, zoneMeters);
+        planner = new RebalancingPlanner(zones, inventory, BUCKET, 2 * 96 + 8);
+        planTime = DAY_START + 86_400 + 12 * 3600;
+        // Sessions are fed to the planner directly, so no bike is really rented
+        for (long time = DAY_START; time < planTime; time += 2) {
+            RentalSession session = session(inventory.get(random.nextInt(BIKES)), time, random);
+            planner.itemRented(session);
+            planner.itemReturned(session);
+        }
+        sessions = new RentalSession[SESSIONS];
+        for (int i = 0; i < SESSIONS; i++) {
+            sessions[i] = session(inventory.get(random.nextInt(BIKES)), planTime - BUCKET + i % BUCKET, random);
+        }
+        // A third of the fleet is out on rides
+        for (int i = 0; i < BIKES; i += 3) {
+            inventory.rent(i);
+        }
+    }
+
+    private static RentalSession session(Bike bike, long start, Random random) {
+        bike.moveTo(MIN_LATITUDE + random.nextDouble() * HEIGHT, MIN_LONGITUDE + random.nextDouble() * WIDTH);
+        RentalSession session = new RentalSession("C1", bike, start);
+        bike.moveTo(MIN_LATITUDE + random.nextDouble() * HEIGHT, MIN_LONGITUDE + random.nextDouble() * WIDTH);
+        session.complete(start + 600, 1.00);
+        return session;
+    }
+
+    @Benchmark
+    public RentalSession countReturn() {
+        RentalSession session = sessions[ThreadLocalRandom.current().nextInt(SESSIONS)];
+        planner.itemReturned(session);
+        return session;
+    }
+
+    @Benchmark
+    public RebalancingPlan plan() {
+        return planner.plan(planTime, 8, 5.0);
+    }
+}
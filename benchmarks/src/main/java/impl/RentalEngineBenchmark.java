@@ -0,0 +1,61 @@
+package impl;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One rental and return through the RentalEngine, with items drawn from one asset class or
+ * from bikes, scooters and cars in turn. The two should cost the same.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RentalEngineBenchmark {
+    private static final int ITEMS_PER_CLASS = 1024;
+
+    @Param({"1", "3"})
+    public int assetClasses;
+
+    private RentalEngine engine;
+    private InventoryAsset[][] items;
+    private BikeRentalCustomer customer;
+    private long time = 1_717_372_800L;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        engine = new RentalEngine(RentalPolicy.DEFAULT, null);
+        AssetInventory<?>[] inventories = {new BikeInventory(), new ScooterInventory(), new CarInventory()};
+        items = new InventoryAsset[assetClasses][ITEMS_PER_CLASS];
+        for (int c = 0; c < assetClasses; c++) {
+            engine.register(inventories[c], new RentalPolicy(new RentalPricing(1.00, 0.10 * (c + 1), 20.00 * (c + 1)), 4));
+            for (int i = 0; i < ITEMS_PER_CLASS; i++) {
+                items[c][i] = inventories[c].add("I" + i);
+            }
+        }
+        customer = new BikeRentalCustomer("C1");
+    }
+
+    @Benchmark
+    public RentalSession rentAndReturn() {
+        InventoryAsset item = items[next++ % assetClasses][ThreadLocalRandom.current().nextInt(ITEMS_PER_CLASS)];
+        engine.processRental(customer, item, time);
+        time += 1_800;
+        return engine.processReturn(customer, item, time);
+    }
+}
@@ -0,0 +1,88 @@
+package impl;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Booking and cancelling against a book already holding 1k to 100k bookings (the conflict check
+ * is a peak query on the size class's tree), and a walk-in park and exit with and without
+ * reservations enabled, which should cost the same.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ReservationBenchmark {
+    private static final long NOW = 1_717_372_800L;
+
+    @Param({"1000", "10000", "100000"})
+    public int bookings;
+
+    private ParkingGarage plainGarage;
+    private ParkingGarage bookedGarage;
+    private ReservationBook book;
+    private GenericVehicle walkIn;
+    private Random random;
+
+    @Setup
+    public void setUp() {
+        plainGarage = new ParkingGarage(new CarParkingSpaceFactory());
+        bookedGarage = new ParkingGarage(new CarParkingSpaceFactory());
+        for (int i = 0; i < 1024; i++) {
+            plainGarage.addParkingSlot();
+            bookedGarage.addParkingSlot();
+        }
+        book = bookedGarage.enableReservations(1.0, 900, 1200, NOW);
+        random = new Random(9);
+        // Spread over a year so every window overlaps a few hundred bookings, below the 1024 quota
+        int made = 0;
+        while (made < bookings) {
+            long start = NOW + 86_400 + random.nextInt(365 * 86_400);
+            if (book.reserve("BK" + made, 2, start, start + 3600 + random.nextInt(4 * 3600)) != null) {
+                made++;
+            }
+        }
+        walkIn = new GenericVehicle("WALKIN", 2);
+    }
+
+    @Benchmark
+    public boolean reserveAndCancel() {
+        long start = NOW + 86_400 + random.nextInt(365 * 86_400);
+        Reservation reservation = book.reserve("NEW", 2, start, start + 7200);
+        return reservation != null && book.cancel(reservation.getReservationId());
+    }
+
+    @Benchmark
+    public int availableToBook() {
+        long start = NOW + 86_400 + random.nextInt(365 * 86_400);
+        return book.availableToBook(2, start, start + 7200);
+    }
+
+    @Benchmark
+    public ParkingTicket walkInWithoutReservations() {
+        ParkingTicket ticket = plainGarage.issueParkingTicket(walkIn, NOW);
+        plainGarage.removeVehicle(walkIn);
+        return ticket;
+    }
+
+    @Benchmark
+    public ParkingTicket walkInWithReservations() {
+        ParkingTicket ticket = bookedGarage.issueParkingTicket(walkIn, NOW);
+        bookedGarage.removeVehicle(walkIn);
+        return ticket;
+    }
+}
@@ -0,0 +1,61 @@
+package impl;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Park + unpark through the free-spot index on a 90% full garage, 1k to 1M spots.
+ * Cost should stay flat as the garage grows.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SpotAllocatorBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int spots;
+
+    private SpotAllocator allocator;
+    private GenericVehicle[] arriving;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        allocator = new SpotAllocator();
+        for (int i = 0; i < spots; i++) {
+            allocator.addSpot(i, i % 10 == 0 ? 3 : 2);
+            allocator.allocate(new GenericVehicle("CAR" + i, 2));
+        }
+        Random random = new Random(7);
+        for (int i = 0; i < spots / 10; i++) {
+            allocator.release("CAR" + random.nextInt(spots));
+        }
+        arriving = new GenericVehicle[1024];
+        for (int i = 0; i < arriving.length; i++) {
+            arriving[i] = new GenericVehicle("NEW" + i, 1 + (i & 1));
+        }
+    }
+
+    @Benchmark
+    public int parkAndExit() {
+        GenericVehicle vehicle = arriving[next++ & 1023];
+        int spotId = allocator.allocate(vehicle);
+        allocator.release(vehicle.getLicensePlate());
+        return spotId;
+    }
+}
@@ -0,0 +1,82 @@
+package impl;
+
+import interfaces.ParkingSpot;
+import interfaces.SpotAssignmentStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Park + unpark with each assignment strategy on a 90% full, 8-level garage of mixed spot sizes.
+ * Assignment should stay well under a microsecond from 10k to 1M spots.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SpotAssignmentBenchmark {
+    private static final int LEVELS = 8;
+
+    @Param({"bestFit", "nearestToExit", "levelBalancing"})
+    public String strategy;
+
+    @Param({"10000", "1000000"})
+    public int spots;
+
+    private SpotAllocator allocator;
+    private GenericVehicle[] arriving;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        SpotAssignmentStrategy assignment;
+        switch (strategy) {
+            case "nearestToExit":
+                assignment = new NearestToExitStrategy();
+                break;
+            case "levelBalancing":
+                assignment = new LevelBalancingStrategy();
+                break;
+            default:
+                assignment = new BestFitStrategy();
+        }
+        allocator = new SpotAllocator(assignment);
+        int perLevel = spots / LEVELS;
+        MultiLevelParkingSpaceFactory factory =
+                new MultiLevelParkingSpaceFactory(LEVELS, perLevel / 5, perLevel - perLevel / 5 - perLevel / 10, perLevel / 10);
+        for (int i = 0; i < factory.capacity(); i++) {
+            ParkingSpot spot = factory.createParkingSpot();
+            allocator.addSpot(i, spot.getSize(), spot.getLevel());
+            allocator.allocate(new GenericVehicle("CAR" + i, spot.getSize()));
+        }
+        Random random = new Random(7);
+        for (int i = 0; i < spots / 10; i++) {
+            allocator.release("CAR" + random.nextInt(factory.capacity()));
+        }
+        arriving = new GenericVehicle[1024];
+        for (int i = 0; i < arriving.length; i++) {
+            arriving[i] = new GenericVehicle("NEW" + i, 1 + i % 3);
+        }
+    }
+
+    @Benchmark
+    public int parkAndExit() {
+        GenericVehicle vehicle = arriving[next++ & 1023];
+        int spotId = allocator.allocate(vehicle);
+        allocator.release(vehicle.getLicensePlate());
+        return spotId;
+    }
+}
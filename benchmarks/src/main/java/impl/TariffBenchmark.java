@@ -0,0 +1,87 @@
+package impl;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one stay with the compiled tariff against a minute-by-minute loop over the same rates,
+ * for a 2 hour, 3 day and 90 day stay, plus bulk re-pricing of 100k tickets.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TariffBenchmark {
+    private static final long ENTRY = 1_717_400_000L;
+
+    @Param({"7200", "259200", "7776000"})
+    public long staySeconds;
+
+    private Tariff tariff;
+    private TariffEngine engine;
+    private List<ParkingTicket> tickets;
+
+    @Setup
+    public void setUp() {
+        tariff = Tariff.builder()
+                .defaultRate(20)
+                .weekdays(LocalTime.of(8, 0), LocalTime.of(18, 0), 60)
+                .weekend(LocalTime.of(10, 0), LocalTime.of(22, 0), 40)
+                .rate(EnumSet.allOf(DayOfWeek.class), LocalTime.of(22, 0), LocalTime.of(6, 0), 5)
+                .sizeMultiplier(1, 0.5)
+                .sizeMultiplier(3, 2.0)
+                .dailyCap(400)
+                .zoneOffset(ZoneOffset.ofHoursMinutes(5, 30))
+                .build();
+        engine = new TariffEngine(tariff);
+        Random random = new Random(3);
+        tickets = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            long entry = ENTRY + random.nextInt(30 * 86_400);
+            ParkingTicket ticket = new ParkingTicket(i, new GenericVehicle("CAR" + i, 1 + i % 3), i, entry);
+            ticket.setExitTimeStamp(entry + random.nextInt(3 * 86_400));
+            tickets.add(ticket);
+        }
+    }
+
+    @Benchmark
+    public double compiled() {
+        return tariff.cost(ENTRY, ENTRY + staySeconds, 2);
+    }
+
+    @Benchmark
+    public double minuteLoop() {
+        // What calculating by walking the stay looks like, without even applying the daily cap
+        double cost = 0;
+        for (long t = ENTRY; t < ENTRY + staySeconds; t += 60) {
+            cost += tariff.hourlyRateAt(t, 2) / 60;
+        }
+        return cost;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public double[] reprice100k() {
+        return engine.reprice(tickets, tariff);
+    }
+}
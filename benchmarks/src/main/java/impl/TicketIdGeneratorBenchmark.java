@@ -0,0 +1,39 @@
+package impl;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ticket id generation from 1 and 4 gates sharing one generator (one CAS per id).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TicketIdGeneratorBenchmark {
+    private final TicketIdGenerator ids = new TicketIdGenerator(1);
+
+    @Benchmark
+    @Threads(1)
+    public long nextId() {
+        return ids.nextId();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long nextIdFourGates() {
+        return ids.nextId();
+    }
+}
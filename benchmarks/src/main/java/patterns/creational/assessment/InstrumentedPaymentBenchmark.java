@@ -0,0 +1,55 @@
+package patterns.creational.assessment;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import patterns.creational.assessment.metrics.PaymentMetrics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Overhead of GlobalPaymentSystem.InstrumentedPayment over a no-op payment, single and multi-threaded.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InstrumentedPaymentBenchmark {
+    private GlobalPaymentSystem.Payment bare;
+    private GlobalPaymentSystem.Payment instrumented;
+    private GlobalPaymentSystem.PaymentRequest request;
+
+    @Setup
+    public void setUp() {
+        bare = request -> { };
+        instrumented = new GlobalPaymentSystem.InstrumentedPayment(bare, new PaymentMetrics());
+        request = new GlobalPaymentSystem.PaymentRequest.Builder()
+                .region("India").currency("INR").amount(5000).build();
+    }
+
+    @Benchmark
+    public void bare() {
+        bare.pay(request);
+    }
+
+    @Benchmark
+    public void instrumented() {
+        instrumented.pay(request);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void instrumentedContended() {
+        instrumented.pay(request);
+    }
+}
@@ -0,0 +1,56 @@
+package patterns.creational.assessment;
+
+import benchmarks.SilentOutput;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Borrow/return round trip on ObjectPool with more threads than pooled objects.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class ObjectPoolBenchmark {
+
+    @Param({"2", "8", "64"})
+    public int poolSize;
+
+    private ObjectPool<FakeConnection> pool;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SilentOutput.install();
+        int[] ids = {0};
+        pool = new ObjectPool<>(poolSize, () -> new FakeConnection(++ids[0]));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        SilentOutput.restore();
+    }
+
+    @Benchmark
+    public FakeConnection borrowAndReturn() {
+        FakeConnection conn = pool.borrowObject();
+        pool.returnObject(conn);
+        return conn;
+    }
+}
@@ -0,0 +1,57 @@
+package patterns.creational.assessment;
+
+import benchmarks.SilentOutput;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PaymentSystem.PaymentFactory.doPayment: monomorphic (one factory) vs. bimorphic (alternating) dispatch.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PaymentFactoryBenchmark {
+    private PaymentSystem.PaymentFactory upi;
+    private PaymentSystem.PaymentFactory[] mixed;
+    private PaymentSystem.PaymentRequest request;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SilentOutput.install();
+        upi = new PaymentSystem.UPIPaymentFactory();
+        mixed = new PaymentSystem.PaymentFactory[] {
+                new PaymentSystem.UPIPaymentFactory(), new PaymentSystem.CreditCardPaymentFactory()};
+        request = new PaymentSystem.PaymentRequest.Builder().currency("USD").amount(10000).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        SilentOutput.restore();
+    }
+
+    @Benchmark
+    public void doPaymentSingleFactory() {
+        upi.doPayment(request);
+    }
+
+    @Benchmark
+    public void doPaymentMixedFactories() {
+        mixed[next++ & 1].doPayment(request);
+    }
+}
@@ -0,0 +1,82 @@
+package patterns.creational.assessment.fx;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-conversion cost: by currency code, by pre-resolved id, and batch over a column of amounts.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FxConversionBenchmark {
+    private static final int ROWS = 4096;
+
+    private CurrencyConverter converter;
+    private double[] amounts;
+    private String[] from;
+    private int[] fromIds;
+    private double[] out;
+    private int usd;
+
+    @Setup
+    public void setUp() {
+        converter = CurrencyConverter.withRates(Map.of(
+                "USD", 1.0, "INR", 83.25, "EUR", 0.92, "GBP", 0.79, "JPY", 149.6));
+        RateSnapshot rates = converter.snapshot();
+        String[] codes = {"USD", "INR", "EUR", "GBP", "JPY"};
+
+        Random random = new Random(42);
+        amounts = new double[ROWS];
+        from = new String[ROWS];
+        fromIds = new int[ROWS];
+        for (int i = 0; i < ROWS; i++) {
+            amounts[i] = random.nextDouble() * 10_000;
+            from[i] = codes[random.nextInt(codes.length)];
+            fromIds[i] = rates.idOf(from[i]);
+        }
+        out = new double[ROWS];
+        usd = rates.idOf("USD");
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void convertByCode(Blackhole bh) {
+        for (int i = 0; i < ROWS; i++) {
+            bh.consume(converter.convert(amounts[i], from[i], "USD"));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void convertById(Blackhole bh) {
+        RateSnapshot snapshot = converter.snapshot();
+        for (int i = 0; i < ROWS; i++) {
+            bh.consume(snapshot.convert(amounts[i], fromIds[i], usd));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public double[] convertBatch() {
+        converter.snapshot().convert(amounts, fromIds, usd, out);
+        return out;
+    }
+}
@@ -0,0 +1,95 @@
+package patterns.creational.prototype;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A templated document of 10 to 1,000 sections of 8 paragraphs, built from scratch against
+ * created from the registry with each strategy, untouched and with its title and one paragraph
+ * changed.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PrototypeRegistryBenchmark {
+    private static final int PARAGRAPHS = 8;
+
+    @Param({"10", "100", "1000"})
+    public int sections;
+
+    private PrototypeRegistry registry;
+
+    @Setup
+    public void setUp() {
+        registry = new PrototypeRegistry();
+        registry.register("contract", build());
+    }
+
+    private Document build() {
+        Document document = new Document("Rental Contract");
+        document.putMetadata("version", "3");
+        document.putMetadata("jurisdiction", "DE");
+        for (int s = 0; s < sections; s++) {
+            int section = document.addSection("Clause " + (s + 1));
+            for (int p = 0; p < PARAGRAPHS; p++) {
+                document.addParagraph(section, "Clause " + (s + 1) + "." + (p + 1) + " of the standard terms.");
+            }
+        }
+        return document;
+    }
+
+    private static Document edit(Document document) {
+        document.setTitle("Rental Contract - C001");
+        document.setParagraph(0, 0, "Clause 1.1, amended for C001.");
+        return document;
+    }
+
+    @Benchmark
+    public Document fromScratch() {
+        return build();
+    }
+
+    @Benchmark
+    public Document fromScratchEdited() {
+        return edit(build());
+    }
+
+    @Benchmark
+    public Document deep() {
+        return registry.create("contract", CloneStrategy.DEEP);
+    }
+
+    @Benchmark
+    public Document deepEdited() {
+        return edit(registry.create("contract", CloneStrategy.DEEP));
+    }
+
+    @Benchmark
+    public Document shallow() {
+        return registry.create("contract", CloneStrategy.SHALLOW);
+    }
+
+    @Benchmark
+    public Document copyOnWrite() {
+        return registry.create("contract", CloneStrategy.COPY_ON_WRITE);
+    }
+
+    @Benchmark
+    public Document copyOnWriteEdited() {
+        return edit(registry.create("contract", CloneStrategy.COPY_ON_WRITE));
+    }
+}
@@ -0,0 +1,83 @@
+package patterns.structural.decorator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost and description of a chain of Cream, Sugar and Milk decorators in turn over a
+ * SimpleCoffee - depth 3 is the Milk(Sugar(Cream(SimpleCoffee))) chain from DecoratorDemo - asked
+ * of the chain itself and of its FlatCoffee, along with flattening the whole chain and adding one
+ * more layer to a flattened one.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DecoratorChainBenchmark {
+    @Param({"1", "3", "8", "16", "32", "64"})
+    public int depth;
+
+    private Coffee coffee;
+    private FlatCoffee flat;
+
+    @Setup
+    public void setUp() {
+        coffee = new SimpleCoffee();
+        for (int i = 0; i < depth; i++) {
+            switch (i % 3) {
+                case 0:
+                    coffee = new CreamDecorator(coffee);
+                    break;
+                case 1:
+                    coffee = new SugarDecorator(coffee);
+                    break;
+                default:
+                    coffee = new MilkDecorator(coffee);
+            }
+        }
+        flat = FlatCoffee.of(coffee);
+    }
+
+    @Benchmark
+    public double getCost() {
+        return coffee.getCost();
+    }
+
+    @Benchmark
+    public String getDescription() {
+        return coffee.getDescription();
+    }
+
+    @Benchmark
+    public double flatGetCost() {
+        return flat.getCost();
+    }
+
+    @Benchmark
+    public String flatGetDescription() {
+        return flat.getDescription();
+    }
+
+    @Benchmark
+    public FlatCoffee flatten() {
+        return FlatCoffee.of(coffee);
+    }
+
+    @Benchmark
+    public FlatCoffee flatWithMilk() {
+        return flat.with(MilkDecorator::new);
+    }
+}
@@ -0,0 +1,74 @@
+package patterns.structural.decorator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-order cost of pricing: building each order's decorator chain and asking its cost, one
+ * order at a time through the engine, and a batch over a column of orders.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class OrderPricingBenchmark {
+    private static final int ORDERS = 4096;
+
+    private OrderPricingEngine engine;
+    private long[] orders;
+    private double[] out;
+
+    @Setup
+    public void setUp() {
+        engine = new OrderPricingEngine(PriceTable.DEFAULT);
+        Random random = new Random(42);
+        orders = new long[ORDERS];
+        for (int i = 0; i < ORDERS; i++) {
+            long order = CoffeeOrders.PLAIN;
+            for (int a = random.nextInt(4); a > 0; a--) {
+                order = CoffeeOrders.add(order, AddOn.of(random.nextInt(AddOn.count())));
+            }
+            orders[i] = order;
+        }
+        out = new double[ORDERS];
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ORDERS)
+    public void decoratorChains(Blackhole bh) {
+        PriceTable prices = engine.prices();
+        for (int i = 0; i < ORDERS; i++) {
+            bh.consume(CoffeeOrders.toCoffee(orders[i], prices).getCost());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ORDERS)
+    public void perOrder(Blackhole bh) {
+        for (int i = 0; i < ORDERS; i++) {
+            bh.consume(engine.price(orders[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ORDERS)
+    public double[] batch() {
+        engine.priceBatch(orders, out);
+        return out;
+    }
+}
@@ -1,3 +1,7 @@
+import patterns.creational.assessment.ledger.PaymentLedger;
+
+import java.io.IOException;
+import java.nio.file.Files;
 
 public class Composition {
     interface Payment{
@@ -21,24 +25,50 @@ public class Composition {
 
     static class PaymentProcessor {
         private final Payment payment;
+        private final PaymentLedger ledger;
+        private final String account;
+        private final String currency;
 
         public PaymentProcessor(Payment payment) {
+            this(payment, null, null, null);
+        }
+
+        // Also records every processed payment in the ledger under the given account, in the account's currency
+        public PaymentProcessor(Payment payment, PaymentLedger ledger, String account, String currency) {
             this.payment = payment;
+            this.ledger = ledger;
+            this.account = account;
+            this.currency = currency;
         }
+
         public void pay(double amount) {
             payment.pay(amount);
+            if (ledger != null) {
+                // The payment went through already: a failed ledger write must not report it as failed
+                try {
+                    ledger.recordPayment(account, currency, amount);
+                } catch (IOException | RuntimeException e) {
+                    System.out.println("Paid but not recorded in the ledger: " + amount + " " + currency + " for " + account + ": " + e);
+                }
+            }
             System.out.println("Processed payment -> " + amount);
         }
     }
 
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
 
         PaymentProcessor processor = new PaymentProcessor(new CreditCard());
         processor.pay(10);
 
         processor = new PaymentProcessor(new DebitCard());
         processor.pay(20);
+
+        try (PaymentLedger ledger = PaymentLedger.open(Files.createTempDirectory("composition-ledger"))) {
+            processor = new PaymentProcessor(new CreditCard(), ledger, "ACC-1", "INR");
+            processor.pay(30);
+            System.out.println("ACC-1 balance -> " + ledger.balanceOf("ACC-1", "INR"));
+        }
     }
 }
 
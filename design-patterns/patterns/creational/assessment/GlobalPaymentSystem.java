@@ -1,5 +1,18 @@
 package patterns.creational.assessment;
 
+import patterns.creational.assessment.fx.CurrencyConverter;
+import patterns.creational.assessment.fx.FileRateFeed;
+import patterns.creational.assessment.ledger.PaymentLedger;
+import patterns.creational.assessment.metrics.MetricsReporter;
+import patterns.creational.assessment.metrics.PaymentMetrics;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
 public class GlobalPaymentSystem {
 
     // ----------------- 1️⃣ Singleton Logger -----------------
@@ -21,16 +34,24 @@ public class GlobalPaymentSystem {
         private final double amount;
         private final String currency;
         private final String region;
+        private final String account;
 
         private PaymentRequest(Builder builder) {
             this.amount = builder.amount;
             this.currency = builder.currency;
             this.region = builder.region;
+            this.account = builder.account;
         }
 
         public double getAmount() { return amount; }
         public String getCurrency() { return currency; }
         public String getRegion() { return region; }
+        public String getAccount() { return account; }
+
+        // A builder holding every field of this request, to derive a changed copy from
+        public Builder toBuilder() {
+            return new Builder().amount(amount).currency(currency).region(region).account(account);
+        }
 
         @Override
         public String toString() {
@@ -41,10 +62,12 @@ public class GlobalPaymentSystem {
             private double amount;
             private String currency;
             private String region;
+            private String account;
 
             public Builder amount(double amount) { this.amount = amount; return this; }
             public Builder currency(String currency) { this.currency = currency; return this; }
             public Builder region(String region) { this.region = region; return this; }
+            public Builder account(String account) { this.account = account; return this; }
 
             public PaymentRequest build() {
                 return new PaymentRequest(this);
@@ -75,6 +98,77 @@ public class GlobalPaymentSystem {
         }
     }
 
+    // Normalizes the request into the settlement currency before paying
+    static class SettlementCurrencyPayment implements Payment {
+        private final Payment payment;
+        private final CurrencyConverter converter;
+        private final String settlementCurrency;
+
+        SettlementCurrencyPayment(Payment payment, CurrencyConverter converter, String settlementCurrency) {
+            this.payment = payment;
+            this.converter = converter;
+            this.settlementCurrency = settlementCurrency;
+        }
+
+        public void pay(PaymentRequest request) {
+            double settled = converter.convert(request.getAmount(), request.getCurrency(), settlementCurrency);
+            Logger.getInstance().log("Converted " + request.getCurrency() + request.getAmount()
+                    + " -> " + settlementCurrency + settled);
+            payment.pay(request.toBuilder().currency(settlementCurrency).amount(settled).build());
+        }
+    }
+
+    // Records latency and success/failure per region and payment method
+    static class InstrumentedPayment implements Payment {
+        private final Payment payment;
+        private final PaymentMetrics metrics;
+        private final String method;
+
+        InstrumentedPayment(Payment payment, PaymentMetrics metrics) {
+            this.payment = payment;
+            this.metrics = metrics;
+            this.method = payment.getClass().getSimpleName();
+        }
+
+        public void pay(PaymentRequest request) {
+            long start = System.nanoTime();
+            boolean succeeded = false;
+            try {
+                payment.pay(request);
+                succeeded = true;
+            } finally {
+                // Metrics must never change the outcome of the payment
+                try {
+                    metrics.forMethod(request.getRegion(), method).record(System.nanoTime() - start, succeeded);
+                } catch (RuntimeException e) {
+                    Logger.getInstance().log("Could not record payment metrics: " + e);
+                }
+            }
+        }
+    }
+
+    // Appends every successful payment to the durable ledger. The payment has gone through by
+    // then, so a ledger write that fails is logged rather than reported as a failed payment.
+    static class LedgerPayment implements Payment {
+        private final Payment payment;
+        private final PaymentLedger ledger;
+
+        LedgerPayment(Payment payment, PaymentLedger ledger) {
+            this.payment = payment;
+            this.ledger = ledger;
+        }
+
+        public void pay(PaymentRequest request) {
+            payment.pay(request);
+            String account = request.getAccount() != null ? request.getAccount() : request.getRegion();
+            try {
+                ledger.recordPayment(account, request.getCurrency(), request.getAmount());
+            } catch (IOException | RuntimeException ex) {
+                Logger.getInstance().log("Paid but not recorded in the ledger: " + request + " for " + account + ": " + ex);
+            }
+        }
+    }
+
     // ----------------- 4️⃣ Abstract Factory -----------------
     interface RegionalPaymentFactory {
         Payment createLocalPayment();    // e.g., UPI for India, PayPal for USA
@@ -93,7 +187,7 @@ public class GlobalPaymentSystem {
     }
 
     // ----------------- 6️⃣ Client (uses Abstract Factory) -----------------
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
         PaymentRequest indiaRequest = new PaymentRequest.Builder()
                 .region("India").currency("INR").amount(5000).build();
 
@@ -110,5 +204,38 @@ public class GlobalPaymentSystem {
         // Card Payments
         indiaFactory.createCardPayment().pay(indiaRequest);
         usaFactory.createCardPayment().pay(usaRequest);
+
+        // Cross-border: settle everything in USD, at the rates in the file (re-read when it changes);
+        // the built-in rates serve until the file is read, and if it cannot be
+        Path ratesFile = Paths.get(args.length > 0 ? args[0] : "patterns/creational/assessment/fx/fx-rates.properties");
+        CurrencyConverter converter = CurrencyConverter.withRates(Map.of("USD", 1.0, "INR", 83.25, "EUR", 0.92));
+        FileRateFeed rateFeed = new FileRateFeed(ratesFile, converter);
+        rateFeed.start(1, TimeUnit.SECONDS);
+        System.out.println("FX rates: " + converter.snapshot());
+        new SettlementCurrencyPayment(indiaFactory.createLocalPayment(), converter, "USD").pay(indiaRequest);
+
+        // Instrumented payments, pulled once at the end
+        PaymentMetrics metrics = new PaymentMetrics();
+        new InstrumentedPayment(indiaFactory.createLocalPayment(), metrics).pay(indiaRequest);
+        new InstrumentedPayment(usaFactory.createLocalPayment(), metrics).pay(usaRequest);
+        new InstrumentedPayment(usaFactory.createCardPayment(), metrics).pay(usaRequest);
+        // No region: counted under UNKNOWN
+        new InstrumentedPayment(usaFactory.createCardPayment(), metrics)
+                .pay(new PaymentRequest.Builder().currency("USD").amount(20).build());
+        MetricsReporter.toStdout(metrics).report();
+
+        // Durable record of payments
+        try (PaymentLedger ledger = PaymentLedger.open(Files.createTempDirectory("payment-ledger"))) {
+            PaymentRequest accountRequest = new PaymentRequest.Builder()
+                    .region("India").account("ACC-42").currency("INR").amount(750).build();
+            new LedgerPayment(indiaFactory.createLocalPayment(), ledger).pay(accountRequest);
+            // Settled in USD, still booked to the account
+            new SettlementCurrencyPayment(new LedgerPayment(indiaFactory.createLocalPayment(), ledger), converter, "USD")
+                    .pay(accountRequest);
+            ledger.flush();
+            System.out.println("ACC-42 balance: INR" + ledger.balanceOf("ACC-42", "INR")
+                    + ", USD" + ledger.balanceOf("ACC-42", "USD"));
+        }
+        rateFeed.close();
     }
 }
@@ -38,7 +38,7 @@ public class PaymentSystem {
             return "PaymentRequest [amount=" + amount + ", currency=" + currency + "]";
         }
 
-        private static class Builder {
+        public static class Builder {
             private double amount;
             private String currency;
 
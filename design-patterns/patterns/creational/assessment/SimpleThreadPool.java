@@ -7,16 +7,20 @@ public class SimpleThreadPool {
 
     private final BlockingQueue<Runnable> taskQueue;
     private final List<Worker> workers;
+    private final List<Thread> threads;
     private volatile boolean isRunning = true;
 
     public SimpleThreadPool(int numThreads) {
         taskQueue = new LinkedBlockingQueue<>();
         workers = new ArrayList<>();
+        threads = new ArrayList<>();
 
         for (int i = 0; i < numThreads; i++) {
             Worker worker = new Worker("Worker-" + i);
             workers.add(worker);
-            new Thread(worker).start();
+            Thread thread = new Thread(worker);
+            threads.add(thread);
+            thread.start();
         }
     }
 
@@ -33,6 +37,10 @@ public class SimpleThreadPool {
         for (Worker w : workers) {
             w.stopWorker();
         }
+        // Wake workers blocked on take() so they see running == false
+        for (Thread t : threads) {
+            t.interrupt();
+        }
     }
 
     private class Worker implements Runnable {
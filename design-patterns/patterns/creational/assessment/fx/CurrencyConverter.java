@@ -0,0 +1,59 @@
+package patterns.creational.assessment.fx;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Converts amounts using the latest published {@link RateSnapshot}.
+ *
+ * Readers never lock: they read the current snapshot once and work against it.
+ * Writers (the rate feed) build a complete new snapshot and swap it in atomically,
+ * so a conversion never sees half of an update.
+ */
+public class CurrencyConverter {
+    private final AtomicReference<RateSnapshot> current;
+
+    public CurrencyConverter(RateSnapshot initial) {
+        this.current = new AtomicReference<>(initial);
+    }
+
+    public static CurrencyConverter withRates(Map<String, Double> ratesPerBase) {
+        return new CurrencyConverter(RateSnapshot.of(ratesPerBase, 1));
+    }
+
+    public RateSnapshot snapshot() {
+        return current.get();
+    }
+
+    public void publish(RateSnapshot snapshot) {
+        current.set(snapshot);
+    }
+
+    /**
+     * Publishes only if no one else has published since {@code expected} was read.
+     */
+    public boolean publish(RateSnapshot expected, RateSnapshot snapshot) {
+        return current.compareAndSet(expected, snapshot);
+    }
+
+    public double convert(double amount, String from, String to) {
+        if (from.equals(to)) {
+            return amount;
+        }
+        RateSnapshot rates = current.get();
+        return rates.convert(amount, rates.idOf(from), rates.idOf(to));
+    }
+
+    /**
+     * Batch conversion against a single snapshot - every row in the batch uses the same rates.
+     */
+    public RateSnapshot convertBatch(double[] amounts, String[] from, String to, double[] out) {
+        RateSnapshot rates = current.get();
+        int[] fromIds = new int[from.length];
+        for (int i = 0; i < from.length; i++) {
+            fromIds[i] = rates.idOf(from[i]);
+        }
+        rates.convert(amounts, fromIds, rates.idOf(to), out);
+        return rates;
+    }
+}
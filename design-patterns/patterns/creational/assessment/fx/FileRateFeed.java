@@ -0,0 +1,85 @@
+package patterns.creational.assessment.fx;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Local stand-in for the real rate provider.
+ *
+ * Reads a properties file of CODE=unitsPerBase lines (e.g. USD=1.0, INR=83.2),
+ * polls it for changes and publishes a fresh snapshot into the converter. Changes are found by
+ * content, not modification time: two writes within the clock's resolution share one mtime.
+ */
+public class FileRateFeed implements AutoCloseable {
+    private final Path ratesFile;
+    private final CurrencyConverter converter;
+    private final ScheduledExecutorService scheduler;
+    private byte[] lastLoaded;
+
+    public FileRateFeed(Path ratesFile, CurrencyConverter converter) {
+        this.ratesFile = ratesFile;
+        this.converter = converter;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "fx-rate-feed");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public static RateSnapshot load(Path ratesFile, long version) throws IOException {
+        return parse(Files.readAllBytes(ratesFile), version);
+    }
+
+    private static RateSnapshot parse(byte[] content, long version) throws IOException {
+        Properties properties = new Properties();
+        properties.load(new ByteArrayInputStream(content));
+        Map<String, Double> rates = new HashMap<>();
+        for (String code : properties.stringPropertyNames()) {
+            rates.put(code.trim(), Double.parseDouble(properties.getProperty(code).trim()));
+        }
+        return RateSnapshot.of(rates, version);
+    }
+
+    public void start(long pollInterval, TimeUnit unit) {
+        refresh();
+        scheduler.scheduleWithFixedDelay(this::refresh, pollInterval, pollInterval, unit);
+    }
+
+    /**
+     * Reloads the file if it changed since the last poll. Returns true if a new snapshot was published.
+     */
+    public synchronized boolean refresh() {
+        try {
+            byte[] content = Files.readAllBytes(ratesFile);
+            if (Arrays.equals(content, lastLoaded)) {
+                return false;
+            }
+            RateSnapshot previous = converter.snapshot();
+            long version = previous == null ? 1 : previous.getVersion() + 1;
+            if (!converter.publish(previous, parse(content, version))) {
+                // Someone else published in between; the next poll builds on theirs
+                return false;
+            }
+            lastLoaded = content;
+            return true;
+        } catch (IOException | RuntimeException ex) {
+            // Keep serving the last good snapshot
+            System.err.println("Error loading FX rates from " + ratesFile + ": " + ex.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+}
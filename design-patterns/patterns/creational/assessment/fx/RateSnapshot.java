@@ -0,0 +1,112 @@
+package patterns.creational.assessment.fx;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable FX rate table.
+ *
+ * Every currency gets a dense int id. The cross rates are precomputed into a flat
+ * n * n double[] so a conversion is a single array read and one multiply.
+ * A snapshot is never modified after construction - new rates mean a new snapshot.
+ */
+public final class RateSnapshot {
+    private final String[] codes;
+    private final Map<String, Integer> ids;
+    private final double[] cross;
+    private final long version;
+    private final long publishedAt;
+
+    private RateSnapshot(String[] codes, double[] perBase, long version, long publishedAt) {
+        this.codes = codes;
+        this.version = version;
+        this.publishedAt = publishedAt;
+
+        Map<String, Integer> index = new HashMap<>();
+        for (int i = 0; i < codes.length; i++) {
+            index.put(codes[i], i);
+        }
+        this.ids = Collections.unmodifiableMap(index);
+
+        int n = codes.length;
+        this.cross = new double[n * n];
+        for (int from = 0; from < n; from++) {
+            for (int to = 0; to < n; to++) {
+                cross[from * n + to] = perBase[to] / perBase[from];
+            }
+        }
+    }
+
+    /**
+     * @param ratesPerBase units of each currency per one unit of the base currency (e.g. USD=1, INR=83.2)
+     */
+    public static RateSnapshot of(Map<String, Double> ratesPerBase, long version) {
+        String[] codes = ratesPerBase.keySet().stream().sorted().toArray(String[]::new);
+        double[] perBase = new double[codes.length];
+        for (int i = 0; i < codes.length; i++) {
+            double rate = ratesPerBase.get(codes[i]);
+            if (!(rate > 0)) {
+                throw new IllegalArgumentException("Rate for " + codes[i] + " must be positive: " + rate);
+            }
+            perBase[i] = rate;
+        }
+        return new RateSnapshot(codes, perBase, version, System.currentTimeMillis());
+    }
+
+    public int idOf(String currency) {
+        Integer id = ids.get(currency);
+        if (id == null) {
+            throw new IllegalArgumentException("Unknown currency: " + currency);
+        }
+        return id;
+    }
+
+    public boolean supports(String currency) {
+        return ids.containsKey(currency);
+    }
+
+    public String codeOf(int id) {
+        return codes[id];
+    }
+
+    public int size() {
+        return codes.length;
+    }
+
+    public double rate(int fromId, int toId) {
+        return cross[fromId * codes.length + toId];
+    }
+
+    public double convert(double amount, int fromId, int toId) {
+        return amount * cross[fromId * codes.length + toId];
+    }
+
+    /**
+     * Converts amounts[i] from fromIds[i] into toId, writing into out[i].
+     * Used by reconciliation where a whole column of amounts is normalised at once.
+     */
+    public void convert(double[] amounts, int[] fromIds, int toId, double[] out) {
+        if (amounts.length != fromIds.length || out.length < amounts.length) {
+            throw new IllegalArgumentException("amounts, fromIds and out must line up");
+        }
+        int n = codes.length;
+        for (int i = 0; i < amounts.length; i++) {
+            out[i] = amounts[i] * cross[fromIds[i] * n + toId];
+        }
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public long getPublishedAt() {
+        return publishedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "RateSnapshot [version=" + version + ", currencies=" + Arrays.toString(codes) + "]";
+    }
+}
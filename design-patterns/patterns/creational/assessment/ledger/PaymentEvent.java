@@ -0,0 +1,143 @@
+package patterns.creational.assessment.ledger;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+
+/**
+ * One ledger entry. On disk:
+ *
+ * <pre>
+ * int length | int crc32 | long seq | long timestamp | byte type | double amount
+ *            | short len, account bytes | short len, currency bytes
+ * </pre>
+ *
+ * length covers everything after itself; the crc covers everything after the crc.
+ * A record that is cut short or fails its crc marks the end of the log.
+ */
+public final class PaymentEvent {
+    public enum Type { PAYMENT, REFUND }
+
+    static final int HEADER = Integer.BYTES * 2;
+    static final int MAX_RECORD = 4096;
+    private static final int FIXED_BODY = Long.BYTES * 2 + 1 + Double.BYTES + Short.BYTES * 2;
+
+    private final long sequence;
+    private final long timestamp;
+    private final Type type;
+    private final String account;
+    private final String currency;
+    private final double amount;
+
+    public PaymentEvent(long sequence, long timestamp, Type type, String account, String currency, double amount) {
+        this.sequence = sequence;
+        this.timestamp = timestamp;
+        this.type = type;
+        this.account = account;
+        this.currency = currency;
+        this.amount = amount;
+    }
+
+    public long getSequence() { return sequence; }
+    public long getTimestamp() { return timestamp; }
+    public Type getType() { return type; }
+    public String getAccount() { return account; }
+    public String getCurrency() { return currency; }
+    public double getAmount() { return amount; }
+
+    /**
+     * Effect of this event on the account balance.
+     */
+    public double signedAmount() {
+        return type == Type.PAYMENT ? amount : -amount;
+    }
+
+    int encodedSize() {
+        return HEADER + FIXED_BODY + utf8Length(account) + utf8Length(currency);
+    }
+
+    void encode(ByteBuffer out) {
+        byte[] accountBytes = account.getBytes(StandardCharsets.UTF_8);
+        byte[] currencyBytes = currency.getBytes(StandardCharsets.UTF_8);
+        if (HEADER + FIXED_BODY + accountBytes.length + currencyBytes.length > MAX_RECORD) {
+            throw new IllegalArgumentException("Event too large: " + account);
+        }
+        int start = out.position();
+        out.putInt(FIXED_BODY + Integer.BYTES + accountBytes.length + currencyBytes.length);
+        out.putInt(0);
+        int body = out.position();
+        out.putLong(sequence);
+        out.putLong(timestamp);
+        out.put((byte) type.ordinal());
+        out.putDouble(amount);
+        out.putShort((short) accountBytes.length);
+        out.put(accountBytes);
+        out.putShort((short) currencyBytes.length);
+        out.put(currencyBytes);
+        out.putInt(start + Integer.BYTES, crc(out, body, out.position()));
+    }
+
+    /**
+     * Decodes the record at the buffer's position. Returns null (and leaves the position alone)
+     * if the buffer does not hold a complete record, so the caller can read more.
+     *
+     * @throws CorruptRecordException if the record is complete but damaged
+     */
+    static PaymentEvent decode(ByteBuffer in) {
+        if (in.remaining() < HEADER) {
+            return null;
+        }
+        int start = in.position();
+        int length = in.getInt(start);
+        if (length < FIXED_BODY + Integer.BYTES || length > MAX_RECORD) {
+            throw new CorruptRecordException("Bad record length " + length);
+        }
+        if (in.remaining() < Integer.BYTES + length) {
+            return null;
+        }
+        int body = start + HEADER;
+        int end = start + Integer.BYTES + length;
+        if (in.getInt(start + Integer.BYTES) != crc(in, body, end)) {
+            throw new CorruptRecordException("Checksum mismatch");
+        }
+        in.position(body);
+        long sequence = in.getLong();
+        long timestamp = in.getLong();
+        Type type = Type.values()[in.get()];
+        double amount = in.getDouble();
+        String account = readString(in);
+        String currency = readString(in);
+        in.position(end);
+        return new PaymentEvent(sequence, timestamp, type, account, currency, amount);
+    }
+
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getShort()];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int crc(ByteBuffer buffer, int from, int to) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate().limit(to).position(from));
+        return (int) crc.getValue();
+    }
+
+    private static int utf8Length(String s) {
+        return s.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    @Override
+    public String toString() {
+        return "PaymentEvent [seq=" + sequence + ", ts=" + timestamp + ", " + type + ", account=" + account
+                + ", " + currency + amount + "]";
+    }
+
+    static class CorruptRecordException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        CorruptRecordException(String message) {
+            super(message);
+        }
+    }
+}
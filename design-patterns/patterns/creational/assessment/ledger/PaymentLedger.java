@@ -0,0 +1,430 @@
+package patterns.creational.assessment.ledger;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Append-only, event-sourced payment ledger.
+ *
+ * - Events are encoded into an in-memory batch and written to the active segment with one
+ *   FileChannel.write per batch. {@link #flush()} forces the batch to disk (group commit).
+ * - Segments roll over (at batch granularity) once they would exceed maxSegmentBytes and are
+ *   named after their first sequence number.
+ * - Running balances per account and currency are kept in memory.
+ * - Every snapshotEvery events the balances are written to a snapshot file, so recovery
+ *   only replays the segments written after the latest snapshot.
+ * - {@link #query(long, long)} streams events in a time range segment by segment.
+ *
+ * Appends are single-writer (synchronized); balance reads and queries can run from any thread.
+ */
+public class PaymentLedger implements AutoCloseable {
+    private static final String SEGMENT_PREFIX = "ledger-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".snap";
+    private static final int SNAPSHOT_MAGIC = 0x4C534E50;
+    private static final int BATCH_SIZE = 256 * 1024;
+
+    private final Path dir;
+    private final long maxSegmentBytes;
+    private final int snapshotEvery;
+    private final ByteBuffer batch = ByteBuffer.allocateDirect(BATCH_SIZE);
+    private final Map<String, Double> balances = new ConcurrentHashMap<>();
+
+    private FileChannel segment;
+    private long segmentSize;
+    private long batchFirstSequence;
+    private long nextSequence = 1;
+    private long lastTimestamp;
+    private int eventsSinceSnapshot;
+    private long replayedEvents;
+
+    private PaymentLedger(Path dir, long maxSegmentBytes, int snapshotEvery) {
+        this.dir = dir;
+        this.maxSegmentBytes = maxSegmentBytes;
+        this.snapshotEvery = snapshotEvery;
+    }
+
+    public static PaymentLedger open(Path dir) throws IOException {
+        return open(dir, 64L * 1024 * 1024, 100_000);
+    }
+
+    public static PaymentLedger open(Path dir, long maxSegmentBytes, int snapshotEvery) throws IOException {
+        Files.createDirectories(dir);
+        PaymentLedger ledger = new PaymentLedger(dir, maxSegmentBytes, snapshotEvery);
+        ledger.recover();
+        return ledger;
+    }
+
+    public synchronized PaymentEvent append(PaymentEvent.Type type, String account, String currency, double amount) throws IOException {
+        lastTimestamp = Math.max(lastTimestamp, System.currentTimeMillis());
+        PaymentEvent event = new PaymentEvent(nextSequence, lastTimestamp, type, account, currency, amount);
+        if (batch.remaining() < event.encodedSize()) {
+            writeBatch();
+        }
+        if (batch.position() == 0) {
+            batchFirstSequence = nextSequence;
+        }
+        event.encode(batch);
+        apply(event);
+        nextSequence++;
+
+        if (++eventsSinceSnapshot >= snapshotEvery) {
+            flush();
+            writeSnapshot();
+        }
+        return event;
+    }
+
+    public PaymentEvent recordPayment(String account, String currency, double amount) throws IOException {
+        return append(PaymentEvent.Type.PAYMENT, account, currency, amount);
+    }
+
+    /**
+     * Writes the pending batch and forces it to disk. Everything appended before this call survives a crash.
+     */
+    public synchronized void flush() throws IOException {
+        writeBatch();
+        segment.force(false);
+    }
+
+    public double balanceOf(String account, String currency) {
+        return balances.getOrDefault(key(account, currency), 0.0);
+    }
+
+    public Map<String, Double> balances() {
+        return Collections.unmodifiableMap(new HashMap<>(balances));
+    }
+
+    public synchronized long lastSequence() {
+        return nextSequence - 1;
+    }
+
+    /**
+     * Number of events replayed from segments by the last recovery (i.e. not covered by the snapshot).
+     */
+    public long getReplayedEvents() {
+        return replayedEvents;
+    }
+
+    /**
+     * Streams events with fromTimestamp <= timestamp <= toTimestamp, oldest first.
+     * Segments that end before the range are skipped without being read; reading stops at the
+     * first event after the range. Close the stream to release the open segment.
+     */
+    public Stream<PaymentEvent> query(long fromTimestamp, long toTimestamp) throws IOException {
+        synchronized (this) {
+            writeBatch();
+        }
+        RangeIterator iterator = new RangeIterator(listSegments(), fromTimestamp, toTimestamp);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator,
+                        Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(iterator::close);
+    }
+
+    public synchronized void snapshot() throws IOException {
+        flush();
+        writeSnapshot();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        flush();
+        segment.close();
+    }
+
+    private void apply(PaymentEvent event) {
+        balances.merge(key(event.getAccount(), event.getCurrency()), event.signedAmount(), Double::sum);
+    }
+
+    private static String key(String account, String currency) {
+        return account + "/" + currency;
+    }
+
+    private void writeBatch() throws IOException {
+        if (batch.position() == 0) {
+            return;
+        }
+        if (segmentSize > 0 && segmentSize + batch.position() > maxSegmentBytes) {
+            segment.force(false);
+            segment.close();
+            openSegment(batchFirstSequence);
+        }
+        batch.flip();
+        while (batch.hasRemaining()) {
+            segmentSize += segment.write(batch);
+        }
+        batch.clear();
+    }
+
+    private void openSegment(long firstSequence) throws IOException {
+        segment = FileChannel.open(segmentPath(firstSequence),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        segmentSize = segment.size();
+    }
+
+    // ----------------- Snapshots -----------------
+
+    private void writeSnapshot() throws IOException {
+        long covered = nextSequence - 1;
+        Path target = dir.resolve(String.format("%s%020d%s", SNAPSHOT_PREFIX, covered, SNAPSHOT_SUFFIX));
+        Path tmp = dir.resolve(target.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(tmp))) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeLong(covered);
+            out.writeLong(lastTimestamp);
+            out.writeInt(balances.size());
+            for (Map.Entry<String, Double> entry : balances.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeDouble(entry.getValue());
+            }
+        }
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        eventsSinceSnapshot = 0;
+
+        // Keep the previous snapshot in case the newest one turns out unreadable
+        List<Long> snapshots = listSequences(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+        for (int i = 0; i < snapshots.size() - 2; i++) {
+            Files.deleteIfExists(dir.resolve(String.format("%s%020d%s", SNAPSHOT_PREFIX, snapshots.get(i), SNAPSHOT_SUFFIX)));
+        }
+    }
+
+    private long loadLatestSnapshot() {
+        List<Long> snapshots = listSequences(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+        for (int i = snapshots.size() - 1; i >= 0; i--) {
+            Path path = dir.resolve(String.format("%s%020d%s", SNAPSHOT_PREFIX, snapshots.get(i), SNAPSHOT_SUFFIX));
+            try (DataInputStream in = new DataInputStream(Files.newInputStream(path))) {
+                if (in.readInt() != SNAPSHOT_MAGIC) {
+                    throw new IOException("Not a ledger snapshot");
+                }
+                long covered = in.readLong();
+                long timestamp = in.readLong();
+                Map<String, Double> loaded = new HashMap<>();
+                for (int n = in.readInt(); n > 0; n--) {
+                    loaded.put(in.readUTF(), in.readDouble());
+                }
+                balances.clear();
+                balances.putAll(loaded);
+                lastTimestamp = timestamp;
+                return covered;
+            } catch (IOException ex) {
+                System.err.println("Skipping unreadable snapshot " + path + ": " + ex.getMessage());
+            }
+        }
+        return 0;
+    }
+
+    // ----------------- Recovery -----------------
+
+    private void recover() throws IOException {
+        long covered = loadLatestSnapshot();
+        long last = covered;
+        List<Path> segments = listSegments();
+        List<Long> starts = listSequences(SEGMENT_PREFIX, SEGMENT_SUFFIX);
+
+        for (int i = 0; i < segments.size(); i++) {
+            // Entirely covered by the snapshot: the next segment starts at or before covered + 1
+            if (i + 1 < starts.size() && starts.get(i + 1) <= covered + 1) {
+                continue;
+            }
+            try (SegmentReader reader = new SegmentReader(segments.get(i))) {
+                PaymentEvent event;
+                while ((event = reader.next()) != null) {
+                    if (event.getSequence() > covered) {
+                        apply(event);
+                        replayedEvents++;
+                    }
+                    last = Math.max(last, event.getSequence());
+                    lastTimestamp = Math.max(lastTimestamp, event.getTimestamp());
+                }
+                if (reader.isTruncated()) {
+                    // Torn write from a crash: drop the partial tail
+                    try (FileChannel channel = FileChannel.open(segments.get(i), StandardOpenOption.WRITE)) {
+                        channel.truncate(reader.validEnd());
+                    }
+                }
+            }
+        }
+
+        nextSequence = last + 1;
+        eventsSinceSnapshot = (int) Math.min(Integer.MAX_VALUE, replayedEvents);
+        if (starts.isEmpty()) {
+            openSegment(nextSequence);
+        } else {
+            openSegment(starts.get(starts.size() - 1));
+        }
+    }
+
+    // ----------------- Files -----------------
+
+    private Path segmentPath(long firstSequence) {
+        return dir.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX));
+    }
+
+    private List<Path> listSegments() {
+        List<Path> paths = new ArrayList<>();
+        for (long start : listSequences(SEGMENT_PREFIX, SEGMENT_SUFFIX)) {
+            paths.add(segmentPath(start));
+        }
+        return paths;
+    }
+
+    private List<Long> listSequences(String prefix, String suffix) {
+        List<Long> sequences = new ArrayList<>();
+        try (Stream<Path> files = Files.list(dir)) {
+            files.map(p -> p.getFileName().toString())
+                    .filter(name -> name.startsWith(prefix) && name.endsWith(suffix))
+                    .forEach(name -> sequences.add(Long.parseLong(
+                            name.substring(prefix.length(), name.length() - suffix.length()))));
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        Collections.sort(sequences);
+        return sequences;
+    }
+
+    private static long firstTimestamp(Path segment) throws IOException {
+        try (SegmentReader reader = new SegmentReader(segment)) {
+            PaymentEvent first = reader.next();
+            return first == null ? Long.MAX_VALUE : first.getTimestamp();
+        }
+    }
+
+    /**
+     * Walks the segments lazily, holding at most one segment open.
+     * Relies on timestamps never going backwards, which append() guarantees.
+     */
+    private static class RangeIterator implements Iterator<PaymentEvent>, Closeable {
+        private final List<Path> segments;
+        private final long from;
+        private final long to;
+        private int index = -1;
+        private SegmentReader reader;
+        private PaymentEvent next;
+        private boolean done;
+
+        RangeIterator(List<Path> segments, long from, long to) {
+            this.segments = segments;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null && !done) {
+                next = advance();
+                done = next == null;
+            }
+            return next != null;
+        }
+
+        @Override
+        public PaymentEvent next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            PaymentEvent event = next;
+            next = null;
+            return event;
+        }
+
+        private PaymentEvent advance() {
+            try {
+                while (true) {
+                    if (reader == null && !openNextSegment()) {
+                        return null;
+                    }
+                    PaymentEvent event = reader.next();
+                    if (event == null) {
+                        reader.close();
+                        reader = null;
+                        continue;
+                    }
+                    if (event.getTimestamp() > to) {
+                        close();
+                        return null;
+                    }
+                    if (event.getTimestamp() >= from) {
+                        return event;
+                    }
+                }
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        private boolean openNextSegment() throws IOException {
+            while (++index < segments.size()) {
+                // Skip segments whose successor already starts before the range
+                if (index + 1 < segments.size() && firstTimestamp(segments.get(index + 1)) < from) {
+                    continue;
+                }
+                reader = new SegmentReader(segments.get(index));
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public void close() {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (IOException ignored) {
+                }
+                reader = null;
+            }
+            index = segments.size();
+        }
+    }
+
+    // ------------------ DEMO ------------------
+    public static void main(String[] args) throws IOException {
+        Path dir = Files.createTempDirectory("payment-ledger");
+        String[] accounts = {"ACC-1", "ACC-2", "ACC-3"};
+
+        try (PaymentLedger ledger = PaymentLedger.open(dir, 1024 * 1024, 50_000)) {
+            for (int i = 0; i < 120_000; i++) {
+                ledger.recordPayment(accounts[i % accounts.length], "INR", 100);
+            }
+            ledger.append(PaymentEvent.Type.REFUND, "ACC-1", "INR", 250);
+        }
+
+        long start = System.nanoTime();
+        try (PaymentLedger recovered = PaymentLedger.open(dir)) {
+            long micros = (System.nanoTime() - start) / 1000;
+            System.out.println("Recovered " + recovered.lastSequence() + " events in " + micros + "us, replayed "
+                    + recovered.getReplayedEvents() + " after the snapshot");
+            System.out.println("ACC-1 balance: INR" + recovered.balanceOf("ACC-1", "INR"));
+
+            long now = System.currentTimeMillis();
+            try (Stream<PaymentEvent> events = recovered.query(now - 60_000, now)) {
+                System.out.println("Events in the last minute: " + events.count());
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package patterns.creational.assessment.ledger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Streams the events of one segment through a fixed read buffer, so memory use does not
+ * depend on the segment size. Stops at the first incomplete or corrupt record; {@link #validEnd()}
+ * then tells recovery where to truncate.
+ */
+class SegmentReader implements Closeable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private long bufferStart;
+    private boolean eof;
+    private boolean corrupt;
+
+    SegmentReader(Path segment) throws IOException {
+        this.channel = FileChannel.open(segment, StandardOpenOption.READ);
+        buffer.flip();
+    }
+
+    /**
+     * @return the next event, or null at the end of the valid part of the segment
+     */
+    PaymentEvent next() throws IOException {
+        while (!corrupt) {
+            try {
+                PaymentEvent event = PaymentEvent.decode(buffer);
+                if (event != null) {
+                    return event;
+                }
+            } catch (PaymentEvent.CorruptRecordException ex) {
+                corrupt = true;
+                return null;
+            }
+            if (eof || !fill()) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private boolean fill() throws IOException {
+        bufferStart += buffer.position();
+        buffer.compact();
+        int read = channel.read(buffer);
+        buffer.flip();
+        if (read < 0) {
+            eof = true;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * File offset just past the last good record returned.
+     */
+    long validEnd() {
+        return bufferStart + buffer.position();
+    }
+
+    boolean isTruncated() throws IOException {
+        return validEnd() < channel.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
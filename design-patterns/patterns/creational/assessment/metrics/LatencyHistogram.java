@@ -0,0 +1,99 @@
+package patterns.creational.assessment.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram, striped by thread.
+ *
+ * Buckets are log-linear: every power of two is split into 8 sub-buckets, so any
+ * recorded value is reported within 12.5% of its real value. Each stripe is its own
+ * AtomicLongArray and a thread always hits the same stripe, so recording threads
+ * rarely contend on the same counters. Stripes are only merged when a snapshot is taken.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BITS = 3;
+    private static final int SUB = 1 << SUB_BITS;
+    static final int BUCKETS = (64 - SUB_BITS) * SUB + SUB;
+
+    private final AtomicLongArray[] stripes;
+    private final int mask;
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    public LatencyHistogram() {
+        int n = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() - 1) << 1);
+        stripes = new AtomicLongArray[n];
+        for (int i = 0; i < n; i++) {
+            stripes[i] = new AtomicLongArray(BUCKETS);
+        }
+        mask = n - 1;
+    }
+
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        stripes[(int) Thread.currentThread().getId() & mask].getAndIncrement(bucketOf(nanos));
+        sum.add(nanos);
+        max.accumulate(nanos);
+    }
+
+    static int bucketOf(long value) {
+        if (value < SUB) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+        return (shift + 1) * SUB + (int) ((value >>> shift) & (SUB - 1));
+    }
+
+    static long upperBoundOf(int bucket) {
+        if (bucket < SUB) {
+            return bucket;
+        }
+        int shift = bucket / SUB - 1;
+        long sub = bucket % SUB;
+        long next = (SUB + sub + 1) << shift;
+        return next < 0 ? Long.MAX_VALUE : next - 1;
+    }
+
+    /**
+     * Merges the stripes. Recording can continue meanwhile; the snapshot may be off by the
+     * few values recorded while it was being taken.
+     */
+    public LatencySnapshot snapshot() {
+        long[] merged = new long[BUCKETS];
+        long count = 0;
+        for (AtomicLongArray stripe : stripes) {
+            for (int b = 0; b < BUCKETS; b++) {
+                long c = stripe.get(b);
+                merged[b] += c;
+                count += c;
+            }
+        }
+        long largest = max.get();
+        return new LatencySnapshot(count, sum.sum(), largest,
+                percentile(merged, count, largest, 0.50), percentile(merged, count, largest, 0.90),
+                percentile(merged, count, largest, 0.99), percentile(merged, count, largest, 0.999));
+    }
+
+    /**
+     * Upper bound of the bucket holding the p-th value, but never above the largest value
+     * recorded - the top bucket is usually only partly filled.
+     */
+    private static long percentile(long[] buckets, long count, long max, double p) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(p * count);
+        long seen = 0;
+        for (int b = 0; b < buckets.length; b++) {
+            seen += buckets[b];
+            if (seen >= rank) {
+                return Math.min(upperBoundOf(b), max);
+            }
+        }
+        return max;
+    }
+}
@@ -0,0 +1,51 @@
+package patterns.creational.assessment.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Point-in-time view of a {@link LatencyHistogram}. All values are in nanoseconds.
+ */
+public final class LatencySnapshot {
+    private final long count;
+    private final long totalNanos;
+    private final long max;
+    private final long p50;
+    private final long p90;
+    private final long p99;
+    private final long p999;
+
+    LatencySnapshot(long count, long totalNanos, long max, long p50, long p90, long p99, long p999) {
+        this.count = count;
+        this.totalNanos = totalNanos;
+        this.max = max;
+        this.p50 = p50;
+        this.p90 = p90;
+        this.p99 = p99;
+        this.p999 = p999;
+    }
+
+    public long getCount() { return count; }
+    public long getMax() { return max; }
+    public long getP50() { return p50; }
+    public long getP90() { return p90; }
+    public long getP99() { return p99; }
+    public long getP999() { return p999; }
+
+    public double getMean() {
+        return count == 0 ? 0 : (double) totalNanos / count;
+    }
+
+    @Override
+    public String toString() {
+        return "count=" + count
+                + ", mean=" + micros((long) getMean())
+                + ", p50=" + micros(p50)
+                + ", p99=" + micros(p99)
+                + ", p999=" + micros(p999)
+                + ", max=" + micros(max);
+    }
+
+    private static String micros(long nanos) {
+        return String.format("%.1fus", nanos / (double) TimeUnit.MICROSECONDS.toNanos(1));
+    }
+}
@@ -0,0 +1,32 @@
+package patterns.creational.assessment.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency and outcome counters for one (region, payment method) pair.
+ */
+public class MethodMetrics {
+    private final String region;
+    private final String method;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder success = new LongAdder();
+    private final LongAdder failure = new LongAdder();
+
+    MethodMetrics(String region, String method) {
+        this.region = region;
+        this.method = method;
+    }
+
+    public void record(long nanos, boolean succeeded) {
+        latency.record(nanos);
+        if (succeeded) {
+            success.increment();
+        } else {
+            failure.increment();
+        }
+    }
+
+    public PaymentStats snapshot() {
+        return new PaymentStats(region, method, success.sum(), failure.sum(), latency.snapshot());
+    }
+}
@@ -0,0 +1,48 @@
+package patterns.creational.assessment.metrics;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Periodically pulls a snapshot from {@link PaymentMetrics} and hands it to a sink
+ * (stdout, a log, a metrics backend). Runs on its own daemon thread, off the payment path.
+ */
+public class MetricsReporter implements AutoCloseable {
+    private final PaymentMetrics metrics;
+    private final Consumer<List<PaymentStats>> sink;
+    private final ScheduledExecutorService scheduler;
+
+    public MetricsReporter(PaymentMetrics metrics, Consumer<List<PaymentStats>> sink) {
+        this.metrics = metrics;
+        this.sink = sink;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "payment-metrics-reporter");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public static MetricsReporter toStdout(PaymentMetrics metrics) {
+        return new MetricsReporter(metrics, stats -> stats.forEach(System.out::println));
+    }
+
+    public void start(long period, TimeUnit unit) {
+        scheduler.scheduleAtFixedRate(this::report, period, period, unit);
+    }
+
+    public void report() {
+        try {
+            sink.accept(metrics.snapshot());
+        } catch (RuntimeException ex) {
+            System.err.println("Error reporting payment metrics: " + ex.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+}
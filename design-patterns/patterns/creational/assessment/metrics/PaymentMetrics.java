@@ -0,0 +1,45 @@
+package patterns.creational.assessment.metrics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of per region / per method payment metrics - the pull API.
+ *
+ * The hot path is two ConcurrentHashMap reads (no allocation once a pair has been seen),
+ * then striped counter updates in {@link MethodMetrics}. Payments without a region or method
+ * are counted under {@link #UNKNOWN}.
+ */
+public class PaymentMetrics {
+    public static final String UNKNOWN = "UNKNOWN";
+
+    private final Map<String, Map<String, MethodMetrics>> byRegion = new ConcurrentHashMap<>();
+
+    public MethodMetrics forMethod(String region, String method) {
+        String regionKey = region == null ? UNKNOWN : region;
+        String methodKey = method == null ? UNKNOWN : method;
+        Map<String, MethodMetrics> methods = byRegion.get(regionKey);
+        if (methods == null) {
+            methods = byRegion.computeIfAbsent(regionKey, r -> new ConcurrentHashMap<>());
+        }
+        MethodMetrics metrics = methods.get(methodKey);
+        if (metrics == null) {
+            metrics = methods.computeIfAbsent(methodKey, m -> new MethodMetrics(regionKey, m));
+        }
+        return metrics;
+    }
+
+    public List<PaymentStats> snapshot() {
+        List<PaymentStats> stats = new ArrayList<>();
+        for (Map<String, MethodMetrics> methods : byRegion.values()) {
+            for (MethodMetrics metrics : methods.values()) {
+                stats.add(metrics.snapshot());
+            }
+        }
+        stats.sort(Comparator.comparing(PaymentStats::getRegion).thenComparing(PaymentStats::getMethod));
+        return stats;
+    }
+}
@@ -0,0 +1,29 @@
+package patterns.creational.assessment.metrics;
+
+public final class PaymentStats {
+    private final String region;
+    private final String method;
+    private final long success;
+    private final long failure;
+    private final LatencySnapshot latency;
+
+    PaymentStats(String region, String method, long success, long failure, LatencySnapshot latency) {
+        this.region = region;
+        this.method = method;
+        this.success = success;
+        this.failure = failure;
+        this.latency = latency;
+    }
+
+    public String getRegion() { return region; }
+    public String getMethod() { return method; }
+    public long getSuccess() { return success; }
+    public long getFailure() { return failure; }
+    public LatencySnapshot getLatency() { return latency; }
+
+    @Override
+    public String toString() {
+        return "PaymentStats [region=" + region + ", method=" + method
+                + ", success=" + success + ", failure=" + failure + ", " + latency + "]";
+    }
+}
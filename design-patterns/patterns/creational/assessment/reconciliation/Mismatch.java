@@ -0,0 +1,50 @@
+package patterns.creational.assessment.reconciliation;
+
+/**
+ * One reconciliation break. Amounts are in minor units (paise / cents); currencies are
+ * packed 3-letter codes, see {@link PaymentRecords#currencyName(int)}.
+ */
+public final class Mismatch {
+    public enum Type {
+        MISSING_IN_SETTLEMENT,
+        MISSING_IN_PROCESSED,
+        AMOUNT_MISMATCH,
+        CURRENCY_MISMATCH,
+        DUPLICATE_PROCESSED,
+        DUPLICATE_SETTLEMENT
+    }
+
+    private final Type type;
+    private final long paymentId;
+    private final long processedAmount;
+    private final long settledAmount;
+    private final int processedCurrency;
+    private final int settledCurrency;
+
+    Mismatch(Type type, long paymentId, long processedAmount, int processedCurrency, long settledAmount, int settledCurrency) {
+        this.type = type;
+        this.paymentId = paymentId;
+        this.processedAmount = processedAmount;
+        this.processedCurrency = processedCurrency;
+        this.settledAmount = settledAmount;
+        this.settledCurrency = settledCurrency;
+    }
+
+    public Type getType() { return type; }
+    public long getPaymentId() { return paymentId; }
+    public long getProcessedAmount() { return processedAmount; }
+    public long getSettledAmount() { return settledAmount; }
+    public int getProcessedCurrency() { return processedCurrency; }
+    public int getSettledCurrency() { return settledCurrency; }
+
+    public String toCsv() {
+        return type + "," + paymentId
+                + "," + PaymentRecords.formatAmount(processedAmount) + "," + PaymentRecords.currencyName(processedCurrency)
+                + "," + PaymentRecords.formatAmount(settledAmount) + "," + PaymentRecords.currencyName(settledCurrency);
+    }
+
+    @Override
+    public String toString() {
+        return "Mismatch [" + toCsv() + "]";
+    }
+}
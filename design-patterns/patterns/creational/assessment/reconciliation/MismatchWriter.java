@@ -0,0 +1,36 @@
+package patterns.creational.assessment.reconciliation;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.Consumer;
+
+/**
+ * Streams mismatches to a CSV file as the engine finds them. Safe to call from several workers.
+ */
+public class MismatchWriter implements Consumer<Mismatch>, AutoCloseable {
+    private final BufferedWriter writer;
+
+    public MismatchWriter(Path output) throws IOException {
+        this.writer = Files.newBufferedWriter(output);
+        writer.write("type,paymentId,processedAmount,processedCurrency,settledAmount,settledCurrency");
+        writer.newLine();
+    }
+
+    @Override
+    public synchronized void accept(Mismatch mismatch) {
+        try {
+            writer.write(mismatch.toCsv());
+            writer.newLine();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        writer.close();
+    }
+}
@@ -0,0 +1,103 @@
+package patterns.creational.assessment.reconciliation;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Open-addressing hash index from payment id (a primitive long) to amount and currency.
+ *
+ * No boxing, no per-entry objects: four parallel arrays sized once and reused for every
+ * partition. Slots are claimed with a CAS on the key so several fork/join workers can insert
+ * at once; amounts and currencies are published to readers by the join that ends the build phase.
+ */
+final class PaymentIdIndex {
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private final AtomicLongArray keys;
+    private final long[] amounts;
+    private final int[] currencies;
+    private final AtomicIntegerArray matched;
+    private final AtomicInteger size = new AtomicInteger();
+    private final int mask;
+    private final int maxSize;
+
+    PaymentIdIndex(int maxEntries) {
+        int capacity = Integer.highestOneBit(Math.max(16, maxEntries) * 2 - 1) << 1;
+        keys = new AtomicLongArray(capacity);
+        amounts = new long[capacity];
+        currencies = new int[capacity];
+        matched = new AtomicIntegerArray(capacity);
+        mask = capacity - 1;
+        maxSize = capacity / 4 * 3;
+        clear();
+    }
+
+    static long mix(long id) {
+        long h = id * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 29);
+    }
+
+    /**
+     * @return false if the id was already present (the first record is kept)
+     */
+    boolean put(long id, long amount, int currency) {
+        int slot = (int) mix(id) & mask;
+        while (true) {
+            long key = keys.get(slot);
+            if (key == EMPTY) {
+                if (keys.compareAndSet(slot, EMPTY, id)) {
+                    amounts[slot] = amount;
+                    currencies[slot] = currency;
+                    if (size.incrementAndGet() > maxSize) {
+                        throw new IllegalStateException("Index overflow - use more partitions");
+                    }
+                    return true;
+                }
+                continue;
+            }
+            if (key == id) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * @return the slot holding id, or -1
+     */
+    int find(long id) {
+        int slot = (int) mix(id) & mask;
+        while (true) {
+            long key = keys.get(slot);
+            if (key == id) {
+                return slot;
+            }
+            if (key == EMPTY) {
+                return -1;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    boolean markMatched(int slot) {
+        return matched.compareAndSet(slot, 0, 1);
+    }
+
+    boolean isUnmatched(int slot) {
+        return keys.get(slot) != EMPTY && matched.get(slot) == 0;
+    }
+
+    long idAt(int slot) { return keys.get(slot); }
+    long amountAt(int slot) { return amounts[slot]; }
+    int currencyAt(int slot) { return currencies[slot]; }
+    int capacity() { return mask + 1; }
+
+    void clear() {
+        for (int i = 0; i <= mask; i++) {
+            keys.set(i, EMPTY);
+            matched.set(i, 0);
+        }
+        size.set(0);
+    }
+}
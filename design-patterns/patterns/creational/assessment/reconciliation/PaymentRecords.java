@@ -0,0 +1,156 @@
+package patterns.creational.assessment.reconciliation;
+
+import java.nio.MappedByteBuffer;
+
+/**
+ * Parsing helpers for the reconciliation file format, one record per line:
+ *
+ * <pre>
+ * paymentId,amount,currency
+ * 1000000042,1499.50,INR
+ * </pre>
+ *
+ * Parsing works directly on mapped bytes: no Strings are created per row. Amounts become
+ * long minor units (two decimals) and currencies a packed int, so matching is exact.
+ */
+final class PaymentRecords {
+    static final int NO_CURRENCY = 0;
+    static final String HEADER = "paymentId,";
+
+    private PaymentRecords() {}
+
+    interface RecordHandler {
+        void accept(long paymentId, long amount, int currency);
+    }
+
+    /**
+     * Parses every line that starts in [from, to) of the buffer. A line that starts before
+     * {@code to} is read to its end, so the buffer must extend past {@code to} by one line.
+     * Blank lines and the {@code paymentId,...} header are skipped.
+     *
+     * @throws IllegalArgumentException for a malformed line, or an amount with more than two
+     *                                  decimals - matching is exact, so it is never rounded
+     */
+    static void parse(MappedByteBuffer buffer, int from, int to, RecordHandler handler) {
+        int limit = buffer.limit();
+        int pos = from;
+        while (pos < to && pos < limit) {
+            int start = pos;
+            int end = start;
+            while (end < limit && buffer.get(end) != '\n') {
+                end++;
+            }
+            pos = end + 1;
+            if (end > start && buffer.get(end - 1) == '\r') {
+                end--;
+            }
+            if (end == start || isHeader(buffer, start, end)) {
+                continue;
+            }
+
+            int i = start;
+            long id = 0;
+            byte b;
+            while (i < end && (b = buffer.get(i)) != ',') {
+                id = id * 10 + digit(buffer, start, b);
+                i++;
+            }
+            if (i == start || i == end) {
+                throw malformed(buffer, start, "no payment id");
+            }
+            i++;
+
+            boolean negative = false;
+            if (i < end && buffer.get(i) == '-') {
+                negative = true;
+                i++;
+            }
+            int amountStart = i;
+            long amount = 0;
+            int decimals = -1;
+            while (i < end && (b = buffer.get(i)) != ',') {
+                if (b == '.' && decimals < 0) {
+                    decimals = 0;
+                } else {
+                    amount = amount * 10 + digit(buffer, start, b);
+                    if (decimals >= 0 && ++decimals > 2) {
+                        throw malformed(buffer, start, "more than two decimals");
+                    }
+                }
+                i++;
+            }
+            if (i == amountStart || i == end) {
+                throw malformed(buffer, start, "no amount");
+            }
+            i++;
+            for (int d = Math.max(decimals, 0); d < 2; d++) {
+                amount *= 10;
+            }
+
+            int currency = 0;
+            for (; i < end; i++) {
+                currency = (currency << 8) | (buffer.get(i) & 0xFF);
+            }
+            handler.accept(id, negative ? -amount : amount, currency);
+        }
+    }
+
+    private static boolean isHeader(MappedByteBuffer buffer, int start, int end) {
+        int length = HEADER.length();
+        if (end - start < length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (buffer.get(start + i) != HEADER.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int digit(MappedByteBuffer buffer, int lineStart, byte b) {
+        if (b < '0' || b > '9') {
+            throw malformed(buffer, lineStart, "unexpected '" + (char) b + "'");
+        }
+        return b - '0';
+    }
+
+    private static IllegalArgumentException malformed(MappedByteBuffer buffer, int start, String reason) {
+        StringBuilder line = new StringBuilder();
+        for (int i = start; i < buffer.limit() && i < start + 80; i++) {
+            char c = (char) buffer.get(i);
+            if (c == '\n' || c == '\r') {
+                break;
+            }
+            line.append(c);
+        }
+        return new IllegalArgumentException("Malformed record (" + reason + ")" + (line.length() > 0 ? ": " + line : ""));
+    }
+
+    static int currencyCode(String currency) {
+        int code = 0;
+        for (int i = 0; i < currency.length(); i++) {
+            code = (code << 8) | (currency.charAt(i) & 0xFF);
+        }
+        return code;
+    }
+
+    static String currencyName(int code) {
+        if (code == NO_CURRENCY) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder(3);
+        for (int shift = 24; shift >= 0; shift -= 8) {
+            int c = (code >>> shift) & 0xFF;
+            if (c != 0) {
+                sb.append((char) c);
+            }
+        }
+        return sb.toString();
+    }
+
+    static String formatAmount(long minor) {
+        long abs = Math.abs(minor);
+        return (minor < 0 ? "-" : "") + abs / 100 + "." + (abs % 100 < 10 ? "0" : "") + abs % 100;
+    }
+}
@@ -0,0 +1,237 @@
+package patterns.creational.assessment.reconciliation;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+
+/**
+ * Reconciles our processed payments against a gateway settlement file.
+ *
+ * Both files are memory-mapped in fixed-size chunks and parsed in parallel on a ForkJoinPool.
+ * The join is a partitioned hash join: payment ids are hashed into P partitions and for each
+ * partition
+ *   1. the processed file is scanned and its rows for that partition go into a {@link PaymentIdIndex},
+ *   2. the settlement file is scanned and probed against the index,
+ *   3. index entries that were never probed are reported as missing in settlement.
+ * P is chosen so one partition fits in maxEntriesPerPartition, so memory stays bounded by the
+ * index size (plus one mapped chunk per worker) however large the files are. Bigger files
+ * just mean more passes over mapped, page-cached data.
+ *
+ * Mismatches are pushed to the sink as they are found, from worker threads - the sink must be thread-safe.
+ */
+public class ReconciliationEngine implements AutoCloseable {
+    static final long CHUNK_SIZE = 16L << 20;
+    private static final int MAX_LINE = 128;
+
+    private final ForkJoinPool pool;
+    private final int maxEntriesPerPartition;
+
+    public ReconciliationEngine() {
+        this(Runtime.getRuntime().availableProcessors(), 2_000_000);
+    }
+
+    public ReconciliationEngine(int parallelism, int maxEntriesPerPartition) {
+        this.pool = new ForkJoinPool(parallelism);
+        this.maxEntriesPerPartition = maxEntriesPerPartition;
+    }
+
+    public ReconciliationSummary reconcile(Path processed, Path settlement, Consumer<Mismatch> sink) throws IOException {
+        long start = System.currentTimeMillis();
+        ReconciliationSummary summary = new ReconciliationSummary();
+
+        try (FileChannel processedChannel = FileChannel.open(processed, StandardOpenOption.READ);
+             FileChannel settlementChannel = FileChannel.open(settlement, StandardOpenOption.READ)) {
+            List<long[]> processedChunks = chunks(processedChannel.size());
+            List<long[]> settlementChunks = chunks(settlementChannel.size());
+
+            long processedRows = pool.invoke(new ChunkTask(processedChannel, processedChunks, 0, processedChunks.size(),
+                    (buffer, from, to) -> countLines(buffer, from, to)));
+            int partitions = (int) Math.max(1, (processedRows + maxEntriesPerPartition - 1) / maxEntriesPerPartition);
+            summary.setPartitions(partitions);
+
+            PaymentIdIndex index = new PaymentIdIndex((int) Math.min(maxEntriesPerPartition,
+                    processedRows / partitions + processedRows / partitions / 8 + 16));
+
+            for (int p = 0; p < partitions; p++) {
+                if (p > 0) {
+                    index.clear();
+                }
+                int partition = p;
+                long built = pool.invoke(new ChunkTask(processedChannel, processedChunks, 0, processedChunks.size(),
+                        (buffer, from, to) -> build(buffer, from, to, index, partitions, partition, summary, sink)));
+                long probed = pool.invoke(new ChunkTask(settlementChannel, settlementChunks, 0, settlementChunks.size(),
+                        (buffer, from, to) -> probe(buffer, from, to, index, partitions, partition, summary, sink)));
+                sweep(index, summary, sink);
+                summary.addProcessed(built);
+                summary.addSettled(probed);
+            }
+        }
+        summary.setElapsedMillis(System.currentTimeMillis() - start);
+        return summary;
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    static int partitionOf(long id, int partitions) {
+        return (int) ((PaymentIdIndex.mix(id) >>> 40) % partitions);
+    }
+
+    private static long build(MappedByteBuffer buffer, int from, int to, PaymentIdIndex index,
+                              int partitions, int partition, ReconciliationSummary summary, Consumer<Mismatch> sink) {
+        long[] rows = {0};
+        PaymentRecords.parse(buffer, from, to, (id, amount, currency) -> {
+            if (partitionOf(id, partitions) != partition) {
+                return;
+            }
+            rows[0]++;
+            if (!index.put(id, amount, currency)) {
+                report(summary, sink, new Mismatch(Mismatch.Type.DUPLICATE_PROCESSED, id,
+                        amount, currency, 0, PaymentRecords.NO_CURRENCY));
+            }
+        });
+        return rows[0];
+    }
+
+    private static long probe(MappedByteBuffer buffer, int from, int to, PaymentIdIndex index,
+                              int partitions, int partition, ReconciliationSummary summary, Consumer<Mismatch> sink) {
+        long[] rows = {0};
+        long[] matched = {0};
+        PaymentRecords.parse(buffer, from, to, (id, amount, currency) -> {
+            if (partitionOf(id, partitions) != partition) {
+                return;
+            }
+            rows[0]++;
+            int slot = index.find(id);
+            if (slot < 0) {
+                report(summary, sink, new Mismatch(Mismatch.Type.MISSING_IN_PROCESSED, id,
+                        0, PaymentRecords.NO_CURRENCY, amount, currency));
+            } else if (!index.markMatched(slot)) {
+                report(summary, sink, new Mismatch(Mismatch.Type.DUPLICATE_SETTLEMENT, id,
+                        index.amountAt(slot), index.currencyAt(slot), amount, currency));
+            } else if (index.currencyAt(slot) != currency) {
+                report(summary, sink, new Mismatch(Mismatch.Type.CURRENCY_MISMATCH, id,
+                        index.amountAt(slot), index.currencyAt(slot), amount, currency));
+            } else if (index.amountAt(slot) != amount) {
+                report(summary, sink, new Mismatch(Mismatch.Type.AMOUNT_MISMATCH, id,
+                        index.amountAt(slot), index.currencyAt(slot), amount, currency));
+            } else {
+                matched[0]++;
+            }
+        });
+        summary.addMatched(matched[0]);
+        return rows[0];
+    }
+
+    private static void sweep(PaymentIdIndex index, ReconciliationSummary summary, Consumer<Mismatch> sink) {
+        for (int slot = 0; slot < index.capacity(); slot++) {
+            if (index.isUnmatched(slot)) {
+                report(summary, sink, new Mismatch(Mismatch.Type.MISSING_IN_SETTLEMENT, index.idAt(slot),
+                        index.amountAt(slot), index.currencyAt(slot), 0, PaymentRecords.NO_CURRENCY));
+            }
+        }
+    }
+
+    private static void report(ReconciliationSummary summary, Consumer<Mismatch> sink, Mismatch mismatch) {
+        summary.addMismatch(mismatch.getType());
+        sink.accept(mismatch);
+    }
+
+    private static long countLines(MappedByteBuffer buffer, int from, int to) {
+        long lines = 0;
+        int limit = buffer.limit();
+        for (int i = from; i < to && i < limit; i++) {
+            if (buffer.get(i) == '\n') {
+                lines++;
+            }
+        }
+        // Last line of the file without a trailing newline
+        if (to >= limit && limit > from && buffer.get(limit - 1) != '\n') {
+            lines++;
+        }
+        return lines;
+    }
+
+    static List<long[]> chunks(long size) {
+        List<long[]> chunks = new ArrayList<>();
+        for (long start = 0; start < size; start += CHUNK_SIZE) {
+            chunks.add(new long[] {start, Math.min(size, start + CHUNK_SIZE)});
+        }
+        return chunks;
+    }
+
+    interface ChunkVisitor {
+        long visit(MappedByteBuffer buffer, int from, int to);
+    }
+
+    /**
+     * Splits a range of chunks in half until one chunk is left, then maps and visits it.
+     */
+    private static class ChunkTask extends RecursiveTask<Long> {
+        private static final long serialVersionUID = 1L;
+
+        private final FileChannel channel;
+        private final List<long[]> chunks;
+        private final int lo;
+        private final int hi;
+        private final ChunkVisitor visitor;
+
+        ChunkTask(FileChannel channel, List<long[]> chunks, int lo, int hi, ChunkVisitor visitor) {
+            this.channel = channel;
+            this.chunks = chunks;
+            this.lo = lo;
+            this.hi = hi;
+            this.visitor = visitor;
+        }
+
+        @Override
+        protected Long compute() {
+            if (hi - lo > 1) {
+                int mid = (lo + hi) >>> 1;
+                ChunkTask left = new ChunkTask(channel, chunks, lo, mid, visitor);
+                left.fork();
+                long right = new ChunkTask(channel, chunks, mid, hi, visitor).compute();
+                return left.join() + right;
+            }
+            if (hi == lo) {
+                return 0L;
+            }
+            try {
+                return visitChunk(chunks.get(lo));
+            } catch (IOException ex) {
+                throw new IllegalStateException("Failed to map chunk at " + chunks.get(lo)[0], ex);
+            }
+        }
+
+        /**
+         * Handles lines that start inside [start, end). The mapping starts one byte early, to see
+         * whether start is at a line boundary, and runs past end so the last line can be finished.
+         */
+        private long visitChunk(long[] chunk) throws IOException {
+            long start = chunk[0];
+            long end = chunk[1];
+            long mapStart = Math.max(0, start - 1);
+            long mapEnd = Math.min(channel.size(), end + MAX_LINE);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, mapStart, mapEnd - mapStart);
+
+            int from = (int) (start - mapStart);
+            int to = (int) (end - mapStart);
+            if (start > 0 && buffer.get(0) != '\n') {
+                while (from < buffer.limit() && buffer.get(from) != '\n') {
+                    from++;
+                }
+                from++;
+            }
+            return from >= to ? 0 : visitor.visit(buffer, from, to);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package patterns.creational.assessment.reconciliation;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Runs a reconciliation. With no arguments it generates synthetic files first and checks the
+ * result against the injected breaks, then checks a few hand-written files: a header line, CRLF
+ * line ends and blank lines must not count as payments, and an amount with three decimals must
+ * be rejected.
+ *
+ * Usage: ReconciliationJob [processed.csv settlement.csv mismatches.csv]
+ */
+public class ReconciliationJob {
+    public static void main(String[] args) throws IOException {
+        if (args.length == 3) {
+            run(Path.of(args[0]), Path.of(args[1]), Path.of(args[2]), 2_000_000);
+            return;
+        }
+
+        Path dir = Files.createTempDirectory("reconciliation");
+        Path processed = dir.resolve("processed.csv");
+        Path settlement = dir.resolve("settlement.csv");
+        int rows = 2_000_000;
+
+        long start = System.currentTimeMillis();
+        SettlementDataGenerator.Expected expected = SettlementDataGenerator.generate(processed, settlement, rows, 1.0, 42);
+        System.out.println("Generated " + rows + " rows in " + (System.currentTimeMillis() - start) + "ms: " + expected);
+
+        // Small partitions on purpose, to exercise the multi-pass join
+        ReconciliationSummary summary = run(processed, settlement, dir.resolve("mismatches.csv"), 500_000);
+        boolean ok = summary.getProcessed() == expected.processed
+                && summary.getSettled() == expected.settled
+                && summary.getMatched() == expected.matched
+                && summary.getMismatches(Mismatch.Type.MISSING_IN_SETTLEMENT) == expected.missingInSettlement
+                && summary.getMismatches(Mismatch.Type.MISSING_IN_PROCESSED) == expected.missingInProcessed
+                && summary.getMismatches(Mismatch.Type.AMOUNT_MISMATCH) == expected.amountMismatch
+                && summary.getMismatches(Mismatch.Type.CURRENCY_MISMATCH) == expected.currencyMismatch;
+        System.out.println(ok ? "Matches the injected breaks" : "DOES NOT match the injected breaks");
+
+        Path headed = dir.resolve("headed.csv");
+        Files.writeString(headed, "paymentId,amount,currency\r\n1,10.00,INR\r\n\r\n2,5.5,USD\r\n3,-7,EUR\r\n\r\n");
+        Path plain = dir.resolve("plain.csv");
+        Files.writeString(plain, "3,-7.00,EUR\n1,10,INR\n2,5.50,USD\n\n");
+        ReconciliationSummary identical = run(headed, plain, dir.resolve("identical-mismatches.csv"), 500_000);
+        boolean clean = identical.getProcessed() == 3 && identical.getSettled() == 3 && identical.getMatched() == 3;
+        for (Mismatch.Type type : Mismatch.Type.values()) {
+            clean &= identical.getMismatches(type) == 0;
+        }
+        System.out.println(clean ? "Header, CRLF and blank lines ignored" : "DOES NOT ignore header, CRLF or blank lines");
+
+        Path tooPrecise = dir.resolve("too-precise.csv");
+        Files.writeString(tooPrecise, "1,10.005,INR\n");
+        try {
+            run(tooPrecise, plain, dir.resolve("too-precise-mismatches.csv"), 500_000);
+            System.out.println("DOES NOT reject an amount with three decimals");
+        } catch (IllegalArgumentException e) {
+            System.out.println("Rejected: " + e.getMessage());
+        }
+    }
+
+    private static ReconciliationSummary run(Path processed, Path settlement, Path output, int maxEntriesPerPartition) throws IOException {
+        try (MismatchWriter writer = new MismatchWriter(output);
+             ReconciliationEngine engine = new ReconciliationEngine(Runtime.getRuntime().availableProcessors(), maxEntriesPerPartition)) {
+            ReconciliationSummary summary = engine.reconcile(processed, settlement, writer);
+            System.out.println(summary);
+            System.out.println("Mismatches written to " + output);
+            return summary;
+        }
+    }
+}
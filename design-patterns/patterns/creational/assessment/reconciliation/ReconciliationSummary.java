@@ -0,0 +1,46 @@
+package patterns.creational.assessment.reconciliation;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+public class ReconciliationSummary {
+    private final LongAdder processed = new LongAdder();
+    private final LongAdder settled = new LongAdder();
+    private final LongAdder matched = new LongAdder();
+    private final Map<Mismatch.Type, LongAdder> mismatches = new EnumMap<>(Mismatch.Type.class);
+    private int partitions;
+    private long elapsedMillis;
+
+    ReconciliationSummary() {
+        for (Mismatch.Type type : Mismatch.Type.values()) {
+            mismatches.put(type, new LongAdder());
+        }
+    }
+
+    void addProcessed(long rows) { processed.add(rows); }
+    void addSettled(long rows) { settled.add(rows); }
+    void addMatched(long rows) { matched.add(rows); }
+    void addMismatch(Mismatch.Type type) { mismatches.get(type).increment(); }
+    void setPartitions(int partitions) { this.partitions = partitions; }
+    void setElapsedMillis(long elapsedMillis) { this.elapsedMillis = elapsedMillis; }
+
+    public long getProcessed() { return processed.sum(); }
+    public long getSettled() { return settled.sum(); }
+    public long getMatched() { return matched.sum(); }
+    public long getMismatches(Mismatch.Type type) { return mismatches.get(type).sum(); }
+    public int getPartitions() { return partitions; }
+    public long getElapsedMillis() { return elapsedMillis; }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("ReconciliationSummary [processed=").append(getProcessed())
+                .append(", settled=").append(getSettled())
+                .append(", matched=").append(getMatched());
+        for (Mismatch.Type type : Mismatch.Type.values()) {
+            sb.append(", ").append(type).append('=').append(getMismatches(type));
+        }
+        return sb.append(", partitions=").append(partitions)
+                .append(", elapsed=").append(elapsedMillis).append("ms]").toString();
+    }
+}
@@ -0,0 +1,112 @@
+package patterns.creational.assessment.reconciliation;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+/**
+ * Generates a processed-payments file and a matching settlement file with a known number of
+ * injected breaks, so a reconciliation run can be checked against {@link Expected}.
+ *
+ * The settlement file lists payments in a different (permuted) order, like a real gateway export.
+ */
+public class SettlementDataGenerator {
+    private static final String[] CURRENCIES = {"INR", "USD", "EUR", "GBP", "SGD"};
+    private static final long FIRST_ID = 1_000_000_000L;
+
+    public static class Expected {
+        public long processed;
+        public long settled;
+        public long matched;
+        public long missingInSettlement;
+        public long missingInProcessed;
+        public long amountMismatch;
+        public long currencyMismatch;
+
+        @Override
+        public String toString() {
+            return "Expected [processed=" + processed + ", settled=" + settled + ", matched=" + matched
+                    + ", MISSING_IN_SETTLEMENT=" + missingInSettlement + ", MISSING_IN_PROCESSED=" + missingInProcessed
+                    + ", AMOUNT_MISMATCH=" + amountMismatch + ", CURRENCY_MISMATCH=" + currencyMismatch + "]";
+        }
+    }
+
+    /**
+     * @param rows         payments in the processed file
+     * @param breakPercent roughly how many rows (in percent) get a break of some kind
+     */
+    public static Expected generate(Path processed, Path settlement, int rows, double breakPercent, long seed) throws IOException {
+        Expected expected = new Expected();
+        double breakRate = breakPercent / 100;
+
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(processed), 1 << 16)) {
+            for (int i = 0; i < rows; i++) {
+                Row row = row(i, seed);
+                write(out, FIRST_ID + i, row.amount, row.currency);
+                expected.processed++;
+            }
+        }
+
+        // Visit rows in a permuted order: i = (j * step) mod rows, with step coprime to rows
+        long step = 1_000_003L;
+        while (gcd(step, rows) != 1) {
+            step += 2;
+        }
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(settlement), 1 << 16)) {
+            for (long j = 0; j < rows; j++) {
+                int i = (int) ((j * step) % rows);
+                Row row = row(i, seed);
+                SplittableRandom fate = new SplittableRandom(seed * 31 + i);
+                double roll = fate.nextDouble();
+                if (roll < breakRate / 4) {
+                    expected.missingInSettlement++;
+                    continue;
+                }
+                if (roll < breakRate / 2) {
+                    write(out, FIRST_ID + i, row.amount + 1 + fate.nextInt(500), row.currency);
+                    expected.amountMismatch++;
+                } else if (roll < breakRate * 3 / 4) {
+                    write(out, FIRST_ID + i, row.amount, (row.currency + 1) % CURRENCIES.length);
+                    expected.currencyMismatch++;
+                } else {
+                    write(out, FIRST_ID + i, row.amount, row.currency);
+                    expected.matched++;
+                }
+                expected.settled++;
+                if (roll >= breakRate * 3 / 4 && roll < breakRate) {
+                    // A settlement for a payment we never processed
+                    write(out, FIRST_ID + rows + i, row.amount, row.currency);
+                    expected.missingInProcessed++;
+                    expected.settled++;
+                }
+            }
+        }
+        return expected;
+    }
+
+    private static class Row {
+        long amount;
+        int currency;
+    }
+
+    private static Row row(int i, long seed) {
+        SplittableRandom random = new SplittableRandom(seed ^ (i * 0x9E3779B97F4A7C15L));
+        Row row = new Row();
+        row.amount = 100 + random.nextLong(10_000_000);
+        row.currency = random.nextInt(CURRENCIES.length);
+        return row;
+    }
+
+    private static void write(OutputStream out, long id, long amountMinor, int currency) throws IOException {
+        String line = id + "," + PaymentRecords.formatAmount(amountMinor) + "," + CURRENCIES[currency] + "\n";
+        out.write(line.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static long gcd(long a, long b) {
+        return b == 0 ? a : gcd(b, a % b);
+    }
+}
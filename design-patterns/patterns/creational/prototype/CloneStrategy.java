@@ -0,0 +1,24 @@
+package patterns.creational.prototype;
+
+/**
+ * How much of a {@link Document} a copy gets of its own.
+ */
+enum CloneStrategy {
+    /**
+     * Shares the metadata and sections with the source: a change to either shows in both, except
+     * to parts a copy-on-write copy or a registry template also holds, which are copied first.
+     * What {@link Document#clone()} does. Cheapest, for copies that are only read.
+     */
+    SHALLOW,
+    /**
+     * Copies the metadata and every section up front.
+     */
+    DEEP,
+    /**
+     * Shares everything until the first change, then copies only what the change touches: the
+     * metadata when it changes, the section list when any section changes, and a section when
+     * that section is edited. The source, and any shallow copy sharing with it, copies before
+     * its own next change as well.
+     */
+    COPY_ON_WRITE
+}
@@ -0,0 +1,167 @@
+package patterns.creational.prototype;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A titled document with metadata and sections, copied with one of the {@link CloneStrategy}s.
+ *
+ * Every change goes through the document, which never writes to anything marked shared: it
+ * copies the metadata map, the section list or the one section being edited first. The mark is
+ * on the shared objects themselves, not on the documents holding them, so every holder sees it -
+ * the source of a copy-on-write copy and any shallow copy taken earlier included. Marking is
+ * permanent; a document that holds only shared parts is never written, so any number of threads
+ * can copy it at once - which is how {@link PrototypeRegistry} keeps its templates.
+ */
+class Document implements Prototype {
+    private String title;
+    private Part<Map<String, String>> metadata;
+    private Part<List<Section>> sections;
+
+    public Document(String title) {
+        this.title = title;
+        this.metadata = new Part<>(new LinkedHashMap<>());
+        this.sections = new Part<>(new ArrayList<>());
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public void putMetadata(String key, String value) {
+        if (metadata.shared) {
+            metadata = new Part<>(new LinkedHashMap<>(metadata.value));
+        }
+        metadata.value.put(key, value);
+    }
+
+    /**
+     * @return the index of the new section
+     */
+    public int addSection(String heading) {
+        List<Section> list = ownSectionList();
+        list.add(new Section(heading));
+        return list.size() - 1;
+    }
+
+    public void removeSection(int index) {
+        ownSectionList().remove(index);
+    }
+
+    public void setHeading(int section, String heading) {
+        ownSection(section).setHeading(heading);
+    }
+
+    public void addParagraph(int section, String text) {
+        ownSection(section).addParagraph(text);
+    }
+
+    public void setParagraph(int section, int paragraph, String text) {
+        ownSection(section).setParagraph(paragraph, text);
+    }
+
+    private List<Section> ownSectionList() {
+        if (sections.shared) {
+            // The sections in it stay marked, so each is copied when first edited
+            sections = new Part<>(new ArrayList<>(sections.value));
+        }
+        return sections.value;
+    }
+
+    private Section ownSection(int index) {
+        List<Section> list = ownSectionList();
+        Section section = list.get(index);
+        if (section.isShared()) {
+            section = section.copy();
+            list.set(index, section);
+        }
+        return section;
+    }
+
+    /**
+     * Marks everything this document holds shared. A shared section list is never changed
+     * again, and its sections were marked with it, so this writes nothing if the list already is.
+     */
+    void markShared() {
+        metadata.markShared();
+        if (!sections.shared) {
+            for (Section section : sections.value) {
+                section.markShared();
+            }
+            sections.markShared();
+        }
+    }
+
+    public Document copy(CloneStrategy strategy) {
+        switch (strategy) {
+            case SHALLOW:
+                return (Document) clone();
+            case DEEP:
+                Document deep = (Document) clone();
+                deep.metadata = new Part<>(new LinkedHashMap<>(metadata.value));
+                List<Section> copies = new ArrayList<>(sections.value.size());
+                for (Section section : sections.value) {
+                    copies.add(section.copy());
+                }
+                deep.sections = new Part<>(copies);
+                return deep;
+            default:
+                markShared();
+                return (Document) clone();
+        }
+    }
+
+    /**
+     * A shallow copy: the metadata and sections stay shared with this document.
+     */
+    public Prototype clone() {
+        try {
+            return (Document) super.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public Map<String, String> getMetadata() {
+        return Collections.unmodifiableMap(metadata.value);
+    }
+
+    public List<Section> getSections() {
+        return Collections.unmodifiableList(sections.value);
+    }
+
+    public Section getSection(int index) {
+        return sections.value.get(index);
+    }
+
+    @Override
+    public String toString() {
+        return "Document [title=" + title + ", sections=" + sections.value.size() + "]";
+    }
+
+    /**
+     * A metadata map or section list, and whether documents must copy it before changing it.
+     */
+    private static final class Part<T> {
+        final T value;
+        boolean shared;
+
+        Part(T value) {
+            this.value = value;
+        }
+
+        void markShared() {
+            // Only reads once marked, so threads copying a template never write to it
+            if (!shared) {
+                shared = true;
+            }
+        }
+    }
+}
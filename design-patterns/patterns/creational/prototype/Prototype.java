@@ -0,0 +1,5 @@
+package patterns.creational.prototype;
+
+interface Prototype extends Cloneable {
+    Prototype clone();
+}
@@ -1,32 +1,5 @@
 package patterns.creational.prototype;
 
-interface Prototype extends Cloneable {
-    Prototype clone();
-}
-
-class Document implements Prototype {
-    private String title;
-    public Document(String title) {
-        this.title = title;
-    }
-
-    public void setTitle(String title) {
-        this.title = title;
-    }
-
-    public Prototype clone() {
-        try {
-            return (Document) super.clone();
-        } catch (CloneNotSupportedException e) {
-            throw new RuntimeException(e);
-        }
-    }
-
-    @Override
-    public String toString() {
-        return "Document [title=" + title + "]";
-    }
-}
 public class PrototypeExample {
     public static void main(String[] args) {
         Document document = new Document("Document");
@@ -35,5 +8,24 @@ public class PrototypeExample {
         System.out.println(document);
         System.out.println(clone);
 
+        // Templates by name, each copy sharing the template's sections until it edits one
+        Document contract = new Document("Rental Contract");
+        contract.putMetadata("version", "3");
+        for (int i = 1; i <= 3; i++) {
+            int section = contract.addSection("Clause " + i);
+            contract.addParagraph(section, "Standard wording of clause " + i + ".");
+        }
+        PrototypeRegistry registry = new PrototypeRegistry();
+        registry.register("contract", contract);
+
+        Document forAlice = registry.create("contract");
+        forAlice.setTitle("Rental Contract - Alice");
+        forAlice.setParagraph(1, 0, "Clause 2, amended for Alice.");
+        Document forBob = registry.create("contract", CloneStrategy.DEEP);
+        forBob.setTitle("Rental Contract - Bob");
+        System.out.println(forAlice + ": " + forAlice.getSection(1).getParagraphs());
+        System.out.println(forBob + ": " + forBob.getSection(1).getParagraphs());
+        System.out.println("Template untouched: " + registry.create("contract").getSection(1).getParagraphs());
+        System.out.println("Clause 1 still shared: " + (forAlice.getSection(0) == registry.create("contract").getSection(0)));
     }
 }
@@ -0,0 +1,54 @@
+package patterns.creational.prototype;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Document templates by name, each new document a copy of its template.
+ *
+ * A registered template is deep-copied and marked all shared, so later changes to the document
+ * passed in never reach the template, and copying it - with any strategy, from any number of
+ * threads - never writes to it. Copies of a template copy what they change before changing it,
+ * whatever the strategy: a shallow copy of a template costs the same as a copy-on-write one.
+ */
+class PrototypeRegistry {
+    private final ConcurrentHashMap<String, Document> templates = new ConcurrentHashMap<>();
+    private final CloneStrategy defaultStrategy;
+
+    public PrototypeRegistry() {
+        this(CloneStrategy.COPY_ON_WRITE);
+    }
+
+    public PrototypeRegistry(CloneStrategy defaultStrategy) {
+        this.defaultStrategy = defaultStrategy;
+    }
+
+    /**
+     * Registers a copy of the document, replacing any template of the same name.
+     */
+    public void register(String name, Document template) {
+        Document frozen = template.copy(CloneStrategy.DEEP);
+        frozen.markShared();
+        templates.put(name, frozen);
+    }
+
+    public boolean unregister(String name) {
+        return templates.remove(name) != null;
+    }
+
+    public Document create(String name) {
+        return create(name, defaultStrategy);
+    }
+
+    public Document create(String name, CloneStrategy strategy) {
+        Document template = templates.get(name);
+        if (template == null) {
+            throw new IllegalArgumentException("Unknown template: " + name);
+        }
+        return template.copy(strategy);
+    }
+
+    public Set<String> names() {
+        return templates.keySet();
+    }
+}
@@ -0,0 +1,64 @@
+package patterns.creational.prototype;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A heading and its paragraphs. Only a {@link Document} changes a section, and never one marked
+ * shared: it edits a copy instead.
+ */
+class Section {
+    private String heading;
+    private final List<String> paragraphs;
+    private boolean shared;
+
+    Section(String heading) {
+        this(heading, new ArrayList<>());
+    }
+
+    private Section(String heading, List<String> paragraphs) {
+        this.heading = heading;
+        this.paragraphs = paragraphs;
+    }
+
+    /**
+     * An unshared copy.
+     */
+    Section copy() {
+        return new Section(heading, new ArrayList<>(paragraphs));
+    }
+
+    boolean isShared() {
+        return shared;
+    }
+
+    void markShared() {
+        shared = true;
+    }
+
+    void setHeading(String heading) {
+        this.heading = heading;
+    }
+
+    void addParagraph(String text) {
+        paragraphs.add(text);
+    }
+
+    void setParagraph(int index, String text) {
+        paragraphs.set(index, text);
+    }
+
+    public String getHeading() {
+        return heading;
+    }
+
+    public List<String> getParagraphs() {
+        return Collections.unmodifiableList(paragraphs);
+    }
+
+    @Override
+    public String toString() {
+        return "Section [heading=" + heading + ", paragraphs=" + paragraphs.size() + "]";
+    }
+}
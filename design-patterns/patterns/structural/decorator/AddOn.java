@@ -0,0 +1,33 @@
+package patterns.structural.decorator;
+
+/**
+ * The add-ons on the menu, in the order a priced order lists them.
+ *
+ * The ordinal is the add-on's slot in a {@link CoffeeOrders} order and in a {@link PriceTable},
+ * so new add-ons go at the end and existing ones are never reordered.
+ */
+enum AddOn {
+    MILK("Milk"),
+    SUGAR("Sugar"),
+    CREAM("Cream");
+
+    private static final AddOn[] ALL = values();
+
+    private final String label;
+
+    AddOn(String label) {
+        this.label = label;
+    }
+
+    static AddOn of(int id) {
+        return ALL[id];
+    }
+
+    static int count() {
+        return ALL.length;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+}
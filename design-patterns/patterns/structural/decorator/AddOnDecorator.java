@@ -0,0 +1,26 @@
+package patterns.structural.decorator;
+
+/**
+ * The decorator for any {@link AddOn}, at a price taken from a {@link PriceTable} when the chain
+ * is built. MilkDecorator, SugarDecorator and CreamDecorator are this with the default prices.
+ */
+class AddOnDecorator extends CoffeeDecorator {
+    private final AddOn addOn;
+    private final int price;
+
+    AddOnDecorator(Coffee coffee, AddOn addOn, int price) {
+        super(coffee);
+        this.addOn = addOn;
+        this.price = price;
+    }
+
+    @Override
+    public String getDescription() {
+        return coffee.getDescription() + ", " + addOn.getLabel();
+    }
+
+    @Override
+    public double getCost() {
+        return coffee.getCost() + price;
+    }
+}
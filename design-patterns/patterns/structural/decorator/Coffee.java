@@ -0,0 +1,7 @@
+package patterns.structural.decorator;
+
+interface Coffee {
+    String getDescription();
+
+    double getCost();
+}
@@ -0,0 +1,17 @@
+package patterns.structural.decorator;
+
+abstract class CoffeeDecorator implements Coffee {
+    protected final Coffee coffee;
+
+    public CoffeeDecorator(Coffee coffee) {
+        this.coffee = coffee;
+    }
+
+    public String getDescription() {
+        return coffee.getDescription();
+    }
+
+    public double getCost() {
+        return coffee.getCost();
+    }
+}
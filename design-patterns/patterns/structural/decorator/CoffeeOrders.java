@@ -0,0 +1,79 @@
+package patterns.structural.decorator;
+
+/**
+ * Orders packed into a long: four bits per {@link AddOn}, holding how many of it the order has
+ * (0 to 15), with add-on 0 in the lowest bits. A coffee with two milks and a sugar is
+ * {@code 0x012}. Arrays of orders are plain long[], with no object per order or per add-on.
+ */
+final class CoffeeOrders {
+    static final int MAX_COUNT = 15;
+    static final int BITS_PER_ADD_ON = 4;
+    static final long PLAIN = 0;
+
+    static {
+        if (AddOn.count() * BITS_PER_ADD_ON > Long.SIZE) {
+            throw new ExceptionInInitializerError("Too many add-ons for a long order: " + AddOn.count());
+        }
+    }
+
+    private CoffeeOrders() {
+    }
+
+    public static long of(AddOn... addOns) {
+        long order = PLAIN;
+        for (AddOn addOn : addOns) {
+            order = add(order, addOn);
+        }
+        return order;
+    }
+
+    public static long add(long order, AddOn addOn) {
+        if (count(order, addOn) == MAX_COUNT) {
+            throw new IllegalArgumentException("At most " + MAX_COUNT + " of " + addOn.getLabel() + " per coffee");
+        }
+        return order + (1L << addOn.ordinal() * BITS_PER_ADD_ON);
+    }
+
+    public static int count(long order, AddOn addOn) {
+        return (int) (order >>> addOn.ordinal() * BITS_PER_ADD_ON) & MAX_COUNT;
+    }
+
+    /**
+     * Bit i is set if the order has add-on i at all.
+     */
+    public static int mask(long order) {
+        int mask = 0;
+        for (int id = 0; id < AddOn.count(); id++) {
+            if ((order >>> id * BITS_PER_ADD_ON & MAX_COUNT) != 0) {
+                mask |= 1 << id;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * The decorator chain for the order, add-ons wrapped in menu order, each priced from the
+     * table.
+     */
+    public static Coffee toCoffee(long order, PriceTable prices) {
+        Coffee coffee = new PricedCoffee(prices.getBasePrice());
+        for (int id = 0; id < AddOn.count(); id++) {
+            AddOn addOn = AddOn.of(id);
+            for (int i = count(order, addOn); i > 0; i--) {
+                coffee = new AddOnDecorator(coffee, addOn, prices.price(addOn));
+            }
+        }
+        return coffee;
+    }
+
+    public static String describe(long order) {
+        StringBuilder description = new StringBuilder("Simple Coffee");
+        for (int id = 0; id < AddOn.count(); id++) {
+            AddOn addOn = AddOn.of(id);
+            for (int i = count(order, addOn); i > 0; i--) {
+                description.append(", ").append(addOn.getLabel());
+            }
+        }
+        return description.toString();
+    }
+}
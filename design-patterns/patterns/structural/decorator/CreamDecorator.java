@@ -0,0 +1,17 @@
+package patterns.structural.decorator;
+
+class CreamDecorator extends CoffeeDecorator {
+    public CreamDecorator(Coffee coffee) {
+        super(coffee);
+    }
+
+    @Override
+    public String getDescription() {
+        return coffee.getDescription() + ", Cream";
+    }
+
+    @Override
+    public double getCost() {
+        return coffee.getCost() + 30;
+    }
+}
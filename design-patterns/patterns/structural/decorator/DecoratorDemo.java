@@ -1,87 +1,5 @@
 package patterns.structural.decorator;
 
-interface Coffee {
-    String getDescription();
-
-    double getCost();
-}
-
-class SimpleCoffee implements Coffee {
-    @Override
-    public String getDescription() {
-        return "Simple Coffee";
-    }
-
-    @Override
-    public double getCost() {
-        return 100;
-    }
-}
-
-abstract class CoffeeDecorator implements Coffee {
-    protected final Coffee coffee;
-
-    public CoffeeDecorator(Coffee coffee) {
-        this.coffee = coffee;
-    }
-
-    public String getDescription() {
-        return coffee.getDescription();
-    }
-
-    public double getCost() {
-        return coffee.getCost();
-    }
-}
-
-class MilkDecorator extends CoffeeDecorator {
-    public MilkDecorator(Coffee coffee) {
-        super(coffee);
-    }
-
-    @Override
-    public String getDescription() {
-        return coffee.getDescription() + ", Milk";
-    }
-
-    @Override
-    public double getCost() {
-        return coffee.getCost() + 20;
-    }
-}
-
-class SugarDecorator extends CoffeeDecorator {
-    public SugarDecorator(Coffee coffee) {
-        super(coffee);
-    }
-
-    @Override
-    public String getDescription() {
-        return coffee.getDescription() + ", Sugar";
-    }
-
-    @Override
-    public double getCost() {
-        return coffee.getCost() + 10;
-    }
-}
-
-class CreamDecorator extends CoffeeDecorator {
-    public CreamDecorator(Coffee coffee) {
-        super(coffee);
-    }
-
-    @Override
-    public String getDescription() {
-        return coffee.getDescription() + ", Cream";
-    }
-
-    @Override
-    public double getCost() {
-        return coffee.getCost() + 30;
-    }
-}
-
 public class DecoratorDemo {
     public static void main(String[] args) {
         Coffee coffee = new SimpleCoffee();
@@ -95,5 +13,12 @@ public class DecoratorDemo {
 
         coffee = new CreamDecorator(coffee);
         System.out.println(coffee.getDescription() + " → ₹" + coffee.getCost());
+
+        // Same chain, evaluated once
+        FlatCoffee flat = FlatCoffee.of(coffee);
+        System.out.println(flat.getDescription() + " → ₹" + flat.getCost());
+
+        flat = flat.with(MilkDecorator::new);
+        System.out.println(flat.getDescription() + " → ₹" + flat.getCost());
     }
 }
@@ -0,0 +1,96 @@
+package patterns.structural.decorator;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+
+/**
+ * A decorator chain collapsed into one immutable node with its cost and description worked out
+ * once.
+ *
+ * Asking a plain chain for its cost walks every decorator, and asking for its description
+ * rebuilds the string a layer at a time. Decorators never change what they wrap, so neither
+ * answer can go stale: {@link #of} evaluates the chain once and keeps the results, with the
+ * description interned so equal chains share one string. The intern table is a map rather than
+ * String.intern, which costs microseconds on descriptions of deep chains, and it stops growing at
+ * {@value #MAX_INTERNED} descriptions: orders of up to 64 add-ons in any order have no useful
+ * bound on distinct descriptions, and past the cap a new one is simply kept unshared.
+ *
+ * Changing the chain means wrapping it in another decorator, and {@link #with} flattens that
+ * straight away. The new decorator wraps a fixed coffee with this node's cost and description,
+ * not this node, so only the new layer is evaluated however deep the chain already is, and the
+ * result does not keep the earlier layers reachable.
+ */
+final class FlatCoffee implements Coffee {
+    private static final int MAX_INTERNED = 4_096;
+    private static final ConcurrentHashMap<String, String> DESCRIPTIONS = new ConcurrentHashMap<>();
+
+    private final Coffee chain;
+    private final String description;
+    private final double cost;
+
+    private FlatCoffee(Coffee chain) {
+        this.chain = chain;
+        this.description = intern(chain.getDescription());
+        this.cost = chain.getCost();
+    }
+
+    public static FlatCoffee of(Coffee coffee) {
+        return coffee instanceof FlatCoffee ? (FlatCoffee) coffee : new FlatCoffee(coffee);
+    }
+
+    private static String intern(String description) {
+        // May overshoot by the number of threads adding at the same moment
+        String known = DESCRIPTIONS.size() < MAX_INTERNED
+                ? DESCRIPTIONS.putIfAbsent(description, description)
+                : DESCRIPTIONS.get(description);
+        return known == null ? description : known;
+    }
+
+    /**
+     * Adds a layer, e.g. {@code coffee.with(MilkDecorator::new)}.
+     */
+    public FlatCoffee with(UnaryOperator<Coffee> decorator) {
+        return new FlatCoffee(decorator.apply(new Evaluated(description, cost)));
+    }
+
+    /**
+     * The chain this was flattened from. After {@link #with}, that is the added decorator around
+     * a coffee standing for all the earlier layers.
+     */
+    public Coffee getChain() {
+        return chain;
+    }
+
+    @Override
+    public String getDescription() {
+        return description;
+    }
+
+    @Override
+    public double getCost() {
+        return cost;
+    }
+
+    /**
+     * The description and cost of a flattened chain, without the chain.
+     */
+    private static final class Evaluated implements Coffee {
+        private final String description;
+        private final double cost;
+
+        Evaluated(String description, double cost) {
+            this.description = description;
+            this.cost = cost;
+        }
+
+        @Override
+        public String getDescription() {
+            return description;
+        }
+
+        @Override
+        public double getCost() {
+            return cost;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package patterns.structural.decorator;
+
+import java.util.SplittableRandom;
+
+/**
+ * Prices random orders with the OrderPricingEngine and checks every one against the decorator
+ * chain DecoratorDemo would build for it, while another thread keeps changing the prices.
+ *
+ * Usage: OrderPricingDemo [orders]
+ */
+public class OrderPricingDemo {
+    public static void main(String[] args) throws InterruptedException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        SplittableRandom random = new SplittableRandom(42);
+        long[] orders = new long[count];
+        for (int i = 0; i < count; i++) {
+            // Mostly one or two add-ons, now and then a lot of them
+            int addOns = random.nextInt(10) == 0 ? random.nextInt(40) : random.nextInt(3);
+            long order = CoffeeOrders.PLAIN;
+            for (int a = 0; a < addOns; a++) {
+                AddOn addOn = AddOn.of(random.nextInt(AddOn.count()));
+                if (CoffeeOrders.count(order, addOn) < CoffeeOrders.MAX_COUNT) {
+                    order = CoffeeOrders.add(order, addOn);
+                }
+            }
+            orders[i] = order;
+        }
+
+        // At the default prices, the same as MilkDecorator, SugarDecorator and CreamDecorator
+        // wrapped in any order
+        OrderPricingEngine engine = new OrderPricingEngine(PriceTable.DEFAULT);
+        double[] prices = new double[count];
+        // Best of a few passes, the first ones run before the JIT has compiled the loops
+        long batchNanos = Long.MAX_VALUE;
+        for (int pass = 0; pass < 10; pass++) {
+            long start = System.nanoTime();
+            engine.priceBatch(orders, prices);
+            batchNanos = Math.min(batchNanos, System.nanoTime() - start);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            Coffee coffee = decorate(orders[i], random);
+            if (coffee.getCost() != prices[i]) {
+                throw new IllegalStateException("Order " + Long.toHexString(orders[i]) + ": engine " + prices[i]
+                        + ", decorators " + coffee.getCost());
+            }
+        }
+        long chainNanos = System.nanoTime() - start;
+        for (int i = 0; i < 1000; i++) {
+            Coffee coffee = engine.toCoffee(orders[i]);
+            if (!coffee.getDescription().equals(CoffeeOrders.describe(orders[i])) || coffee.getCost() != prices[i]) {
+                throw new IllegalStateException("Order " + Long.toHexString(orders[i]) + " built as " + coffee.getDescription());
+            }
+        }
+        System.out.println(String.format("%d orders: %.1f ns each in a batch, %.1f ns each through decorator chains",
+                count, (double) batchNanos / count, (double) chainNanos / count));
+
+        // Every batch is priced against the one table it reports, never a mix
+        Thread priceChanges = new Thread(() -> {
+            SplittableRandom changes = new SplittableRandom(7);
+            while (!Thread.currentThread().isInterrupted()) {
+                PriceTable table = engine.prices();
+                table = table.withPrice(AddOn.of(changes.nextInt(AddOn.count())), 5 + changes.nextInt(50));
+                engine.publish(table.withBasePrice(80 + changes.nextInt(40)));
+            }
+        });
+        priceChanges.start();
+        long tables = 0;
+        long lastVersion = -1;
+        for (int batch = 0; batch < 2000; batch++) {
+            int from = random.nextInt(count - 4096);
+            long[] slice = new long[4096];
+            System.arraycopy(orders, from, slice, 0, slice.length);
+            double[] out = new double[slice.length];
+            PriceTable used = engine.priceBatch(slice, out);
+            for (int i = 0; i < slice.length; i += 97) {
+                if (out[i] != CoffeeOrders.toCoffee(slice[i], used).getCost()) {
+                    throw new IllegalStateException("Batch mixed prices at version " + used.getVersion());
+                }
+            }
+            if (used.getVersion() != lastVersion) {
+                tables++;
+                lastVersion = used.getVersion();
+            }
+        }
+        priceChanges.interrupt();
+        priceChanges.join();
+        System.out.println("2000 batches priced against " + tables + " different price tables, each batch consistent");
+    }
+
+    private static Coffee decorate(long order, SplittableRandom random) {
+        int[] left = new int[AddOn.count()];
+        int total = 0;
+        for (int id = 0; id < left.length; id++) {
+            left[id] = CoffeeOrders.count(order, AddOn.of(id));
+            total += left[id];
+        }
+        Coffee coffee = new SimpleCoffee();
+        for (; total > 0; total--) {
+            int pick = random.nextInt(total);
+            int id = 0;
+            while (pick >= left[id]) {
+                pick -= left[id++];
+            }
+            left[id]--;
+            switch (AddOn.of(id)) {
+                case MILK:
+                    coffee = new MilkDecorator(coffee);
+                    break;
+                case SUGAR:
+                    coffee = new SugarDecorator(coffee);
+                    break;
+                default:
+                    coffee = new CreamDecorator(coffee);
+            }
+        }
+        return coffee;
+    }
+}
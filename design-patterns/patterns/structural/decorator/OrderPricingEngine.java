@@ -0,0 +1,53 @@
+package patterns.structural.decorator;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Prices {@link CoffeeOrders} orders against the latest published {@link PriceTable}.
+ *
+ * Pricing never locks: it reads the current table once and works against it, so a batch is
+ * priced entirely at the old prices or entirely at the new ones. A price change builds a complete
+ * new table and swaps it in.
+ */
+class OrderPricingEngine {
+    private final AtomicReference<PriceTable> current;
+
+    OrderPricingEngine(PriceTable initial) {
+        this.current = new AtomicReference<>(initial);
+    }
+
+    public PriceTable prices() {
+        return current.get();
+    }
+
+    public void publish(PriceTable prices) {
+        current.set(prices);
+    }
+
+    /**
+     * Publishes only if no one else has published since {@code expected} was read.
+     */
+    public boolean publish(PriceTable expected, PriceTable prices) {
+        return current.compareAndSet(expected, prices);
+    }
+
+    public double price(long order) {
+        return current.get().price(order);
+    }
+
+    /**
+     * Prices the batch into out against a single table, and returns the table used.
+     */
+    public PriceTable priceBatch(long[] orders, double[] out) {
+        PriceTable prices = current.get();
+        prices.price(orders, out);
+        return prices;
+    }
+
+    /**
+     * The decorator chain of the order at the current prices.
+     */
+    public Coffee toCoffee(long order) {
+        return CoffeeOrders.toCoffee(order, current.get());
+    }
+}
@@ -0,0 +1,130 @@
+package patterns.structural.decorator;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Immutable menu prices: the plain coffee and each {@link AddOn}, indexed by ordinal.
+ *
+ * Prices are whole amounts of the currency getCost() is in, like the demo's 100 / +20 / +10 /
+ * +30. A decorator chain adds its prices up one double at a time, and with whole prices every
+ * partial sum is exact, so the order they are added in never matters and pricing a
+ * {@link CoffeeOrders} order by counting gives exactly what its decorator chain would. A table is
+ * never modified after construction - new prices mean a new table.
+ */
+final class PriceTable {
+    static final PriceTable DEFAULT = new PriceTable(100, new int[]{20, 10, 30}, 1);
+
+    private static final int BLOCK = 1024;
+
+    private final int basePrice;
+    private final int[] prices;
+    private final long version;
+
+    private PriceTable(int basePrice, int[] prices, long version) {
+        if (prices.length != AddOn.count()) {
+            throw new IllegalArgumentException("Need a price for each of " + Arrays.toString(AddOn.values()));
+        }
+        checkPrice("Simple Coffee", basePrice);
+        for (int id = 0; id < prices.length; id++) {
+            checkPrice(AddOn.of(id).getLabel(), prices[id]);
+        }
+        this.basePrice = basePrice;
+        this.prices = prices;
+        this.version = version;
+    }
+
+    public static PriceTable of(int basePrice, Map<AddOn, Integer> addOnPrices, long version) {
+        int[] prices = new int[AddOn.count()];
+        for (AddOn addOn : AddOn.values()) {
+            Integer price = addOnPrices.get(addOn);
+            if (price == null) {
+                throw new IllegalArgumentException("No price for " + addOn.getLabel());
+            }
+            prices[addOn.ordinal()] = price;
+        }
+        return new PriceTable(basePrice, prices, version);
+    }
+
+    private static void checkPrice(String item, int price) {
+        // Keeps the total of 15 of every add-on far inside the exact range of a double
+        if (price < 0 || price > 1_000_000_000) {
+            throw new IllegalArgumentException("Price for " + item + " out of range: " + price);
+        }
+    }
+
+    /**
+     * This table with one price changed, as the next version.
+     */
+    public PriceTable withPrice(AddOn addOn, int price) {
+        int[] changed = prices.clone();
+        changed[addOn.ordinal()] = price;
+        return new PriceTable(basePrice, changed, version + 1);
+    }
+
+    public PriceTable withBasePrice(int price) {
+        return new PriceTable(price, prices, version + 1);
+    }
+
+    public double price(long order) {
+        long total = basePrice;
+        for (int id = 0; id < prices.length; id++) {
+            total += (order >>> id * CoffeeOrders.BITS_PER_ADD_ON & CoffeeOrders.MAX_COUNT) * prices[id];
+        }
+        return total;
+    }
+
+    /**
+     * Prices orders[i] into out[i].
+     *
+     * Works through the orders in blocks, one add-on at a time over the whole block: each pass is
+     * a shift, a mask and a multiply-add over consecutive longs with no branches, which the JIT
+     * compiles to SIMD instructions.
+     */
+    public void price(long[] orders, double[] out) {
+        if (out.length < orders.length) {
+            throw new IllegalArgumentException("out is shorter than orders");
+        }
+        long[] totals = new long[Math.min(BLOCK, orders.length)];
+        for (int from = 0; from < orders.length; from += BLOCK) {
+            int length = Math.min(BLOCK, orders.length - from);
+            Arrays.fill(totals, 0, length, basePrice);
+            for (int id = 0; id < prices.length; id++) {
+                long price = prices[id];
+                int shift = id * CoffeeOrders.BITS_PER_ADD_ON;
+                for (int i = 0; i < length; i++) {
+                    totals[i] += (orders[from + i] >>> shift & CoffeeOrders.MAX_COUNT) * price;
+                }
+            }
+            for (int i = 0; i < length; i++) {
+                out[from + i] = totals[i];
+            }
+        }
+    }
+
+    public int getBasePrice() {
+        return basePrice;
+    }
+
+    public int price(AddOn addOn) {
+        return prices[addOn.ordinal()];
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public Map<AddOn, Integer> getAddOnPrices() {
+        Map<AddOn, Integer> addOnPrices = new EnumMap<>(AddOn.class);
+        for (AddOn addOn : AddOn.values()) {
+            addOnPrices.put(addOn, prices[addOn.ordinal()]);
+        }
+        return addOnPrices;
+    }
+
+    @Override
+    public String toString() {
+        return "PriceTable [version=" + version + ", base=" + basePrice + ", addOns=" + getAddOnPrices() + "]";
+    }
+}
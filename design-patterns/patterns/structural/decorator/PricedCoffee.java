@@ -0,0 +1,17 @@
+package patterns.structural.decorator;
+
+/**
+ * A SimpleCoffee whose price comes from a {@link PriceTable} instead of being fixed.
+ */
+class PricedCoffee extends SimpleCoffee {
+    private final int price;
+
+    PricedCoffee(int price) {
+        this.price = price;
+    }
+
+    @Override
+    public double getCost() {
+        return price;
+    }
+}
@@ -0,0 +1,13 @@
+package patterns.structural.decorator;
+
+class SimpleCoffee implements Coffee {
+    @Override
+    public String getDescription() {
+        return "Simple Coffee";
+    }
+
+    @Override
+    public double getCost() {
+        return 100;
+    }
+}
@@ -1,41 +1,68 @@
 import impl.CarParkingSpaceFactory;
+import impl.GateController;
+import impl.GateEvent;
 import impl.GenericVehicle;
 import impl.ParkingGarage;
 import impl.ParkingTicket;
+import interfaces.GateListener;
 import interfaces.ParkingObserver;
 import interfaces.ParkingSpaceFactory;
 import interfaces.Vehicle;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.concurrent.CountDownLatch;
 
 public class AutomaticParking {
-    private ParkingGarage parkingGarage;
+    private final GateController gateController;
+    private final int entryGate;
+    private final int exitGate;
 
-    public AutomaticParking(ParkingGarage parkingGarage) {
-        this.parkingGarage = parkingGarage;
+    public AutomaticParking(ParkingGarage parkingGarage, GateListener gateListener) {
+        this.gateController = new GateController(parkingGarage, 1, gateListener);
+        this.entryGate = gateController.addGate(GateController.Direction.ENTRY);
+        this.exitGate = gateController.addGate(GateController.Direction.EXIT);
     }
 
-    // Additional methods for automation logic
-    public void automateParking() {
+    // What the entry gate's loop sensor and plate reader report for an arriving vehicle
+    public void automateParking(Vehicle vehicle, long entryTimeStamp) {
         System.out.println("Automated parking in progress...");
-        // Implement automation logic (e.g., guiding vehicles to available spaces)
+        gateController.submit(GateEvent.vehicleDetected(entryGate));
+        gateController.submit(GateEvent.plateRead(entryGate, vehicle, entryTimeStamp));
     }
 
-    public void automateVehicleExit() {
+    public void automateVehicleExit(Vehicle vehicle, long exitTimeStamp) {
         System.out.println("Automated vehicle exit in progress...");
-        // Implement automation logic (e.g., opening gates)
+        gateController.submit(GateEvent.vehicleDetected(exitGate));
+        gateController.submit(GateEvent.plateRead(exitGate, vehicle, exitTimeStamp));
     }
-    public static void main(String[] args) {
+
+    public void pay(double amount) {
+        gateController.submit(GateEvent.payment(exitGate, amount));
+    }
+
+    public void vehicleCleared(int gateId) {
+        gateController.submit(GateEvent.vehicleCleared(gateId));
+    }
+
+    public void close() {
+        gateController.close();
+    }
+
+    public static void main(String[] args) throws InterruptedException {
         ParkingSpaceFactory carSpaceFactory = new CarParkingSpaceFactory();
         ParkingGarage garage  = new ParkingGarage(carSpaceFactory);
-        AutomaticParking parkingGarage = new AutomaticParking(garage);
 
 
         garage.addParkingSlot();
         garage.addParkingSlot();
 
         garage.addObserver(new ParkingObserver() {
+            @Override
+            public void vehicleEntered(ParkingTicket ticket) {
+                System.out.println("Gate log: Vehicle " + ticket.getVehicle().getLicensePlate() + " entered.");
+            }
+
             @Override
             public void vehicleExited(ParkingTicket ticket) {
                 double cost = ticket.getCost();
@@ -44,19 +71,41 @@ public class AutomaticParking {
             }
         });
 
+        // Gate callbacks run on the controller's loop; the barrier and the payment terminal answer back
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch exited = new CountDownLatch(1);
+        AutomaticParking[] automation = new AutomaticParking[1];
+        automation[0] = new AutomaticParking(garage, new GateListener() {
+            @Override
+            public void barrierOpened(int gateId, ParkingTicket ticket) {
+                System.out.println("Barrier " + gateId + " open for " + ticket.getVehicle().getLicensePlate());
+                automation[0].vehicleCleared(gateId);
+                (ticket.getExitTimeStamp() == 0 ? entered : exited).countDown();
+            }
+
+            @Override
+            public void paymentDue(int gateId, ParkingTicket ticket, double amount) {
+                automation[0].pay(amount);
+            }
+
+            @Override
+            public void refused(int gateId, Vehicle vehicle, String reason) {
+                System.out.println("Barrier " + gateId + " stays closed: " + reason);
+            }
+        });
+        AutomaticParking parkingGarage = automation[0];
+
         // Simulate vehicle entering and parking
         Vehicle car = new GenericVehicle("ABCD123", 2);
         long entryTimeStamp = Instant.now().getEpochSecond();
-        ParkingTicket ticket = garage.issueParkingTicket(car, entryTimeStamp);
-        parkingGarage.automateParking();
+        parkingGarage.automateParking(car, entryTimeStamp);
+        entered.await();
 
-        // Simulate vehicle leaving
+        // Simulate vehicle leaving an hour later
         long exitTimeStamp = Instant.now().plus(Duration.ofHours(1)).getEpochSecond();
-        ticket.setExitTimeStamp(exitTimeStamp);
-        double cost = garage.calculateParkingCost(ticket);
-        garage.payParkingTicket(ticket,cost);
-        garage.removeVehicle(car);
-        garage.notifyObservers(ticket); // Notify observers
-        parkingGarage.automateVehicleExit();
+        parkingGarage.automateVehicleExit(car, exitTimeStamp);
+        exited.await();
+        parkingGarage.close();
+        garage.close(); // Observers run asynchronously, let them finish
     }
 }
@@ -0,0 +1,185 @@
+import impl.GateController;
+import impl.GateEvent;
+import impl.GenericVehicle;
+import impl.MultiLevelParkingSpaceFactory;
+import impl.ParkingGarage;
+import impl.ParkingTicket;
+import interfaces.GateListener;
+import interfaces.Vehicle;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Replays vehicles through a GateController as fast as the gates take them and reports
+ * sensor-to-barrier latency.
+ *
+ * Every gate works like a real lane: the next vehicle is detected only once the previous one has
+ * cleared the barrier, and an exit's payment terminal pays the amount due as soon as it is shown.
+ * Phase 1 fills the garage through the entry gates. Phase 2 lets those vehicles out through the
+ * exit gates while a second wave comes in. At the end only the second wave may be inside, and no
+ * event may have been ignored or failed.
+ *
+ * Usage: GateSimulatorRun [entryGates] [exitGates] [eventLoops] [vehiclesPerPhase]
+ */
+public class GateSimulatorRun {
+    private static final long DAY_START = 1_717_372_800L;
+
+    public static void main(String[] args) throws InterruptedException {
+        int entryGates = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int exitGates = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+        int loops = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+        int vehicles = args.length > 3 ? Integer.parseInt(args[3]) : 200_000;
+
+        MultiLevelParkingSpaceFactory factory = new MultiLevelParkingSpaceFactory(4, vehicles / 8, vehicles / 4, vehicles / 8);
+        ParkingGarage garage = new ParkingGarage(factory);
+        for (int i = 0; i < factory.capacity(); i++) {
+            garage.addParkingSlot();
+        }
+        Vehicle[] firstWave = fleet("A", vehicles);
+        Vehicle[] secondWave = fleet("B", vehicles);
+
+        Lanes lanes = new Lanes(entryGates + exitGates);
+        GateController controller = new GateController(garage, loops, lanes);
+        lanes.controller = controller;
+        int[] entries = new int[entryGates];
+        for (int g = 0; g < entryGates; g++) {
+            entries[g] = controller.addGate(GateController.Direction.ENTRY);
+        }
+        int[] exits = new int[exitGates];
+        for (int g = 0; g < exitGates; g++) {
+            exits[g] = controller.addGate(GateController.Direction.EXIT);
+        }
+
+        // payParkingTicket prints a receipt line per payment
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        long phase1Start = System.nanoTime();
+        lanes.assign(entries, firstWave, 0);
+        lanes.run();
+        long phase1Nanos = System.nanoTime() - phase1Start;
+        String entryPhase1 = controller.entryLatency().toString();
+
+        long phase2Start = System.nanoTime();
+        lanes.assign(entries, secondWave, 0);
+        // Everyone from the first wave stays two hours
+        lanes.assign(exits, firstWave, 7200);
+        lanes.run();
+        long phase2Nanos = System.nanoTime() - phase2Start;
+        controller.close();
+        System.setOut(console);
+
+        System.out.println(entryGates + " entry + " + exitGates + " exit gates on " + loops + " event loops");
+        System.out.println(String.format("Phase 1: %d entries in %dms (%.0f vehicles/s)", vehicles, phase1Nanos / 1_000_000,
+                vehicles / (phase1Nanos / 1e9)));
+        System.out.println(String.format("Phase 2: %d exits + %d entries in %dms (%.0f vehicles/s)", vehicles, vehicles,
+                phase2Nanos / 1_000_000, 2 * vehicles / (phase2Nanos / 1e9)));
+        System.out.println("Entry latency, phase 1: " + entryPhase1);
+        System.out.println("Entry latency, overall: " + controller.entryLatency());
+        System.out.println("Exit latency (payment to barrier): " + controller.exitLatency());
+
+        if (garage.activeTicketCount() != vehicles || lanes.refused.sum() != 0
+                || controller.ignoredEvents() != 0 || controller.failedEvents() != 0) {
+            throw new IllegalStateException(garage.activeTicketCount() + " inside, " + lanes.refused.sum() + " refused, "
+                    + controller.ignoredEvents() + " ignored, " + controller.failedEvents() + " failed events");
+        }
+        for (Vehicle car : secondWave) {
+            if (garage.findTicket(car) == null) {
+                throw new IllegalStateException(car.getLicensePlate() + " is not inside");
+            }
+        }
+        garage.close();
+    }
+
+    private static Vehicle[] fleet(String prefix, int count) {
+        Vehicle[] fleet = new Vehicle[count];
+        for (int i = 0; i < count; i++) {
+            fleet[i] = new GenericVehicle(prefix + i, 1 + i % 3);
+        }
+        return fleet;
+    }
+
+    /**
+     * Plays the vehicles and the payment terminals. Each gate works through its own slice of a
+     * wave and moves on to the next vehicle from the barrier callback.
+     */
+    private static final class Lanes implements GateListener {
+        private static final class Lane {
+            Vehicle[] wave;
+            int next;
+            int stride;
+            long stay;
+        }
+
+        final Lane[] lanes;
+        final LongAdder refused = new LongAdder();
+        GateController controller;
+        CountDownLatch lanesDone;
+        int active;
+
+        Lanes(int gates) {
+            lanes = new Lane[gates];
+        }
+
+        /**
+         * Gives gate g of gates every gates.length-th vehicle of the wave, starting at g. A stay of 0
+         * makes them entering vehicles; otherwise they leave stay seconds after they came in.
+         */
+        void assign(int[] gates, Vehicle[] wave, long stay) {
+            for (int g = 0; g < gates.length; g++) {
+                Lane lane = new Lane();
+                lane.wave = wave;
+                lane.next = g;
+                lane.stride = gates.length;
+                lane.stay = stay;
+                lanes[gates[g]] = lane;
+            }
+            active += gates.length;
+        }
+
+        void run() throws InterruptedException {
+            lanesDone = new CountDownLatch(active);
+            for (int gateId = 0; gateId < lanes.length; gateId++) {
+                if (lanes[gateId] != null) {
+                    nextVehicle(gateId);
+                }
+            }
+            lanesDone.await();
+            active = 0;
+            Arrays.fill(lanes, null);
+        }
+
+        // Called for a gate only from that gate's loop, or before its first event
+        private void nextVehicle(int gateId) {
+            Lane lane = lanes[gateId];
+            if (lane.next >= lane.wave.length) {
+                lanesDone.countDown();
+                return;
+            }
+            int index = lane.next;
+            lane.next += lane.stride;
+            controller.submit(GateEvent.vehicleDetected(gateId));
+            controller.submit(GateEvent.plateRead(gateId, lane.wave[index], DAY_START + index + lane.stay));
+        }
+
+        @Override
+        public void barrierOpened(int gateId, ParkingTicket ticket) {
+            controller.submit(GateEvent.vehicleCleared(gateId));
+            nextVehicle(gateId);
+        }
+
+        @Override
+        public void paymentDue(int gateId, ParkingTicket ticket, double amount) {
+            controller.submit(GateEvent.payment(gateId, amount));
+        }
+
+        @Override
+        public void refused(int gateId, Vehicle vehicle, String reason) {
+            refused.increment();
+            nextVehicle(gateId);
+        }
+    }
+}
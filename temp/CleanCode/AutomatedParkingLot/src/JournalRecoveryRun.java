@@ -0,0 +1,118 @@
+import impl.CarParkingSpaceFactory;
+import impl.GarageJournal;
+import impl.GenericVehicle;
+import impl.ParkingGarage;
+import impl.ParkingTicket;
+import interfaces.Vehicle;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Stream;
+
+/**
+ * Crash-recovery check for the garage journal.
+ *
+ * Gates fill a garage while it journals, some cars leave and pay, a snapshot is taken halfway,
+ * and the process "crashes": the journal is never closed and a torn half-record is left at the
+ * end of the log. A fresh garage is then restored from the directory and must hold exactly the
+ * cars that were inside, with their original tickets.
+ *
+ * Usage: JournalRecoveryRun [spots] [gates]
+ */
+public class JournalRecoveryRun {
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int spots = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int gates = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        Path dir = Files.createTempDirectory("garage-journal");
+
+        ParkingGarage garage = newGarage(spots);
+        GarageJournal journal = GarageJournal.open(dir);
+        garage.attachJournal(journal);
+
+        // payParkingTicket prints a receipt line per payment
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        long start = System.nanoTime();
+        CountDownLatch done = new CountDownLatch(gates);
+        for (int g = 0; g < gates; g++) {
+            int gate = g;
+            new Thread(() -> {
+                for (int i = gate; i < spots; i += gates) {
+                    Vehicle car = new GenericVehicle("CAR" + i, 2);
+                    ParkingTicket ticket = garage.issueParkingTicket(car, 1_000 + i);
+                    // Every tenth car leaves again after paying
+                    if (i % 10 == 0) {
+                        ticket.setExitTimeStamp(4_600 + i);
+                        garage.payParkingTicket(ticket, 36);
+                        garage.removeVehicle(car);
+                    }
+                    if (i == spots / 2) {
+                        try {
+                            journal.snapshot();
+                        } catch (IOException ex) {
+                            throw new IllegalStateException(ex);
+                        }
+                    }
+                }
+                done.countDown();
+            }, "gate-" + g).start();
+        }
+        done.await();
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        System.setOut(console);
+        System.out.println(gates + " gates journaled " + journal.lastLsn() + " records in " + millis + "ms");
+        int inside = garage.activeTicketCount();
+        long ticketOfCar1 = garage.findTicket(new GenericVehicle("CAR1", 2)).getTicketId();
+
+        // Crash: no close(), plus a torn write at the end of the newest segment
+        tearTail(dir);
+
+        start = System.nanoTime();
+        ParkingGarage restarted = newGarage(spots);
+        GarageJournal recovered = GarageJournal.open(dir);
+        int restored = restarted.attachJournal(recovered);
+        millis = (System.nanoTime() - start) / 1_000_000;
+        System.out.println("Restored " + restored + " parked cars (" + recovered.getReplayedRecords()
+                + " records replayed after the snapshot) in " + millis + "ms, including laying out " + spots + " spots");
+
+        ParkingTicket ticket = restarted.findTicket(new GenericVehicle("CAR1", 2));
+        boolean ok = restored == inside
+                && restarted.totalAvailableSpots() == spots - inside
+                && ticket != null && ticket.getTicketId() == ticketOfCar1 && ticket.getEntryTimeStamp() == 1_001
+                && restarted.findTicket(new GenericVehicle("CAR10", 2)) == null;
+        // Parking continues where it left off
+        restarted.removeVehicle(new GenericVehicle("CAR1", 2));
+        ok &= restarted.totalAvailableSpots() == spots - inside + 1;
+        recovered.close();
+        System.out.println("Inside before crash: " + inside + ", after restart: " + restored);
+        if (!ok) {
+            throw new IllegalStateException("Recovered garage does not match the one before the crash");
+        }
+    }
+
+    private static ParkingGarage newGarage(int spots) {
+        ParkingGarage garage = new ParkingGarage(new CarParkingSpaceFactory());
+        for (int i = 0; i < spots; i++) {
+            garage.addParkingSlot();
+        }
+        return garage;
+    }
+
+    private static void tearTail(Path dir) throws IOException {
+        Path newest;
+        try (Stream<Path> files = Files.list(dir)) {
+            newest = files.filter(p -> p.getFileName().toString().endsWith(".log")).sorted()
+                    .reduce((a, b) -> b).orElseThrow();
+        }
+        try (FileChannel channel = FileChannel.open(newest, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[] {0, 0, 0, 60, 1, 2, 3}));
+        }
+    }
+}
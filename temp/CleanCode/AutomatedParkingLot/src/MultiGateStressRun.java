@@ -0,0 +1,136 @@
+import impl.BestFitStrategy;
+import impl.GenericVehicle;
+import impl.LevelBalancingStrategy;
+import impl.MultiLevelParkingSpaceFactory;
+import impl.NearestToExitStrategy;
+import impl.ParkingGarage;
+import impl.ParkingTicket;
+import interfaces.SpotAssignmentStrategy;
+import interfaces.Vehicle;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Multi-gate stress check for ParkingGarage.
+ *
+ * Gate threads park and unpark their own vehicles at random against a small garage, so gates
+ * constantly race for the same free spots. After every park the gate checks that the spot
+ * really holds its vehicle and that the ticket id was never seen before. At the end every
+ * vehicle leaves and all spots must be free again, both in the occupancy counters and in each
+ * spot's own state, with no open tickets left.
+ *
+ * The garage has 4 levels of mixed motorcycle, car and large spots, and vehicles of sizes 1 to 3;
+ * a vehicle must never end up in a spot smaller than itself.
+ *
+ * Usage: MultiGateStressRun [gates] [spots] [operationsPerGate] [bestFit|nearestToExit|levelBalancing]
+ */
+public class MultiGateStressRun {
+    public static void main(String[] args) throws InterruptedException {
+        int gates = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int requestedSpots = args.length > 1 ? Integer.parseInt(args[1]) : 2_000;
+        int operations = args.length > 2 ? Integer.parseInt(args[2]) : 200_000;
+
+        String strategyName = args.length > 3 ? args[3] : "bestFit";
+        SpotAssignmentStrategy strategy;
+        switch (strategyName) {
+            case "nearestToExit":
+                strategy = new NearestToExitStrategy();
+                break;
+            case "levelBalancing":
+                strategy = new LevelBalancingStrategy();
+                break;
+            default:
+                strategy = new BestFitStrategy();
+        }
+
+        int perLevel = requestedSpots / 4;
+        int motorcycle = perLevel / 5;
+        int large = perLevel / 10;
+        MultiLevelParkingSpaceFactory factory = new MultiLevelParkingSpaceFactory(4, motorcycle, perLevel - motorcycle - large, large);
+        int spots = factory.capacity();
+        ParkingGarage garage = new ParkingGarage(factory, strategy);
+        for (int i = 0; i < spots; i++) {
+            garage.addParkingSlot();
+        }
+
+        Set<Long> ticketIds = ConcurrentHashMap.newKeySet();
+        AtomicInteger violations = new AtomicInteger();
+        AtomicLong parked = new AtomicLong();
+        AtomicLong rejected = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(gates);
+
+        for (int g = 0; g < gates; g++) {
+            int gate = g;
+            new Thread(() -> {
+                // Each gate owns more vehicles than its fair share of spots, so the garage fills up
+                Vehicle[] fleet = new Vehicle[spots / gates * 2];
+                boolean[] inside = new boolean[fleet.length];
+                for (int i = 0; i < fleet.length; i++) {
+                    fleet[i] = new GenericVehicle("G" + gate + "-" + i, 1 + (i % 3));
+                }
+                try {
+                    start.await();
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int op = 0; op < operations; op++) {
+                        int i = random.nextInt(fleet.length);
+                        if (inside[i]) {
+                            garage.removeVehicle(fleet[i]);
+                            inside[i] = false;
+                            continue;
+                        }
+                        ParkingTicket ticket = garage.issueParkingTicket(fleet[i], op);
+                        if (ticket == null) {
+                            rejected.incrementAndGet();
+                            continue;
+                        }
+                        inside[i] = true;
+                        parked.incrementAndGet();
+                        int spotId = garage.spotOf(fleet[i]);
+                        if (garage.getParkingSpot(spotId).getParkedVehicle() != fleet[i]
+                                || garage.getParkingSpot(spotId).getSize() < fleet[i].getSize()
+                                || !ticketIds.add(ticket.getTicketId())
+                                || garage.findTicket(ticket.getTicketId()) != ticket) {
+                            violations.incrementAndGet();
+                        }
+                    }
+                    for (int i = 0; i < fleet.length; i++) {
+                        if (inside[i]) {
+                            garage.removeVehicle(fleet[i]);
+                        }
+                    }
+                } catch (RuntimeException | InterruptedException e) {
+                    violations.incrementAndGet();
+                    e.printStackTrace();
+                } finally {
+                    done.countDown();
+                }
+            }, "gate-" + g).start();
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        done.await();
+        long millis = (System.nanoTime() - begin) / 1_000_000;
+
+        int free = garage.totalAvailableSpots();
+        int freeByState = 0;
+        for (int i = 0; i < spots; i++) {
+            if (garage.getParkingSpot(i).isAvailable()) {
+                freeByState++;
+            }
+        }
+        System.out.println(gates + " gates, " + spots + " spots, " + strategyName + ": " + parked.get() + " parks, "
+                + rejected.get() + " rejected (full) in " + millis + "ms");
+        System.out.println("Violations: " + violations.get() + ", free spots after all exits: " + free + "/" + spots
+                + " (" + freeByState + " by spot state), open tickets: " + garage.activeTicketCount());
+        if (violations.get() != 0 || free != spots || freeByState != spots || garage.activeTicketCount() != 0) {
+            throw new IllegalStateException("Garage state is inconsistent");
+        }
+    }
+}
@@ -0,0 +1,160 @@
+import impl.BestFitStrategy;
+import impl.GarageCoordinator;
+import impl.GenericVehicle;
+import impl.MultiLevelParkingSpaceFactory;
+import impl.ParkingGarage;
+import impl.ParkingTicket;
+import impl.SiteAvailability;
+import impl.TicketIdGenerator;
+import interfaces.TicketArchive;
+import interfaces.Vehicle;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * City-wide check for GarageCoordinator.
+ *
+ * 500 small garages are spread over a 30 km square and sharded over 8 threads. 16 driver threads
+ * send vehicles of sizes 1 to 3 to the nearest site with room and later let them out, while the
+ * sites fill up. Each site is its own ticket id node, and no two tickets anywhere may share an
+ * id. Once everything has settled, the summary must match every garage's own counters, and
+ * nearest-site answers must match a brute-force haversine scan of the garages.
+ *
+ * Usage: MultiSiteRun [sites] [shards] [driverThreads] [tripsPerThread]
+ */
+public class MultiSiteRun {
+    private static final double CENTRE_LAT = 12.97;
+    private static final double CENTRE_LON = 77.59;
+
+    public static void main(String[] args) throws Exception {
+        int sites = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        int shards = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        int drivers = args.length > 2 ? Integer.parseInt(args[2]) : 16;
+        int trips = args.length > 3 ? Integer.parseInt(args[3]) : 5_000;
+        if (sites > TicketIdGenerator.MAX_NODE_ID + 1) {
+            throw new IllegalArgumentException("At most " + (TicketIdGenerator.MAX_NODE_ID + 1) + " sites, one ticket id node each");
+        }
+
+        Random random = new Random(23);
+        double[] siteLat = new double[sites];
+        double[] siteLon = new double[sites];
+        try (GarageCoordinator coordinator = new GarageCoordinator(shards, sites, 50)) {
+            for (int i = 0; i < sites; i++) {
+                ParkingGarage garage = new ParkingGarage(new MultiLevelParkingSpaceFactory(2, 3, 20, 2), new BestFitStrategy(),
+                        new TicketIdGenerator(i), TicketArchive.DISCARD);
+                for (int spot = 0; spot < 50; spot++) {
+                    garage.addParkingSlot();
+                }
+                siteLat[i] = CENTRE_LAT + (random.nextDouble() - 0.5) * 0.27;
+                siteLon[i] = CENTRE_LON + (random.nextDouble() - 0.5) * 0.28;
+                coordinator.addSite("Site-" + i, siteLat[i], siteLon[i], garage);
+            }
+
+            AtomicLong parked = new AtomicLong();
+            AtomicLong full = new AtomicLong();
+            Set<Long> ticketIds = ConcurrentHashMap.newKeySet();
+            CountDownLatch done = new CountDownLatch(drivers);
+            long start = System.nanoTime();
+            for (int d = 0; d < drivers; d++) {
+                int driver = d;
+                new Thread(() -> {
+                    ThreadLocalRandom local = ThreadLocalRandom.current();
+                    List<Vehicle> inside = new ArrayList<>();
+                    for (int trip = 0; trip < trips; trip++) {
+                        // Arrivals outpace departures, so the city fills up and drivers get sent further out
+                        if (!inside.isEmpty() && local.nextInt(100) < 40) {
+                            coordinator.exit(inside.remove(local.nextInt(inside.size())), trip).join();
+                        }
+                        Vehicle car = new GenericVehicle("D" + driver + "-" + trip, 1 + local.nextInt(3));
+                        ParkingTicket ticket = coordinator.parkNearest(CENTRE_LAT + (local.nextDouble() - 0.5) * 0.27,
+                                CENTRE_LON + (local.nextDouble() - 0.5) * 0.28, car, trip).join();
+                        if (ticket == null) {
+                            full.incrementAndGet();
+                        } else {
+                            if (!ticketIds.add(ticket.getTicketId())) {
+                                throw new IllegalStateException("Ticket id " + ticket.getTicketId() + " issued twice");
+                            }
+                            parked.incrementAndGet();
+                            inside.add(car);
+                        }
+                    }
+                    done.countDown();
+                }).start();
+            }
+            done.await();
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            System.out.println(sites + " sites on " + shards + " shards, " + drivers + " drivers: " + parked.get()
+                    + " parked, " + full.get() + " turned away in " + millis + "ms");
+            if (ticketIds.size() != parked.get()) {
+                throw new IllegalStateException(parked.get() + " parked, but " + ticketIds.size() + " distinct ticket ids");
+            }
+            System.out.println("All " + ticketIds.size() + " ticket ids distinct across " + sites + " sites");
+
+            // Wait for the last refreshes to land
+            List<CompletableFuture<Void>> refreshes = new ArrayList<>();
+            for (int siteId = 0; siteId < sites; siteId++) {
+                refreshes.add(coordinator.refreshSite(siteId));
+            }
+            CompletableFuture.allOf(refreshes.toArray(new CompletableFuture<?>[0])).join();
+
+            for (int siteId = 0; siteId < sites; siteId++) {
+                for (int size = 1; size <= 3; size++) {
+                    int actual = 0;
+                    for (int s = size; s <= 3; s++) {
+                        actual += coordinator.getGarage(siteId).availableSpots(s);
+                    }
+                    if (coordinator.freeSpots(siteId, size) != actual) {
+                        throw new IllegalStateException("Site " + siteId + " size " + size + ": summary "
+                                + coordinator.freeSpots(siteId, size) + ", garage " + actual);
+                    }
+                }
+            }
+
+            int queries = 200_000;
+            long sink = 0;
+            long queryStart = System.nanoTime();
+            for (int q = 0; q < queries; q++) {
+                SiteAvailability nearest = coordinator.nearest(CENTRE_LAT + (random.nextDouble() - 0.5) * 0.27,
+                        CENTRE_LON + (random.nextDouble() - 0.5) * 0.28, 1 + q % 3);
+                sink += nearest == null ? 0 : nearest.getSiteId();
+            }
+            System.out.println("Nearest-site query: " + (System.nanoTime() - queryStart) / queries + " ns (" + sink % 10 + ")");
+
+            for (int q = 0; q < 2_000; q++) {
+                double lat = CENTRE_LAT + (random.nextDouble() - 0.5) * 0.27;
+                double lon = CENTRE_LON + (random.nextDouble() - 0.5) * 0.28;
+                int size = 1 + q % 3;
+                SiteAvailability nearest = coordinator.nearest(lat, lon, size);
+                double bestKm = Double.MAX_VALUE;
+                for (int siteId = 0; siteId < sites; siteId++) {
+                    if (coordinator.freeSpots(siteId, size) > 0) {
+                        bestKm = Math.min(bestKm, haversineKm(lat, lon, siteLat[siteId], siteLon[siteId]));
+                    }
+                }
+                double answerKm = nearest == null ? Double.MAX_VALUE
+                        : haversineKm(lat, lon, siteLat[nearest.getSiteId()], siteLon[nearest.getSiteId()]);
+                // Ties closer than a few metres may go either way with the flat-earth distance
+                if (answerKm - bestKm > 0.005) {
+                    throw new IllegalStateException("Query " + q + ": answered " + answerKm + " km, nearest is " + bestKm + " km");
+                }
+            }
+            System.out.println("Summary matches all garages; nearest answers match a haversine scan");
+        }
+    }
+
+    private static double haversineKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * 6371.0 * Math.asin(Math.sqrt(a));
+    }
+}
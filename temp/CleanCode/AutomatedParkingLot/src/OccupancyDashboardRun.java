@@ -0,0 +1,91 @@
+import impl.GenericVehicle;
+import impl.MultiLevelParkingSpaceFactory;
+import impl.OccupancyAnalytics;
+import impl.ParkingGarage;
+import impl.ParkingTicket;
+import impl.Tariff;
+import impl.UtilizationReport;
+import interfaces.Vehicle;
+
+import java.time.LocalTime;
+import java.util.HashSet;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Simulates a day of traffic through a 3-level garage and prints what the analytics dashboard
+ * would show: an hourly table for the day, then the 24h totals per level and for the garage.
+ * Checks the exact counters against the simulation and the distinct-plate estimate against
+ * the real number of plates.
+ */
+public class OccupancyDashboardRun {
+    public static void main(String[] args) {
+        MultiLevelParkingSpaceFactory factory = new MultiLevelParkingSpaceFactory(3, 20, 150, 30);
+        ParkingGarage garage = new ParkingGarage(factory);
+        for (int i = 0; i < factory.capacity(); i++) {
+            garage.addParkingSlot();
+        }
+        garage.getTariffs().publish(Tariff.builder()
+                .defaultRate(20)
+                .weekdays(LocalTime.of(8, 0), LocalTime.of(20, 0), 60)
+                .dailyCap(400)
+                .build());
+        OccupancyAnalytics analytics = new OccupancyAnalytics(garage, 48);
+        garage.addObserver(analytics);
+
+        long dayStart = 1_717_372_800L; // Monday 2024-06-03 00:00 UTC
+        Random random = new Random(11);
+        PriorityQueue<ParkingTicket> departures = new PriorityQueue<>(
+                (a, b) -> Long.compare(a.getExitTimeStamp(), b.getExitTimeStamp()));
+        Set<String> plates = new HashSet<>();
+        long parks = 0;
+        long exits = 0;
+        double revenue = 0;
+
+        for (long t = dayStart; t < dayStart + 86_400; t += 30) {
+            while (!departures.isEmpty() && departures.peek().getExitTimeStamp() <= t) {
+                ParkingTicket leaving = departures.poll();
+                revenue += garage.calculateParkingCost(leaving);
+                garage.removeVehicle(leaving.getVehicle());
+                garage.notifyObservers(leaving);
+                exits++;
+            }
+            int hour = (int) ((t - dayStart) / 3600);
+            double arrivalsPerSlot = hour >= 8 && hour < 19 ? 0.9 : 0.15;
+            if (random.nextDouble() < arrivalsPerSlot) {
+                // Regulars come back, so there are far fewer plates than visits
+                String plate = "KA" + random.nextInt(3_000);
+                Vehicle car = new GenericVehicle(plate, 1 + random.nextInt(3));
+                ParkingTicket ticket = garage.issueParkingTicket(car, t);
+                if (ticket != null) {
+                    ticket.setExitTimeStamp(t + 600 + random.nextInt(4 * 3600));
+                    departures.add(ticket);
+                    plates.add(plate);
+                    parks++;
+                }
+            }
+        }
+        garage.close(); // delivers the queued events to the analytics
+
+        System.out.println("hour  in  out  avg-occ  peak  revenue");
+        int hourOfDay = 0;
+        for (UtilizationReport hour : analytics.hourly(OccupancyAnalytics.ALL_LEVELS, 24)) {
+            System.out.println(String.format("%4d %4d %4d %8.1f %5d %8.2f", hourOfDay++, hour.getEntries(),
+                    hour.getExits(), hour.getAverageOccupancy(), hour.getPeakOccupancy(), hour.getRevenue()));
+        }
+        for (int level = 0; level < 3; level++) {
+            System.out.println("Level " + level + " " + analytics.report(level, 24));
+        }
+        UtilizationReport day = analytics.report(24);
+        System.out.println("Garage  " + day);
+        System.out.println(String.format("Turnover %.2f exits per spot, distinct plates %d actual vs ~%d estimated",
+                day.turnover(factory.capacity()), plates.size(), analytics.distinctPlatesAllTime()));
+
+        double error = Math.abs(analytics.distinctPlatesAllTime() - plates.size()) / (double) plates.size();
+        if (day.getEntries() != parks || day.getExits() != exits || Math.abs(day.getRevenue() - revenue) > 0.01
+                || day.getCurrentOccupancy() != garage.activeTicketCount() || error > 0.05) {
+            throw new IllegalStateException("Analytics disagree with the simulation");
+        }
+    }
+}
@@ -0,0 +1,160 @@
+import impl.GenericVehicle;
+import impl.MultiLevelParkingSpaceFactory;
+import impl.ParkingGarage;
+import impl.ParkingTicket;
+import impl.Reservation;
+import impl.ReservationBook;
+import interfaces.Vehicle;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+/**
+ * Simulates a day of bookings and walk-ins in a 2-level garage.
+ *
+ * 30% of the car spots can be booked. Booking requests are checked against a brute-force count
+ * of the accepted bookings: one must be accepted exactly when it keeps every moment below the
+ * quota. During the day walk-ins keep the garage close to full while booked cars arrive around
+ * their start time; 15% never come. A booked car that arrives while its spot is held must be
+ * parked in that spot. At the end no booking or hold may be left, and once everyone has left
+ * every spot must be free again.
+ */
+public class ReservationRun {
+    private static final long DAY_START = 1_717_372_800L; // Monday 2024-06-03 00:00 UTC
+    private static final int SHARE_PERCENT = 30;
+
+    public static void main(String[] args) {
+        MultiLevelParkingSpaceFactory factory = new MultiLevelParkingSpaceFactory(2, 10, 100, 10);
+        ParkingGarage garage = new ParkingGarage(factory);
+        for (int i = 0; i < factory.capacity(); i++) {
+            garage.addParkingSlot();
+        }
+        ReservationBook book = garage.enableReservations(SHARE_PERCENT / 100.0, 15 * 60, 20 * 60, DAY_START);
+        int quota = 200 * SHARE_PERCENT / 100;
+
+        Random random = new Random(17);
+        List<Reservation> accepted = new ArrayList<>();
+        int rejected = 0;
+        for (int i = 0; i < 400; i++) {
+            long start = DAY_START + 6 * 3600 + random.nextInt(14 * 3600);
+            long end = start + 3600 + random.nextInt(2 * 3600);
+            Reservation reservation = book.reserve("BK" + i, 2, start, end);
+            boolean fits = peak(accepted, start, end) < quota;
+            if ((reservation != null) != fits) {
+                throw new IllegalStateException("Booking " + i + " accepted=" + (reservation != null) + ", expected " + fits);
+            }
+            if (reservation == null) {
+                rejected++;
+            } else {
+                accepted.add(reservation);
+            }
+        }
+        System.out.println("Bookings: " + accepted.size() + " accepted, " + rejected + " rejected (quota " + quota + ")");
+        System.out.println("Car spots not promised to bookings, 2h steps from 06:00: "
+                + Arrays.toString(book.forecast(2, DAY_START + 6 * 3600, DAY_START + 22 * 3600, 7200)));
+
+        Map<Long, List<Reservation>> arrivals = new HashMap<>();
+        for (Reservation reservation : accepted) {
+            if (random.nextInt(100) < 85) {
+                long arrival = reservation.getStart() - 600 + random.nextInt(20) * 60;
+                arrivals.computeIfAbsent(arrival / 60 * 60, t -> new ArrayList<>()).add(reservation);
+            }
+        }
+        PriorityQueue<ParkingTicket> departures = new PriorityQueue<>(
+                (a, b) -> Long.compare(a.getExitTimeStamp(), b.getExitTimeStamp()));
+        int onHeldSpot = 0;
+        int withoutHold = 0;
+        int walkIns = 0;
+        int turnedAway = 0;
+        int noShows = 0;
+        for (long t = DAY_START; t < DAY_START + 26 * 3600; t += 60) {
+            book.advanceTo(t);
+            while (!departures.isEmpty() && departures.peek().getExitTimeStamp() <= t) {
+                garage.removeVehicle(departures.poll().getVehicle());
+            }
+            for (Reservation reservation : arrivals.getOrDefault(t, List.of())) {
+                Reservation.State before = reservation.getState();
+                int heldSpot = reservation.getSpotId();
+                Vehicle car = new GenericVehicle(reservation.getLicensePlate(), 2);
+                ParkingTicket ticket = garage.issueParkingTicket(car, t);
+                if (before == Reservation.State.HELD) {
+                    if (ticket == null || ticket.getSpotId() != heldSpot) {
+                        throw new IllegalStateException(car.getLicensePlate() + " did not get its held spot " + heldSpot);
+                    }
+                    onHeldSpot++;
+                } else {
+                    // Came too late (hold released) or the hold could not be placed yet
+                    withoutHold++;
+                }
+                if (ticket != null) {
+                    ticket.setExitTimeStamp(reservation.getEnd());
+                    departures.add(ticket);
+                }
+            }
+            if (t < DAY_START + 22 * 3600) {
+                for (int i = 0; i < 3; i++) {
+                    Vehicle car = new GenericVehicle("WI" + t + "-" + i, 2);
+                    ParkingTicket ticket = garage.issueParkingTicket(car, t);
+                    if (ticket == null) {
+                        turnedAway++;
+                    } else {
+                        walkIns++;
+                        ticket.setExitTimeStamp(t + 1800 + random.nextInt(3 * 3600));
+                        departures.add(ticket);
+                    }
+                }
+            }
+        }
+        for (Reservation reservation : accepted) {
+            if (reservation.getState() == Reservation.State.NO_SHOW) {
+                noShows++;
+            }
+        }
+        System.out.println("Booked arrivals: " + onHeldSpot + " on their held spot, " + withoutHold + " without a hold; "
+                + noShows + " no-shows released");
+        System.out.println("Walk-ins: " + walkIns + " parked, " + turnedAway + " turned away");
+
+        while (!departures.isEmpty()) {
+            garage.removeVehicle(departures.poll().getVehicle());
+        }
+        if (book.size() != 0 || book.heldSpots() != 0 || book.waitingForSpot() != 0) {
+            throw new IllegalStateException(book.size() + " bookings and " + book.heldSpots() + " holds left over");
+        }
+        if (garage.totalAvailableSpots() != factory.capacity() || garage.activeTicketCount() != 0) {
+            throw new IllegalStateException("Only " + garage.totalAvailableSpots() + " of " + factory.capacity()
+                    + " spots free after everyone left");
+        }
+        for (int spotId = 0; spotId < factory.capacity(); spotId++) {
+            if (!garage.getParkingSpot(spotId).isAvailable()) {
+                throw new IllegalStateException("Spot " + spotId + " is " + garage.getParkingSpot(spotId).getState());
+            }
+        }
+    }
+
+    private static int peak(List<Reservation> bookings, long from, long to) {
+        // Overlap only changes at starts, so checking from and every start inside the window is enough
+        List<Long> instants = new ArrayList<>();
+        instants.add(from);
+        for (Reservation reservation : bookings) {
+            if (reservation.getStart() > from && reservation.getStart() < to) {
+                instants.add(reservation.getStart());
+            }
+        }
+        int peak = 0;
+        for (long instant : instants) {
+            int overlapping = 0;
+            for (Reservation reservation : bookings) {
+                if (reservation.getStart() <= instant && instant < reservation.getEnd()) {
+                    overlapping++;
+                }
+            }
+            peak = Math.max(peak, overlapping);
+        }
+        return peak;
+    }
+}
@@ -0,0 +1,98 @@
+package impl;
+
+import interfaces.ParkingSpot;
+import interfaces.SpotState;
+import interfaces.Vehicle;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Spot state machine shared by all spot types; subclasses only fix the size class.
+ * Transitions are CAS operations on the state, so gates never need a lock on a spot.
+ */
+public abstract class AbstractParkingSpot implements ParkingSpot {
+    private final int size;
+    private final int level;
+    private final AtomicReference<SpotState> state = new AtomicReference<>(SpotState.FREE);
+    private volatile Vehicle parkedVehicle;
+
+    protected AbstractParkingSpot(int size, int level) {
+        this.size = size;
+        this.level = level;
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return state.get() == SpotState.FREE;
+    }
+
+    /**
+     * Reserve and occupy in one go, for callers that skip the reservation step.
+     */
+    @Override
+    public void parkVehicle(Vehicle vehicle) {
+        if (!reserve() || !occupy(vehicle)) {
+            throw new IllegalStateException("Spot is " + state.get() + ", cannot park " + vehicle.getLicensePlate());
+        }
+    }
+
+    @Override
+    public void removeVehicle(Vehicle vehicle) {
+        vacate(vehicle);
+    }
+
+    @Override
+    public boolean reserve() {
+        return state.compareAndSet(SpotState.FREE, SpotState.RESERVED);
+    }
+
+    @Override
+    public boolean cancelReservation() {
+        return state.compareAndSet(SpotState.RESERVED, SpotState.FREE);
+    }
+
+    /**
+     * Only the caller that reserved the spot may occupy it.
+     */
+    @Override
+    public boolean occupy(Vehicle vehicle) {
+        if (state.get() != SpotState.RESERVED) {
+            return false;
+        }
+        // Set before the CAS so anyone who sees OCCUPIED also sees the vehicle
+        parkedVehicle = vehicle;
+        return state.compareAndSet(SpotState.RESERVED, SpotState.OCCUPIED);
+    }
+
+    @Override
+    public boolean vacate(Vehicle vehicle) {
+        // Matched by plate: after a restart the vehicle object is a different one
+        Vehicle parked = parkedVehicle;
+        if (state.get() != SpotState.OCCUPIED || parked == null
+                || !parked.getLicensePlate().equals(vehicle.getLicensePlate())) {
+            return false;
+        }
+        parkedVehicle = null;
+        return state.compareAndSet(SpotState.OCCUPIED, SpotState.FREE);
+    }
+
+    @Override
+    public SpotState getState() {
+        return state.get();
+    }
+
+    @Override
+    public int getSize() {
+        return size;
+    }
+
+    @Override
+    public int getLevel() {
+        return level;
+    }
+
+    @Override
+    public Vehicle getParkedVehicle() {
+        return parkedVehicle;
+    }
+}
@@ -0,0 +1,61 @@
+package impl;
+
+import interfaces.TicketArchive;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tickets of vehicles currently inside, indexed by ticket id and by plate.
+ *
+ * Both lookups are O(1) ConcurrentHashMap reads. A plate can hold one open ticket at a time;
+ * closing a ticket removes it from both maps and hands it to the {@link TicketArchive}, so memory
+ * is bounded by the vehicles inside rather than by everything that ever parked.
+ */
+public class ActiveTicketStore {
+    private final Map<Long, ParkingTicket> byId = new ConcurrentHashMap<>();
+    private final Map<String, ParkingTicket> byPlate = new ConcurrentHashMap<>();
+    private final TicketArchive archive;
+
+    public ActiveTicketStore(TicketArchive archive) {
+        this.archive = archive;
+    }
+
+    /**
+     * @return false if the plate already has an open ticket
+     */
+    public boolean open(ParkingTicket ticket) {
+        if (byPlate.putIfAbsent(ticket.getVehicle().getLicensePlate(), ticket) != null) {
+            return false;
+        }
+        byId.put(ticket.getTicketId(), ticket);
+        return true;
+    }
+
+    /**
+     * Closes the open ticket of the plate and archives it.
+     *
+     * @return the closed ticket, or null if the plate had none
+     */
+    public ParkingTicket closeByPlate(String licensePlate) {
+        ParkingTicket ticket = byPlate.remove(licensePlate);
+        if (ticket == null) {
+            return null;
+        }
+        byId.remove(ticket.getTicketId());
+        archive.archive(ticket);
+        return ticket;
+    }
+
+    public ParkingTicket findById(long ticketId) {
+        return byId.get(ticketId);
+    }
+
+    public ParkingTicket findByPlate(String licensePlate) {
+        return byPlate.get(licensePlate);
+    }
+
+    public int size() {
+        return byPlate.size();
+    }
+}
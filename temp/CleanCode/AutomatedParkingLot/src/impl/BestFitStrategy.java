@@ -0,0 +1,25 @@
+package impl;
+
+import interfaces.FreeSpotPools;
+import interfaces.SpotAssignmentStrategy;
+import interfaces.Vehicle;
+
+/**
+ * Smallest size class that fits, on any level (lowest level first). A small car only gets
+ * a large spot once every smaller spot in the garage is taken.
+ */
+public class BestFitStrategy implements SpotAssignmentStrategy {
+    @Override
+    public int assign(Vehicle vehicle, FreeSpotPools pools) {
+        int levels = pools.levels();
+        for (int size = Math.max(vehicle.getSize(), 0); size < pools.sizeClasses(); size++) {
+            for (int level = 0; level < levels; level++) {
+                int spotId = pools.claim(level, size);
+                if (spotId >= 0) {
+                    return spotId;
+                }
+            }
+        }
+        return -1;
+    }
+}
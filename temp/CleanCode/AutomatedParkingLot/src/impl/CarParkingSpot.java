@@ -1,31 +1,17 @@
 package impl;
 
-import interfaces.ParkingSpot;
-import interfaces.Vehicle;
+public class CarParkingSpot extends AbstractParkingSpot {
+    public static final int DEFAULT_SIZE = 2;
 
-public class CarParkingSpot implements ParkingSpot {
-    private boolean isAvailable = true;
-    private Vehicle parkedVehicle;
-
-    @Override
-    public boolean isAvailable() {
-        return isAvailable;
-    }
-
-    @Override
-    public void parkVehicle(Vehicle vehicle) {
-        this.parkedVehicle = vehicle;
-        this.isAvailable = false;
+    public CarParkingSpot() {
+        this(DEFAULT_SIZE, 0);
     }
 
-    @Override
-    public void removeVehicle(Vehicle vehicle) {
-        this.parkedVehicle = null;
-        this.isAvailable = false;
+    public CarParkingSpot(int size) {
+        this(size, 0);
     }
 
-    @Override
-    public Vehicle getParkedVehicle() {
-        return parkedVehicle;
+    public CarParkingSpot(int size, int level) {
+        super(size, level);
     }
 }
@@ -0,0 +1,121 @@
+package impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * A queue drained by a daemon thread of its own, in offer order: a {@link GateController} event
+ * loop, or the delivery thread of one {@link ParkingEventBus} subscriber.
+ *
+ * Offering is a lock-free enqueue from any thread, and only the offer that finds the worker idle
+ * pays for the unpark. The worker hands up to maxBatch events at a time to the handler. Past
+ * capacity, offers are dropped and counted; the bound is soft, overshot by at most the number
+ * of threads offering at the same moment.
+ */
+final class EventWorker<E> implements Runnable {
+    private final Queue<E> queue = new ConcurrentLinkedQueue<>();
+    // Offered and not yet taken by the worker; counted only after the enqueue
+    private final AtomicInteger pending = new AtomicInteger();
+    private final LongAdder dropped = new LongAdder();
+    private final int capacity;
+    private final int maxBatch;
+    private final Consumer<List<E>> handler;
+    private final Thread thread;
+    private volatile boolean running = true;
+    private volatile boolean abandoned;
+
+    EventWorker(String name, int capacity, int maxBatch, Consumer<List<E>> handler) {
+        this.capacity = capacity;
+        this.maxBatch = maxBatch;
+        this.handler = handler;
+        this.thread = new Thread(this, name);
+        this.thread.setDaemon(true);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    /**
+     * @return false if the event was dropped because the queue is full
+     */
+    boolean offer(E event) {
+        if (pending.get() >= capacity) {
+            dropped.increment();
+            return false;
+        }
+        queue.offer(event);
+        if (pending.getAndIncrement() == 0) {
+            LockSupport.unpark(thread);
+        }
+        return true;
+    }
+
+    long dropped() {
+        return dropped.sum();
+    }
+
+    @Override
+    public void run() {
+        List<E> batch = new ArrayList<>(Math.min(maxBatch, 1024));
+        while (!abandoned && (running || !queue.isEmpty())) {
+            E event;
+            while (batch.size() < maxBatch && (event = queue.poll()) != null) {
+                batch.add(event);
+            }
+            int taken = batch.size();
+            // Back to zero means every counted event was taken: whoever counts the next one unparks us
+            boolean idle = taken == 0 || pending.addAndGet(-taken) == 0;
+            if (taken > 0) {
+                handler.accept(batch);
+                batch.clear();
+            }
+            // Checked again after the handler: it may wait on a lock, and that wait can use up the
+            // permit an offer() or stop() left meanwhile. Both change what is checked before they unpark.
+            if (idle && running && queue.isEmpty()) {
+                LockSupport.park(this);
+            }
+        }
+    }
+
+    /**
+     * Lets the worker finish what is queued, then end.
+     */
+    void stop() {
+        running = false;
+        LockSupport.unpark(thread);
+    }
+
+    /**
+     * Waits for the worker to end after {@link #stop()}.
+     */
+    void join() throws InterruptedException {
+        thread.join();
+    }
+
+    /**
+     * Waits for the worker to end after {@link #stop()}, until the deadline. A worker still busy
+     * then is interrupted and ends after its current batch, leaving the rest of the queue.
+     */
+    void join(long deadlineNanos) {
+        try {
+            long millis = TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime());
+            if (millis > 0) {
+                thread.join(millis);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        if (thread.isAlive()) {
+            abandoned = true;
+            thread.interrupt();
+        }
+    }
+}
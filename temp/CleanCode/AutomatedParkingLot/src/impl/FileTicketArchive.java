@@ -0,0 +1,52 @@
+package impl;
+
+import interfaces.TicketArchive;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Appends closed tickets as CSV lines: ticketId,plate,spotId,entry,exit,cost.
+ */
+public class FileTicketArchive implements TicketArchive, AutoCloseable {
+    private final BufferedWriter writer;
+
+    public FileTicketArchive(Path file) throws IOException {
+        this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    @Override
+    public synchronized void archive(ParkingTicket ticket) {
+        try {
+            writer.write(Long.toString(ticket.getTicketId()));
+            writer.write(',');
+            writer.write(ticket.getVehicle().getLicensePlate());
+            writer.write(',');
+            writer.write(Integer.toString(ticket.getSpotId()));
+            writer.write(',');
+            writer.write(Long.toString(ticket.getEntryTimeStamp()));
+            writer.write(',');
+            writer.write(Long.toString(ticket.getExitTimeStamp()));
+            writer.write(',');
+            writer.write(Double.toString(ticket.getCost()));
+            writer.newLine();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    public synchronized void flush() throws IOException {
+        writer.flush();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        writer.close();
+    }
+}
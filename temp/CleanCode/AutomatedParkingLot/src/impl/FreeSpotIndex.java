@@ -0,0 +1,198 @@
+package impl;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free set of free spot ids, safe for many gates at once.
+ *
+ * Spot ids are split into segments of 1024. Each segment is a 16-word AtomicLongArray bitset
+ * plus a free counter; a spot is claimed by CAS-clearing its bit, so two gates can never get
+ * the same spot. A summary bitset flags segments that (probably) have free spots, so a claim
+ * reads at most a few summary words and one segment, whatever the garage size.
+ *
+ * Each thread starts its search at a different segment (striping), so concurrent gates mostly
+ * work on different cache lines. Adding segments takes a lock; claim and release never do.
+ */
+class FreeSpotIndex {
+    private static final int SEGMENT_BITS = 10;
+    private static final int SEGMENT_SPOTS = 1 << SEGMENT_BITS;
+    private static final int SEGMENT_WORDS = SEGMENT_SPOTS / 64;
+    private static final int MAX_SEGMENTS = 1 << 16;
+
+    private static final class Segment {
+        final AtomicLongArray words = new AtomicLongArray(SEGMENT_WORDS);
+        final AtomicInteger free = new AtomicInteger();
+    }
+
+    private volatile Segment[] segments = new Segment[0];
+    private final AtomicLongArray nonEmpty = new AtomicLongArray(MAX_SEGMENTS / 64);
+    private final LongAdder count = new LongAdder();
+
+    /**
+     * Marks the spot free. Returns false if it already was.
+     */
+    boolean add(int spotId) {
+        Segment segment = segmentFor(spotId, true);
+        int word = (spotId & (SEGMENT_SPOTS - 1)) >>> 6;
+        long bit = 1L << (spotId & 63);
+        while (true) {
+            long current = segment.words.get(word);
+            if ((current & bit) != 0) {
+                return false;
+            }
+            if (segment.words.compareAndSet(word, current, current | bit)) {
+                break;
+            }
+        }
+        segment.free.incrementAndGet();
+        count.increment();
+        markNonEmpty(spotId >>> SEGMENT_BITS);
+        return true;
+    }
+
+    /**
+     * Claims a specific spot. Returns false if it was not free.
+     */
+    boolean remove(int spotId) {
+        Segment segment = segmentFor(spotId, false);
+        if (segment == null) {
+            return false;
+        }
+        int word = (spotId & (SEGMENT_SPOTS - 1)) >>> 6;
+        long bit = 1L << (spotId & 63);
+        while (true) {
+            long current = segment.words.get(word);
+            if ((current & bit) == 0) {
+                return false;
+            }
+            if (segment.words.compareAndSet(word, current, current & ~bit)) {
+                segment.free.decrementAndGet();
+                count.decrement();
+                return true;
+            }
+        }
+    }
+
+    boolean contains(int spotId) {
+        Segment segment = segmentFor(spotId, false);
+        return segment != null
+                && (segment.words.get((spotId & (SEGMENT_SPOTS - 1)) >>> 6) & (1L << (spotId & 63))) != 0;
+    }
+
+    /**
+     * Claims any free spot, starting the search at this thread's stripe.
+     *
+     * @return the claimed spot id, or -1 if none is free
+     */
+    int claim() {
+        Segment[] table = segments;
+        if (table.length == 0) {
+            return -1;
+        }
+        int start = (int) ((Thread.currentThread().getId() * 0x9E3779B97F4A7C15L) >>> 33) % table.length;
+        return claimFrom(table, start);
+    }
+
+    /**
+     * Claims the free spot with the lowest id (lowest ids first, like the single-threaded index did).
+     */
+    int claimLowest() {
+        Segment[] table = segments;
+        return table.length == 0 ? -1 : claimFrom(table, 0);
+    }
+
+    private int claimFrom(Segment[] table, int startSegment) {
+        int summaryWords = (table.length + 63) >>> 6;
+        for (int i = 0; i <= summaryWords; i++) {
+            int w = ((startSegment >>> 6) + i) % summaryWords;
+            long flags = nonEmpty.get(w);
+            if (i == 0) {
+                flags &= -1L << (startSegment & 63);
+            } else if (i == summaryWords) {
+                flags &= ~(-1L << (startSegment & 63));
+            }
+            while (flags != 0) {
+                int s = (w << 6) + Long.numberOfTrailingZeros(flags);
+                flags &= flags - 1;
+                if (s >= table.length || table[s] == null) {
+                    continue;
+                }
+                int spotId = claimIn(table[s], s);
+                if (spotId >= 0) {
+                    return spotId;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private int claimIn(Segment segment, int s) {
+        while (segment.free.get() > 0) {
+            for (int word = 0; word < SEGMENT_WORDS; word++) {
+                long current = segment.words.get(word);
+                while (current != 0) {
+                    long bit = Long.lowestOneBit(current);
+                    if (segment.words.compareAndSet(word, current, current & ~bit)) {
+                        segment.free.decrementAndGet();
+                        count.decrement();
+                        return (s << SEGMENT_BITS) + (word << 6) + Long.numberOfTrailingZeros(bit);
+                    }
+                    current = segment.words.get(word);
+                }
+            }
+        }
+        // Segment looks empty: drop its summary flag, then re-check so a racing release is not lost
+        int w = s >>> 6;
+        long bit = 1L << (s & 63);
+        long flags;
+        do {
+            flags = nonEmpty.get(w);
+        } while ((flags & bit) != 0 && !nonEmpty.compareAndSet(w, flags, flags & ~bit));
+        if (segment.free.get() > 0) {
+            markNonEmpty(s);
+        }
+        return -1;
+    }
+
+    private void markNonEmpty(int s) {
+        int w = s >>> 6;
+        long bit = 1L << (s & 63);
+        long flags;
+        do {
+            flags = nonEmpty.get(w);
+        } while ((flags & bit) == 0 && !nonEmpty.compareAndSet(w, flags, flags | bit));
+    }
+
+    int size() {
+        return count.intValue();
+    }
+
+    private Segment segmentFor(int spotId, boolean create) {
+        int s = spotId >>> SEGMENT_BITS;
+        Segment[] table = segments;
+        if (s < table.length && table[s] != null) {
+            return table[s];
+        }
+        if (!create) {
+            return null;
+        }
+        if (s >= MAX_SEGMENTS) {
+            throw new IllegalArgumentException("Spot id too large: " + spotId);
+        }
+        synchronized (this) {
+            table = segments;
+            if (s >= table.length) {
+                Segment[] grown = new Segment[Math.max(s + 1, table.length * 2)];
+                System.arraycopy(table, 0, grown, 0, table.length);
+                table = grown;
+            }
+            if (table[s] == null) {
+                table[s] = new Segment();
+            }
+            segments = table;
+            return table[s];
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package impl;
+
+import interfaces.Vehicle;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Runs many garage sites and answers "where is the nearest free spot for this vehicle".
+ *
+ * Sites are sharded over worker threads (site id modulo shards); parks and exits sent through
+ * the coordinator run on the owning shard, so each site has a single writer. After every
+ * operation the shard copies that site's free counts per size class from its
+ * {@link OccupancyCounters} into a packed summary: an AtomicIntegerArray of free spots per
+ * (site, size class) and one int per site whose bit s says a vehicle of size s fits somewhere.
+ * Each shard also sweeps its sites every refreshMillis, to pick up what changed behind the
+ * coordinator's back (gates using a garage directly, reservation holds).
+ *
+ * Queries never touch the garages: a nearest-site lookup is one pass over the packed
+ * coordinates and fit masks, without any lock, and may be one operation behind a site.
+ * {@link #parkNearest} therefore tries the next nearest sites when the first one is full after all.
+ *
+ * Sites are kept in memory up to maxSites; shards are threads in this process.
+ */
+public class GarageCoordinator implements AutoCloseable {
+    public static final int SIZE_CLASSES = 8;
+    private static final double EARTH_RADIUS_KM = 6371.0;
+    private static final int CANDIDATES = 4;
+
+    private final int maxSites;
+    private final ParkingGarage[] garages;
+    private final String[] names;
+    private final double[] latitude;
+    private final double[] longitude;
+    private final AtomicIntegerArray freeBySize;
+    private final AtomicIntegerArray fitMask;
+    private final Map<String, Integer> siteByPlate = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService[] shards;
+    private volatile int siteCount;
+
+    public GarageCoordinator(int shardCount, int maxSites, long refreshMillis) {
+        this.maxSites = maxSites;
+        garages = new ParkingGarage[maxSites];
+        names = new String[maxSites];
+        latitude = new double[maxSites];
+        longitude = new double[maxSites];
+        freeBySize = new AtomicIntegerArray(maxSites * SIZE_CLASSES);
+        fitMask = new AtomicIntegerArray(maxSites);
+        shards = new ScheduledExecutorService[shardCount];
+        for (int s = 0; s < shardCount; s++) {
+            int shard = s;
+            ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, task -> {
+                Thread thread = new Thread(task, "garage-shard-" + shard);
+                thread.setDaemon(true);
+                return thread;
+            });
+            executor.scheduleWithFixedDelay(() -> sweep(shard), refreshMillis, refreshMillis, TimeUnit.MILLISECONDS);
+            shards[s] = executor;
+        }
+    }
+
+    /**
+     * @return the site id
+     */
+    public synchronized int addSite(String name, double latitudeDegrees, double longitudeDegrees, ParkingGarage garage) {
+        int siteId = siteCount;
+        if (siteId == maxSites) {
+            throw new IllegalStateException("Coordinator is full: " + maxSites + " sites");
+        }
+        garages[siteId] = garage;
+        names[siteId] = name;
+        latitude[siteId] = Math.toRadians(latitudeDegrees);
+        longitude[siteId] = Math.toRadians(longitudeDegrees);
+        refresh(siteId);
+        // Published to queries by the volatile write
+        siteCount = siteId + 1;
+        return siteId;
+    }
+
+    /**
+     * Parks at the given site, on its shard.
+     *
+     * @return the ticket, or null if the site has no spot for the vehicle
+     */
+    public CompletableFuture<ParkingTicket> park(int siteId, Vehicle vehicle, long entryTime) {
+        return CompletableFuture.supplyAsync(() -> {
+            ParkingTicket ticket = garages[siteId].issueParkingTicket(vehicle, entryTime);
+            if (ticket != null) {
+                siteByPlate.put(vehicle.getLicensePlate(), siteId);
+            }
+            refresh(siteId);
+            return ticket;
+        }, shardOf(siteId));
+    }
+
+    /**
+     * Parks at the nearest site with room for the vehicle, moving on to the next nearest ones if
+     * a site filled up since the summary was read.
+     *
+     * @return the ticket, or null if none of the nearest sites had room
+     */
+    public CompletableFuture<ParkingTicket> parkNearest(double latitudeDegrees, double longitudeDegrees,
+                                                        Vehicle vehicle, long entryTime) {
+        List<SiteAvailability> candidates = nearest(latitudeDegrees, longitudeDegrees, vehicle.getSize(), CANDIDATES);
+        return parkAtFirst(candidates, 0, vehicle, entryTime);
+    }
+
+    private CompletableFuture<ParkingTicket> parkAtFirst(List<SiteAvailability> candidates, int index,
+                                                         Vehicle vehicle, long entryTime) {
+        if (index == candidates.size()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return park(candidates.get(index).getSiteId(), vehicle, entryTime).thenCompose(ticket -> ticket != null
+                ? CompletableFuture.completedFuture(ticket)
+                : parkAtFirst(candidates, index + 1, vehicle, entryTime));
+    }
+
+    /**
+     * Prices the stay and lets the vehicle out of whichever site it parked at through the coordinator.
+     *
+     * @return the cost, or null if the coordinator did not park this vehicle
+     */
+    public CompletableFuture<Double> exit(Vehicle vehicle, long exitTime) {
+        Integer siteId = siteByPlate.get(vehicle.getLicensePlate());
+        if (siteId == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return CompletableFuture.supplyAsync(() -> {
+            ParkingGarage garage = garages[siteId];
+            ParkingTicket ticket = garage.findTicket(vehicle);
+            Double cost = null;
+            if (ticket != null) {
+                ticket.setExitTimeStamp(exitTime);
+                cost = garage.calculateParkingCost(ticket);
+                garage.removeVehicle(vehicle);
+                garage.notifyObservers(ticket);
+            }
+            siteByPlate.remove(vehicle.getLicensePlate(), siteId);
+            refresh(siteId);
+            return cost;
+        }, shardOf(siteId));
+    }
+
+    public int siteOf(Vehicle vehicle) {
+        return siteByPlate.getOrDefault(vehicle.getLicensePlate(), -1);
+    }
+
+    /**
+     * The nearest site with a free spot the size fits in, or null if there is none.
+     */
+    public SiteAvailability nearest(double latitudeDegrees, double longitudeDegrees, int size) {
+        List<SiteAvailability> nearest = nearest(latitudeDegrees, longitudeDegrees, size, 1);
+        return nearest.isEmpty() ? null : nearest.get(0);
+    }
+
+    /**
+     * Up to k sites with a free spot the size fits in, nearest first, read from the summary only.
+     */
+    public List<SiteAvailability> nearest(double latitudeDegrees, double longitudeDegrees, int size, int k) {
+        checkSize(size);
+        double lat = Math.toRadians(latitudeDegrees);
+        double lon = Math.toRadians(longitudeDegrees);
+        // Equirectangular distance: matches haversine to well under 0.1% at city scale, with no trigonometry per site
+        double cosLat = Math.cos(lat);
+        int[] best = new int[k];
+        double[] bestDistance = new double[k];
+        int found = 0;
+        int sites = siteCount;
+        for (int siteId = 0; siteId < sites; siteId++) {
+            if ((fitMask.get(siteId) & (1 << size)) == 0) {
+                continue;
+            }
+            double x = (longitude[siteId] - lon) * cosLat;
+            double y = latitude[siteId] - lat;
+            double distance = x * x + y * y;
+            if (found == k && distance >= bestDistance[k - 1]) {
+                continue;
+            }
+            // Insertion into the k nearest so far, kept sorted
+            int i = found < k ? found++ : k - 1;
+            while (i > 0 && bestDistance[i - 1] > distance) {
+                best[i] = best[i - 1];
+                bestDistance[i] = bestDistance[i - 1];
+                i--;
+            }
+            best[i] = siteId;
+            bestDistance[i] = distance;
+        }
+        List<SiteAvailability> result = new ArrayList<>(found);
+        for (int i = 0; i < found; i++) {
+            result.add(new SiteAvailability(best[i], names[best[i]], EARTH_RADIUS_KM * Math.sqrt(bestDistance[i]),
+                    freeSpots(best[i], size)));
+        }
+        return result;
+    }
+
+    /**
+     * Free spots at the site that the size fits in, from the summary.
+     */
+    public int freeSpots(int siteId, int size) {
+        checkSize(size);
+        int free = 0;
+        for (int s = size; s < SIZE_CLASSES; s++) {
+            free += freeBySize.get(siteId * SIZE_CLASSES + s);
+        }
+        return free;
+    }
+
+    public int siteCount() {
+        return siteCount;
+    }
+
+    public ParkingGarage getGarage(int siteId) {
+        return garages[siteId];
+    }
+
+    /**
+     * Re-reads the site's counters on its shard, e.g. after using the garage directly.
+     */
+    public CompletableFuture<Void> refreshSite(int siteId) {
+        return CompletableFuture.runAsync(() -> refresh(siteId), shardOf(siteId));
+    }
+
+    private void refresh(int siteId) {
+        ParkingGarage garage = garages[siteId];
+        int mask = 0;
+        boolean freeAtOrAbove = false;
+        for (int size = SIZE_CLASSES - 1; size >= 0; size--) {
+            int free = garage.availableSpots(size);
+            freeBySize.set(siteId * SIZE_CLASSES + size, free);
+            freeAtOrAbove |= free > 0;
+            if (freeAtOrAbove) {
+                mask |= 1 << size;
+            }
+        }
+        fitMask.set(siteId, mask);
+    }
+
+    private void sweep(int shard) {
+        int sites = siteCount;
+        for (int siteId = shard; siteId < sites; siteId += shards.length) {
+            refresh(siteId);
+        }
+    }
+
+    private ScheduledExecutorService shardOf(int siteId) {
+        return shards[siteId % shards.length];
+    }
+
+    private static void checkSize(int size) {
+        if (size < 0 || size >= SIZE_CLASSES) {
+            throw new IllegalArgumentException("Size class must be between 0 and " + (SIZE_CLASSES - 1) + ": " + size);
+        }
+    }
+
+    /**
+     * Finishes the operations already submitted and stops the shard threads.
+     */
+    @Override
+    public void close() {
+        for (ScheduledExecutorService shard : shards) {
+            shard.shutdown();
+        }
+        for (ScheduledExecutorService shard : shards) {
+            try {
+                shard.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+}
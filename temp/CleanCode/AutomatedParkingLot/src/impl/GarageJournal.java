@@ -0,0 +1,542 @@
+package impl;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Write-ahead journal of garage activity: parks, exits and payments.
+ *
+ * - Gates encode records into a shared in-memory batch under a short lock. A gate that needs
+ *   its record on disk calls {@link #awaitDurable(long)}: the first waiter becomes the leader,
+ *   writes and fsyncs the whole batch outside the lock, and every record in it becomes durable
+ *   together (group commit). The others wait for that one fsync instead of issuing their own.
+ * - The journal keeps the open tickets (park records without an exit) in memory. Every
+ *   snapshotEvery records a background thread writes them to a compact snapshot and the journal
+ *   rolls to a new segment, so recovery loads one snapshot and replays only the tail.
+ * - A failed write or fsync fails the journal: records that were in the batch may not be on
+ *   disk, so every later append and awaitDurable throws rather than report them durable.
+ * - Recovery truncates a torn record at the end of a segment.
+ */
+public class GarageJournal implements AutoCloseable {
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String SNAPSHOT_PREFIX = "occupancy-";
+    private static final String SNAPSHOT_SUFFIX = ".snap";
+    private static final int SNAPSHOT_MAGIC = 0x47415247;
+    private static final int BATCH_SIZE = 256 * 1024;
+    private static final long REPLAY_WINDOW = 64L << 20;
+
+    private final Path dir;
+    private final int snapshotEvery;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition flushed = lock.newCondition();
+    private final ReentrantLock snapshotLock = new ReentrantLock();
+
+    // Guarded by lock
+    private ByteBuffer pending = ByteBuffer.allocateDirect(BATCH_SIZE);
+    private ByteBuffer writing = ByteBuffer.allocateDirect(BATCH_SIZE);
+    private boolean flushing;
+    private long nextLsn = 1;
+    private long durableLsn;
+    private int recordsSinceSnapshot;
+    private boolean snapshotScheduled;
+    private boolean closed;
+    private IOException failure;
+    private FileChannel segment;
+    private final Map<Long, JournalRecord> openTickets = new HashMap<>();
+    private final Map<Long, Double> paid = new HashMap<>();
+
+    private long replayedRecords;
+
+    private GarageJournal(Path dir, int snapshotEvery) {
+        this.dir = dir;
+        this.snapshotEvery = snapshotEvery;
+    }
+
+    public static GarageJournal open(Path dir) throws IOException {
+        return open(dir, 200_000);
+    }
+
+    public static GarageJournal open(Path dir, int snapshotEvery) throws IOException {
+        Files.createDirectories(dir);
+        GarageJournal journal = new GarageJournal(dir, snapshotEvery);
+        journal.recover();
+        return journal;
+    }
+
+    public long recordPark(ParkingTicket ticket) {
+        return append(JournalRecord.park(0, ticket));
+    }
+
+    public long recordExit(ParkingTicket ticket) {
+        return append(JournalRecord.exit(0, ticket));
+    }
+
+    public long recordPayment(ParkingTicket ticket, double amount) {
+        return append(JournalRecord.payment(0, ticket, amount));
+    }
+
+    /**
+     * Blocks until the record with the given lsn (and everything before it) is on disk.
+     *
+     * @throws UncheckedIOException if the journal failed before the record was written
+     */
+    public void awaitDurable(long lsn) {
+        lock.lock();
+        try {
+            while (durableLsn < lsn) {
+                checkNotFailed();
+                if (flushing) {
+                    flushed.awaitUninterruptibly();
+                } else {
+                    flushAsLeader();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Tickets of vehicles inside as of the latest record: park records without an exit.
+     */
+    public Collection<JournalRecord> openTickets() {
+        lock.lock();
+        try {
+            return new ArrayList<>(openTickets.values());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public double paidFor(long ticketId) {
+        lock.lock();
+        try {
+            return paid.getOrDefault(ticketId, 0.0);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long lastLsn() {
+        lock.lock();
+        try {
+            return nextLsn - 1;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Records replayed from segments by the last recovery, i.e. not covered by the snapshot.
+     */
+    public long getReplayedRecords() {
+        return replayedRecords;
+    }
+
+    /**
+     * Writes a snapshot of the open tickets and starts a new segment. Segments and snapshots
+     * older than the previous snapshot are deleted. Returns at once if a snapshot is already
+     * being taken.
+     */
+    public void snapshot() throws IOException {
+        if (!snapshotLock.tryLock()) {
+            return;
+        }
+        try {
+            takeSnapshot();
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    /**
+     * Called with the snapshot lock held.
+     */
+    private void takeSnapshot() throws IOException {
+        long covered;
+        List<JournalRecord> tickets;
+        Map<Long, Double> payments;
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            while (flushing) {
+                flushed.awaitUninterruptibly();
+            }
+            checkNotFailed();
+            // Short stop for the gates: drain the batch, roll the segment, copy the open tickets
+            try {
+                writeAndForce(pending);
+                covered = nextLsn - 1;
+                durableLsn = covered;
+                segment.close();
+                openSegment(covered + 1);
+            } catch (IOException ex) {
+                failure = ex;
+                flushed.signalAll();
+                throw ex;
+            }
+            tickets = new ArrayList<>(openTickets.values());
+            payments = new HashMap<>(paid);
+            recordsSinceSnapshot = 0;
+            snapshotScheduled = false;
+        } finally {
+            lock.unlock();
+        }
+        writeSnapshot(covered, tickets, payments);
+        deleteObsolete();
+    }
+
+    /**
+     * Writes what is left of the batch and closes the segment, after any snapshot in progress.
+     *
+     * @throws IOException if the journal failed, now or earlier: some records may not be on disk
+     */
+    @Override
+    public void close() throws IOException {
+        snapshotLock.lock();
+        try {
+            lock.lock();
+            try {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                while (flushing) {
+                    flushed.awaitUninterruptibly();
+                }
+                try {
+                    if (failure == null) {
+                        writeAndForce(pending);
+                        durableLsn = nextLsn - 1;
+                    }
+                } finally {
+                    segment.close();
+                }
+                if (failure != null) {
+                    throw new IOException("Journal failed after lsn " + durableLsn, failure);
+                }
+            } finally {
+                lock.unlock();
+            }
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    private long append(JournalRecord template) {
+        long lsn;
+        boolean snapshotDue = false;
+        lock.lock();
+        try {
+            while (pending.remaining() < template.encodedSize()) {
+                if (flushing) {
+                    flushed.awaitUninterruptibly();
+                } else {
+                    flushAsLeader();
+                }
+            }
+            checkNotFailed();
+            // Numbered only once it is sure to go into this batch, so a flush never covers an lsn it lacks
+            lsn = nextLsn++;
+            JournalRecord record = new JournalRecord(lsn, template.getType(), template.getTicketId(),
+                    template.getSpotId(), template.getSize(), template.getTime(), template.getAmount(), template.getPlate());
+            record.encode(pending);
+            apply(record);
+            if (++recordsSinceSnapshot >= snapshotEvery && !snapshotScheduled) {
+                snapshotScheduled = true;
+                snapshotDue = true;
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (snapshotDue) {
+            // Off the gate's thread: the gate only waits for the short stop inside snapshot()
+            Thread snapshotter = new Thread(this::backgroundSnapshot, "garage-journal-snapshot");
+            snapshotter.setDaemon(true);
+            snapshotter.start();
+        }
+        return lsn;
+    }
+
+    /**
+     * Waits for a snapshot already in progress rather than skip, so a due snapshot is always taken.
+     */
+    private void backgroundSnapshot() {
+        snapshotLock.lock();
+        try {
+            takeSnapshot();
+        } catch (IOException | UncheckedIOException ex) {
+            System.err.println("Garage journal snapshot failed: " + ex.getMessage());
+        } finally {
+            snapshotLock.unlock();
+            lock.lock();
+            try {
+                // Tried again after the next append if it failed; the segment still has every record
+                snapshotScheduled = false;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Called with the lock held.
+     */
+    private void checkNotFailed() {
+        if (failure != null) {
+            throw new UncheckedIOException("Journal failed, records after lsn " + durableLsn + " may be lost", failure);
+        }
+    }
+
+    private void apply(JournalRecord record) {
+        switch (record.getType()) {
+            case PARK:
+                openTickets.put(record.getTicketId(), record);
+                break;
+            case EXIT:
+                openTickets.remove(record.getTicketId());
+                paid.remove(record.getTicketId());
+                break;
+            case PAYMENT:
+                if (openTickets.containsKey(record.getTicketId())) {
+                    paid.merge(record.getTicketId(), record.getAmount(), Double::sum);
+                }
+                break;
+        }
+    }
+
+    /**
+     * Called with the lock held; releases it while writing so gates keep appending to the other batch.
+     */
+    private void flushAsLeader() {
+        checkNotFailed();
+        flushing = true;
+        ByteBuffer batch = pending;
+        pending = writing;
+        writing = batch;
+        long upTo = nextLsn - 1;
+        // Records for lsns up to upTo are all in batch: append() encodes under the same lock
+        lock.unlock();
+        IOException failure = null;
+        try {
+            writeAndForce(batch);
+        } catch (IOException ex) {
+            failure = ex;
+        } finally {
+            lock.lock();
+            flushing = false;
+            if (failure == null) {
+                durableLsn = Math.max(durableLsn, upTo);
+            } else {
+                // The batch may be partly on disk; durableLsn stays short of it for good
+                this.failure = failure;
+            }
+            flushed.signalAll();
+        }
+        if (failure != null) {
+            throw new UncheckedIOException(failure);
+        }
+    }
+
+    /**
+     * Writes and fsyncs the batch and leaves it empty, written or not.
+     */
+    private void writeAndForce(ByteBuffer batch) throws IOException {
+        if (batch.position() == 0) {
+            return;
+        }
+        try {
+            batch.flip();
+            while (batch.hasRemaining()) {
+                segment.write(batch);
+            }
+        } finally {
+            batch.clear();
+        }
+        segment.force(false);
+    }
+
+    private void openSegment(long firstLsn) throws IOException {
+        segment = FileChannel.open(segmentPath(firstLsn),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    // ----------------- Snapshots -----------------
+
+    private void writeSnapshot(long covered, List<JournalRecord> tickets, Map<Long, Double> payments) throws IOException {
+        Path target = dir.resolve(String.format("%s%020d%s", SNAPSHOT_PREFIX, covered, SNAPSHOT_SUFFIX));
+        Path tmp = dir.resolve(target.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16))) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeLong(covered);
+            out.writeInt(tickets.size());
+            for (JournalRecord ticket : tickets) {
+                out.writeLong(ticket.getLsn());
+                out.writeLong(ticket.getTicketId());
+                out.writeInt(ticket.getSpotId());
+                out.writeInt(ticket.getSize());
+                out.writeLong(ticket.getTime());
+                out.writeDouble(payments.getOrDefault(ticket.getTicketId(), 0.0));
+                out.writeUTF(ticket.getPlate());
+            }
+        }
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private long loadLatestSnapshot() {
+        List<Long> snapshots = listSequences(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+        for (int i = snapshots.size() - 1; i >= 0; i--) {
+            Path path = dir.resolve(String.format("%s%020d%s", SNAPSHOT_PREFIX, snapshots.get(i), SNAPSHOT_SUFFIX));
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 1 << 16))) {
+                if (in.readInt() != SNAPSHOT_MAGIC) {
+                    throw new IOException("Not a garage snapshot");
+                }
+                long covered = in.readLong();
+                Map<Long, JournalRecord> tickets = new HashMap<>();
+                Map<Long, Double> payments = new HashMap<>();
+                for (int n = in.readInt(); n > 0; n--) {
+                    long lsn = in.readLong();
+                    long ticketId = in.readLong();
+                    int spotId = in.readInt();
+                    int size = in.readInt();
+                    long entry = in.readLong();
+                    double amount = in.readDouble();
+                    String plate = in.readUTF();
+                    tickets.put(ticketId, new JournalRecord(lsn, JournalRecord.Type.PARK, ticketId, spotId, size, entry, 0, plate));
+                    if (amount != 0) {
+                        payments.put(ticketId, amount);
+                    }
+                }
+                openTickets.putAll(tickets);
+                paid.putAll(payments);
+                return covered;
+            } catch (IOException ex) {
+                System.err.println("Skipping unreadable snapshot " + path + ": " + ex.getMessage());
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Keeps the two newest snapshots and the segments needed to replay from the older one.
+     */
+    private void deleteObsolete() throws IOException {
+        List<Long> snapshots = listSequences(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+        if (snapshots.size() < 2) {
+            return;
+        }
+        long oldestKept = snapshots.get(snapshots.size() - 2);
+        for (int i = 0; i < snapshots.size() - 2; i++) {
+            Files.deleteIfExists(dir.resolve(String.format("%s%020d%s", SNAPSHOT_PREFIX, snapshots.get(i), SNAPSHOT_SUFFIX)));
+        }
+        List<Long> starts = listSequences(SEGMENT_PREFIX, SEGMENT_SUFFIX);
+        for (int i = 0; i + 1 < starts.size(); i++) {
+            if (starts.get(i + 1) <= oldestKept + 1) {
+                Files.deleteIfExists(segmentPath(starts.get(i)));
+            }
+        }
+    }
+
+    // ----------------- Recovery -----------------
+
+    private void recover() throws IOException {
+        long covered = loadLatestSnapshot();
+        long last = covered;
+        List<Long> starts = listSequences(SEGMENT_PREFIX, SEGMENT_SUFFIX);
+        for (int i = 0; i < starts.size(); i++) {
+            if (i + 1 < starts.size() && starts.get(i + 1) <= covered + 1) {
+                continue;
+            }
+            last = Math.max(last, replaySegment(segmentPath(starts.get(i)), covered));
+        }
+        nextLsn = last + 1;
+        durableLsn = last;
+        recordsSinceSnapshot = (int) Math.min(Integer.MAX_VALUE, replayedRecords);
+        openSegment(starts.isEmpty() ? nextLsn : starts.get(starts.size() - 1));
+    }
+
+    /**
+     * Applies the records of a segment after covered, mapping it a window at a time, and
+     * truncates a torn or corrupt tail.
+     *
+     * @return the highest lsn in the segment, or 0 if it holds none
+     */
+    private long replaySegment(Path path, long covered) throws IOException {
+        long last = 0;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = channel.size();
+            long offset = 0;
+            boolean more = size > 0;
+            while (more) {
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, offset,
+                        Math.min(size - offset, REPLAY_WINDOW));
+                try {
+                    JournalRecord record;
+                    while ((record = JournalRecord.decode(window)) != null) {
+                        if (record.getLsn() > covered) {
+                            apply(record);
+                            replayedRecords++;
+                        }
+                        last = Math.max(last, record.getLsn());
+                    }
+                    // A record cut off by the window goes on in the next one; at the end of the file it is torn
+                    more = offset + window.limit() < size && window.position() > 0;
+                } catch (IllegalStateException ex) {
+                    more = false;
+                }
+                offset += window.position();
+            }
+            if (offset < size) {
+                // Torn write from a crash: drop the partial tail
+                channel.truncate(offset);
+            }
+        }
+        return last;
+    }
+
+    // ----------------- Files -----------------
+
+    private Path segmentPath(long firstLsn) {
+        return dir.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstLsn, SEGMENT_SUFFIX));
+    }
+
+    private List<Long> listSequences(String prefix, String suffix) {
+        List<Long> sequences = new ArrayList<>();
+        try (Stream<Path> files = Files.list(dir)) {
+            files.map(p -> p.getFileName().toString())
+                    .filter(name -> name.startsWith(prefix) && name.endsWith(suffix))
+                    .forEach(name -> sequences.add(Long.parseLong(
+                            name.substring(prefix.length(), name.length() - suffix.length()))));
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        Collections.sort(sequences);
+        return sequences;
+    }
+}
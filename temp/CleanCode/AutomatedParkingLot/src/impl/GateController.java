@@ -0,0 +1,246 @@
+package impl;
+
+import interfaces.GateListener;
+import interfaces.Vehicle;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Turns device events from many gates into {@link ParkingGarage} calls and barrier commands.
+ *
+ * Each gate is pinned to one of a few event loops ({@link EventWorker}s, gate id modulo loops), so a
+ * gate's events are handled one at a time, in the order they were submitted, and its state needs no lock.
+ * Submitting is a lock-free enqueue from any thread (device drivers, a simulator).
+ *
+ * Entry gate: detected -> plate read -> ticket issued, barrier opens -> cleared.
+ * Exit gate: detected -> plate read -> stay priced, payment due -> paid, vehicle released,
+ * barrier opens -> cleared (free stays open straight away).
+ * A plate read without a detection is accepted; other out-of-order events are ignored and counted.
+ *
+ * Latency is measured from the event that let the vehicle through (detection at an entry, payment
+ * or plate read at an exit) to the barrier command, queueing included. The garage calls run on the
+ * loop: with a {@link GarageJournal} attached the loop waits for the group commit, so the journal
+ * is what sets the latency then.
+ */
+public class GateController implements AutoCloseable {
+    public enum Direction {
+        ENTRY,
+        EXIT
+    }
+
+    private enum State {
+        IDLE,
+        WAITING_FOR_PLATE,
+        WAITING_FOR_PAYMENT,
+        BARRIER_OPEN
+    }
+
+    private static final class Gate {
+        final int gateId;
+        final Direction direction;
+        State state = State.IDLE;
+        long detectedNanos;
+        ParkingTicket ticket;
+        double amountDue;
+
+        Gate(int gateId, Direction direction) {
+            this.gateId = gateId;
+            this.direction = direction;
+        }
+    }
+
+    private final ParkingGarage garage;
+    private final GateListener listener;
+    private static final int LOOP_BATCH = 256;
+
+    private final List<EventWorker<GateEvent>> loops;
+    private final GateLatency entryLatency;
+    private final GateLatency exitLatency;
+    private final LongAdder ignoredEvents = new LongAdder();
+    private final LongAdder failedEvents = new LongAdder();
+    private volatile Gate[] gates = new Gate[0];
+
+    public GateController(ParkingGarage garage, int loopCount, GateListener listener) {
+        this.garage = garage;
+        this.listener = listener;
+        entryLatency = new GateLatency(loopCount);
+        exitLatency = new GateLatency(loopCount);
+        loops = new ArrayList<>(loopCount);
+        for (int i = 0; i < loopCount; i++) {
+            int index = i;
+            EventWorker<GateEvent> loop = new EventWorker<>("gate-loop-" + i, Integer.MAX_VALUE, LOOP_BATCH, events -> {
+                for (GateEvent event : events) {
+                    handle(event, index);
+                }
+            });
+            loops.add(loop);
+            loop.start();
+        }
+    }
+
+    /**
+     * @return the gate id
+     */
+    public synchronized int addGate(Direction direction) {
+        Gate[] current = gates;
+        Gate[] grown = Arrays.copyOf(current, current.length + 1);
+        grown[current.length] = new Gate(current.length, direction);
+        gates = grown;
+        return current.length;
+    }
+
+    /**
+     * Queues the event on its gate's loop and returns straight away.
+     */
+    public void submit(GateEvent event) {
+        if (event.getGateId() < 0 || event.getGateId() >= gates.length) {
+            throw new IllegalArgumentException("Unknown gate " + event.getGateId());
+        }
+        loops.get(event.getGateId() % loops.size()).offer(event);
+    }
+
+    public GateLatency.Snapshot entryLatency() {
+        return entryLatency.snapshot();
+    }
+
+    public GateLatency.Snapshot exitLatency() {
+        return exitLatency.snapshot();
+    }
+
+    public long ignoredEvents() {
+        return ignoredEvents.sum();
+    }
+
+    public long failedEvents() {
+        return failedEvents.sum();
+    }
+
+    private void handle(GateEvent event, int loop) {
+        Gate gate = gates[event.getGateId()];
+        try {
+            switch (event.getType()) {
+                case VEHICLE_DETECTED:
+                    if (gate.state != State.IDLE) {
+                        ignoredEvents.increment();
+                        return;
+                    }
+                    gate.state = State.WAITING_FOR_PLATE;
+                    gate.detectedNanos = event.getSensedNanos();
+                    break;
+                case PLATE_READ:
+                    if (gate.state == State.IDLE) {
+                        // The loop sensor missed it; the plate read is as good a start
+                        gate.detectedNanos = event.getSensedNanos();
+                    } else if (gate.state != State.WAITING_FOR_PLATE) {
+                        ignoredEvents.increment();
+                        return;
+                    }
+                    if (gate.direction == Direction.ENTRY) {
+                        enter(gate, event.getVehicle(), event.getEventTime(), loop);
+                    } else {
+                        priceExit(gate, event.getVehicle(), event.getEventTime(), loop);
+                    }
+                    break;
+                case PAYMENT:
+                    if (gate.state != State.WAITING_FOR_PAYMENT) {
+                        ignoredEvents.increment();
+                        return;
+                    }
+                    pay(gate, event, loop);
+                    break;
+                case VEHICLE_CLEARED:
+                    if (gate.state != State.BARRIER_OPEN) {
+                        ignoredEvents.increment();
+                        return;
+                    }
+                    reset(gate);
+                    break;
+            }
+        } catch (RuntimeException ex) {
+            failedEvents.increment();
+            Vehicle vehicle = gate.ticket != null ? gate.ticket.getVehicle() : event.getVehicle();
+            reset(gate);
+            listener.refused(gate.gateId, vehicle, "Gate error: " + ex.getMessage());
+        }
+    }
+
+    private void enter(Gate gate, Vehicle vehicle, long entryTime, int loop) {
+        ParkingTicket ticket = garage.issueParkingTicket(vehicle, entryTime);
+        if (ticket == null) {
+            reset(gate);
+            listener.refused(gate.gateId, vehicle, "No free spot");
+            return;
+        }
+        open(gate, ticket, entryLatency, gate.detectedNanos, loop);
+    }
+
+    private void priceExit(Gate gate, Vehicle vehicle, long exitTime, int loop) {
+        ParkingTicket ticket = garage.findTicket(vehicle);
+        if (ticket == null) {
+            reset(gate);
+            listener.refused(gate.gateId, vehicle, "No ticket for " + vehicle.getLicensePlate());
+            return;
+        }
+        ticket.setExitTimeStamp(exitTime);
+        double cost = garage.calculateParkingCost(ticket);
+        gate.ticket = ticket;
+        if (cost <= 0) {
+            release(gate, gate.detectedNanos, loop);
+            return;
+        }
+        gate.amountDue = cost;
+        gate.state = State.WAITING_FOR_PAYMENT;
+        listener.paymentDue(gate.gateId, ticket, cost);
+    }
+
+    private void pay(Gate gate, GateEvent event, int loop) {
+        if (event.getAmount() < gate.amountDue) {
+            // Stays closed and keeps waiting for the full amount
+            listener.refused(gate.gateId, gate.ticket.getVehicle(), "Payment short by " + (gate.amountDue - event.getAmount()));
+            return;
+        }
+        garage.payParkingTicket(gate.ticket, event.getAmount());
+        release(gate, event.getSensedNanos(), loop);
+    }
+
+    private void release(Gate gate, long sinceNanos, int loop) {
+        ParkingTicket ticket = gate.ticket;
+        garage.removeVehicle(ticket.getVehicle());
+        garage.notifyObservers(ticket);
+        open(gate, ticket, exitLatency, sinceNanos, loop);
+    }
+
+    private void open(Gate gate, ParkingTicket ticket, GateLatency latency, long sinceNanos, int loop) {
+        gate.state = State.BARRIER_OPEN;
+        gate.ticket = ticket;
+        listener.barrierOpened(gate.gateId, ticket);
+        latency.record(loop, System.nanoTime() - sinceNanos);
+    }
+
+    private static void reset(Gate gate) {
+        gate.state = State.IDLE;
+        gate.ticket = null;
+        gate.amountDue = 0;
+    }
+
+    /**
+     * Handles the events already submitted, then stops the loops.
+     */
+    @Override
+    public void close() {
+        for (EventWorker<GateEvent> loop : loops) {
+            loop.stop();
+        }
+        for (EventWorker<GateEvent> loop : loops) {
+            try {
+                loop.join();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+}
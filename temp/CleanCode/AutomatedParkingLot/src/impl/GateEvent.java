@@ -0,0 +1,76 @@
+package impl;
+
+import interfaces.Vehicle;
+
+/**
+ * One reading from a gate's devices: the loop sensor, the plate reader or the payment terminal.
+ * sensedNanos is taken when the event is created, so the controller can measure how long it took
+ * to act on it.
+ */
+public class GateEvent {
+    public enum Type {
+        VEHICLE_DETECTED,
+        PLATE_READ,
+        PAYMENT,
+        VEHICLE_CLEARED
+    }
+
+    private final Type type;
+    private final int gateId;
+    private final Vehicle vehicle;
+    private final double amount;
+    private final long eventTime;
+    private final long sensedNanos;
+
+    private GateEvent(Type type, int gateId, Vehicle vehicle, double amount, long eventTime) {
+        this.type = type;
+        this.gateId = gateId;
+        this.vehicle = vehicle;
+        this.amount = amount;
+        this.eventTime = eventTime;
+        this.sensedNanos = System.nanoTime();
+    }
+
+    public static GateEvent vehicleDetected(int gateId) {
+        return new GateEvent(Type.VEHICLE_DETECTED, gateId, null, 0, 0);
+    }
+
+    /**
+     * The plate reader recognised the vehicle (plate and size class) at eventTime, in epoch seconds.
+     */
+    public static GateEvent plateRead(int gateId, Vehicle vehicle, long eventTime) {
+        return new GateEvent(Type.PLATE_READ, gateId, vehicle, 0, eventTime);
+    }
+
+    public static GateEvent payment(int gateId, double amount) {
+        return new GateEvent(Type.PAYMENT, gateId, null, amount, 0);
+    }
+
+    public static GateEvent vehicleCleared(int gateId) {
+        return new GateEvent(Type.VEHICLE_CLEARED, gateId, null, 0, 0);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public int getGateId() {
+        return gateId;
+    }
+
+    public Vehicle getVehicle() {
+        return vehicle;
+    }
+
+    public double getAmount() {
+        return amount;
+    }
+
+    public long getEventTime() {
+        return eventTime;
+    }
+
+    public long getSensedNanos() {
+        return sensedNanos;
+    }
+}
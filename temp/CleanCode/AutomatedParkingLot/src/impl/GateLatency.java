@@ -0,0 +1,142 @@
+package impl;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Sensor-to-barrier latency histogram with one stripe per event loop, so each stripe has a
+ * single writer and recording is a plain increment on a counter no other loop touches.
+ *
+ * Buckets are log-linear: every power of two is split into 8 sub-buckets, so percentiles are
+ * reported within 12.5% of the real value. Stripes are merged when a snapshot is taken.
+ */
+public class GateLatency {
+    private static final int SUB_BITS = 3;
+    private static final int SUB = 1 << SUB_BITS;
+    private static final int BUCKETS = (64 - SUB_BITS) * SUB + SUB;
+    // Two extra cells per stripe: total nanos and max
+    private static final int SUM = BUCKETS;
+    private static final int MAX = BUCKETS + 1;
+
+    private final AtomicLongArray[] stripes;
+
+    GateLatency(int stripeCount) {
+        stripes = new AtomicLongArray[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new AtomicLongArray(BUCKETS + 2);
+        }
+    }
+
+    /**
+     * Only ever called by the stripe's own loop.
+     */
+    void record(int stripe, long nanos) {
+        AtomicLongArray counters = stripes[stripe];
+        nanos = Math.max(0, nanos);
+        int bucket = bucketOf(nanos);
+        counters.lazySet(bucket, counters.get(bucket) + 1);
+        counters.lazySet(SUM, counters.get(SUM) + nanos);
+        if (nanos > counters.get(MAX)) {
+            counters.lazySet(MAX, nanos);
+        }
+    }
+
+    private static int bucketOf(long value) {
+        if (value < SUB) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+        return (shift + 1) * SUB + (int) ((value >>> shift) & (SUB - 1));
+    }
+
+    private static long upperBoundOf(int bucket) {
+        if (bucket < SUB) {
+            return bucket;
+        }
+        int shift = bucket / SUB - 1;
+        long next = (SUB + bucket % SUB + 1L) << shift;
+        return next < 0 ? Long.MAX_VALUE : next - 1;
+    }
+
+    public Snapshot snapshot() {
+        long[] merged = new long[BUCKETS];
+        long count = 0;
+        long sum = 0;
+        long max = 0;
+        for (AtomicLongArray stripe : stripes) {
+            for (int b = 0; b < BUCKETS; b++) {
+                long c = stripe.get(b);
+                merged[b] += c;
+                count += c;
+            }
+            sum += stripe.get(SUM);
+            max = Math.max(max, stripe.get(MAX));
+        }
+        return new Snapshot(count, sum, max, percentile(merged, count, max, 0.50),
+                percentile(merged, count, max, 0.99), percentile(merged, count, max, 0.999));
+    }
+
+    /**
+     * Upper bound of the bucket holding the p-th value, but never above the largest value
+     * recorded - the top bucket is usually only partly filled.
+     */
+    private static long percentile(long[] buckets, long count, long max, double p) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(p * count);
+        long seen = 0;
+        for (int b = 0; b < buckets.length; b++) {
+            seen += buckets[b];
+            if (seen >= rank) {
+                return Math.min(upperBoundOf(b), max);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * All values in nanoseconds.
+     */
+    public static final class Snapshot {
+        private final long count;
+        private final long totalNanos;
+        private final long max;
+        private final long p50;
+        private final long p99;
+        private final long p999;
+
+        Snapshot(long count, long totalNanos, long max, long p50, long p99, long p999) {
+            this.count = count;
+            this.totalNanos = totalNanos;
+            this.max = max;
+            this.p50 = p50;
+            this.p99 = p99;
+            this.p999 = p999;
+        }
+
+        public long getCount() { return count; }
+        public long getMax() { return max; }
+        public long getP50() { return p50; }
+        public long getP99() { return p99; }
+        public long getP999() { return p999; }
+
+        public double getMean() {
+            return count == 0 ? 0 : (double) totalNanos / count;
+        }
+
+        @Override
+        public String toString() {
+            return "count=" + count
+                    + ", mean=" + micros((long) getMean())
+                    + ", p50=" + micros(p50)
+                    + ", p99=" + micros(p99)
+                    + ", p999=" + micros(p999)
+                    + ", max=" + micros(max);
+        }
+
+        private static String micros(long nanos) {
+            return String.format("%.1fus", nanos / (double) TimeUnit.MICROSECONDS.toNanos(1));
+        }
+    }
+}
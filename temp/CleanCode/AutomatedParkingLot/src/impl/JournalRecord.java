@@ -0,0 +1,138 @@
+package impl;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+
+/**
+ * One garage journal entry. On disk:
+ *
+ * <pre>
+ * int length | int crc32 | long lsn | byte type | long ticketId | int spotId | int size
+ *            | long time | double amount | short len, plate bytes
+ * </pre>
+ *
+ * length covers everything after itself, the crc everything after the crc. A record that is
+ * cut short or fails its crc marks the end of the journal (torn write from a crash).
+ */
+public final class JournalRecord {
+    public enum Type { PARK, EXIT, PAYMENT }
+
+    static final int HEADER = Integer.BYTES * 2;
+    static final int MAX_RECORD = 1024;
+    private static final int FIXED_BODY = Long.BYTES + 1 + Long.BYTES + Integer.BYTES * 2
+            + Long.BYTES + Double.BYTES + Short.BYTES;
+
+    private final long lsn;
+    private final Type type;
+    private final long ticketId;
+    private final int spotId;
+    private final int size;
+    private final long time;
+    private final double amount;
+    private final String plate;
+
+    JournalRecord(long lsn, Type type, long ticketId, int spotId, int size, long time, double amount, String plate) {
+        this.lsn = lsn;
+        this.type = type;
+        this.ticketId = ticketId;
+        this.spotId = spotId;
+        this.size = size;
+        this.time = time;
+        this.amount = amount;
+        this.plate = plate;
+    }
+
+    static JournalRecord park(long lsn, ParkingTicket ticket) {
+        return new JournalRecord(lsn, Type.PARK, ticket.getTicketId(), ticket.getSpotId(),
+                ticket.getVehicle().getSize(), ticket.getEntryTimeStamp(), 0, ticket.getVehicle().getLicensePlate());
+    }
+
+    static JournalRecord exit(long lsn, ParkingTicket ticket) {
+        return new JournalRecord(lsn, Type.EXIT, ticket.getTicketId(), ticket.getSpotId(), 0,
+                ticket.getExitTimeStamp(), 0, "");
+    }
+
+    static JournalRecord payment(long lsn, ParkingTicket ticket, double amount) {
+        return new JournalRecord(lsn, Type.PAYMENT, ticket.getTicketId(), ticket.getSpotId(), 0,
+                ticket.getExitTimeStamp(), amount, "");
+    }
+
+    public long getLsn() { return lsn; }
+    public Type getType() { return type; }
+    public long getTicketId() { return ticketId; }
+    public int getSpotId() { return spotId; }
+    public int getSize() { return size; }
+    public long getTime() { return time; }
+    public double getAmount() { return amount; }
+    public String getPlate() { return plate; }
+
+    int encodedSize() {
+        return HEADER + FIXED_BODY + plate.length() * 3;
+    }
+
+    void encode(ByteBuffer out) {
+        byte[] plateBytes = plate.getBytes(StandardCharsets.UTF_8);
+        if (HEADER + FIXED_BODY + plateBytes.length > MAX_RECORD) {
+            throw new IllegalArgumentException("Plate too long: " + plate);
+        }
+        int start = out.position();
+        out.putInt(FIXED_BODY + Integer.BYTES + plateBytes.length);
+        out.putInt(0);
+        int body = out.position();
+        out.putLong(lsn);
+        out.put((byte) type.ordinal());
+        out.putLong(ticketId);
+        out.putInt(spotId);
+        out.putInt(size);
+        out.putLong(time);
+        out.putDouble(amount);
+        out.putShort((short) plateBytes.length);
+        out.put(plateBytes);
+        out.putInt(start + Integer.BYTES, crc(out, body, out.position()));
+    }
+
+    /**
+     * Decodes the record at the buffer's position, or returns null (position untouched) if
+     * the buffer does not hold all of it yet.
+     *
+     * @throws IllegalStateException if the record is complete but damaged
+     */
+    static JournalRecord decode(ByteBuffer in) {
+        if (in.remaining() < HEADER) {
+            return null;
+        }
+        int start = in.position();
+        int length = in.getInt(start);
+        if (length < FIXED_BODY + Integer.BYTES || length > MAX_RECORD) {
+            throw new IllegalStateException("Bad record length " + length);
+        }
+        if (in.remaining() < Integer.BYTES + length) {
+            return null;
+        }
+        int body = start + HEADER;
+        int end = start + Integer.BYTES + length;
+        if (in.getInt(start + Integer.BYTES) != crc(in, body, end)) {
+            throw new IllegalStateException("Checksum mismatch");
+        }
+        in.position(body);
+        long lsn = in.getLong();
+        Type type = Type.values()[in.get()];
+        long ticketId = in.getLong();
+        int spotId = in.getInt();
+        int size = in.getInt();
+        long time = in.getLong();
+        double amount = in.getDouble();
+        byte[] plateBytes = new byte[in.getShort()];
+        in.get(plateBytes);
+        in.position(end);
+        return new JournalRecord(lsn, type, ticketId, spotId, size, time, amount,
+                new String(plateBytes, StandardCharsets.UTF_8));
+    }
+
+    private static int crc(ByteBuffer buffer, int from, int to) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate().limit(to).position(from));
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,12 @@
+package impl;
+
+/**
+ * For vans, buses and trucks.
+ */
+public class LargeVehicleParkingSpot extends AbstractParkingSpot {
+    public static final int SIZE = 3;
+
+    public LargeVehicleParkingSpot(int level) {
+        super(SIZE, level);
+    }
+}
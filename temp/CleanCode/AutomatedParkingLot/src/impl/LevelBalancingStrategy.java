@@ -0,0 +1,42 @@
+package impl;
+
+import interfaces.FreeSpotPools;
+import interfaces.SpotAssignmentStrategy;
+import interfaces.Vehicle;
+
+/**
+ * Best fit by size, but spread over the levels: the level with the most free spots of that
+ * size wins, which keeps ramps and lifts evenly loaded.
+ */
+public class LevelBalancingStrategy implements SpotAssignmentStrategy {
+    @Override
+    public int assign(Vehicle vehicle, FreeSpotPools pools) {
+        int levels = pools.levels();
+        for (int size = Math.max(vehicle.getSize(), 0); size < pools.sizeClasses(); size++) {
+            int bestLevel = -1;
+            int mostFree = 0;
+            for (int level = 0; level < levels; level++) {
+                int free = pools.freeSpots(level, size);
+                if (free > mostFree) {
+                    mostFree = free;
+                    bestLevel = level;
+                }
+            }
+            if (bestLevel < 0) {
+                continue;
+            }
+            int spotId = pools.claim(bestLevel, size);
+            if (spotId >= 0) {
+                return spotId;
+            }
+            // Another gate emptied that level in between: take this size from any level
+            for (int level = 0; level < levels; level++) {
+                spotId = pools.claim(level, size);
+                if (spotId >= 0) {
+                    return spotId;
+                }
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,9 @@
+package impl;
+
+public class MotorcycleParkingSpot extends AbstractParkingSpot {
+    public static final int SIZE = 1;
+
+    public MotorcycleParkingSpot(int level) {
+        super(SIZE, level);
+    }
+}
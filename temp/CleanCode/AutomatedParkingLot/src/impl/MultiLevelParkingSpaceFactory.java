@@ -0,0 +1,49 @@
+package impl;
+
+import interfaces.ParkingSpaceFactory;
+import interfaces.ParkingSpot;
+
+/**
+ * Builds a garage level by level, starting at the exit level (0). Each level gets the same
+ * mix of motorcycle, car and large spots, smallest first, so spot ids run away from the exit
+ * within a level.
+ */
+public class MultiLevelParkingSpaceFactory implements ParkingSpaceFactory {
+    private final int levels;
+    private final int motorcycleSpots;
+    private final int carSpots;
+    private final int largeSpots;
+    private int created;
+
+    public MultiLevelParkingSpaceFactory(int levels, int motorcycleSpots, int carSpots, int largeSpots) {
+        this.levels = levels;
+        this.motorcycleSpots = motorcycleSpots;
+        this.carSpots = carSpots;
+        this.largeSpots = largeSpots;
+    }
+
+    public int capacity() {
+        return levels * spotsPerLevel();
+    }
+
+    @Override
+    public synchronized ParkingSpot createParkingSpot() {
+        if (created == capacity()) {
+            throw new IllegalStateException("All " + levels + " levels are already built");
+        }
+        int level = created / spotsPerLevel();
+        int position = created % spotsPerLevel();
+        created++;
+        if (position < motorcycleSpots) {
+            return new MotorcycleParkingSpot(level);
+        }
+        if (position < motorcycleSpots + carSpots) {
+            return new CarParkingSpot(CarParkingSpot.DEFAULT_SIZE, level);
+        }
+        return new LargeVehicleParkingSpot(level);
+    }
+
+    private int spotsPerLevel() {
+        return motorcycleSpots + carSpots + largeSpots;
+    }
+}
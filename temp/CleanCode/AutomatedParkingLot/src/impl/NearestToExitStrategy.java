@@ -0,0 +1,25 @@
+package impl;
+
+import interfaces.FreeSpotPools;
+import interfaces.SpotAssignmentStrategy;
+import interfaces.Vehicle;
+
+/**
+ * Lowest level first and, on that level, the spot nearest the exit. Size still decides within
+ * a level, so a larger spot is only used when the level has no smaller one that fits.
+ */
+public class NearestToExitStrategy implements SpotAssignmentStrategy {
+    @Override
+    public int assign(Vehicle vehicle, FreeSpotPools pools) {
+        int sizes = pools.sizeClasses();
+        for (int level = 0; level < pools.levels(); level++) {
+            for (int size = Math.max(vehicle.getSize(), 0); size < sizes; size++) {
+                int spotId = pools.claimNearest(level, size);
+                if (spotId >= 0) {
+                    return spotId;
+                }
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,272 @@
+package impl;
+
+import interfaces.ParkingObserver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Live utilization numbers per level and hour, fed by the garage's entry and exit events.
+ *
+ * Everything lives in fixed ring buffers of windowHours hourly slots per level: entries, exits,
+ * total stay, revenue, time-weighted occupancy, peak occupancy and a small
+ * {@link HyperLogLog} of plates. When an event opens a new hour the oldest slot is reset
+ * and reused, so memory does not grow with traffic and queries never touch ticket history.
+ *
+ * Hours are event time (ticket timestamps, epoch seconds), not wall-clock time. Register it with
+ * {@link ParkingGarage#addObserver}; events then arrive in batches on the bus delivery thread,
+ * so updates are single-threaded. Queries can come from any thread and take the same monitor
+ * for a few microseconds.
+ */
+public class OccupancyAnalytics implements ParkingObserver {
+    public static final int ALL_LEVELS = -1;
+    private static final int HOUR = 3600;
+    private static final int SKETCH_PRECISION = 11;
+
+    private final ParkingGarage garage;
+    private final int levels;
+    private final int windowHours;
+
+    private final long[] slotHour;
+    private final long[][] entries;
+    private final long[][] exits;
+    private final long[][] staySeconds;
+    private final double[][] revenue;
+    private final double[][] occupiedSeconds;
+    private final int[][] peak;
+    private final int[] peakTotal;
+    private final HyperLogLog[][] plates;
+    private final HyperLogLog allTimePlates = new HyperLogLog(14);
+
+    private final int[] occupied;
+    private final long[] lastChange;
+    private long latestHour = -1;
+    private long latestSecond;
+
+    public OccupancyAnalytics(ParkingGarage garage, int windowHours) {
+        this.garage = garage;
+        this.levels = Math.max(1, garage.getOccupancy().levels());
+        this.windowHours = windowHours;
+        slotHour = new long[windowHours];
+        entries = new long[levels][windowHours];
+        exits = new long[levels][windowHours];
+        staySeconds = new long[levels][windowHours];
+        revenue = new double[levels][windowHours];
+        occupiedSeconds = new double[levels][windowHours];
+        peak = new int[levels][windowHours];
+        peakTotal = new int[windowHours];
+        plates = new HyperLogLog[levels][windowHours];
+        for (int level = 0; level < levels; level++) {
+            for (int slot = 0; slot < windowHours; slot++) {
+                plates[level][slot] = new HyperLogLog(SKETCH_PRECISION);
+            }
+        }
+        Arrays.fill(slotHour, -1);
+        occupied = new int[levels];
+        lastChange = new long[levels];
+        // Vehicles already inside (e.g. restored from the journal) never produce an entry event
+        for (int level = 0; level < levels; level++) {
+            occupied[level] = (int) garage.getOccupancy().occupiedOnLevel(level);
+        }
+    }
+
+    @Override
+    public synchronized void onEvents(List<ParkingEvent> events) {
+        // One lock for the batch; like the default, a bad event does not stop the others
+        int failed = 0;
+        RuntimeException first = null;
+        for (ParkingEvent event : events) {
+            try {
+                if (event.getType() == ParkingEvent.Type.ENTERED) {
+                    entered(event.getTicket());
+                } else {
+                    exited(event.getTicket());
+                }
+            } catch (RuntimeException ex) {
+                failed++;
+                if (first == null) {
+                    first = ex;
+                }
+            }
+        }
+        if (first != null) {
+            throw new FailedEventsException(failed, first);
+        }
+    }
+
+    @Override
+    public synchronized void vehicleEntered(ParkingTicket ticket) {
+        entered(ticket);
+    }
+
+    @Override
+    public synchronized void vehicleExited(ParkingTicket ticket) {
+        exited(ticket);
+    }
+
+    private void entered(ParkingTicket ticket) {
+        int level = levelOf(ticket);
+        long time = ticket.getEntryTimeStamp();
+        int slot = slotFor(time);
+        advance(level, time);
+        occupied[level]++;
+        if (slot < 0) {
+            return;
+        }
+        entries[level][slot]++;
+        peak[level][slot] = Math.max(peak[level][slot], occupied[level]);
+        peakTotal[slot] = Math.max(peakTotal[slot], totalOccupied());
+        String plate = ticket.getVehicle().getLicensePlate();
+        plates[level][slot].add(plate);
+        allTimePlates.add(plate);
+    }
+
+    private void exited(ParkingTicket ticket) {
+        int level = levelOf(ticket);
+        long time = Math.max(ticket.getExitTimeStamp(), ticket.getEntryTimeStamp());
+        int slot = slotFor(time);
+        advance(level, time);
+        occupied[level] = Math.max(0, occupied[level] - 1);
+        if (slot < 0) {
+            return;
+        }
+        exits[level][slot]++;
+        staySeconds[level][slot] += time - ticket.getEntryTimeStamp();
+        revenue[level][slot] += ticket.getCost();
+    }
+
+    private int levelOf(ParkingTicket ticket) {
+        if (ticket.getSpotId() < 0) {
+            return 0;
+        }
+        int level = garage.getParkingSpot(ticket.getSpotId()).getLevel();
+        return level < levels ? level : levels - 1;
+    }
+
+    /**
+     * Ring slot of the hour containing time, opening (and resetting) slots for any new hours.
+     * Returns -1 for events older than the window.
+     */
+    private int slotFor(long time) {
+        long hour = Math.floorDiv(time, HOUR);
+        if (hour > latestHour) {
+            for (long h = Math.max(latestHour + 1, hour - windowHours + 1); h <= hour; h++) {
+                openSlot(h);
+            }
+            latestHour = hour;
+        }
+        latestSecond = Math.max(latestSecond, time);
+        int slot = (int) Math.floorMod(hour, (long) windowHours);
+        return slotHour[slot] == hour ? slot : -1;
+    }
+
+    private void openSlot(long hour) {
+        int slot = (int) Math.floorMod(hour, (long) windowHours);
+        slotHour[slot] = hour;
+        for (int level = 0; level < levels; level++) {
+            entries[level][slot] = 0;
+            exits[level][slot] = 0;
+            staySeconds[level][slot] = 0;
+            revenue[level][slot] = 0;
+            occupiedSeconds[level][slot] = 0;
+            peak[level][slot] = occupied[level];
+            plates[level][slot].clear();
+        }
+        peakTotal[slot] = totalOccupied();
+    }
+
+    /**
+     * Adds the occupancy of the level from its last change up to time, split over the hours it spans.
+     */
+    private void advance(int level, long time) {
+        long from = lastChange[level] == 0 ? time : lastChange[level];
+        // Hours before the window have no slot left to add to
+        from = Math.max(from, time - (long) windowHours * HOUR);
+        while (from < time) {
+            long hourEnd = (Math.floorDiv(from, HOUR) + 1) * HOUR;
+            long to = Math.min(time, hourEnd);
+            int slot = (int) Math.floorMod(Math.floorDiv(from, HOUR), (long) windowHours);
+            if (slotHour[slot] == Math.floorDiv(from, HOUR)) {
+                occupiedSeconds[level][slot] += (double) occupied[level] * (to - from);
+            }
+            from = to;
+        }
+        lastChange[level] = Math.max(lastChange[level], time);
+    }
+
+    private int totalOccupied() {
+        int total = 0;
+        for (int count : occupied) {
+            total += count;
+        }
+        return total;
+    }
+
+    public UtilizationReport report(int lastHours) {
+        return report(ALL_LEVELS, lastHours);
+    }
+
+    /**
+     * Aggregate over the last lastHours hours (the current, partial hour included).
+     */
+    public synchronized UtilizationReport report(int level, int lastHours) {
+        return aggregate(level, latestHour - Math.min(lastHours, windowHours) + 1, latestHour);
+    }
+
+    /**
+     * One report per hour, oldest first, for charts.
+     */
+    public synchronized List<UtilizationReport> hourly(int level, int lastHours) {
+        List<UtilizationReport> reports = new ArrayList<>();
+        for (long hour = latestHour - Math.min(lastHours, windowHours) + 1; hour <= latestHour; hour++) {
+            reports.add(aggregate(level, hour, hour));
+        }
+        return reports;
+    }
+
+    public synchronized int currentOccupancy(int level) {
+        return level == ALL_LEVELS ? totalOccupied() : occupied[level];
+    }
+
+    public synchronized long distinctPlatesAllTime() {
+        return allTimePlates.estimate();
+    }
+
+    private UtilizationReport aggregate(int level, long fromHour, long toHour) {
+        int firstLevel = level == ALL_LEVELS ? 0 : level;
+        int lastLevel = level == ALL_LEVELS ? levels - 1 : level;
+        long in = 0;
+        long out = 0;
+        long stay = 0;
+        double money = 0;
+        double weighted = 0;
+        double seconds = 0;
+        int peakSeen = 0;
+        HyperLogLog distinct = new HyperLogLog(SKETCH_PRECISION);
+        for (long hour = Math.max(fromHour, 0); hour <= toHour; hour++) {
+            int slot = (int) Math.floorMod(hour, (long) windowHours);
+            if (slotHour[slot] != hour) {
+                continue;
+            }
+            long hourStart = hour * HOUR;
+            seconds += hour == latestHour ? Math.max(1, latestSecond - hourStart) : HOUR;
+            for (int l = firstLevel; l <= lastLevel; l++) {
+                in += entries[l][slot];
+                out += exits[l][slot];
+                stay += staySeconds[l][slot];
+                money += revenue[l][slot];
+                weighted += occupiedSeconds[l][slot];
+                if (hour == latestHour && lastChange[l] < latestSecond) {
+                    // Not yet integrated: the time since this level last changed
+                    weighted += (double) occupied[l] * (latestSecond - Math.max(lastChange[l], hourStart));
+                }
+                distinct.merge(plates[l][slot]);
+            }
+            peakSeen = Math.max(peakSeen, level == ALL_LEVELS ? peakTotal[slot] : peak[level][slot]);
+        }
+        int hours = (int) Math.max(0, toHour - Math.max(fromHour, 0) + 1);
+        return new UtilizationReport(hours, in, out, stay, money, seconds == 0 ? 0 : weighted / seconds,
+                peakSeen, currentOccupancy(level), distinct.estimate());
+    }
+}
@@ -0,0 +1,128 @@
+package impl;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live spot counts per (level, size class), updated on every state transition so
+ * availability queries are a sum over a few cells instead of a scan over the spots.
+ *
+ * Capacity only changes when spots are added (under the garage lock); reserved and occupied
+ * are LongAdders so gates updating different cells - or the same one - do not contend.
+ */
+public class OccupancyCounters {
+    private static final class Cell {
+        volatile int capacity;
+        final LongAdder reserved = new LongAdder();
+        final LongAdder occupied = new LongAdder();
+    }
+
+    private volatile Cell[][] cells = new Cell[0][0];
+
+    synchronized void addCapacity(int level, int size) {
+        cell(level, size, true).capacity++;
+    }
+
+    void onReserve(int level, int size) {
+        cell(level, size, false).reserved.increment();
+    }
+
+    void onCancelReservation(int level, int size) {
+        cell(level, size, false).reserved.decrement();
+    }
+
+    void onOccupy(int level, int size) {
+        Cell cell = cell(level, size, false);
+        cell.reserved.decrement();
+        cell.occupied.increment();
+    }
+
+    void onVacate(int level, int size) {
+        cell(level, size, false).occupied.decrement();
+    }
+
+    public int capacity(int level, int size) {
+        Cell cell = cell(level, size, false);
+        return cell == null ? 0 : cell.capacity;
+    }
+
+    public long occupied(int level, int size) {
+        Cell cell = cell(level, size, false);
+        return cell == null ? 0 : cell.occupied.sum();
+    }
+
+    public long available(int level, int size) {
+        Cell cell = cell(level, size, false);
+        return cell == null ? 0 : cell.capacity - cell.reserved.sum() - cell.occupied.sum();
+    }
+
+    public long availableBySize(int size) {
+        long total = 0;
+        for (int level = 0; level < cells.length; level++) {
+            total += available(level, size);
+        }
+        return total;
+    }
+
+    public long availableOnLevel(int level) {
+        Cell[][] table = cells;
+        long total = 0;
+        if (level < table.length) {
+            for (int size = 0; size < table[level].length; size++) {
+                total += available(level, size);
+            }
+        }
+        return total;
+    }
+
+    public long occupiedOnLevel(int level) {
+        Cell[][] table = cells;
+        long total = 0;
+        if (level < table.length) {
+            for (int size = 0; size < table[level].length; size++) {
+                total += occupied(level, size);
+            }
+        }
+        return total;
+    }
+
+    public long totalCapacity() {
+        long total = 0;
+        for (Cell[] row : cells) {
+            for (Cell cell : row) {
+                total += cell == null ? 0 : cell.capacity;
+            }
+        }
+        return total;
+    }
+
+    public long totalAvailable() {
+        long total = 0;
+        for (int level = 0; level < cells.length; level++) {
+            total += availableOnLevel(level);
+        }
+        return total;
+    }
+
+    public int levels() {
+        return cells.length;
+    }
+
+    private Cell cell(int level, int size, boolean create) {
+        Cell[][] table = cells;
+        if (level < table.length && size < table[level].length && table[level][size] != null) {
+            return table[level][size];
+        }
+        if (!create) {
+            return null;
+        }
+        Cell[][] grown = new Cell[Math.max(table.length, level + 1)][];
+        for (int l = 0; l < grown.length; l++) {
+            Cell[] row = l < table.length ? table[l] : new Cell[0];
+            grown[l] = row.length > size ? row.clone() : Arrays.copyOf(row, size + 1);
+        }
+        grown[level][size] = new Cell();
+        cells = grown;
+        return grown[level][size];
+    }
+}
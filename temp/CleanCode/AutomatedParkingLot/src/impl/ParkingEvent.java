@@ -0,0 +1,24 @@
+package impl;
+
+public class ParkingEvent {
+    public enum Type {
+        ENTERED,
+        EXITED
+    }
+
+    private final Type type;
+    private final ParkingTicket ticket;
+
+    public ParkingEvent(Type type, ParkingTicket ticket) {
+        this.type = type;
+        this.ticket = ticket;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public ParkingTicket getTicket() {
+        return ticket;
+    }
+}
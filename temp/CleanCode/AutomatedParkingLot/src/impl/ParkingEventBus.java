@@ -0,0 +1,131 @@
+package impl;
+
+import interfaces.ParkingObserver;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Delivers garage events to observers without ever running observer code on a gate thread.
+ *
+ * Subscribers sit in a copy-on-write list, so publishing iterates a stable array and
+ * (un)subscribing is safe at any time. Each subscriber has its own bounded queue and delivery
+ * thread (an {@link EventWorker}) that drains up to maxBatch events per call. Publishing is a lock-free enqueue per
+ * subscriber; when a subscriber's queue is full (it is slow or stuck) its new events are
+ * dropped and counted rather than making the gate wait. Exceptions thrown by an observer are
+ * counted per failed event and swallowed, so one bad subscriber cannot hurt the gate or the
+ * other subscribers, and one bad event does not cost the subscriber the rest of its batch.
+ */
+public class ParkingEventBus implements AutoCloseable {
+    private static final int DEFAULT_CAPACITY = 16_384;
+    private static final int DEFAULT_MAX_BATCH = 256;
+    private static final long CLOSE_TIMEOUT_MILLIS = 5_000;
+
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final int capacity;
+    private final int maxBatch;
+
+    public ParkingEventBus() {
+        this(DEFAULT_CAPACITY, DEFAULT_MAX_BATCH);
+    }
+
+    public ParkingEventBus(int capacity, int maxBatch) {
+        this.capacity = capacity;
+        this.maxBatch = maxBatch;
+    }
+
+    public void subscribe(ParkingObserver observer) {
+        Subscription subscription = new Subscription(observer);
+        subscriptions.add(subscription);
+        subscription.worker.start();
+    }
+
+    public void unsubscribe(ParkingObserver observer) {
+        for (Subscription subscription : subscriptions) {
+            if (subscription.observer == observer && subscriptions.remove(subscription)) {
+                subscription.worker.stop();
+                subscription.worker.join(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(CLOSE_TIMEOUT_MILLIS));
+                return;
+            }
+        }
+    }
+
+    public boolean hasSubscribers() {
+        return !subscriptions.isEmpty();
+    }
+
+    public void publish(ParkingEvent event) {
+        for (Subscription subscription : subscriptions) {
+            subscription.worker.offer(event);
+        }
+    }
+
+    public long droppedEvents() {
+        long dropped = 0;
+        for (Subscription subscription : subscriptions) {
+            dropped += subscription.worker.dropped();
+        }
+        return dropped;
+    }
+
+    /**
+     * Events an observer threw on.
+     */
+    public long failedDeliveries() {
+        long failed = 0;
+        for (Subscription subscription : subscriptions) {
+            failed += subscription.failed.sum();
+        }
+        return failed;
+    }
+
+    /**
+     * Delivers what is already queued, then stops the delivery threads. Observers still busy
+     * after CLOSE_TIMEOUT_MILLIS are interrupted and left behind with what they have not taken.
+     */
+    @Override
+    public void close() {
+        List<Subscription> stopping = new ArrayList<>(subscriptions);
+        subscriptions.removeAll(stopping);
+        for (Subscription subscription : stopping) {
+            subscription.worker.stop();
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(CLOSE_TIMEOUT_MILLIS);
+        for (Subscription subscription : stopping) {
+            subscription.worker.join(deadline);
+        }
+    }
+
+    private final class Subscription {
+        final ParkingObserver observer;
+        final LongAdder failed = new LongAdder();
+        final EventWorker<ParkingEvent> worker;
+
+        Subscription(ParkingObserver observer) {
+            this.observer = observer;
+            this.worker = new EventWorker<>("parking-events-" + observer.getClass().getSimpleName(),
+                    capacity, maxBatch, this::deliver);
+        }
+
+        private void deliver(List<ParkingEvent> batch) {
+            try {
+                observer.onEvents(batch);
+            } catch (ParkingObserver.FailedEventsException ex) {
+                failed.add(ex.getFailedEvents());
+            } catch (RuntimeException ex) {
+                // The batch handler failed as a whole: hand over the events one by one
+                for (ParkingEvent event : batch) {
+                    try {
+                        observer.onEvents(Collections.singletonList(event));
+                    } catch (RuntimeException single) {
+                        failed.increment();
+                    }
+                }
+            }
+        }
+    }
+}
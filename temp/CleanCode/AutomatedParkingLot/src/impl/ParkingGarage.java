@@ -3,71 +3,332 @@ package impl;
 import interfaces.ParkingObserver;
 import interfaces.ParkingSpaceFactory;
 import interfaces.ParkingSpot;
+import interfaces.SpotAssignmentStrategy;
+import interfaces.TicketArchive;
 import interfaces.Vehicle;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 
-public class ParkingGarage {
-    private List<ParkingSpot> parkingSpotList;
-    private List<ParkingTicket> parkingTicketList;
-    private List<ParkingObserver> observers;
+/**
+ * Spots are assigned by size and level through a pluggable {@link SpotAssignmentStrategy}
+ * (best fit unless told otherwise).
+ *
+ * Safe for several entry and exit gates calling in parallel: spots are claimed through the
+ * lock-free {@link SpotAllocator}, each spot moves FREE -> RESERVED -> OCCUPIED -> FREE with
+ * CAS transitions, and open tickets live in a concurrent {@link ActiveTicketStore}. Only adding
+ * spots is synchronized. Ticket ids come from a {@link TicketIdGenerator}, so garages running
+ * on different nodes hand out ids that never collide.
+ *
+ * Observers hear about entries and exits through a {@link ParkingEventBus}: the gate only
+ * enqueues the event, delivery happens in batches on each observer's own thread.
+ *
+ * With a {@link GarageJournal} attached, every park, exit and payment is journaled and the
+ * gate waits for its record to be on disk (group commit) before the barrier opens.
+ *
+ * Every transition also updates the {@link OccupancyCounters}, so availability per level and
+ * size class is read from counters instead of scanning the spots.
+ *
+ * With reservations enabled, a {@link ReservationBook} holds spots for booked vehicles shortly
+ * before their start; the gate sends a booked vehicle to its held spot and everyone else through
+ * the assignment strategy as before.
+ */
+public class ParkingGarage implements AutoCloseable {
+    private volatile ParkingSpot[] parkingSpots;
+    private int spotCount;
+    private ActiveTicketStore activeTickets;
+    private TicketIdGenerator ticketIds;
+    private TariffEngine tariffs;
+    private volatile GarageJournal journal;
+    private volatile ReservationBook reservations;
+    private ParkingEventBus eventBus;
     private ParkingSpaceFactory parkingSpaceFactory;
+    private SpotAllocator spotAllocator;
+    private OccupancyCounters occupancy;
 
     public ParkingGarage(ParkingSpaceFactory parkingSpaceFactory){
-        parkingSpotList = new ArrayList<>();
-        parkingTicketList = new ArrayList<>();
-        observers = new ArrayList<>();
+        this(parkingSpaceFactory, new BestFitStrategy());
+    }
+
+    public ParkingGarage(ParkingSpaceFactory parkingSpaceFactory, SpotAssignmentStrategy assignmentStrategy){
+        this(parkingSpaceFactory, assignmentStrategy, TicketIdGenerator.processDefault(), TicketArchive.DISCARD);
+    }
+
+    public ParkingGarage(ParkingSpaceFactory parkingSpaceFactory, SpotAssignmentStrategy assignmentStrategy,
+                         TicketIdGenerator ticketIds, TicketArchive ticketArchive){
+        parkingSpots = new ParkingSpot[16];
+        activeTickets = new ActiveTicketStore(ticketArchive);
+        this.ticketIds = ticketIds;
+        tariffs = new TariffEngine(Tariff.PER_SECOND);
+        eventBus = new ParkingEventBus();
+        spotAllocator = new SpotAllocator(assignmentStrategy);
+        occupancy = new OccupancyCounters();
         this.parkingSpaceFactory = parkingSpaceFactory;
     }
 
-    public void addParkingSlot(){
-        parkingSpotList.add(parkingSpaceFactory.createParkingSpot());
+    public synchronized void addParkingSlot(){
+        ParkingSpot spot = parkingSpaceFactory.createParkingSpot();
+        int spotId = spotCount++;
+        ParkingSpot[] spots = parkingSpots;
+        if(spotId == spots.length){
+            spots = Arrays.copyOf(spots, spots.length * 2);
+        }
+        spots[spotId] = spot;
+        parkingSpots = spots;
+        occupancy.addCapacity(spot.getLevel(), spot.getSize());
+        // Only offered to gates once it is in the array
+        spotAllocator.addSpot(spotId, spot.getSize(), spot.getLevel());
     }
 
     public ParkingTicket issueParkingTicket(Vehicle vehicle, long entryTime){
-        for(ParkingSpot parkingSpot: parkingSpotList){
-            if(parkingSpot.isAvailable()){
-                parkingSpot.parkVehicle(vehicle);
-                ParkingTicket ticket = new ParkingTicket(vehicle, entryTime);
-                parkingTicketList.add(ticket);
-                return ticket;
+        ReservationBook book = reservations;
+        int spotId = book == null ? -1 : redeemHold(book, vehicle, entryTime);
+        ParkingSpot spot;
+        if(spotId >= 0){
+            // Held spots are already RESERVED and counted as such
+            spot = parkingSpots[spotId];
+        }else{
+            spotId = spotAllocator.allocate(vehicle);
+            if(spotId < 0){
+                return null;
             }
+            if(book != null && book.waitingForSpot() > 0){
+                book.enteredWithoutHold(vehicle.getLicensePlate());
+            }
+            spot = parkingSpots[spotId];
+            // The allocator handed this spot to us alone, so both transitions are expected to succeed
+            if(!spot.reserve()){
+                spotAllocator.release(vehicle.getLicensePlate());
+                throw new IllegalStateException("Spot " + spotId + " was claimed but is " + spot.getState());
+            }
+            occupancy.onReserve(spot.getLevel(), spot.getSize());
+        }
+        if(!spot.occupy(vehicle)){
+            throw new IllegalStateException("Spot " + spotId + " lost its reservation");
+        }
+        occupancy.onOccupy(spot.getLevel(), spot.getSize());
+        ParkingTicket ticket = new ParkingTicket(ticketIds.nextId(), vehicle, spotId, entryTime);
+        // Cannot clash: the allocator already refuses a plate that is parked
+        activeTickets.open(ticket);
+        GarageJournal wal = journal;
+        if(wal != null){
+            wal.awaitDurable(wal.recordPark(ticket));
         }
-        return null;
+        if(eventBus.hasSubscribers()){
+            eventBus.publish(new ParkingEvent(ParkingEvent.Type.ENTERED, ticket));
+        }
+        return ticket;
+    }
+
+    private int redeemHold(ReservationBook book, Vehicle vehicle, long entryTime){
+        String plate = vehicle.getLicensePlate();
+        if(spotAllocator.spotOf(plate) >= 0){
+            // Already inside: leave the hold alone, allocate() turns the vehicle away
+            return -1;
+        }
+        int spotId = book.redeem(plate, entryTime);
+        if(spotId >= 0 && !spotAllocator.assign(spotId, plate)){
+            // Same plate entered through another gate at the same moment
+            releaseHold(spotId);
+            return -1;
+        }
+        return spotId;
     }
 
     public void removeVehicle(Vehicle vehicle){
-        for(ParkingSpot spot: parkingSpotList){
-            if(!spot.isAvailable() && spot instanceof CarParkingSpot carSpot){
-                if(carSpot.getParkedVehicle().equals(vehicle)){
-                    carSpot.removeVehicle(vehicle);
-                    break;
-                }
+        int spotId = spotAllocator.spotOf(vehicle.getLicensePlate());
+        if(spotId < 0){
+            return;
+        }
+        ParkingSpot spot = parkingSpots[spotId];
+        // Empty the spot before it goes back to the free index, or another gate could claim it first.
+        // Only the exit that wins the vacate CAS updates the counters and releases the spot.
+        // The ticket is closed before the plate is released, so a quick re-entry gets a fresh one.
+        // A booking waiting for a spot of this size gets it before it is back in the free index.
+        if(spot.vacate(vehicle)){
+            occupancy.onVacate(spot.getLevel(), spot.getSize());
+            ParkingTicket ticket = activeTickets.closeByPlate(vehicle.getLicensePlate());
+            GarageJournal wal = journal;
+            if(wal != null && ticket != null){
+                wal.awaitDurable(wal.recordExit(ticket));
+            }
+            spotAllocator.unassign(vehicle.getLicensePlate());
+            ReservationBook book = reservations;
+            if(book == null || book.waitingForSpot() == 0 || !book.spotFreed(spotId, spot.getSize())){
+                spotAllocator.unclaim(spotId);
             }
         }
     }
 
+    public ParkingSpot getParkingSpot(int spotId){
+        return parkingSpots[spotId];
+    }
+
+    public ParkingTicket findTicket(long ticketId){
+        return activeTickets.findById(ticketId);
+    }
+
+    public ParkingTicket findTicket(Vehicle vehicle){
+        return activeTickets.findByPlate(vehicle.getLicensePlate());
+    }
+
+    public int activeTicketCount(){
+        return activeTickets.size();
+    }
+
+    public int spotOf(Vehicle vehicle){
+        return spotAllocator.spotOf(vehicle.getLicensePlate());
+    }
+
+    public int availableSpots(int size){
+        return (int) occupancy.availableBySize(size);
+    }
+
+    public int availableSpots(int level, int size){
+        return (int) occupancy.available(level, size);
+    }
+
+    public int availableSpotsOnLevel(int level){
+        return (int) occupancy.availableOnLevel(level);
+    }
+
+    public int totalAvailableSpots(){
+        return (int) occupancy.totalAvailable();
+    }
+
+    public OccupancyCounters getOccupancy(){
+        return occupancy;
+    }
+
     public double calculateParkingCost(ParkingTicket ticket){
-        ticket.calculateCost();
+        ticket.calculateCost(tariffs.current());
         return ticket.getCost();
     }
 
+    public TariffEngine getTariffs(){
+        return tariffs;
+    }
+
     public void payParkingTicket(ParkingTicket ticket, double amount){
+        GarageJournal wal = journal;
+        if(wal != null){
+            wal.awaitDurable(wal.recordPayment(ticket, amount));
+        }
         System.out.println("Parking ticket paid : Rs." + amount);
     }
 
+    /**
+     * Puts back the vehicles the journal says are inside, then journals everything from here on.
+     * Call once, on a garage whose spots are laid out as before the restart and before gates open.
+     *
+     * @return the number of tickets restored
+     */
+    public int attachJournal(GarageJournal journal){
+        int restored = 0;
+        for(JournalRecord record : journal.openTickets()){
+            restoreTicket(record);
+            restored++;
+        }
+        this.journal = journal;
+        return restored;
+    }
+
+    private void restoreTicket(JournalRecord record){
+        int spotId = record.getSpotId();
+        if(spotId >= spotCount || !spotAllocator.allocateSpot(spotId, record.getPlate())){
+            throw new IllegalStateException("Journal puts " + record.getPlate() + " in spot " + spotId
+                    + ", which this garage does not have free");
+        }
+        Vehicle vehicle = new GenericVehicle(record.getPlate(), record.getSize());
+        ParkingSpot spot = parkingSpots[spotId];
+        spot.parkVehicle(vehicle);
+        occupancy.onReserve(spot.getLevel(), spot.getSize());
+        occupancy.onOccupy(spot.getLevel(), spot.getSize());
+        activeTickets.open(new ParkingTicket(record.getTicketId(), vehicle, spotId, record.getTime()));
+    }
+
+    /**
+     * Starts taking bookings. At most reservableShare of each size class can be booked at once;
+     * spots are held holdLeadSeconds before a booking starts and released graceSeconds after it
+     * if the vehicle has not come. now is the current event time.
+     */
+    public synchronized ReservationBook enableReservations(double reservableShare, long holdLeadSeconds,
+                                                           long graceSeconds, long now){
+        if(reservations == null){
+            reservations = new ReservationBook(this, reservableShare, holdLeadSeconds, graceSeconds, now);
+        }
+        return reservations;
+    }
+
+    public ReservationBook getReservations(){
+        return reservations;
+    }
+
+    /**
+     * Sets a free spot of the size class aside (RESERVED) for a booking.
+     *
+     * @return the spot id, or -1 if none is free
+     */
+    int holdSpot(int size){
+        int spotId = spotAllocator.claim(size);
+        if(spotId < 0){
+            return -1;
+        }
+        ParkingSpot spot = parkingSpots[spotId];
+        if(!spot.reserve()){
+            spotAllocator.unclaim(spotId);
+            throw new IllegalStateException("Spot " + spotId + " was claimed but is " + spot.getState());
+        }
+        occupancy.onReserve(spot.getLevel(), spot.getSize());
+        return spotId;
+    }
+
+    /**
+     * Sets aside a spot an exit has just emptied and not yet returned to the free index.
+     */
+    void holdFreedSpot(int spotId){
+        ParkingSpot spot = parkingSpots[spotId];
+        if(!spot.reserve()){
+            throw new IllegalStateException("Freed spot " + spotId + " is " + spot.getState());
+        }
+        occupancy.onReserve(spot.getLevel(), spot.getSize());
+    }
+
+    boolean isParked(String licensePlate){
+        return spotAllocator.spotOf(licensePlate) >= 0;
+    }
+
+    void releaseHold(int spotId){
+        ParkingSpot spot = parkingSpots[spotId];
+        if(spot.cancelReservation()){
+            occupancy.onCancelReservation(spot.getLevel(), spot.getSize());
+            spotAllocator.unclaim(spotId);
+        }
+    }
+
     public void addObserver(ParkingObserver observer) {
-        observers.add(observer);
+        eventBus.subscribe(observer);
     }
 
     public void removeObserver(ParkingObserver observer) {
-        observers.remove(observer);
+        eventBus.unsubscribe(observer);
     }
 
+    /**
+     * Publishes the exit once the ticket is priced. Returns straight away; observers run later.
+     */
     public void notifyObservers(ParkingTicket ticket) {
-        for (ParkingObserver observer : observers) {
-            observer.vehicleExited(ticket);
-        }
+        eventBus.publish(new ParkingEvent(ParkingEvent.Type.EXITED, ticket));
+    }
+
+    public ParkingEventBus getEventBus() {
+        return eventBus;
+    }
+
+    /**
+     * Delivers pending events and stops the observer threads.
+     */
+    @Override
+    public void close() {
+        eventBus.close();
     }
 }
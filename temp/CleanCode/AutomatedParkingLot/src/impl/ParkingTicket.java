@@ -3,16 +3,21 @@ package impl;
 import interfaces.Vehicle;
 
 public class ParkingTicket {
-    private static int ticketCounter = 0;
-    private int ticketId;
+    private final long ticketId;
+    private final int spotId;
     private long entryTimeStamp;
     private long exitTimeStamp;
     private Vehicle vehicle;
     private double cost;
 
     public ParkingTicket(Vehicle vehicle, long entryTimeStamp){
-        this.ticketId = ++ticketCounter;
+        this(TicketIdGenerator.processDefault().nextId(), vehicle, -1, entryTimeStamp);
+    }
+
+    public ParkingTicket(long ticketId, Vehicle vehicle, int spotId, long entryTimeStamp){
+        this.ticketId = ticketId;
         this.vehicle = vehicle;
+        this.spotId = spotId;
         this.entryTimeStamp = entryTimeStamp;
     }
 
@@ -21,11 +26,34 @@ public class ParkingTicket {
     }
 
     public void calculateCost(){
-        long duration = exitTimeStamp - entryTimeStamp;
-        cost = duration * 0.01;
+        calculateCost(Tariff.PER_SECOND);
+    }
+
+    public void calculateCost(Tariff tariff){
+        cost = tariff.cost(this);
     }
 
     public double getCost(){
         return cost;
     }
+
+    public long getTicketId(){
+        return ticketId;
+    }
+
+    public int getSpotId(){
+        return spotId;
+    }
+
+    public Vehicle getVehicle(){
+        return vehicle;
+    }
+
+    public long getEntryTimeStamp(){
+        return entryTimeStamp;
+    }
+
+    public long getExitTimeStamp(){
+        return exitTimeStamp;
+    }
 }
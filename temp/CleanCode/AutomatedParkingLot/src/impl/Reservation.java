@@ -0,0 +1,78 @@
+package impl;
+
+/**
+ * A booking of one spot of a size class for [start, end), in epoch seconds.
+ *
+ * BOOKED -> HELD when the garage sets a spot aside shortly before the start, then REDEEMED when
+ * the vehicle enters, or NO_SHOW when it has not arrived by the end of the grace period.
+ * A booking can be CANCELLED until it is redeemed.
+ */
+public class Reservation {
+    public enum State {
+        BOOKED,
+        HELD,
+        REDEEMED,
+        NO_SHOW,
+        CANCELLED
+    }
+
+    private final long reservationId;
+    private final String licensePlate;
+    private final int size;
+    private final long start;
+    private final long end;
+    private volatile State state = State.BOOKED;
+    private volatile int spotId = -1;
+
+    Reservation(long reservationId, String licensePlate, int size, long start, long end) {
+        this.reservationId = reservationId;
+        this.licensePlate = licensePlate;
+        this.size = size;
+        this.start = start;
+        this.end = end;
+    }
+
+    public long getReservationId() {
+        return reservationId;
+    }
+
+    public String getLicensePlate() {
+        return licensePlate;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public long getStart() {
+        return start;
+    }
+
+    public long getEnd() {
+        return end;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * The held spot, or -1 while no spot is set aside.
+     */
+    public int getSpotId() {
+        return spotId;
+    }
+
+    void hold(int spotId) {
+        this.spotId = spotId;
+        state = State.HELD;
+    }
+
+    void setState(State state) {
+        this.state = state;
+    }
+
+    boolean overlaps(long from, long to) {
+        return start < to && from < end;
+    }
+}
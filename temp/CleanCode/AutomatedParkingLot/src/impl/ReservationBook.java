@@ -0,0 +1,303 @@
+package impl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pre-booked parking on top of the walk-in flow of a {@link ParkingGarage}.
+ *
+ * Bookings are capacity per size class, not particular spots: each size class keeps its
+ * bookings in a {@link ReservationIntervalTree}, and a new booking is accepted if the peak
+ * number of overlapping bookings stays below reservableShare of that size class, an O(log n)
+ * check. holdLeadSeconds before the start a concrete spot is set aside (RESERVED, out of the
+ * free pool), so walk-in assignment never has to look at bookings - it simply does not see held
+ * spots. When the size class is full at that moment, the booking waits and takes the next spot
+ * of its size class that an exiting vehicle frees, before walk-ins see it. A vehicle already
+ * parked when its hold is due (it came early, as a walk-in) has used its booking and gets no
+ * hold. If the vehicle has not entered graceSeconds after the start, the hold is released and
+ * the booking dropped. Hold, no-show and end-of-booking deadlines sit in a {@link TimerWheel}.
+ *
+ * Time is event time, as passed to {@link ParkingGarage#issueParkingTicket}: call
+ * {@link #advanceTo} from a scheduler (or the simulation loop) to run the due deadlines.
+ * A vehicle with a held spot is sent to it by issueParkingTicket, which costs walk-ins one map
+ * lookup. Booking, cancelling and advancing are synchronized; redeeming a hold at the gate is
+ * a lock-free remove from the held-plates map, which also settles a race with the no-show timer.
+ */
+public class ReservationBook {
+    private static final long TICK_SECONDS = 60;
+    private static final int WHEEL_SLOTS = 1024;
+
+    private final ParkingGarage garage;
+    private final double reservableShare;
+    private final long holdLeadSeconds;
+    private final long graceSeconds;
+    private final TimerWheel timers;
+
+    private final Map<Integer, ReservationIntervalTree> bookingsBySize = new HashMap<>();
+    private final Map<Long, Reservation> reservations = new HashMap<>();
+    private final Map<Long, TimerWheel.Timeout[]> deadlines = new HashMap<>();
+    private final Map<String, List<Reservation>> reservationsByPlate = new HashMap<>();
+    private final Map<String, Reservation> heldByPlate = new ConcurrentHashMap<>();
+    private final List<Reservation> waitingForSpot = new ArrayList<>();
+    private volatile int waiting;
+    private long nextReservationId = 1;
+    private long now;
+
+    ReservationBook(ParkingGarage garage, double reservableShare, long holdLeadSeconds, long graceSeconds, long now) {
+        if (reservableShare < 0 || reservableShare > 1) {
+            throw new IllegalArgumentException("Reservable share must be between 0 and 1: " + reservableShare);
+        }
+        this.garage = garage;
+        this.reservableShare = reservableShare;
+        this.holdLeadSeconds = holdLeadSeconds;
+        this.graceSeconds = graceSeconds;
+        this.timers = new TimerWheel(TICK_SECONDS, WHEEL_SLOTS, now);
+        this.now = now;
+    }
+
+    /**
+     * Books a spot of the size class for [start, end).
+     *
+     * @return the booking, or null if the size class is fully booked at some point of the window
+     *         or the plate already has a booking overlapping it
+     */
+    public synchronized Reservation reserve(String licensePlate, int size, long start, long end) {
+        if (end <= start || end <= now) {
+            throw new IllegalArgumentException("Booking window [" + start + ", " + end + ") is empty or over");
+        }
+        for (Reservation other : reservationsByPlate.getOrDefault(licensePlate, List.of())) {
+            if (other.overlaps(start - holdLeadSeconds, end)) {
+                return null;
+            }
+        }
+        ReservationIntervalTree bookings = bookingsBySize.computeIfAbsent(size, s -> new ReservationIntervalTree());
+        if (bookings.peak(start, end) >= quota(size)) {
+            return null;
+        }
+        Reservation reservation = new Reservation(nextReservationId++, licensePlate, size, start, end);
+        bookings.insert(start, end, reservation.getReservationId());
+        reservations.put(reservation.getReservationId(), reservation);
+        reservationsByPlate.computeIfAbsent(licensePlate, p -> new ArrayList<>()).add(reservation);
+        deadlines.put(reservation.getReservationId(), new TimerWheel.Timeout[] {
+                timers.schedule(start - holdLeadSeconds, () -> hold(reservation)),
+                timers.schedule(Math.min(start + graceSeconds, end), () -> noShow(reservation)),
+                timers.schedule(end, () -> drop(reservation))
+        });
+        return reservation;
+    }
+
+    /**
+     * @return false if the booking is unknown, over, or the vehicle has already entered
+     */
+    public synchronized boolean cancel(long reservationId) {
+        Reservation reservation = reservations.get(reservationId);
+        if (reservation == null || reservation.getState() == Reservation.State.REDEEMED) {
+            return false;
+        }
+        if (reservation.getState() == Reservation.State.HELD) {
+            if (!heldByPlate.remove(reservation.getLicensePlate(), reservation)) {
+                // The vehicle entered through a gate just now
+                return false;
+            }
+            garage.releaseHold(reservation.getSpotId());
+        }
+        reservation.setState(Reservation.State.CANCELLED);
+        drop(reservation);
+        return true;
+    }
+
+    /**
+     * Moves the clock to now: sets spots aside for bookings about to start, releases no-shows and
+     * forgets finished bookings. Bookings still waiting for a free spot are retried.
+     */
+    public synchronized void advanceTo(long now) {
+        this.now = Math.max(this.now, now);
+        timers.advanceTo(this.now);
+        if (!waitingForSpot.isEmpty()) {
+            for (Reservation reservation : new ArrayList<>(waitingForSpot)) {
+                hold(reservation);
+            }
+        }
+    }
+
+    /**
+     * Spots of the size class still open to new bookings over the whole of [from, to).
+     */
+    public synchronized int availableToBook(int size, long from, long to) {
+        ReservationIntervalTree bookings = bookingsBySize.get(size);
+        return Math.max(0, quota(size) - (bookings == null ? 0 : bookings.peak(from, to)));
+    }
+
+    /**
+     * Spots of the size class not promised to bookings, per step of [from, to) (the busiest
+     * moment of each step counts). Walk-ins come on top: what they will occupy is not known ahead,
+     * only {@link ParkingGarage#availableSpots(int)} has the live figure.
+     */
+    public synchronized int[] forecast(int size, long from, long to, long stepSeconds) {
+        ReservationIntervalTree bookings = bookingsBySize.get(size);
+        int capacity = capacity(size);
+        int[] free = new int[(int) ((to - from + stepSeconds - 1) / stepSeconds)];
+        for (int i = 0; i < free.length; i++) {
+            long stepStart = from + i * stepSeconds;
+            long stepEnd = Math.min(to, stepStart + stepSeconds);
+            free[i] = capacity - (bookings == null ? 0 : bookings.peak(stepStart, stepEnd));
+        }
+        return free;
+    }
+
+    public synchronized Reservation find(long reservationId) {
+        return reservations.get(reservationId);
+    }
+
+    public synchronized int size() {
+        return reservations.size();
+    }
+
+    public int heldSpots() {
+        return heldByPlate.size();
+    }
+
+    public int waitingForSpot() {
+        return waiting;
+    }
+
+    /**
+     * Hands the vehicle its held spot, if it has one. Called by the gate.
+     *
+     * @return the held spot id, or -1 for a walk-in
+     */
+    int redeem(String licensePlate, long entryTime) {
+        Reservation reservation = heldByPlate.get(licensePlate);
+        if (reservation == null || entryTime >= reservation.getEnd()
+                || !heldByPlate.remove(licensePlate, reservation)) {
+            return -1;
+        }
+        reservation.setState(Reservation.State.REDEEMED);
+        return reservation.getSpotId();
+    }
+
+    /**
+     * An exit emptied a spot of the size class; a booking waiting for one takes it before it goes
+     * back to the free pool. Called by the exit gate, only while {@link #waitingForSpot()} is non-zero.
+     *
+     * @return false if no booking took it: the caller returns it to the free pool
+     */
+    synchronized boolean spotFreed(int spotId, int size) {
+        for (Reservation reservation : new ArrayList<>(waitingForSpot)) {
+            if (reservation.getSize() == size && hold(reservation, spotId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A vehicle whose booking was still waiting for a spot got one at the gate like a walk-in.
+     */
+    synchronized void enteredWithoutHold(String licensePlate) {
+        for (Reservation reservation : waitingForSpot) {
+            if (reservation.getLicensePlate().equals(licensePlate)) {
+                // Stays booked until its end, so its capacity is not offered twice
+                reservation.setState(Reservation.State.REDEEMED);
+                removeWaiting(reservation);
+                return;
+            }
+        }
+    }
+
+    private void hold(Reservation reservation) {
+        hold(reservation, -1);
+    }
+
+    /**
+     * Sets a spot aside for the booking: the freed spot if one is given, else one from the free
+     * pool. Without one the booking waits for the next freed spot or tick.
+     *
+     * @return whether the booking now holds a spot (the freed one, if given)
+     */
+    private boolean hold(Reservation reservation, int freedSpotId) {
+        if (reservation.getState() != Reservation.State.BOOKED) {
+            return false;
+        }
+        if (garage.isParked(reservation.getLicensePlate())) {
+            // Came early as a walk-in and will not pass a gate to redeem it; stays booked until its end
+            reservation.setState(Reservation.State.REDEEMED);
+            removeWaiting(reservation);
+            return false;
+        }
+        int spotId = -1;
+        // Otherwise the plate's previous booking still holds a spot; try again on the next tick.
+        // Only this class adds to heldByPlate, always under its lock, so the check holds.
+        if (!heldByPlate.containsKey(reservation.getLicensePlate())) {
+            if (freedSpotId >= 0) {
+                garage.holdFreedSpot(freedSpotId);
+                spotId = freedSpotId;
+            } else {
+                spotId = garage.holdSpot(reservation.getSize());
+            }
+        }
+        if (spotId < 0) {
+            if (!waitingForSpot.contains(reservation)) {
+                waitingForSpot.add(reservation);
+                waiting = waitingForSpot.size();
+            }
+            return false;
+        }
+        heldByPlate.put(reservation.getLicensePlate(), reservation);
+        removeWaiting(reservation);
+        reservation.hold(spotId);
+        return true;
+    }
+
+    private void noShow(Reservation reservation) {
+        if (reservation.getState() == Reservation.State.HELD) {
+            if (!heldByPlate.remove(reservation.getLicensePlate(), reservation)) {
+                return;
+            }
+            garage.releaseHold(reservation.getSpotId());
+        } else if (reservation.getState() != Reservation.State.BOOKED) {
+            return;
+        }
+        reservation.setState(Reservation.State.NO_SHOW);
+        drop(reservation);
+    }
+
+    private void drop(Reservation reservation) {
+        if (reservations.remove(reservation.getReservationId()) == null) {
+            return;
+        }
+        bookingsBySize.get(reservation.getSize())
+                .remove(reservation.getStart(), reservation.getEnd(), reservation.getReservationId());
+        for (TimerWheel.Timeout timeout : deadlines.remove(reservation.getReservationId())) {
+            timeout.cancel();
+        }
+        List<Reservation> ofPlate = reservationsByPlate.get(reservation.getLicensePlate());
+        ofPlate.remove(reservation);
+        if (ofPlate.isEmpty()) {
+            reservationsByPlate.remove(reservation.getLicensePlate());
+        }
+        removeWaiting(reservation);
+    }
+
+    private void removeWaiting(Reservation reservation) {
+        if (waitingForSpot.remove(reservation)) {
+            waiting = waitingForSpot.size();
+        }
+    }
+
+    private int quota(int size) {
+        return (int) (capacity(size) * reservableShare);
+    }
+
+    private int capacity(int size) {
+        OccupancyCounters occupancy = garage.getOccupancy();
+        int capacity = 0;
+        for (int level = 0; level < occupancy.levels(); level++) {
+            capacity += occupancy.capacity(level, size);
+        }
+        return capacity;
+    }
+}
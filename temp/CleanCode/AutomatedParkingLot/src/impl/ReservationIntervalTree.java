@@ -0,0 +1,199 @@
+package impl;
+
+import java.util.Random;
+
+/**
+ * Bookings of one size class as half-open intervals [start, end), answering "how many bookings
+ * overlap at the busiest moment of [from, to)" in O(log n).
+ *
+ * A plain interval tree finds the overlapping bookings, but a capacity check needs their peak
+ * count, which would mean sorting the k overlaps. So the tree is kept over interval endpoints
+ * instead: each booking adds +1 at its start and -1 at its end, and every node of the treap
+ * carries the sum of its subtree and the maximum prefix sum within it. Bookings at an instant
+ * are then the prefix sum up to it, and the peak over a window is read along the two search
+ * paths of its bounds, without touching the tree. Ends sort before starts at the same second,
+ * so back-to-back bookings do not clash.
+ *
+ * Not thread-safe.
+ */
+class ReservationIntervalTree {
+    private static final class Node {
+        final long time;
+        final int delta;
+        final long id;
+        final int priority;
+        Node left;
+        Node right;
+        int sum;
+        int maxPrefix;
+
+        Node(long time, int delta, long id, int priority) {
+            this.time = time;
+            this.delta = delta;
+            this.id = id;
+            this.priority = priority;
+            this.sum = delta;
+            this.maxPrefix = delta;
+        }
+    }
+
+    private final Random priorities = new Random(0x5eed);
+    private Node root;
+    private int size;
+
+    void insert(long start, long end, long id) {
+        root = insert(root, new Node(start, 1, id, priorities.nextInt()));
+        root = insert(root, new Node(end, -1, id, priorities.nextInt()));
+        size++;
+    }
+
+    void remove(long start, long end, long id) {
+        root = remove(root, start, 1, id);
+        root = remove(root, end, -1, id);
+        size--;
+    }
+
+    /**
+     * Highest number of bookings overlapping any instant of [from, to).
+     */
+    int peak(long from, long to) {
+        // Bookings at from itself, then every change strictly inside the window
+        int atFrom = 0;
+        for (Node node = root; node != null; ) {
+            if (node.time <= from) {
+                atFrom += sum(node.left) + node.delta;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return Math.max(atFrom, maxPrefixWithin(root, 0, from, to, false, false));
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Highest prefix sum at the nodes with from < time < to in this subtree, offset being the sum
+     * of everything ordered before it. afterFrom / beforeTo say a bound is already known to hold
+     * for the whole subtree, so at most two paths are walked.
+     */
+    private static int maxPrefixWithin(Node node, int offset, long from, long to, boolean afterFrom, boolean beforeTo) {
+        if (node == null) {
+            return Integer.MIN_VALUE;
+        }
+        if (afterFrom && beforeTo) {
+            return offset + node.maxPrefix;
+        }
+        int leftSum = sum(node.left);
+        int best = Integer.MIN_VALUE;
+        if (node.time > from && node.time < to) {
+            best = offset + leftSum + node.delta;
+        }
+        if (node.time > from) {
+            best = Math.max(best, maxPrefixWithin(node.left, offset, from, to, afterFrom, beforeTo || node.time < to));
+        }
+        if (node.time < to) {
+            best = Math.max(best, maxPrefixWithin(node.right, offset + leftSum + node.delta, from, to,
+                    afterFrom || node.time > from, beforeTo));
+        }
+        return best;
+    }
+
+    private static Node insert(Node node, Node added) {
+        if (node == null) {
+            return added;
+        }
+        if (added.priority > node.priority) {
+            Node[] halves = split(node, added.time, added.delta, added.id);
+            added.left = halves[0];
+            added.right = halves[1];
+            return pull(added);
+        }
+        if (compare(added.time, added.delta, added.id, node) < 0) {
+            node.left = insert(node.left, added);
+        } else {
+            node.right = insert(node.right, added);
+        }
+        return pull(node);
+    }
+
+    private static Node remove(Node node, long time, int delta, long id) {
+        if (node == null) {
+            throw new IllegalStateException("No booking " + id + " at " + time);
+        }
+        int cmp = compare(time, delta, id, node);
+        if (cmp == 0) {
+            return merge(node.left, node.right);
+        }
+        if (cmp < 0) {
+            node.left = remove(node.left, time, delta, id);
+        } else {
+            node.right = remove(node.right, time, delta, id);
+        }
+        return pull(node);
+    }
+
+    /**
+     * Splits into the nodes ordered before (time, delta, id) and the rest.
+     */
+    private static Node[] split(Node node, long time, int delta, long id) {
+        if (node == null) {
+            return new Node[2];
+        }
+        if (compare(time, delta, id, node) > 0) {
+            Node[] halves = split(node.right, time, delta, id);
+            node.right = halves[0];
+            halves[0] = pull(node);
+            return halves;
+        }
+        Node[] halves = split(node.left, time, delta, id);
+        node.left = halves[1];
+        halves[1] = pull(node);
+        return halves;
+    }
+
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            return pull(left);
+        }
+        right.left = merge(left, right.left);
+        return pull(right);
+    }
+
+    private static Node pull(Node node) {
+        int leftSum = sum(node.left);
+        int max = leftSum + node.delta;
+        if (node.left != null) {
+            max = Math.max(max, node.left.maxPrefix);
+        }
+        if (node.right != null) {
+            max = Math.max(max, leftSum + node.delta + node.right.maxPrefix);
+        }
+        node.sum = leftSum + node.delta + sum(node.right);
+        node.maxPrefix = max;
+        return node;
+    }
+
+    private static int sum(Node node) {
+        return node == null ? 0 : node.sum;
+    }
+
+    private static int compare(long time, int delta, long id, Node node) {
+        if (time != node.time) {
+            return Long.compare(time, node.time);
+        }
+        if (delta != node.delta) {
+            return Integer.compare(delta, node.delta);
+        }
+        return Long.compare(id, node.id);
+    }
+}
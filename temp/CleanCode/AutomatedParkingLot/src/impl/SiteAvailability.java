@@ -0,0 +1,42 @@
+package impl;
+
+/**
+ * One site's answer to a nearest-free-spot query, as read from the {@link GarageCoordinator} summary.
+ */
+public class SiteAvailability {
+    private final int siteId;
+    private final String name;
+    private final double distanceKm;
+    private final int freeSpots;
+
+    SiteAvailability(int siteId, String name, double distanceKm, int freeSpots) {
+        this.siteId = siteId;
+        this.name = name;
+        this.distanceKm = distanceKm;
+        this.freeSpots = freeSpots;
+    }
+
+    public int getSiteId() {
+        return siteId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public double getDistanceKm() {
+        return distanceKm;
+    }
+
+    /**
+     * Free spots the vehicle fits in (its size class and larger).
+     */
+    public int getFreeSpots() {
+        return freeSpots;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s (%.2f km, %d free)", name, distanceKm, freeSpots);
+    }
+}
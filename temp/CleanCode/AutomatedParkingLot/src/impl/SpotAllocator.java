@@ -0,0 +1,221 @@
+package impl;
+
+import interfaces.FreeSpotPools;
+import interfaces.SpotAssignmentStrategy;
+import interfaces.Vehicle;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps track of which spots are free, per level and size class, and where each vehicle is parked.
+ *
+ * Free spots live in one {@link FreeSpotIndex} per (level, size class); which one an arriving
+ * vehicle draws from is up to the {@link SpotAssignmentStrategy} (best fit by default).
+ * Claims are CAS operations on those indexes and the plate map is a ConcurrentHashMap, so entry
+ * and exit gates can call this concurrently without a garage-wide lock. Only {@link #addSpot}
+ * synchronizes.
+ */
+public class SpotAllocator {
+    private volatile FreeSpotIndex[][] freeByLevel = new FreeSpotIndex[0][0];
+    private volatile int sizeClasses;
+    private volatile int[] sizeOfSpot = new int[64];
+    private volatile int[] levelOfSpot = new int[64];
+    private final Map<String, Integer> spotByPlate = new ConcurrentHashMap<>();
+    private final SpotAssignmentStrategy strategy;
+    private final FreeSpotPools pools = new Pools();
+
+    public SpotAllocator() {
+        this(new BestFitStrategy());
+    }
+
+    public SpotAllocator(SpotAssignmentStrategy strategy) {
+        this.strategy = strategy;
+    }
+
+    public void addSpot(int spotId, int size) {
+        addSpot(spotId, size, 0);
+    }
+
+    public synchronized void addSpot(int spotId, int size, int level) {
+        int[] sizes = sizeOfSpot;
+        int[] levels = levelOfSpot;
+        if (spotId >= sizes.length) {
+            int length = Math.max(spotId + 1, sizes.length * 2);
+            sizes = Arrays.copyOf(sizes, length);
+            levels = Arrays.copyOf(levels, length);
+        }
+        sizes[spotId] = size;
+        levels[spotId] = level;
+        sizeOfSpot = sizes;
+        levelOfSpot = levels;
+        indexFor(level, size).add(spotId);
+    }
+
+    /**
+     * Takes a free spot for the vehicle, as chosen by the strategy.
+     *
+     * @return the spot id, or -1 if no spot fits or the vehicle is already parked
+     */
+    public int allocate(Vehicle vehicle) {
+        String plate = vehicle.getLicensePlate();
+        if (spotByPlate.containsKey(plate)) {
+            return -1;
+        }
+        int spotId = strategy.assign(vehicle, pools);
+        if (spotId >= 0 && spotByPlate.putIfAbsent(plate, spotId) != null) {
+            // Same plate entered through another gate at the same moment
+            freeByLevel[levelOfSpot[spotId]][sizeOfSpot[spotId]].add(spotId);
+            return -1;
+        }
+        return spotId;
+    }
+
+    /**
+     * Takes one particular spot for the plate, e.g. when restoring a garage from its journal.
+     *
+     * @return false if the spot is not free or the plate is already parked
+     */
+    public boolean allocateSpot(int spotId, String licensePlate) {
+        FreeSpotIndex free = pool(levelOfSpot[spotId], sizeOfSpot[spotId]);
+        if (free == null || !free.remove(spotId)) {
+            return false;
+        }
+        if (spotByPlate.putIfAbsent(licensePlate, spotId) != null) {
+            free.add(spotId);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Takes a free spot of exactly this size class, nearest the exit first, without a plate,
+     * e.g. to hold it for a reservation.
+     *
+     * @return the spot id, or -1 if none of that size class is free
+     */
+    public int claim(int size) {
+        for (int level = 0; level < pools.levels(); level++) {
+            int spotId = pools.claimNearest(level, size);
+            if (spotId >= 0) {
+                return spotId;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Gives a spot taken with {@link #claim(int)} to the plate.
+     *
+     * @return false if the plate is already parked
+     */
+    public boolean assign(int spotId, String licensePlate) {
+        return spotByPlate.putIfAbsent(licensePlate, spotId) == null;
+    }
+
+    /**
+     * Returns a spot taken with {@link #claim(int)} that was never assigned to a plate.
+     */
+    public void unclaim(int spotId) {
+        freeByLevel[levelOfSpot[spotId]][sizeOfSpot[spotId]].add(spotId);
+    }
+
+    /**
+     * Frees the spot held by the plate.
+     *
+     * @return the freed spot id, or -1 if the plate is not parked here
+     */
+    public int release(String licensePlate) {
+        Integer spotId = spotByPlate.remove(licensePlate);
+        if (spotId == null) {
+            return -1;
+        }
+        freeByLevel[levelOfSpot[spotId]][sizeOfSpot[spotId]].add(spotId);
+        return spotId;
+    }
+
+    /**
+     * Takes the spot away from the plate without freeing it: the caller then has it as if taken
+     * with {@link #claim(int)}, and gives it back with {@link #unclaim(int)}.
+     *
+     * @return the spot id, or -1 if the plate is not parked here
+     */
+    public int unassign(String licensePlate) {
+        Integer spotId = spotByPlate.remove(licensePlate);
+        return spotId == null ? -1 : spotId;
+    }
+
+    public int spotOf(String licensePlate) {
+        return spotByPlate.getOrDefault(licensePlate, -1);
+    }
+
+    public int freeSpots(int size) {
+        int free = 0;
+        for (int level = 0; level < pools.levels(); level++) {
+            free += pools.freeSpots(level, size);
+        }
+        return free;
+    }
+
+    public int freeSpots(int level, int size) {
+        return pools.freeSpots(level, size);
+    }
+
+    private FreeSpotIndex indexFor(int level, int size) {
+        FreeSpotIndex[][] table = freeByLevel;
+        int sizes = Math.max(sizeClasses, size + 1);
+        if (level >= table.length || sizes > sizeClasses) {
+            FreeSpotIndex[][] grown = new FreeSpotIndex[Math.max(table.length, level + 1)][];
+            for (int l = 0; l < grown.length; l++) {
+                grown[l] = Arrays.copyOf(l < table.length ? table[l] : new FreeSpotIndex[0], sizes);
+            }
+            table = grown;
+        }
+        if (table[level][size] == null) {
+            table[level][size] = new FreeSpotIndex();
+        }
+        // Rows are replaced, never resized in place, so readers always see a full row
+        freeByLevel = table;
+        sizeClasses = sizes;
+        return table[level][size];
+    }
+
+    private FreeSpotIndex pool(int level, int size) {
+        FreeSpotIndex[][] table = freeByLevel;
+        if (level < 0 || level >= table.length || size < 0 || size >= table[level].length) {
+            return null;
+        }
+        return table[level][size];
+    }
+
+    private class Pools implements FreeSpotPools {
+        @Override
+        public int levels() {
+            return freeByLevel.length;
+        }
+
+        @Override
+        public int sizeClasses() {
+            return sizeClasses;
+        }
+
+        @Override
+        public int freeSpots(int level, int size) {
+            FreeSpotIndex free = pool(level, size);
+            return free == null ? 0 : free.size();
+        }
+
+        @Override
+        public int claim(int level, int size) {
+            FreeSpotIndex free = pool(level, size);
+            return free == null ? -1 : free.claim();
+        }
+
+        @Override
+        public int claimNearest(int level, int size) {
+            FreeSpotIndex free = pool(level, size);
+            return free == null ? -1 : free.claimLowest();
+        }
+    }
+}
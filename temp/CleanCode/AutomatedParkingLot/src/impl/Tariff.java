@@ -0,0 +1,256 @@
+package impl;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * A compiled, immutable parking tariff.
+ *
+ * Rules (weekday set, time window, hourly rate) are compiled once into a table over the week:
+ * segment boundaries in seconds since Monday 00:00, the rate of each segment, and the
+ * cumulative cost up to each boundary. The cost of any interval within the week is then two
+ * binary searches, and a stay of any length is its first and last partial days plus whole
+ * days taken from precomputed per-weekday totals - never a loop over minutes.
+ *
+ * The daily cap applies per calendar day (in the tariff's zone offset) after the vehicle size
+ * multiplier. Costs are rounded to cents.
+ */
+public class Tariff {
+    private static final int DAY = 86_400;
+    private static final int WEEK = 7 * DAY;
+
+    // 0.01 per second around the clock, the original pricing
+    public static final Tariff PER_SECOND = flat(36);
+
+    private final int[] boundaries;
+    private final double[] ratePerSecond;
+    private final double[] cumulative;
+    private final double[] fullDayCost = new double[7];
+    private final double[] sizeMultipliers;
+    private final double dailyCap;
+    private final int offsetSeconds;
+
+    private Tariff(Builder builder) {
+        this.sizeMultipliers = builder.sizeMultipliers;
+        this.dailyCap = builder.dailyCap;
+        this.offsetSeconds = builder.offset.getTotalSeconds();
+
+        // Every day start is a boundary, so per-day costs never straddle a segment
+        Set<Integer> cuts = new TreeSet<>();
+        for (int day = 0; day <= 7; day++) {
+            cuts.add(day * DAY);
+        }
+        for (Rule rule : builder.rules) {
+            cuts.add(rule.from);
+            cuts.add(rule.to);
+        }
+        boundaries = cuts.stream().mapToInt(Integer::intValue).toArray();
+        int segments = boundaries.length - 1;
+        ratePerSecond = new double[segments];
+        cumulative = new double[boundaries.length];
+        for (int i = 0; i < segments; i++) {
+            double perHour = builder.defaultPerHour;
+            for (Rule rule : builder.rules) {
+                // Later rules override earlier ones
+                if (rule.from <= boundaries[i] && boundaries[i + 1] <= rule.to) {
+                    perHour = rule.perHour;
+                }
+            }
+            ratePerSecond[i] = perHour / 3600;
+            cumulative[i + 1] = cumulative[i] + ratePerSecond[i] * (boundaries[i + 1] - boundaries[i]);
+        }
+        for (int day = 0; day < 7; day++) {
+            fullDayCost[day] = costInWeek(day * DAY, (day + 1) * DAY);
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * One rate around the clock, every day.
+     */
+    public static Tariff flat(double perHour) {
+        return builder().defaultRate(perHour).build();
+    }
+
+    /**
+     * @param entrySecond epoch second the vehicle entered
+     * @param exitSecond  epoch second it left
+     * @param size        vehicle size class
+     */
+    public double cost(long entrySecond, long exitSecond, int size) {
+        if (exitSecond <= entrySecond) {
+            return 0;
+        }
+        double multiplier = multiplier(size);
+        long from = entrySecond + offsetSeconds;
+        long to = exitSecond + offsetSeconds;
+        long firstDay = Math.floorDiv(from, DAY);
+        long lastDay = Math.floorDiv(to, DAY);
+        int fromInDay = (int) (from - firstDay * DAY);
+        int toInDay = (int) (to - lastDay * DAY);
+
+        if (firstDay == lastDay) {
+            return round(capped(multiplier * dayCost(firstDay, fromInDay, toInDay)));
+        }
+        double total = capped(multiplier * dayCost(firstDay, fromInDay, DAY))
+                + capped(multiplier * dayCost(lastDay, 0, toInDay));
+
+        long fullDays = lastDay - firstDay - 1;
+        if (fullDays > 0) {
+            double week = 0;
+            for (int day = 0; day < 7; day++) {
+                week += capped(multiplier * fullDayCost[day]);
+            }
+            total += fullDays / 7 * week;
+            for (long day = firstDay + 1; day < firstDay + 1 + fullDays % 7; day++) {
+                total += capped(multiplier * fullDayCost[weekday(day)]);
+            }
+        }
+        return round(total);
+    }
+
+    public double cost(ParkingTicket ticket) {
+        return cost(ticket.getEntryTimeStamp(), ticket.getExitTimeStamp(), ticket.getVehicle().getSize());
+    }
+
+    /**
+     * Hourly rate in force at the given moment, for display boards.
+     */
+    public double hourlyRateAt(long epochSecond, int size) {
+        long local = epochSecond + offsetSeconds;
+        long day = Math.floorDiv(local, DAY);
+        int inWeek = weekday(day) * DAY + (int) (local - day * DAY);
+        return multiplier(size) * ratePerSecond[segmentOf(inWeek)] * 3600;
+    }
+
+    int segments() {
+        return ratePerSecond.length;
+    }
+
+    private double dayCost(long day, int fromInDay, int toInDay) {
+        int weekStart = weekday(day) * DAY;
+        return costInWeek(weekStart + fromInDay, weekStart + toInDay);
+    }
+
+    private double costInWeek(int from, int to) {
+        return costUpTo(to) - costUpTo(from);
+    }
+
+    private double costUpTo(int secondOfWeek) {
+        int segment = segmentOf(secondOfWeek);
+        return cumulative[segment] + ratePerSecond[segment] * (secondOfWeek - boundaries[segment]);
+    }
+
+    private int segmentOf(int secondOfWeek) {
+        int index = Arrays.binarySearch(boundaries, secondOfWeek);
+        // A boundary starts its own segment; the end of the week belongs to the last one
+        int segment = index >= 0 ? index : -index - 2;
+        return Math.min(segment, ratePerSecond.length - 1);
+    }
+
+    private double multiplier(int size) {
+        return size >= 0 && size < sizeMultipliers.length ? sizeMultipliers[size] : 1.0;
+    }
+
+    private double capped(double cost) {
+        return Math.min(cost, dailyCap);
+    }
+
+    // Monday = 0; epoch day 0 (1970-01-01) was a Thursday
+    private static int weekday(long epochDay) {
+        return (int) Math.floorMod(epochDay + 3, 7L);
+    }
+
+    private static double round(double cost) {
+        return Math.round(cost * 100) / 100.0;
+    }
+
+    private static final class Rule {
+        final int from;
+        final int to;
+        final double perHour;
+
+        Rule(int from, int to, double perHour) {
+            this.from = from;
+            this.to = to;
+            this.perHour = perHour;
+        }
+    }
+
+    public static class Builder {
+        private final List<Rule> rules = new ArrayList<>();
+        private double defaultPerHour;
+        private double[] sizeMultipliers = new double[0];
+        private double dailyCap = Double.MAX_VALUE;
+        private ZoneOffset offset = ZoneOffset.UTC;
+
+        public Builder defaultRate(double perHour) {
+            this.defaultPerHour = perHour;
+            return this;
+        }
+
+        /**
+         * Charges perHour on the given days between start and end. If end is not after start
+         * the window runs past midnight into the next day (night tariffs).
+         */
+        public Builder rate(Set<DayOfWeek> days, LocalTime start, LocalTime end, double perHour) {
+            int from = start.toSecondOfDay();
+            int to = end.toSecondOfDay();
+            for (DayOfWeek day : days) {
+                int dayStart = (day.getValue() - 1) * DAY;
+                if (to > from) {
+                    rules.add(new Rule(dayStart + from, dayStart + to, perHour));
+                } else {
+                    rules.add(new Rule(dayStart + from, dayStart + DAY, perHour));
+                    int nextDay = (dayStart + DAY) % WEEK;
+                    if (to > 0) {
+                        rules.add(new Rule(nextDay, nextDay + to, perHour));
+                    }
+                }
+            }
+            return this;
+        }
+
+        public Builder weekdays(LocalTime start, LocalTime end, double perHour) {
+            return rate(EnumSet.range(DayOfWeek.MONDAY, DayOfWeek.FRIDAY), start, end, perHour);
+        }
+
+        public Builder weekend(LocalTime start, LocalTime end, double perHour) {
+            return rate(EnumSet.of(DayOfWeek.SATURDAY, DayOfWeek.SUNDAY), start, end, perHour);
+        }
+
+        public Builder sizeMultiplier(int size, double multiplier) {
+            if (size >= sizeMultipliers.length) {
+                int old = sizeMultipliers.length;
+                sizeMultipliers = Arrays.copyOf(sizeMultipliers, size + 1);
+                Arrays.fill(sizeMultipliers, old, sizeMultipliers.length, 1.0);
+            }
+            sizeMultipliers[size] = multiplier;
+            return this;
+        }
+
+        public Builder dailyCap(double cap) {
+            this.dailyCap = cap;
+            return this;
+        }
+
+        public Builder zoneOffset(ZoneOffset offset) {
+            this.offset = offset;
+            return this;
+        }
+
+        public Tariff build() {
+            return new Tariff(this);
+        }
+    }
+}
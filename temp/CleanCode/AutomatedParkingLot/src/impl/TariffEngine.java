@@ -0,0 +1,61 @@
+package impl;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+
+/**
+ * Prices tickets with the current {@link Tariff}.
+ *
+ * A new tariff is compiled off to the side and swapped in atomically, so gates pricing an exit
+ * never see half a rate change. Bulk re-pricing runs any tariff - usually an older or a
+ * proposed one - over a batch of tickets, for audits and "what if" comparisons.
+ */
+public class TariffEngine {
+    private static final int PARALLEL_THRESHOLD = 10_000;
+
+    private final AtomicReference<Tariff> current;
+
+    public TariffEngine(Tariff initial) {
+        this.current = new AtomicReference<>(initial);
+    }
+
+    public Tariff current() {
+        return current.get();
+    }
+
+    public void publish(Tariff tariff) {
+        current.set(tariff);
+    }
+
+    public double price(ParkingTicket ticket) {
+        return current.get().cost(ticket);
+    }
+
+    /**
+     * Prices every ticket with the given tariff, in parallel for large batches.
+     * The tickets themselves are left untouched.
+     */
+    public double[] reprice(List<ParkingTicket> tickets, Tariff tariff) {
+        double[] costs = new double[tickets.size()];
+        IntStream indexes = IntStream.range(0, costs.length);
+        if (costs.length >= PARALLEL_THRESHOLD) {
+            indexes = indexes.parallel();
+        }
+        indexes.forEach(i -> costs[i] = tariff.cost(tickets.get(i)));
+        return costs;
+    }
+
+    /**
+     * Column form of {@link #reprice(List, Tariff)}, for audit extracts that are not tickets.
+     */
+    public double[] reprice(long[] entrySeconds, long[] exitSeconds, int[] sizes, Tariff tariff) {
+        double[] costs = new double[entrySeconds.length];
+        IntStream indexes = IntStream.range(0, costs.length);
+        if (costs.length >= PARALLEL_THRESHOLD) {
+            indexes = indexes.parallel();
+        }
+        indexes.forEach(i -> costs[i] = tariff.cost(entrySeconds[i], exitSeconds[i], sizes[i]));
+        return costs;
+    }
+}
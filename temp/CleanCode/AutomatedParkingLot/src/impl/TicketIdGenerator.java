@@ -0,0 +1,66 @@
+package impl;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Snowflake-style 64-bit ticket ids: 41 bits of milliseconds since 2024-01-01, 10 bits of node
+ * id and a 12-bit sequence per millisecond. Ids from different garage nodes never collide, and
+ * ids from one node are strictly increasing and roughly time-ordered across nodes.
+ *
+ * The last (millisecond, sequence) pair is one AtomicLong, so generation is a single CAS. When
+ * the 4096 ids of a millisecond run out, or the wall clock steps backwards, the generator
+ * borrows the next millisecond instead of blocking; it catches up with the clock again as
+ * soon as the load drops.
+ *
+ * Ids are unique per generator, not per node id: two generators with the same node id issue
+ * the same ids. Garages in one process that are not given a generator of their own all draw
+ * from {@link #processDefault()}.
+ */
+public class TicketIdGenerator {
+    public static final long EPOCH_MILLIS = 1_704_067_200_000L;
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    public static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final TicketIdGenerator PROCESS_DEFAULT = new TicketIdGenerator(0);
+
+    private final long nodeBits;
+    // (millis since epoch << SEQUENCE_BITS) | sequence of the last id handed out
+    private final AtomicLong last = new AtomicLong();
+
+    public TicketIdGenerator(int nodeId) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE_ID + ": " + nodeId);
+        }
+        this.nodeBits = (long) nodeId << SEQUENCE_BITS;
+    }
+
+    /**
+     * The node 0 generator shared by every garage and ticket in this process that has no
+     * generator of its own.
+     */
+    public static TicketIdGenerator processDefault() {
+        return PROCESS_DEFAULT;
+    }
+
+    public long nextId() {
+        long now = (System.currentTimeMillis() - EPOCH_MILLIS) << SEQUENCE_BITS;
+        while (true) {
+            long previous = last.get();
+            // Same or earlier millisecond (burst or clock step back): next sequence, possibly the next millisecond
+            long next = now > previous ? now : previous + 1;
+            if (last.compareAndSet(previous, next)) {
+                long millis = next >>> SEQUENCE_BITS;
+                return (millis << (NODE_BITS + SEQUENCE_BITS)) | nodeBits | (next & SEQUENCE_MASK);
+            }
+        }
+    }
+
+    public static long timestampOf(long ticketId) {
+        return (ticketId >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH_MILLIS;
+    }
+
+    public static int nodeOf(long ticketId) {
+        return (int) (ticketId >>> SEQUENCE_BITS) & MAX_NODE_ID;
+    }
+}
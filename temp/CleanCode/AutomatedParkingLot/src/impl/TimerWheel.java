@@ -0,0 +1,111 @@
+package impl;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Hashed timer wheel on event time (epoch seconds): O(1) to schedule and cancel, and advancing
+ * only touches the buckets of the ticks that passed, however many timers are pending.
+ *
+ * A task fires on the first {@link #advanceTo} at or after its deadline, so at most one tick late
+ * and never early. Timers further out than one turn of the wheel wait in their bucket for the
+ * turns in between.
+ *
+ * Not thread-safe; the owner serializes access.
+ */
+class TimerWheel {
+    static final class Timeout {
+        private final long tick;
+        private final Runnable task;
+        private boolean cancelled;
+
+        private Timeout(long tick, Runnable task) {
+            this.tick = tick;
+            this.task = task;
+        }
+
+        void cancel() {
+            cancelled = true;
+        }
+    }
+
+    private final long tickSeconds;
+    private final List<Timeout>[] buckets;
+    private long currentTick;
+    private int pending;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    TimerWheel(long tickSeconds, int slots, long startTime) {
+        this.tickSeconds = tickSeconds;
+        this.buckets = new List[slots];
+        for (int i = 0; i < slots; i++) {
+            buckets[i] = new ArrayList<>();
+        }
+        this.currentTick = Math.floorDiv(startTime, tickSeconds);
+    }
+
+    Timeout schedule(long deadline, Runnable task) {
+        // Rounded up, so the task never runs before its deadline; past deadlines run on the next tick
+        long tick = Math.max(-Math.floorDiv(-deadline, tickSeconds), currentTick + 1);
+        Timeout timeout = new Timeout(tick, task);
+        buckets[(int) Math.floorMod(tick, (long) buckets.length)].add(timeout);
+        pending++;
+        return timeout;
+    }
+
+    /**
+     * Runs every task whose deadline is at or before now, in tick order.
+     */
+    void advanceTo(long now) {
+        long target = Math.floorDiv(now, tickSeconds);
+        while (currentTick < target && pending > 0) {
+            // After a long gap, skip whole turns of empty ticks in one step
+            long next = currentTick + 1;
+            if (target - currentTick > buckets.length) {
+                next = Math.max(next, earliestTick());
+            }
+            currentTick = Math.min(next, target);
+            expire(buckets[(int) Math.floorMod(currentTick, (long) buckets.length)]);
+        }
+        currentTick = Math.max(currentTick, target);
+    }
+
+    int pending() {
+        return pending;
+    }
+
+    private void expire(List<Timeout> bucket) {
+        List<Timeout> due = null;
+        for (Iterator<Timeout> it = bucket.iterator(); it.hasNext(); ) {
+            Timeout timeout = it.next();
+            if (timeout.cancelled) {
+                it.remove();
+                pending--;
+            } else if (timeout.tick <= currentTick) {
+                it.remove();
+                pending--;
+                if (due == null) {
+                    due = new ArrayList<>();
+                }
+                due.add(timeout);
+            }
+        }
+        // Run after the sweep: tasks may schedule into this same bucket
+        if (due != null) {
+            for (Timeout timeout : due) {
+                timeout.task.run();
+            }
+        }
+    }
+
+    private long earliestTick() {
+        long earliest = Long.MAX_VALUE;
+        for (List<Timeout> bucket : buckets) {
+            for (Timeout timeout : bucket) {
+                earliest = Math.min(earliest, timeout.tick);
+            }
+        }
+        return earliest;
+    }
+}
@@ -0,0 +1,56 @@
+package impl;
+
+/**
+ * Garage (or level) utilization over a window of whole hours, as read from {@link OccupancyAnalytics}.
+ */
+public class UtilizationReport {
+    private final int hours;
+    private final long entries;
+    private final long exits;
+    private final long staySeconds;
+    private final double revenue;
+    private final double averageOccupancy;
+    private final int peakOccupancy;
+    private final int currentOccupancy;
+    private final long distinctPlates;
+
+    UtilizationReport(int hours, long entries, long exits, long staySeconds, double revenue,
+                      double averageOccupancy, int peakOccupancy, int currentOccupancy, long distinctPlates) {
+        this.hours = hours;
+        this.entries = entries;
+        this.exits = exits;
+        this.staySeconds = staySeconds;
+        this.revenue = revenue;
+        this.averageOccupancy = averageOccupancy;
+        this.peakOccupancy = peakOccupancy;
+        this.currentOccupancy = currentOccupancy;
+        this.distinctPlates = distinctPlates;
+    }
+
+    public int getHours() { return hours; }
+    public long getEntries() { return entries; }
+    public long getExits() { return exits; }
+    public double getRevenue() { return revenue; }
+    public double getAverageOccupancy() { return averageOccupancy; }
+    public int getPeakOccupancy() { return peakOccupancy; }
+    public int getCurrentOccupancy() { return currentOccupancy; }
+    public long getDistinctPlates() { return distinctPlates; }
+
+    public double getAverageStaySeconds() {
+        return exits == 0 ? 0 : (double) staySeconds / exits;
+    }
+
+    /**
+     * Exits per spot in the window: how many times each spot was used.
+     */
+    public double turnover(int spots) {
+        return spots == 0 ? 0 : (double) exits / spots;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%dh: %d in, %d out, avg stay %.0f min, revenue %.2f, occupancy avg %.1f / peak %d / now %d, ~%d distinct plates",
+                hours, entries, exits, getAverageStaySeconds() / 60, revenue, averageOccupancy, peakOccupancy,
+                currentOccupancy, distinctPlates);
+    }
+}
@@ -0,0 +1,15 @@
+package interfaces;
+
+/**
+ * Read and claim access to the free spots of a garage, one pool per (level, size class).
+ * Level 0 is the exit level; within a pool lower spot ids are closer to the exit.
+ */
+public interface FreeSpotPools {
+    int levels();
+    int sizeClasses();
+    int freeSpots(int level, int size);
+
+    // Both return the claimed spot id, or -1 if the pool has no free spot
+    int claim(int level, int size);
+    int claimNearest(int level, int size);
+}
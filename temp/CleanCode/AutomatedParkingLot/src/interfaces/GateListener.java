@@ -0,0 +1,24 @@
+package interfaces;
+
+import impl.ParkingTicket;
+
+/**
+ * Gate hardware and front-end as seen by the gate controller: the barrier, the payment terminal
+ * and the display. Called on the controller's event-loop threads, so implementations must hand
+ * slow work off instead of blocking.
+ */
+public interface GateListener {
+    void barrierOpened(int gateId, ParkingTicket ticket);
+
+    /**
+     * An exit gate needs this amount before it can open.
+     */
+    default void paymentDue(int gateId, ParkingTicket ticket, double amount) {
+    }
+
+    /**
+     * The barrier stays closed: garage full, no ticket for the plate, payment short, ...
+     */
+    default void refused(int gateId, Vehicle vehicle, String reason) {
+    }
+}
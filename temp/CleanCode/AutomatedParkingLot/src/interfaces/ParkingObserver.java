@@ -1,7 +1,66 @@
 package interfaces;
 
+import impl.ParkingEvent;
 import impl.ParkingTicket;
 
+import java.util.List;
+
+/**
+ * Observers are called asynchronously, on a delivery thread of their own, never on a gate thread.
+ */
 public interface ParkingObserver {
     void vehicleExited(ParkingTicket ticket);
+
+    default void vehicleEntered(ParkingTicket ticket) {
+    }
+
+    /**
+     * Events are delivered in batches, in publish order. Override to handle a batch at once
+     * (one database round trip instead of one per event); by default each event is dispatched
+     * to the methods above, and one that throws does not keep the rest of the batch from them.
+     *
+     * An override should handle a batch all or nothing: if it throws anything but a
+     * {@link FailedEventsException}, the bus delivers the batch's events again one at a time.
+     *
+     * @throws FailedEventsException after the whole batch, if some events failed
+     */
+    default void onEvents(List<ParkingEvent> events) {
+        int failed = 0;
+        RuntimeException first = null;
+        for (ParkingEvent event : events) {
+            try {
+                if (event.getType() == ParkingEvent.Type.ENTERED) {
+                    vehicleEntered(event.getTicket());
+                } else {
+                    vehicleExited(event.getTicket());
+                }
+            } catch (RuntimeException ex) {
+                failed++;
+                if (first == null) {
+                    first = ex;
+                }
+            }
+        }
+        if (first != null) {
+            throw new FailedEventsException(failed, first);
+        }
+    }
+
+    /**
+     * Some events of a batch failed; the others were handled.
+     */
+    class FailedEventsException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private final int failedEvents;
+
+        public FailedEventsException(int failedEvents, RuntimeException first) {
+            super(failedEvents + " events failed, first: " + first.getMessage(), first);
+            this.failedEvents = failedEvents;
+        }
+
+        public int getFailedEvents() {
+            return failedEvents;
+        }
+    }
 }
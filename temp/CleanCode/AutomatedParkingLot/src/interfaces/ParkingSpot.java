@@ -5,4 +5,13 @@ public interface ParkingSpot {
     void parkVehicle(Vehicle vehicle);
     void removeVehicle(Vehicle vehicle);
     Vehicle getParkedVehicle();
+    int getSize();
+    int getLevel();
+    SpotState getState();
+
+    // Atomic state transitions, each returns false if the spot was not in the expected state
+    boolean reserve();
+    boolean cancelReservation();
+    boolean occupy(Vehicle vehicle);
+    boolean vacate(Vehicle vehicle);
 }
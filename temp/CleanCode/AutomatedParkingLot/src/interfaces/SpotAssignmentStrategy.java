@@ -0,0 +1,12 @@
+package interfaces;
+
+/**
+ * Picks the spot for an arriving vehicle. Implementations must only claim from pools
+ * whose size class is >= the vehicle size, and must be safe to call from several gates at once.
+ */
+public interface SpotAssignmentStrategy {
+    /**
+     * @return the claimed spot id, or -1 if nothing fits
+     */
+    int assign(Vehicle vehicle, FreeSpotPools pools);
+}
@@ -0,0 +1,11 @@
+package interfaces;
+
+/**
+ * Spot lifecycle: FREE -> RESERVED -> OCCUPIED -> FREE.
+ * A reservation can also be cancelled (RESERVED -> FREE).
+ */
+public enum SpotState {
+    FREE,
+    RESERVED,
+    OCCUPIED
+}
@@ -0,0 +1,12 @@
+package interfaces;
+
+import impl.ParkingTicket;
+
+/**
+ * Where closed tickets go once the vehicle has left, so the garage only keeps open ones in memory.
+ */
+public interface TicketArchive {
+    TicketArchive DISCARD = ticket -> { };
+
+    void archive(ParkingTicket ticket);
+}
@@ -1,35 +1,85 @@
 import impl.Bike;
+import impl.BikeInventory;
 import impl.BikeRentalCustomer;
 import impl.BikeRentalService;
+import impl.BillingPipeline;
+import impl.LocalPaymentProcessor;
+import impl.RentalPolicy;
+import impl.RentalPricing;
+import impl.RentalSession;
+import impl.Scooter;
+import impl.ScooterInventory;
 import interfaces.Customer;
-import interfaces.RentalService;
+import interfaces.RentalObserver;
+
+import java.time.Duration;
+import java.time.Instant;
 
 public class BikeRentServiceMain {
     public static void main(String[] args) {
-        // Create some bikes
-        Bike bike1 = new Bike("001");
-        Bike bike2 = new Bike("002");
+        // Stock the inventory with some bikes
+        BikeInventory inventory = new BikeInventory();
+        Bike bike1 = inventory.addBike("001");
+        Bike bike2 = inventory.addBike("002");
 
         // Create a customer
         Customer customer1 = new BikeRentalCustomer("C001");
 
-        // Create a rental service
-        RentalService service = new BikeRentalService();
+        // Create a rental service that bills returns in the background
+        LocalPaymentProcessor payments = new LocalPaymentProcessor(0, 0);
+        BillingPipeline billing = new BillingPipeline(payments);
+        BikeRentalService service = new BikeRentalService(RentalPricing.DEFAULT, billing);
+
+        // Scooters are rented through the same service, one at a time per customer, at their own rates
+        ScooterInventory scooters = new ScooterInventory();
+        Scooter scooter1 = scooters.add("S01");
+        Scooter scooter2 = scooters.add("S02");
+        service.register(scooters, new RentalPolicy(new RentalPricing(1.00, 0.39, 30.00), 1));
+        // The service prints nothing itself: rentals that went through are logged here, refusals below
+        service.addObserver(new ConsoleLog());
+        Instant start = Instant.now();
 
         // Customer rents a bike
-        service.processRental(customer1, bike1);
+        service.processRental(customer1, bike1, start.getEpochSecond());
 
         // Customer tries to rent the same bike again
-        service.processRental(customer1, bike1);
+        if (!service.processRental(customer1, bike1, start.getEpochSecond())) {
+            System.out.println("Cannot rent. " + bike1 + " is already rented.");
+        }
 
-        // Customer returns the bike
-        customer1.returnBike(bike1);
+        // Customer returns the bike after a 25 minute ride
+        RentalSession ride = service.processReturn(customer1, bike1, start.plus(Duration.ofMinutes(25)).getEpochSecond());
+        System.out.println("Ride cost: $" + ride.getCost());
 
         // Customer tries to return the same bike again
-        customer1.returnBike(bike1);
+        if (service.processReturn(customer1, bike1, start.plus(Duration.ofMinutes(26)).getEpochSecond()) == null) {
+            System.out.println("Cannot return. Customer C001 has not rented " + bike1);
+        }
 
         // Customer rents another bike
-        service.processRental(customer1, bike2);
+        service.processRental(customer1, bike2, start.plus(Duration.ofMinutes(30)).getEpochSecond());
+
+        // Customer rents a scooter, then tries a second one
+        service.processRental(customer1, scooter1, start.plus(Duration.ofMinutes(40)).getEpochSecond());
+        if (!service.processRental(customer1, scooter2, start.plus(Duration.ofMinutes(41)).getEpochSecond())) {
+            System.out.println("Cannot rent. Customer C001 already has a scooter.");
+        }
+        RentalSession scooterRide = service.processReturn(customer1, scooter1, start.plus(Duration.ofMinutes(50)).getEpochSecond());
+        System.out.println("Scooter ride cost: $" + scooterRide.getCost());
+
+        billing.close();
+        System.out.println("Charged to C001: $" + payments.totalCharged("C001"));
     }
 
+    private static final class ConsoleLog implements RentalObserver {
+        @Override
+        public void itemRented(RentalSession session) {
+            System.out.println("Customer " + session.getCustomerId() + " rented " + session.getItem());
+        }
+
+        @Override
+        public void itemReturned(RentalSession session) {
+            System.out.println("Customer " + session.getCustomerId() + " returned " + session.getItem());
+        }
+    }
 }
@@ -0,0 +1,156 @@
+import impl.Bike;
+import impl.BikeInventory;
+import impl.BikeRentalCustomer;
+import impl.BikeRentalService;
+import interfaces.Customer;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
+
+/**
+ * Concurrent rent / return check for BikeInventory.
+ *
+ * Counter threads pick bikes at random from a small fleet, so they constantly race for the same
+ * bike. A counter that gets a bike marks itself as its holder; finding another holder there
+ * means the bike was rented twice, and returning a bike it holds must always succeed. At the
+ * end every counter returns what it still holds and the whole fleet must be available again.
+ *
+ * The check runs twice: once on the inventory alone, once through
+ * {@link BikeRentalService#processRental} and {@link BikeRentalService#processReturn}, each
+ * counter renting as a customer of its own, so the numbers cover the session store and the
+ * observers too.
+ *
+ * Usage: BikeRentalStressRun [counters] [bikes] [operationsPerCounter]
+ */
+public class BikeRentalStressRun {
+    public static void main(String[] args) throws InterruptedException {
+        int counters = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int bikes = args.length > 1 ? Integer.parseInt(args[1]) : 2_000;
+        int operations = args.length > 2 ? Integer.parseInt(args[2]) : 2_000_000;
+
+        BikeInventory inventory = stock(bikes);
+        run("Inventory", inventory, counters, operations, counter -> new Counter() {
+            @Override
+            public boolean rent(int slot) {
+                return inventory.rent(slot);
+            }
+
+            @Override
+            public boolean giveBack(int slot) {
+                return inventory.giveBack(slot);
+            }
+        });
+
+        BikeInventory served = stock(bikes);
+        BikeRentalService service = new BikeRentalService();
+        run("Service", served, counters, operations, counter -> new Counter() {
+            private final Customer customer = new BikeRentalCustomer("C" + counter);
+            private long time = 1_717_372_800L;
+
+            @Override
+            public boolean rent(int slot) {
+                return service.processRental(customer, served.get(slot), time += 60);
+            }
+
+            @Override
+            public boolean giveBack(int slot) {
+                return service.processReturn(customer, served.get(slot), time += 60) != null;
+            }
+        });
+    }
+
+    private static BikeInventory stock(int bikes) {
+        BikeInventory inventory = new BikeInventory();
+        for (int i = 0; i < bikes; i++) {
+            inventory.addBike(String.format("B%05d", i));
+        }
+        return inventory;
+    }
+
+    /**
+     * One counter's way of renting and returning the bike in a slot; used by that counter's thread only.
+     */
+    private interface Counter {
+        boolean rent(int slot);
+
+        boolean giveBack(int slot);
+    }
+
+    private static void run(String path, BikeInventory inventory, int counters, int operations,
+                            IntFunction<Counter> newCounter) throws InterruptedException {
+        int bikes = inventory.size();
+        // holder[slot] is the counter that rented the bike, 0 while it is in the rack
+        AtomicIntegerArray holder = new AtomicIntegerArray(bikes);
+        LongAdder rentals = new LongAdder();
+        LongAdder refused = new LongAdder();
+        LongAdder errors = new LongAdder();
+
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(counters);
+        for (int c = 1; c <= counters; c++) {
+            int counter = c;
+            Counter desk = newCounter.apply(counter);
+            new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                int[] held = new int[bikes];
+                int holding = 0;
+                try {
+                    start.await();
+                    for (int op = 0; op < operations; op++) {
+                        if (holding > 0 && random.nextInt(3) == 0) {
+                            int pick = random.nextInt(holding);
+                            int slot = held[pick];
+                            held[pick] = held[--holding];
+                            if (!holder.compareAndSet(slot, counter, 0) || !desk.giveBack(slot)) {
+                                errors.increment();
+                            }
+                            continue;
+                        }
+                        int slot = random.nextInt(bikes);
+                        if (desk.rent(slot)) {
+                            if (!holder.compareAndSet(slot, 0, counter)) {
+                                errors.increment();
+                            }
+                            held[holding++] = slot;
+                            rentals.increment();
+                        } else {
+                            refused.increment();
+                        }
+                    }
+                    while (holding > 0) {
+                        int slot = held[--holding];
+                        holder.set(slot, 0);
+                        if (!desk.giveBack(slot)) {
+                            errors.increment();
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            }, "counter-" + c).start();
+        }
+
+        long startNanos = System.nanoTime();
+        start.countDown();
+        done.await();
+        long elapsed = System.nanoTime() - startNanos;
+
+        for (int slot = 0; slot < bikes; slot++) {
+            if (inventory.isRented(slot)) {
+                errors.increment();
+            }
+        }
+        long requests = (long) counters * operations;
+        System.out.println(path + ": " + counters + " counters, " + bikes + " bikes, " + requests + " requests in "
+                + elapsed / 1_000_000 + "ms (" + String.format("%.0f", requests / (elapsed / 1e9)) + " requests/s)");
+        System.out.println(rentals.sum() + " rentals, " + refused.sum() + " refused as already rented");
+        if (errors.sum() != 0 || inventory.rentedCount() != 0 || inventory.availableCount() != bikes) {
+            throw new IllegalStateException(path + ": " + errors.sum() + " errors, " + inventory.rentedCount() + " still rented");
+        }
+    }
+}
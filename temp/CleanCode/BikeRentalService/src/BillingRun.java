@@ -0,0 +1,106 @@
+import impl.Bike;
+import impl.BikeInventory;
+import impl.BikeRentalCustomer;
+import impl.BikeRentalService;
+import impl.BillingPipeline;
+import impl.LocalPaymentProcessor;
+import impl.RentalPricing;
+import impl.RentalSession;
+import interfaces.Customer;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Rentals and returns from many counters, billed through a BillingPipeline against a slow,
+ * occasionally failing LocalPaymentProcessor.
+ *
+ * Each counter serves its own customers, rents them random bikes and returns them after a random
+ * ride, and adds up what every return was priced at. Return latency is measured on the counter
+ * and must not include the processor's round trip. After the pipeline is closed, the processor
+ * must have charged every customer exactly their priced rides, despite the failed requests.
+ *
+ * Usage: BillingRun [counters] [customersPerCounter] [ridesPerCounter] [roundTripMicros] [failEvery]
+ */
+public class BillingRun {
+    private static final long DAY_START = 1_717_372_800L;
+
+    public static void main(String[] args) throws InterruptedException {
+        int counters = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int customersPerCounter = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        int rides = args.length > 2 ? Integer.parseInt(args[2]) : 100_000;
+        long roundTripMicros = args.length > 3 ? Long.parseLong(args[3]) : 2_000;
+        int failEvery = args.length > 4 ? Integer.parseInt(args[4]) : 20;
+
+        BikeInventory inventory = new BikeInventory();
+        int bikes = counters * customersPerCounter * 4;
+        for (int i = 0; i < bikes; i++) {
+            inventory.addBike("B" + i);
+        }
+        LocalPaymentProcessor payments = new LocalPaymentProcessor(roundTripMicros, failEvery);
+        BillingPipeline billing = new BillingPipeline(payments);
+        BikeRentalService service = new BikeRentalService(RentalPricing.DEFAULT, billing);
+
+        Customer[][] customers = new Customer[counters][customersPerCounter];
+        long[][] expectedCents = new long[counters][customersPerCounter];
+        long[][] returnNanos = new long[counters][rides];
+        CountDownLatch done = new CountDownLatch(counters);
+
+        long start = System.nanoTime();
+        for (int c = 0; c < counters; c++) {
+            int counter = c;
+            for (int i = 0; i < customersPerCounter; i++) {
+                customers[c][i] = new BikeRentalCustomer("C" + c + "-" + i);
+            }
+            new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long time = DAY_START;
+                for (int ride = 0; ride < rides; ride++) {
+                    int customer = random.nextInt(customersPerCounter);
+                    Bike bike = inventory.get(random.nextInt(bikes));
+                    // Another counter may hold the bike; then there is nothing to return
+                    service.processRental(customers[counter][customer], bike, time);
+                    long rideEnd = time + 60 + random.nextInt(3 * 3600);
+                    long before = System.nanoTime();
+                    RentalSession session = service.processReturn(customers[counter][customer], bike, rideEnd);
+                    long elapsed = System.nanoTime() - before;
+                    if (session != null) {
+                        returnNanos[counter][ride] = elapsed;
+                        expectedCents[counter][customer] += Math.round(session.getCost() * 100);
+                    }
+                    time += 7;
+                }
+                done.countDown();
+            }, "counter-" + c).start();
+        }
+        done.await();
+        long returnsDone = System.nanoTime() - start;
+        int backlog = billing.pending();
+        billing.close();
+        long billed = System.nanoTime() - start;
+
+        long[] latencies = Arrays.stream(returnNanos).flatMapToLong(Arrays::stream).filter(n -> n > 0).sorted().toArray();
+        System.out.println(String.format("%d returns from %d counters in %dms, billing backlog %d, all billed after %dms",
+                billing.billedSessions(), counters, returnsDone / 1_000_000, backlog, billed / 1_000_000));
+        System.out.println(String.format("Return latency: p50 %.1f us, p99 %.1f us (processor round trip %d us)",
+                latencies[latencies.length / 2] / 1e3, latencies[(int) (latencies.length * 0.99)] / 1e3, roundTripMicros));
+        System.out.println(payments.requests() + " payment requests (" + billing.retries() + " retried) for "
+                + payments.charges() + " charges");
+
+        if (!billing.failedCharges().isEmpty() || billing.billedSessions() != latencies.length) {
+            throw new IllegalStateException(billing.failedCharges().size() + " failed charges, " + billing.billedSessions()
+                    + " of " + latencies.length + " rides billed");
+        }
+        for (int c = 0; c < counters; c++) {
+            for (int i = 0; i < customersPerCounter; i++) {
+                String customerId = customers[c][i].getCustomerId();
+                if (Math.round(payments.totalCharged(customerId) * 100) != expectedCents[c][i]) {
+                    throw new IllegalStateException(customerId + " was charged " + payments.totalCharged(customerId)
+                            + ", rides cost " + expectedCents[c][i] / 100.0);
+                }
+            }
+        }
+        System.out.println("Every customer was charged exactly their rides");
+    }
+}
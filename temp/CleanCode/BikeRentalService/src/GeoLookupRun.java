@@ -0,0 +1,141 @@
+import impl.Bike;
+import impl.BikeInventory;
+import impl.GeoGrid;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Nearest-available-bike lookups on a dockless fleet while it moves.
+ *
+ * Bikes are spread over a city-sized box, denser towards the centre. Rider threads keep renting
+ * bikes, moving them a few hundred metres and returning them, as GPS reports would, while the
+ * main thread times k-nearest queries from random points. Once the riders stop, every query
+ * must match a brute-force scan over all available bikes.
+ *
+ * Usage: GeoLookupRun [bikes] [riders] [k] [seconds]
+ */
+public class GeoLookupRun {
+    private static final double MIN_LATITUDE = 52.40;
+    private static final double MAX_LATITUDE = 52.60;
+    private static final double MIN_LONGITUDE = 13.20;
+    private static final double MAX_LONGITUDE = 13.55;
+
+    public static void main(String[] args) throws InterruptedException {
+        int bikes = args.length > 0 ? Integer.parseInt(args[0]) : 500_000;
+        int riders = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        int k = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        int seconds = args.length > 3 ? Integer.parseInt(args[3]) : 5;
+
+        GeoGrid grid = new GeoGrid(MIN_LATITUDE, MIN_LONGITUDE, MAX_LATITUDE, MAX_LONGITUDE, 100);
+        BikeInventory inventory = new BikeInventory(grid);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < bikes; i++) {
+            inventory.addBike("B" + i, randomLatitude(random), randomLongitude(random));
+        }
+        System.out.println(bikes + " bikes on a " + grid.rows() + " x " + grid.columns() + " grid of 100m cells");
+
+        AtomicBoolean riding = new AtomicBoolean(true);
+        LongAdder moves = new LongAdder();
+        Thread[] threads = new Thread[riders];
+        for (int t = 0; t < riders; t++) {
+            threads[t] = new Thread(() -> {
+                ThreadLocalRandom r = ThreadLocalRandom.current();
+                while (riding.get()) {
+                    int slot = r.nextInt(bikes);
+                    if (!inventory.rent(slot)) {
+                        continue;
+                    }
+                    double latitude = inventory.latitude(slot);
+                    double longitude = inventory.longitude(slot);
+                    for (int leg = 0; leg < 4; leg++) {
+                        latitude = clamp(latitude + (r.nextDouble() - 0.5) * 0.004, MIN_LATITUDE, MAX_LATITUDE);
+                        longitude = clamp(longitude + (r.nextDouble() - 0.5) * 0.006, MIN_LONGITUDE, MAX_LONGITUDE);
+                        inventory.move(slot, latitude, longitude);
+                        moves.increment();
+                    }
+                    inventory.giveBack(slot);
+                }
+            }, "rider-" + t);
+            threads[t].start();
+        }
+
+        long[] latencies = new long[1 << 20];
+        int queries = 0;
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        long checksum = 0;
+        while (System.nanoTime() < deadline && queries < latencies.length) {
+            double latitude = randomLatitude(random);
+            double longitude = randomLongitude(random);
+            long start = System.nanoTime();
+            List<Bike> nearest = inventory.nearestAvailable(latitude, longitude, k);
+            latencies[queries++] = System.nanoTime() - start;
+            checksum += nearest.size();
+        }
+        riding.set(false);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Arrays.sort(latencies, 0, queries);
+        System.out.println(String.format("%d queries (k=%d) during %d position updates: p50 %.1f us, p99 %.1f us, max %.1f us",
+                queries, k, moves.sum(), latencies[queries / 2] / 1e3, latencies[(int) (queries * 0.99)] / 1e3,
+                latencies[queries - 1] / 1e3));
+        if (checksum != (long) queries * k) {
+            throw new IllegalStateException("Some queries found fewer than " + k + " bikes");
+        }
+
+        // Quiet fleet: compare with a scan over every bike
+        for (int slot = 0; slot < bikes; slot += 3) {
+            inventory.rent(slot);
+        }
+        for (int q = 0; q < 200; q++) {
+            double latitude = randomLatitude(random);
+            double longitude = randomLongitude(random);
+            List<Bike> nearest = inventory.nearestAvailable(latitude, longitude, k);
+            double[] expected = bruteForce(inventory, latitude, longitude, k);
+            for (int i = 0; i < k; i++) {
+                Bike bike = nearest.get(i);
+                double distance = distanceKm(latitude, longitude, bike.getLatitude(), bike.getLongitude());
+                if (bike.isRented() || Math.abs(distance - expected[i]) > 1e-4) {
+                    throw new IllegalStateException("Query " + q + ": bike " + i + " is " + bike.getBikeId() + " at " + distance
+                            + " km, expected " + expected[i] + " km");
+                }
+            }
+        }
+        System.out.println("200 queries match a brute-force scan");
+    }
+
+    private static double[] bruteForce(BikeInventory inventory, double latitude, double longitude, int k) {
+        double[] distances = new double[inventory.size()];
+        int available = 0;
+        for (int slot = 0; slot < inventory.size(); slot++) {
+            if (!inventory.isRented(slot)) {
+                distances[available++] = distanceKm(latitude, longitude, inventory.latitude(slot), inventory.longitude(slot));
+            }
+        }
+        Arrays.sort(distances, 0, available);
+        return Arrays.copyOf(distances, k);
+    }
+
+    private static double distanceKm(double latitude, double longitude, double otherLatitude, double otherLongitude) {
+        double x = (otherLongitude - longitude) * Math.cos(Math.toRadians(latitude)) * 111.32;
+        double y = (otherLatitude - latitude) * 111.32;
+        return Math.sqrt(x * x + y * y);
+    }
+
+    // Bikes and riders gather towards the centre: the mean of two uniform draws
+    private static double randomLatitude(ThreadLocalRandom random) {
+        return MIN_LATITUDE + (random.nextDouble() + random.nextDouble()) / 2 * (MAX_LATITUDE - MIN_LATITUDE);
+    }
+
+    private static double randomLongitude(ThreadLocalRandom random) {
+        return MIN_LONGITUDE + (random.nextDouble() + random.nextDouble()) / 2 * (MAX_LONGITUDE - MIN_LONGITUDE);
+    }
+
+    private static double clamp(double value, double min, double max) {
+        return Math.max(min, Math.min(max, value));
+    }
+}
@@ -0,0 +1,172 @@
+import impl.Bike;
+import impl.BikeInventory;
+import impl.BikeRentalCustomer;
+import impl.BikeRentalService;
+import impl.GeoGrid;
+import impl.RebalancingMove;
+import impl.RebalancingPlan;
+import impl.RebalancingPlanner;
+import interfaces.Customer;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+
+/**
+ * Two days of commuter rentals feeding a RebalancingPlanner, then a plan for the next morning.
+ *
+ * Riders pick up the nearest bike to where they are. In the morning they ride from the outskirts
+ * into the centre, in the evening back out, and during the rest of the day anywhere, so bikes
+ * pile up in the centre before noon. Each 15-minute bucket of trips runs in parallel through a
+ * BikeRentalService the planner observes. At 07:00 on the third day the planner must see
+ * shortages on the outskirts and surplus in the centre, and its moves must only take surplus
+ * and never overfill a short zone.
+ *
+ * Usage: RebalancingRun [bikes] [zoneMeters] [tripsPerDay]
+ */
+public class RebalancingRun {
+    private static final double MIN_LATITUDE = 52.40;
+    private static final double MAX_LATITUDE = 52.60;
+    private static final double MIN_LONGITUDE = 13.20;
+    private static final double MAX_LONGITUDE = 13.55;
+    private static final double CENTRE_LATITUDE = 52.50;
+    private static final double CENTRE_LONGITUDE = 13.375;
+    private static final long DAY_START = 1_717_372_800L;
+    private static final int BUCKET = 900;
+
+    public static void main(String[] args) {
+        int bikes = args.length > 0 ? Integer.parseInt(args[0]) : 30_000;
+        int zoneMeters = args.length > 1 ? Integer.parseInt(args[1]) : 350;
+        int tripsPerDay = args.length > 2 ? Integer.parseInt(args[2]) : 200_000;
+
+        BikeInventory inventory = new BikeInventory(new GeoGrid(MIN_LATITUDE, MIN_LONGITUDE, MAX_LATITUDE, MAX_LONGITUDE, 100));
+        SplittableRandom random = new SplittableRandom(7);
+        for (int i = 0; i < bikes; i++) {
+            inventory.addBike("B" + i, MIN_LATITUDE + random.nextDouble() * (MAX_LATITUDE - MIN_LATITUDE),
+                    MIN_LONGITUDE + random.nextDouble() * (MAX_LONGITUDE - MIN_LONGITUDE));
+        }
+        GeoGrid zones = new GeoGrid(MIN_LATITUDE, MIN_LONGITUDE, MAX_LATITUDE, MAX_LONGITUDE, zoneMeters);
+        // Two days and a bit of 15-minute buckets
+        RebalancingPlanner planner = new RebalancingPlanner(zones, inventory, BUCKET, 2 * 96 + 8);
+        BikeRentalService service = new BikeRentalService();
+        service.addObserver(planner);
+
+        LongAdder served = new LongAdder();
+        LongAdder unserved = new LongAdder();
+        long simulationStart = System.nanoTime();
+        long planTime = DAY_START + 2 * 86_400 + 7 * 3600;
+        for (long bucketStart = DAY_START; bucketStart < planTime; bucketStart += BUCKET) {
+            long start = bucketStart;
+            int hour = (int) ((start - DAY_START) % 86_400 / 3600);
+            int trips = tripsPerDay * BUCKET / 86_400 * (hour >= 7 && hour < 10 || hour >= 16 && hour < 19 ? 3 : 1) / 2;
+            IntStream.range(0, trips).parallel().forEach(trip -> {
+                SplittableRandom r = new SplittableRandom(start * 1_000_003 + trip);
+                double[] from;
+                double[] to;
+                if (hour >= 7 && hour < 10) {
+                    from = outskirts(r);
+                    to = centre(r);
+                } else if (hour >= 16 && hour < 19) {
+                    from = centre(r);
+                    to = outskirts(r);
+                } else {
+                    from = anywhere(r);
+                    to = anywhere(r);
+                }
+                Customer rider = new BikeRentalCustomer("R" + trip);
+                long pickup = start + r.nextInt(BUCKET);
+                for (Bike bike : inventory.nearestAvailable(from[0], from[1], 3, 0.5)) {
+                    // Another rider may have taken it since the lookup
+                    if (!service.processRental(rider, bike, pickup)) {
+                        continue;
+                    }
+                    bike.moveTo(to[0], to[1]);
+                    service.processReturn(rider, bike, pickup + 300 + r.nextInt(1500));
+                    served.increment();
+                    return;
+                }
+                unserved.increment();
+            });
+        }
+        long simulated = System.nanoTime() - simulationStart;
+        System.out.println(String.format("%d trips served, %d found no bike within 500 m, in %dms", served.sum(), unserved.sum(),
+                simulated / 1_000_000));
+
+        long planStart = System.nanoTime();
+        RebalancingPlan plan = planner.plan(planTime, 8, 5.0);
+        long planNanos = System.nanoTime() - planStart;
+        int zoneCount = zones.rows() * zones.columns();
+        List<RebalancingMove> moves = plan.getMoves();
+        double truckKm = moves.stream().mapToDouble(move -> move.getDistanceKm() * move.getItems()).sum();
+        System.out.println(String.format("Plan for %d zones (%d x %d) in %.1f ms: %d moves, %d bikes, %.1f km on average",
+                zoneCount, zones.rows(), zones.columns(), planNanos / 1e6, moves.size(), plan.itemsMoved(),
+                plan.itemsMoved() == 0 ? 0 : truckKm / plan.itemsMoved()));
+        System.out.println("Short zones: " + plan.shortZonesBefore() + " before, " + plan.shortZonesAfter() + " after; "
+                + plan.unmetShortage() + " bikes still missing");
+
+        // Every move takes surplus only, and no short zone gets more than it lacks
+        int[] balance = new int[zoneCount];
+        for (int zone = 0; zone < zoneCount; zone++) {
+            balance[zone] = plan.balanceBefore(zone);
+        }
+        for (RebalancingMove move : moves) {
+            if (move.getItems() <= 0 || balance[move.getFromZone()] < move.getItems() || balance[move.getToZone()] >= 0
+                    || move.getDistanceKm() > 5.0 && !sameRegion(zones, move)) {
+                throw new IllegalStateException("Bad move: " + move);
+            }
+            balance[move.getFromZone()] -= move.getItems();
+            balance[move.getToZone()] += move.getItems();
+            if (balance[move.getToZone()] > 0) {
+                throw new IllegalStateException("Overfilled zone " + move.getToZone());
+            }
+        }
+        double shortFromCentre = 0;
+        double surplusFromCentre = 0;
+        int shortZones = 0;
+        int surplusZones = 0;
+        for (int zone = 0; zone < zoneCount; zone++) {
+            if (balance[zone] != plan.balanceAfter(zone)) {
+                throw new IllegalStateException("Zone " + zone + " ends at " + plan.balanceAfter(zone) + ", moves give " + balance[zone]);
+            }
+            double fromCentre = Math.hypot(zones.latitudeOf(zone) - CENTRE_LATITUDE, (zones.longitudeOf(zone) - CENTRE_LONGITUDE) * 0.61);
+            if (plan.balanceBefore(zone) < 0) {
+                shortFromCentre += fromCentre;
+                shortZones++;
+            } else if (plan.balanceBefore(zone) > 0) {
+                surplusFromCentre += fromCentre;
+                surplusZones++;
+            }
+        }
+        System.out.println(String.format("Mean distance from the centre: short zones %.1f km, surplus zones %.1f km",
+                shortFromCentre / shortZones * 111.32, surplusFromCentre / surplusZones * 111.32));
+        if (shortZones == 0 || shortFromCentre / shortZones <= surplusFromCentre / surplusZones) {
+            throw new IllegalStateException("The morning shortage should be on the outskirts");
+        }
+    }
+
+    // Moves within a 16 x 16 region are not bound by maxMoveKm
+    private static boolean sameRegion(GeoGrid zones, RebalancingMove move) {
+        int from = move.getFromZone();
+        int to = move.getToZone();
+        return from / zones.columns() / 16 == to / zones.columns() / 16 && from % zones.columns() / 16 == to % zones.columns() / 16;
+    }
+
+    private static double[] centre(SplittableRandom random) {
+        return new double[]{CENTRE_LATITUDE + (random.nextDouble() - 0.5) * 0.04, CENTRE_LONGITUDE + (random.nextDouble() - 0.5) * 0.07};
+    }
+
+    private static double[] outskirts(SplittableRandom random) {
+        while (true) {
+            double[] point = anywhere(random);
+            if (Math.abs(point[0] - CENTRE_LATITUDE) > 0.05 || Math.abs(point[1] - CENTRE_LONGITUDE) > 0.09) {
+                return point;
+            }
+        }
+    }
+
+    private static double[] anywhere(SplittableRandom random) {
+        return new double[]{MIN_LATITUDE + random.nextDouble() * (MAX_LATITUDE - MIN_LATITUDE),
+                MIN_LONGITUDE + random.nextDouble() * (MAX_LONGITUDE - MIN_LONGITUDE)};
+    }
+}
@@ -0,0 +1,354 @@
+package impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Every item of one asset class (bikes, scooters, ...), indexed by slot number.
+ *
+ * Rental state lives in int arrays (AtomicIntegerArray chunks of 1024 slots), not in the item
+ * objects: renting is one CAS from AVAILABLE to RENTED on the item's slot, returning one CAS
+ * back, so two customers racing for the same item can never both get it, and there is no lock
+ * on the rent / return path. Adding items is synchronized; chunks are appended, never moved, so
+ * a slot's state stays where concurrent renters expect it.
+ *
+ * Positions are kept the same way, latitude and longitude packed into one long per slot. An
+ * inventory built with a {@link GeoGrid} also files every item inside the grid's box under its
+ * cell, for {@link #nearestAvailable}; an item that leaves the box drops out of the grid until it
+ * comes back. Moving an item only marks that one slot as moving while its cell changes.
+ *
+ * Every asset class shares this one implementation, and the items' rent / return methods are
+ * final and call straight into it, so the rental path stays monomorphic however many classes
+ * there are. The factory creates the typed item objects.
+ */
+public class AssetInventory<T extends InventoryAsset> {
+    public interface Factory<T extends InventoryAsset> {
+        T create(String id, AssetInventory<T> inventory, int slot);
+    }
+
+    static final int AVAILABLE = 0;
+    static final int RENTED = 1;
+
+    private static final int CHUNK_BITS = 10;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final long NO_POSITION = Long.MIN_VALUE;
+    private static final double FIXED_POINT = 1e7;
+    // cellOf holds the grid cell + 1, or one of these
+    private static final int NOT_IN_GRID = 0;
+    private static final int MOVING = -1;
+
+    private final Factory<T> factory;
+    private final GeoGrid grid;
+    private volatile AtomicIntegerArray[] states = new AtomicIntegerArray[0];
+    private volatile AtomicLongArray[] positions = new AtomicLongArray[0];
+    private volatile AtomicIntegerArray[] cellOf = new AtomicIntegerArray[0];
+    private volatile InventoryAsset[][] items = new InventoryAsset[0][];
+    private final Map<String, T> itemsById = new ConcurrentHashMap<>();
+    private final LongAdder rented = new LongAdder();
+    private volatile int size;
+
+    public AssetInventory(Factory<T> factory) {
+        this(factory, null);
+    }
+
+    public AssetInventory(Factory<T> factory, GeoGrid grid) {
+        this.factory = factory;
+        this.grid = grid;
+    }
+
+    /**
+     * Adds an available item with no known position.
+     *
+     * @throws IllegalArgumentException if an item with this id is already in the inventory
+     */
+    public T add(String id) {
+        return add(id, NO_POSITION);
+    }
+
+    /**
+     * Adds an available item parked at the given position.
+     *
+     * @throws IllegalArgumentException if an item with this id is already in the inventory
+     */
+    public T add(String id, double latitude, double longitude) {
+        return add(id, pack(latitude, longitude));
+    }
+
+    private synchronized T add(String id, long position) {
+        if (itemsById.containsKey(id)) {
+            throw new IllegalArgumentException(id + " is already in the inventory");
+        }
+        int slot = size;
+        int chunk = slot >>> CHUNK_BITS;
+        int index = slot & (CHUNK_SIZE - 1);
+        if (chunk == states.length) {
+            AtomicIntegerArray[] grownStates = Arrays.copyOf(states, chunk + 1);
+            grownStates[chunk] = new AtomicIntegerArray(CHUNK_SIZE);
+            AtomicLongArray[] grownPositions = Arrays.copyOf(positions, chunk + 1);
+            grownPositions[chunk] = new AtomicLongArray(CHUNK_SIZE);
+            AtomicIntegerArray[] grownCellOf = Arrays.copyOf(cellOf, chunk + 1);
+            grownCellOf[chunk] = new AtomicIntegerArray(CHUNK_SIZE);
+            InventoryAsset[][] grownItems = Arrays.copyOf(items, chunk + 1);
+            grownItems[chunk] = new InventoryAsset[CHUNK_SIZE];
+            states = grownStates;
+            positions = grownPositions;
+            cellOf = grownCellOf;
+            items = grownItems;
+        }
+        T item = factory.create(id, this, slot);
+        items[chunk][index] = item;
+        positions[chunk].set(index, position);
+        int cell = cellFor(position);
+        cellOf[chunk].set(index, cell);
+        if (cell != NOT_IN_GRID) {
+            // Queries skip the slot until size covers it
+            grid.add(cell - 1, slot);
+        }
+        itemsById.put(id, item);
+        // Published to readers by the volatile write
+        size = slot + 1;
+        return item;
+    }
+
+    public T find(String id) {
+        return itemsById.get(id);
+    }
+
+    public T get(int slot) {
+        checkSlot(slot);
+        return item(items, slot);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long rentedCount() {
+        return rented.sum();
+    }
+
+    public long availableCount() {
+        return size - rented.sum();
+    }
+
+    /**
+     * @return false if the item was already rented
+     */
+    public final boolean rent(int slot) {
+        if (state(slot).compareAndSet(slot & (CHUNK_SIZE - 1), AVAILABLE, RENTED)) {
+            rented.increment();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return false if the item was not rented
+     */
+    public final boolean giveBack(int slot) {
+        if (state(slot).compareAndSet(slot & (CHUNK_SIZE - 1), RENTED, AVAILABLE)) {
+            rented.decrement();
+            return true;
+        }
+        return false;
+    }
+
+    public final boolean isRented(int slot) {
+        return state(slot).get(slot & (CHUNK_SIZE - 1)) == RENTED;
+    }
+
+    /**
+     * Records a new position for the item, rented or not, and refiles it in the grid if it
+     * changed cells.
+     */
+    public final void move(int slot, double latitude, double longitude) {
+        checkSlot(slot);
+        long position = pack(latitude, longitude);
+        int chunk = slot >>> CHUNK_BITS;
+        int index = slot & (CHUNK_SIZE - 1);
+        if (grid == null) {
+            positions[chunk].set(index, position);
+            return;
+        }
+        // Two position reports for one item may race; the second waits until the first has refiled it
+        AtomicIntegerArray cells = cellOf[chunk];
+        int from;
+        while (true) {
+            from = cells.get(index);
+            if (from != MOVING && cells.compareAndSet(index, from, MOVING)) {
+                break;
+            }
+            Thread.onSpinWait();
+        }
+        positions[chunk].set(index, position);
+        int to = cellFor(position);
+        if (to != from) {
+            // Into the new cell first, so it is not out of both at once; queries drop the duplicate
+            if (to != NOT_IN_GRID) {
+                grid.add(to - 1, slot);
+            }
+            if (from != NOT_IN_GRID) {
+                grid.remove(from - 1, slot);
+            }
+        }
+        cells.set(index, to);
+    }
+
+    /**
+     * @return NaN if the item's position is not known
+     */
+    public final double latitude(int slot) {
+        checkSlot(slot);
+        long position = positions[slot >>> CHUNK_BITS].get(slot & (CHUNK_SIZE - 1));
+        return position == NO_POSITION ? Double.NaN : (int) (position >> 32) / FIXED_POINT;
+    }
+
+    /**
+     * @return NaN if the item's position is not known
+     */
+    public final double longitude(int slot) {
+        checkSlot(slot);
+        long position = positions[slot >>> CHUNK_BITS].get(slot & (CHUNK_SIZE - 1));
+        return position == NO_POSITION ? Double.NaN : (int) position / FIXED_POINT;
+    }
+
+    public List<T> nearestAvailable(double latitude, double longitude, int k) {
+        return nearestAvailable(latitude, longitude, k, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Up to k items that are not rented, nearest first, no farther than maxKm.
+     *
+     * Searches the grid in square rings of cells around the point and stops as soon as no item in
+     * the next ring could beat the k-th one found. Items moving or being rented meanwhile may be
+     * reported at their old position or state.
+     *
+     * @throws IllegalStateException if the inventory has no grid
+     */
+    public List<T> nearestAvailable(double latitude, double longitude, int k, double maxKm) {
+        if (grid == null) {
+            throw new IllegalStateException("Inventory was built without a GeoGrid");
+        }
+        if (k <= 0) {
+            return new ArrayList<>();
+        }
+        // Equirectangular distance at the query's latitude: within 0.1% of haversine up to 10 km away,
+        // below 60 degrees of latitude
+        double cosLatitude = Math.cos(Math.toRadians(latitude));
+        double ringKm = grid.minCellKm(cosLatitude);
+        double maxSquared = maxKm * maxKm;
+        int fixedLatitude = (int) Math.round(latitude * FIXED_POINT);
+        int fixedLongitude = (int) Math.round(longitude * FIXED_POINT);
+        double yScale = GeoGrid.KM_PER_DEGREE / FIXED_POINT;
+        double xScale = yScale * cosLatitude;
+
+        int[] bestSlot = new int[k];
+        double[] bestDistance = new double[k];
+        int found = 0;
+        int row = grid.row(latitude);
+        int column = grid.column(longitude);
+        int rings = Math.max(grid.rows(), grid.columns());
+        // Read size first: the chunks of every slot below it are then in the arrays read after it
+        int limit = size;
+        AtomicIntegerArray[] states = this.states;
+        AtomicLongArray[] positions = this.positions;
+        for (int ring = 0; ring <= rings; ring++) {
+            double bound = Math.max(0, ring - 1) * ringKm;
+            if (bound > maxKm || (found == k && bound * bound >= bestDistance[k - 1])) {
+                break;
+            }
+            for (int r = row - ring; r <= row + ring; r++) {
+                if (r < 0 || r >= grid.rows()) {
+                    continue;
+                }
+                // Whole rows at the top and bottom of the ring, only the two ends in between
+                int step = r == row - ring || r == row + ring ? 1 : Math.max(1, 2 * ring);
+                for (int c = column - ring; c <= column + ring; c += step) {
+                    if (c < 0 || c >= grid.columns()) {
+                        continue;
+                    }
+                    for (int slot : grid.members(r * grid.columns() + c)) {
+                        if (slot >= limit) {
+                            continue;
+                        }
+                        int chunk = slot >>> CHUNK_BITS;
+                        int index = slot & (CHUNK_SIZE - 1);
+                        if (states[chunk].get(index) != AVAILABLE) {
+                            continue;
+                        }
+                        long position = positions[chunk].get(index);
+                        double x = ((long) (int) position - fixedLongitude) * xScale;
+                        double y = ((long) (int) (position >> 32) - fixedLatitude) * yScale;
+                        double distance = x * x + y * y;
+                        if (distance > maxSquared || (found == k && distance >= bestDistance[k - 1])
+                                || contains(bestSlot, found, slot)) {
+                            continue;
+                        }
+                        int i = found < k ? found++ : k - 1;
+                        while (i > 0 && bestDistance[i - 1] > distance) {
+                            bestSlot[i] = bestSlot[i - 1];
+                            bestDistance[i] = bestDistance[i - 1];
+                            i--;
+                        }
+                        bestSlot[i] = slot;
+                        bestDistance[i] = distance;
+                    }
+                }
+            }
+        }
+        List<T> nearest = new ArrayList<>(found);
+        InventoryAsset[][] items = this.items;
+        for (int i = 0; i < found; i++) {
+            nearest.add(item(items, bestSlot[i]));
+        }
+        return nearest;
+    }
+
+    // Only the factory's T objects are ever stored
+    @SuppressWarnings("unchecked")
+    private T item(InventoryAsset[][] items, int slot) {
+        return (T) items[slot >>> CHUNK_BITS][slot & (CHUNK_SIZE - 1)];
+    }
+
+    private static boolean contains(int[] slots, int count, int slot) {
+        for (int i = 0; i < count; i++) {
+            if (slots[i] == slot) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int cellFor(long position) {
+        if (grid == null || position == NO_POSITION) {
+            return NOT_IN_GRID;
+        }
+        double latitude = (int) (position >> 32) / FIXED_POINT;
+        double longitude = (int) position / FIXED_POINT;
+        return grid.contains(latitude, longitude) ? grid.cell(latitude, longitude) + 1 : NOT_IN_GRID;
+    }
+
+    private static long pack(double latitude, double longitude) {
+        if (!(latitude >= -90 && latitude <= 90 && longitude >= -180 && longitude <= 180)) {
+            throw new IllegalArgumentException("Not a position: " + latitude + ", " + longitude);
+        }
+        return (long) (int) Math.round(latitude * FIXED_POINT) << 32 | (Math.round(longitude * FIXED_POINT) & 0xFFFFFFFFL);
+    }
+
+    private AtomicIntegerArray state(int slot) {
+        checkSlot(slot);
+        return states[slot >>> CHUNK_BITS];
+    }
+
+    private void checkSlot(int slot) {
+        if (slot < 0 || slot >= size) {
+            throw new IndexOutOfBoundsException("Nothing in slot " + slot + ", inventory has " + size);
+        }
+    }
+}
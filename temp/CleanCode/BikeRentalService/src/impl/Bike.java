@@ -1,42 +1,15 @@
 package impl;
 
-import interfaces.Rentable;
-
-public class Bike implements Rentable {
-    private String bikeId;
-    private boolean isRented;
-
-    public Bike(String bikeId){
-        this.bikeId = bikeId;
-        this.isRented = false;
-    }
-
-    @Override
-    public void rent() {
-        if(!isRented){
-            isRented = true;
-            System.out.println("Rented bikeId: " + bikeId);
-        }else{
-            System.out.println("Already Rented Bike -> bikeId: " + bikeId);
-        }
-    }
-
-    @Override
-    public boolean isRented() {
-        return false;
+public class Bike extends InventoryAsset {
+    Bike(String bikeId, AssetInventory<Bike> inventory, int slot){
+        super("bike", bikeId, inventory, slot);
     }
 
-    @Override
-    public void returnBike() {
-        if(isRented){
-            isRented = false;
-            System.out.println("Returned bikeId: " + bikeId);
-        }else{
-            System.out.println("Not rented bike -> bikeId: " + bikeId);
-        }
+    public boolean returnBike() {
+        return returnItem();
     }
 
     public String getBikeId() {
-        return bikeId;
+        return getId();
     }
 }
@@ -0,0 +1,22 @@
+package impl;
+
+/**
+ * The {@link AssetInventory} of bikes.
+ */
+public class BikeInventory extends AssetInventory<Bike> {
+    public BikeInventory() {
+        super(Bike::new);
+    }
+
+    public BikeInventory(GeoGrid grid) {
+        super(Bike::new, grid);
+    }
+
+    public Bike addBike(String bikeId) {
+        return add(bikeId);
+    }
+
+    public Bike addBike(String bikeId, double latitude, double longitude) {
+        return add(bikeId, latitude, longitude);
+    }
+}
@@ -1,23 +1,26 @@
 package impl;
 
 import interfaces.Customer;
+import interfaces.Rentable;
 
 public class BikeRentalCustomer implements Customer {
-    private String customerId;
+    private final String customerId;
 
     public BikeRentalCustomer(String customerId){
         this.customerId = customerId;
     }
     @Override
-    public void rentBike(Bike b) {
-        b.rent();
-        System.out.println("Customer " + customerId + " rented bike: " + b.getBikeId());
+    public String getCustomerId() {
+        return customerId;
     }
 
     @Override
-    public void returnBike(Bike b) {
-        b.returnBike();
-        System.out.println("Customer " + customerId + " returned bike: " + b.getBikeId());
+    public boolean rent(Rentable item) {
+        return item.rent();
+    }
 
+    @Override
+    public void giveBack(Rentable item) {
+        item.returnItem();
     }
 }
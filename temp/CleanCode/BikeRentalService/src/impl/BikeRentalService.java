@@ -1,17 +1,15 @@
 package impl;
 
-import interfaces.Customer;
-import interfaces.Rentable;
-import interfaces.RentalService;
-
 // Class representing a Bike Rental Service
-public class BikeRentalService implements RentalService {
-    @Override
-    public void processRental(Customer customer, Rentable item) {
-        if (item.isRented()) {
-            System.out.println("Cannot rent. Item is already rented.");
-        } else {
-            customer.rentBike((Bike) item);
-        }
+public class BikeRentalService extends RentalEngine {
+    /**
+     * Prices rentals at return without billing them.
+     */
+    public BikeRentalService() {
+        this(RentalPricing.DEFAULT, null);
+    }
+
+    public BikeRentalService(RentalPricing pricing, BillingPipeline billing) {
+        super(new RentalPolicy(pricing, Integer.MAX_VALUE), billing);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,144 @@
+package impl;
+
+import interfaces.PaymentProcessor;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bills completed rentals off the return path.
+ *
+ * Returns enqueue the priced session, lock-free, and go on. One billing thread drains up to
+ * maxBatch sessions at a time, folds each customer's sessions into one {@link Charge} and sends
+ * the whole batch to the processor in a single request, so a busy hour costs a handful of
+ * requests rather than one per ride. A failed request is retried with the same charge ids a few
+ * times, backing off between attempts; a batch that still fails is kept in
+ * {@link #failedCharges()} for whoever settles them by hand. Nothing is dropped: the queue is
+ * unbounded, and close() bills what is queued before stopping.
+ */
+public class BillingPipeline implements AutoCloseable {
+    private static final int DEFAULT_MAX_BATCH = 512;
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long RETRY_BACKOFF_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    private final PaymentProcessor processor;
+    private final int maxBatch;
+    private final Queue<RentalSession> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final LongAdder billedSessions = new LongAdder();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final List<Charge> failedCharges = new CopyOnWriteArrayList<>();
+    private final Thread worker;
+    private long nextChargeId = 1;
+    private volatile boolean running = true;
+
+    public BillingPipeline(PaymentProcessor processor) {
+        this(processor, DEFAULT_MAX_BATCH);
+    }
+
+    public BillingPipeline(PaymentProcessor processor, int maxBatch) {
+        this.processor = processor;
+        this.maxBatch = maxBatch;
+        this.worker = new Thread(this::run, "rental-billing");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * Queues a priced session for billing and returns at once.
+     */
+    public void submit(RentalSession session) {
+        queue.offer(session);
+        if (pending.getAndIncrement() == 0) {
+            LockSupport.unpark(worker);
+        }
+    }
+
+    public int pending() {
+        return pending.get();
+    }
+
+    public long billedSessions() {
+        return billedSessions.sum();
+    }
+
+    public long requests() {
+        return requests.sum();
+    }
+
+    public long retries() {
+        return retries.sum();
+    }
+
+    public List<Charge> failedCharges() {
+        return new ArrayList<>(failedCharges);
+    }
+
+    private void run() {
+        List<RentalSession> batch = new ArrayList<>(maxBatch);
+        while (running || !queue.isEmpty()) {
+            RentalSession session;
+            while (batch.size() < maxBatch && (session = queue.poll()) != null) {
+                batch.add(session);
+            }
+            if (batch.isEmpty()) {
+                // Timed, so a close() that races with the empty check cannot leave us parked
+                LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(10));
+                continue;
+            }
+            bill(batch);
+            pending.addAndGet(-batch.size());
+            batch.clear();
+        }
+    }
+
+    private void bill(List<RentalSession> batch) {
+        Map<String, List<RentalSession>> byCustomer = new LinkedHashMap<>();
+        for (RentalSession session : batch) {
+            byCustomer.computeIfAbsent(session.getCustomerId(), id -> new ArrayList<>()).add(session);
+        }
+        List<Charge> charges = new ArrayList<>(byCustomer.size());
+        for (Map.Entry<String, List<RentalSession>> customer : byCustomer.entrySet()) {
+            charges.add(new Charge(nextChargeId++, customer.getKey(), customer.getValue()));
+        }
+        for (int attempt = 1; ; attempt++) {
+            requests.increment();
+            try {
+                processor.charge(charges);
+                billedSessions.add(batch.size());
+                return;
+            } catch (RuntimeException ex) {
+                if (attempt == MAX_ATTEMPTS) {
+                    failedCharges.addAll(charges);
+                    return;
+                }
+                retries.increment();
+                LockSupport.parkNanos(RETRY_BACKOFF_NANOS * attempt);
+            }
+        }
+    }
+
+    /**
+     * Bills what is already queued, then stops the billing thread.
+     */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(worker);
+        try {
+            worker.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package impl;
+
+public class Car extends InventoryAsset {
+    Car(String plate, AssetInventory<Car> inventory, int slot) {
+        super("car", plate, inventory, slot);
+    }
+}
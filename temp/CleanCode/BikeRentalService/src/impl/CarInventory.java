@@ -0,0 +1,14 @@
+package impl;
+
+/**
+ * The {@link AssetInventory} of cars.
+ */
+public class CarInventory extends AssetInventory<Car> {
+    public CarInventory() {
+        super(Car::new);
+    }
+
+    public CarInventory(GeoGrid grid) {
+        super(Car::new, grid);
+    }
+}
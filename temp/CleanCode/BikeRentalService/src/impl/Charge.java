@@ -0,0 +1,42 @@
+package impl;
+
+import java.util.List;
+
+/**
+ * One charge to one customer, covering every rental of theirs that ended up in the same billing
+ * batch. The id is unique per pipeline and stays the same when a charge is retried, so a
+ * processor can tell a retry from a new charge.
+ */
+public class Charge {
+    private final long chargeId;
+    private final String customerId;
+    private final List<RentalSession> sessions;
+    private final double amount;
+
+    Charge(long chargeId, String customerId, List<RentalSession> sessions) {
+        this.chargeId = chargeId;
+        this.customerId = customerId;
+        this.sessions = sessions;
+        double cents = 0;
+        for (RentalSession session : sessions) {
+            cents += Math.round(session.getCost() * 100);
+        }
+        this.amount = cents / 100;
+    }
+
+    public long getChargeId() {
+        return chargeId;
+    }
+
+    public String getCustomerId() {
+        return customerId;
+    }
+
+    public List<RentalSession> getSessions() {
+        return sessions;
+    }
+
+    public double getAmount() {
+        return amount;
+    }
+}
@@ -0,0 +1,147 @@
+package impl;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Uniform grid of square-ish cells over a bounding box, holding the inventory slots of the bikes
+ * in each cell.
+ *
+ * A cell is a copy-on-write int array swapped in with a CAS, so queries read a cell without any
+ * lock and moving a bike only contends with other bikes entering or leaving the same two cells.
+ * Cells are sized so that a few dozen bikes share one, which keeps the copies short; a cell
+ * holding a crowded hub pays a longer copy per bike moving in or out.
+ *
+ * The cell height is cellMeters of latitude, the width cellMeters of longitude at the box's middle
+ * latitude.
+ */
+public class GeoGrid {
+    static final double KM_PER_DEGREE = 111.32;
+    private static final int[] EMPTY = new int[0];
+
+    private final double minLatitude;
+    private final double minLongitude;
+    private final double maxLatitude;
+    private final double maxLongitude;
+    private final double cellLatitude;
+    private final double cellLongitude;
+    private final int rows;
+    private final int columns;
+    private final AtomicReferenceArray<int[]> cells;
+
+    public GeoGrid(double minLatitude, double minLongitude, double maxLatitude, double maxLongitude, double cellMeters) {
+        if (minLatitude >= maxLatitude || minLongitude >= maxLongitude || cellMeters <= 0) {
+            throw new IllegalArgumentException("Empty bounding box or cell size");
+        }
+        this.minLatitude = minLatitude;
+        this.minLongitude = minLongitude;
+        this.maxLatitude = maxLatitude;
+        this.maxLongitude = maxLongitude;
+        cellLatitude = cellMeters / 1000 / KM_PER_DEGREE;
+        cellLongitude = cellLatitude / Math.cos(Math.toRadians((minLatitude + maxLatitude) / 2));
+        rows = (int) Math.ceil((maxLatitude - minLatitude) / cellLatitude);
+        columns = (int) Math.ceil((maxLongitude - minLongitude) / cellLongitude);
+        if ((long) rows * columns > 1 << 24) {
+            throw new IllegalArgumentException(rows + " x " + columns + " cells, use larger cells");
+        }
+        cells = new AtomicReferenceArray<>(rows * columns);
+        for (int i = 0; i < rows * columns; i++) {
+            cells.set(i, EMPTY);
+        }
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    public int columns() {
+        return columns;
+    }
+
+    /**
+     * Latitude of the centre of the cell.
+     */
+    public double latitudeOf(int cell) {
+        return minLatitude + (cell / columns + 0.5) * cellLatitude;
+    }
+
+    /**
+     * Longitude of the centre of the cell.
+     */
+    public double longitudeOf(int cell) {
+        return minLongitude + (cell % columns + 0.5) * cellLongitude;
+    }
+
+    public boolean contains(double latitude, double longitude) {
+        return latitude >= minLatitude && latitude <= maxLatitude && longitude >= minLongitude && longitude <= maxLongitude;
+    }
+
+    // Points outside the box map to the nearest edge cell
+    int row(double latitude) {
+        return Math.max(0, Math.min(rows - 1, (int) Math.floor((latitude - minLatitude) / cellLatitude)));
+    }
+
+    int column(double longitude) {
+        return Math.max(0, Math.min(columns - 1, (int) Math.floor((longitude - minLongitude) / cellLongitude)));
+    }
+
+    int cell(double latitude, double longitude) {
+        return row(latitude) * columns + column(longitude);
+    }
+
+    /**
+     * Width of the narrower side of a cell in km, with longitude scaled by cosLatitude; any bike r
+     * rings of cells away from a point is at least (r - 1) times this far from it.
+     */
+    double minCellKm(double cosLatitude) {
+        return Math.min(cellLatitude, cellLongitude * cosLatitude) * KM_PER_DEGREE;
+    }
+
+    int[] members(int cell) {
+        return cells.get(cell);
+    }
+
+    void add(int cell, int slot) {
+        while (true) {
+            int[] current = cells.get(cell);
+            int[] next = new int[current.length + 1];
+            System.arraycopy(current, 0, next, 0, current.length);
+            next[current.length] = slot;
+            if (cells.compareAndSet(cell, current, next)) {
+                return;
+            }
+        }
+    }
+
+    void remove(int cell, int slot) {
+        while (true) {
+            int[] current = cells.get(cell);
+            int at = indexOf(current, slot);
+            if (at < 0) {
+                return;
+            }
+            int[] next;
+            if (current.length == 1) {
+                next = EMPTY;
+            } else {
+                // Order within a cell does not matter: the last member takes the removed one's place
+                next = new int[current.length - 1];
+                System.arraycopy(current, 0, next, 0, next.length);
+                if (at < next.length) {
+                    next[at] = current[next.length];
+                }
+            }
+            if (cells.compareAndSet(cell, current, next)) {
+                return;
+            }
+        }
+    }
+
+    private static int indexOf(int[] members, int slot) {
+        for (int i = 0; i < members.length; i++) {
+            if (members[i] == slot) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,73 @@
+package impl;
+
+import interfaces.Rentable;
+
+/**
+ * Base of every rentable asset class. An asset is a handle on its slot in an
+ * {@link AssetInventory}, which keeps its rental state and position, so every handle for the same
+ * asset agrees on them. The rental methods are final: whatever the asset class, renting runs the
+ * same code. They print nothing; the outcome is the return value, and a {@code RentalObserver}
+ * on the service hears about every rental that went through.
+ */
+public abstract class InventoryAsset implements Rentable {
+    private final String kind;
+    private final String id;
+    private final AssetInventory<?> inventory;
+    private final int slot;
+
+    protected InventoryAsset(String kind, String id, AssetInventory<?> inventory, int slot) {
+        this.kind = kind;
+        this.id = id;
+        this.inventory = inventory;
+        this.slot = slot;
+    }
+
+    @Override
+    public final boolean rent() {
+        return inventory.rent(slot);
+    }
+
+    @Override
+    public final boolean isRented() {
+        return inventory.isRented(slot);
+    }
+
+    @Override
+    public final boolean returnItem() {
+        return inventory.giveBack(slot);
+    }
+
+    public final void moveTo(double latitude, double longitude) {
+        inventory.move(slot, latitude, longitude);
+    }
+
+    public final double getLatitude() {
+        return inventory.latitude(slot);
+    }
+
+    public final double getLongitude() {
+        return inventory.longitude(slot);
+    }
+
+    @Override
+    public final String getId() {
+        return id;
+    }
+
+    public final String getKind() {
+        return kind;
+    }
+
+    public final int getSlot() {
+        return slot;
+    }
+
+    final AssetInventory<?> inventory() {
+        return inventory;
+    }
+
+    @Override
+    public String toString() {
+        return kind + ": " + id;
+    }
+}
@@ -0,0 +1,61 @@
+package impl;
+
+import interfaces.PaymentProcessor;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * In-process stand-in for a card payment provider.
+ *
+ * Every request takes a fixed round trip, whatever its size, and every failEvery-th request
+ * fails (0 never fails). Charges are applied once per charge id, so retried batches do not
+ * charge twice, and totals are kept per customer in cents.
+ */
+public class LocalPaymentProcessor implements PaymentProcessor {
+    private final long roundTripNanos;
+    private final int failEvery;
+    private final Map<Long, Boolean> applied = new ConcurrentHashMap<>();
+    private final Map<String, Long> centsByCustomer = new ConcurrentHashMap<>();
+    private final AtomicLong requests = new AtomicLong();
+    private final LongAdder charges = new LongAdder();
+
+    public LocalPaymentProcessor(long roundTripMicros, int failEvery) {
+        this.roundTripNanos = TimeUnit.MICROSECONDS.toNanos(roundTripMicros);
+        this.failEvery = failEvery;
+    }
+
+    @Override
+    public void charge(List<Charge> batch) {
+        long request = requests.incrementAndGet();
+        if (roundTripNanos > 0) {
+            LockSupport.parkNanos(roundTripNanos);
+        }
+        if (failEvery > 0 && request % failEvery == 0) {
+            throw new IllegalStateException("Payment request " + request + " timed out");
+        }
+        for (Charge charge : batch) {
+            if (applied.putIfAbsent(charge.getChargeId(), Boolean.TRUE) == null) {
+                centsByCustomer.merge(charge.getCustomerId(), Math.round(charge.getAmount() * 100), Long::sum);
+                charges.increment();
+            }
+        }
+    }
+
+    public double totalCharged(String customerId) {
+        return centsByCustomer.getOrDefault(customerId, 0L) / 100.0;
+    }
+
+    public long requests() {
+        return requests.get();
+    }
+
+    public long charges() {
+        return charges.sum();
+    }
+}
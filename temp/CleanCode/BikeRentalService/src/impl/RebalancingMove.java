@@ -0,0 +1,39 @@
+package impl;
+
+/**
+ * Items a truck should take from one zone to another.
+ */
+public class RebalancingMove {
+    private final int fromZone;
+    private final int toZone;
+    private final int items;
+    private final double distanceKm;
+
+    RebalancingMove(int fromZone, int toZone, int items, double distanceKm) {
+        this.fromZone = fromZone;
+        this.toZone = toZone;
+        this.items = items;
+        this.distanceKm = distanceKm;
+    }
+
+    public int getFromZone() {
+        return fromZone;
+    }
+
+    public int getToZone() {
+        return toZone;
+    }
+
+    public int getItems() {
+        return items;
+    }
+
+    public double getDistanceKm() {
+        return distanceKm;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d items from zone %d to zone %d (%.1f km)", items, fromZone, toZone, distanceKm);
+    }
+}
@@ -0,0 +1,95 @@
+package impl;
+
+import java.util.List;
+
+/**
+ * What {@link RebalancingPlanner#plan} found per zone and the moves it proposes.
+ *
+ * Balances are available items minus the zone's target: negative for a forecast shortage,
+ * positive for surplus; "after" is the balance once every move is made.
+ */
+public class RebalancingPlan {
+    private final GeoGrid zones;
+    private final int[] available;
+    private final double[] forecastPickups;
+    private final double[] forecastDropoffs;
+    private final int[] balanceBefore;
+    private final int[] balanceAfter;
+    private final List<RebalancingMove> moves;
+
+    RebalancingPlan(GeoGrid zones, int[] available, double[] forecastPickups, double[] forecastDropoffs,
+                    int[] balanceBefore, int[] balanceAfter, List<RebalancingMove> moves) {
+        this.zones = zones;
+        this.available = available;
+        this.forecastPickups = forecastPickups;
+        this.forecastDropoffs = forecastDropoffs;
+        this.balanceBefore = balanceBefore;
+        this.balanceAfter = balanceAfter;
+        this.moves = moves;
+    }
+
+    public List<RebalancingMove> getMoves() {
+        return moves;
+    }
+
+    public int available(int zone) {
+        return available[zone];
+    }
+
+    public double forecastPickups(int zone) {
+        return forecastPickups[zone];
+    }
+
+    public double forecastDropoffs(int zone) {
+        return forecastDropoffs[zone];
+    }
+
+    public int balanceBefore(int zone) {
+        return balanceBefore[zone];
+    }
+
+    public int balanceAfter(int zone) {
+        return balanceAfter[zone];
+    }
+
+    public int shortZonesBefore() {
+        return countShort(balanceBefore);
+    }
+
+    public int shortZonesAfter() {
+        return countShort(balanceAfter);
+    }
+
+    /**
+     * Items still missing across all zones once the moves are made.
+     */
+    public long unmetShortage() {
+        long missing = 0;
+        for (int balance : balanceAfter) {
+            missing += Math.max(0, -balance);
+        }
+        return missing;
+    }
+
+    public long itemsMoved() {
+        long items = 0;
+        for (RebalancingMove move : moves) {
+            items += move.getItems();
+        }
+        return items;
+    }
+
+    public GeoGrid getZones() {
+        return zones;
+    }
+
+    private static int countShort(int[] balances) {
+        int count = 0;
+        for (int balance : balances) {
+            if (balance < 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,286 @@
+package impl;
+
+import interfaces.RentalObserver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Forecasts which zones of the city will run out of available items and plans truck moves from
+ * zones that will have too many.
+ *
+ * Zones are the cells of a {@link GeoGrid}. Registered with {@link RentalEngine#addObserver},
+ * the planner counts pickups (rentals, where the item was) and drop-offs (returns, where it was
+ * left) per zone in ring buffers of fixed-length time buckets: two int arrays holding every zone
+ * for each bucket of the ring, so a day of 15-minute buckets over 4,000 zones is 3 MB. Counting
+ * is one atomic increment; the first event of a new bucket clears that bucket's ring slot under
+ * the planner's monitor. Events of one ring length ago may still be counting while a slot is
+ * reused; with a ring of a day or more that never happens in practice.
+ *
+ * {@link #plan} counts the available items per zone from the inventory, forecasts pickups and
+ * drop-offs over the horizon - the recent rate, averaged with the same time a day earlier once
+ * the ring holds it - and gives every zone a target of its expected net outflow plus a safety
+ * margin. Zones below target are short, zones above it have surplus. Surplus is matched to
+ * shortages nearest first, in parallel over square regions of 16 x 16 zones, and what is left
+ * after that is matched across regions, up to maxMoveKm.
+ */
+public class RebalancingPlanner implements RentalObserver {
+    private static final int DAY = 86_400;
+    private static final int REGION = 16;
+    private static final int RECENT_BUCKETS = 4;
+    private static final double SAFETY_MARGIN = 0.2;
+
+    private final GeoGrid zones;
+    private final AssetInventory<?> inventory;
+    private final int zoneCount;
+    private final int bucketSeconds;
+    private final int ringBuckets;
+    private final AtomicLongArray bucketInSlot;
+    private final AtomicIntegerArray pickups;
+    private final AtomicIntegerArray dropoffs;
+    private final LongAdder outsideZones = new LongAdder();
+
+    public RebalancingPlanner(GeoGrid zones, AssetInventory<?> inventory, int bucketSeconds, int ringBuckets) {
+        if ((long) zones.rows() * zones.columns() * ringBuckets > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many zones for a ring of " + ringBuckets + " buckets");
+        }
+        this.zones = zones;
+        this.inventory = inventory;
+        this.zoneCount = zones.rows() * zones.columns();
+        this.bucketSeconds = bucketSeconds;
+        this.ringBuckets = ringBuckets;
+        bucketInSlot = new AtomicLongArray(ringBuckets);
+        for (int slot = 0; slot < ringBuckets; slot++) {
+            bucketInSlot.set(slot, Long.MIN_VALUE);
+        }
+        pickups = new AtomicIntegerArray(ringBuckets * zoneCount);
+        dropoffs = new AtomicIntegerArray(ringBuckets * zoneCount);
+    }
+
+    @Override
+    public void itemRented(RentalSession session) {
+        if (session.getItem().inventory() == inventory) {
+            count(pickups, session.getStartSeconds(), session.getStartLatitude(), session.getStartLongitude());
+        }
+    }
+
+    @Override
+    public void itemReturned(RentalSession session) {
+        if (session.getItem().inventory() == inventory) {
+            count(dropoffs, session.getEndSeconds(), session.getEndLatitude(), session.getEndLongitude());
+        }
+    }
+
+    /**
+     * Events whose position was unknown or outside every zone.
+     */
+    public long eventsOutsideZones() {
+        return outsideZones.sum();
+    }
+
+    private void count(AtomicIntegerArray counts, long time, double latitude, double longitude) {
+        if (!zones.contains(latitude, longitude)) {
+            outsideZones.increment();
+            return;
+        }
+        int slot = slotFor(Math.floorDiv(time, bucketSeconds));
+        if (slot >= 0) {
+            counts.incrementAndGet(slot * zoneCount + zones.cell(latitude, longitude));
+        }
+    }
+
+    /**
+     * Ring slot of the bucket, clearing the slot first if it still holds an older bucket.
+     * Returns -1 for buckets older than the ring.
+     */
+    private int slotFor(long bucket) {
+        int slot = (int) Math.floorMod(bucket, (long) ringBuckets);
+        long held = bucketInSlot.get(slot);
+        if (held == bucket) {
+            return slot;
+        }
+        if (held > bucket) {
+            return -1;
+        }
+        synchronized (this) {
+            held = bucketInSlot.get(slot);
+            if (held < bucket) {
+                for (int i = slot * zoneCount; i < (slot + 1) * zoneCount; i++) {
+                    pickups.set(i, 0);
+                    dropoffs.set(i, 0);
+                }
+                // Counting into the slot starts once this is visible
+                bucketInSlot.set(slot, bucket);
+            }
+        }
+        return bucketInSlot.get(slot) == bucket ? slot : -1;
+    }
+
+    /**
+     * Counts of one zone in one bucket, or -1 if the ring does not hold the bucket.
+     */
+    private int counted(AtomicIntegerArray counts, int zone, long bucket) {
+        int slot = (int) Math.floorMod(bucket, (long) ringBuckets);
+        return bucketInSlot.get(slot) == bucket ? counts.get(slot * zoneCount + zone) : -1;
+    }
+
+    /**
+     * Expected events in the zone over the horizonBuckets buckets starting at bucket now.
+     */
+    private double forecast(AtomicIntegerArray counts, int zone, long now, int horizonBuckets) {
+        int recent = 0;
+        int seen = 0;
+        for (long bucket = now - RECENT_BUCKETS; bucket < now; bucket++) {
+            int count = counted(counts, zone, bucket);
+            if (count >= 0) {
+                recent += count;
+                seen++;
+            }
+        }
+        double fromRecent = seen == 0 ? 0 : (double) recent / seen * horizonBuckets;
+        long bucketsPerDay = DAY / bucketSeconds;
+        int dayEarlier = 0;
+        for (int h = 0; h < horizonBuckets; h++) {
+            int count = counted(counts, zone, now + h - bucketsPerDay);
+            if (count < 0) {
+                return fromRecent;
+            }
+            dayEarlier += count;
+        }
+        return seen == 0 ? dayEarlier : (fromRecent + dayEarlier) / 2;
+    }
+
+    /**
+     * Plans moves for the horizon starting at nowSeconds.
+     *
+     * @param maxMoveKm how far a truck may carry items between regions
+     */
+    public RebalancingPlan plan(long nowSeconds, int horizonBuckets, double maxMoveKm) {
+        long now = Math.floorDiv(nowSeconds, bucketSeconds);
+        int[] stock = availableByZone();
+        double[] demand = new double[zoneCount];
+        double[] inflow = new double[zoneCount];
+        int[] balance = new int[zoneCount];
+        IntStream.range(0, zoneCount).parallel().forEach(zone -> {
+            demand[zone] = forecast(pickups, zone, now, horizonBuckets);
+            inflow[zone] = forecast(dropoffs, zone, now, horizonBuckets);
+            int target = (int) Math.ceil(Math.max(0, demand[zone] - inflow[zone]) * (1 + SAFETY_MARGIN));
+            // Positive: surplus to give away; negative: items short
+            balance[zone] = stock[zone] - target;
+        });
+        int[] balanceBefore = balance.clone();
+
+        int regionRows = (zones.rows() + REGION - 1) / REGION;
+        int regionColumns = (zones.columns() + REGION - 1) / REGION;
+        // Regions share no zones, so each one works on its own part of balance
+        List<RebalancingMove> moves = IntStream.range(0, regionRows * regionColumns).parallel()
+                .mapToObj(region -> {
+                    int row = region / regionColumns * REGION;
+                    int column = region % regionColumns * REGION;
+                    return match(balance, row, Math.min(zones.rows(), row + REGION), column,
+                            Math.min(zones.columns(), column + REGION), Double.POSITIVE_INFINITY);
+                })
+                .flatMap(List::stream)
+                .collect(Collectors.toCollection(ArrayList::new));
+        moves.addAll(match(balance, 0, zones.rows(), 0, zones.columns(), maxMoveKm));
+        return new RebalancingPlan(zones, stock, demand, inflow, balanceBefore, balance, moves);
+    }
+
+    private int[] availableByZone() {
+        int[] stock = new int[zoneCount];
+        int items = inventory.size();
+        for (int slot = 0; slot < items; slot++) {
+            if (inventory.isRented(slot)) {
+                continue;
+            }
+            double latitude = inventory.latitude(slot);
+            double longitude = inventory.longitude(slot);
+            if (zones.contains(latitude, longitude)) {
+                stock[zones.cell(latitude, longitude)]++;
+            }
+        }
+        return stock;
+    }
+
+    /**
+     * Fills the shortages of the zones in rows [fromRow, toRow) x columns [fromColumn, toColumn),
+     * largest first, from the surplus of zones in the same block, searching outward in rings of
+     * zones and taking the nearest ring first.
+     */
+    private List<RebalancingMove> match(int[] balance, int fromRow, int toRow, int fromColumn, int toColumn, double maxKm) {
+        List<Integer> shortZones = new ArrayList<>();
+        for (int row = fromRow; row < toRow; row++) {
+            for (int column = fromColumn; column < toColumn; column++) {
+                if (balance[row * zones.columns() + column] < 0) {
+                    shortZones.add(row * zones.columns() + column);
+                }
+            }
+        }
+        shortZones.sort((a, b) -> Integer.compare(balance[a], balance[b]));
+        double ringKm = zones.minCellKm(Math.cos(Math.toRadians(zones.latitudeOf(fromRow * zones.columns()))));
+        int maxRing = Math.max(toRow - fromRow, toColumn - fromColumn);
+        List<RebalancingMove> moves = new ArrayList<>();
+        for (int zone : shortZones) {
+            int row = zone / zones.columns();
+            int column = zone % zones.columns();
+            for (int ring = 1; ring <= maxRing && balance[zone] < 0; ring++) {
+                if ((ring - 1) * ringKm > maxKm) {
+                    break;
+                }
+                for (int r = Math.max(fromRow, row - ring); r <= Math.min(toRow - 1, row + ring) && balance[zone] < 0; r++) {
+                    // Whole rows at the top and bottom of the ring, only the two ends in between
+                    int step = r == row - ring || r == row + ring ? 1 : 2 * ring;
+                    for (int c = column - ring; c <= column + ring && balance[zone] < 0; c += step) {
+                        if (c < fromColumn || c >= toColumn) {
+                            continue;
+                        }
+                        int from = r * zones.columns() + c;
+                        if (balance[from] <= 0) {
+                            continue;
+                        }
+                        double km = distanceKm(from, zone);
+                        if (km > maxKm) {
+                            continue;
+                        }
+                        int items = Math.min(balance[from], -balance[zone]);
+                        balance[from] -= items;
+                        balance[zone] += items;
+                        moves.add(new RebalancingMove(from, zone, items, km));
+                    }
+                }
+            }
+        }
+        return moves;
+    }
+
+    private double distanceKm(int fromZone, int toZone) {
+        double latitude = zones.latitudeOf(fromZone);
+        double y = (zones.latitudeOf(toZone) - latitude) * GeoGrid.KM_PER_DEGREE;
+        double x = (zones.longitudeOf(toZone) - zones.longitudeOf(fromZone)) * Math.cos(Math.toRadians(latitude)) * GeoGrid.KM_PER_DEGREE;
+        return Math.sqrt(x * x + y * y);
+    }
+
+    /**
+     * Pickups and drop-offs counted in the zone per bucket, oldest first, for the buckets the ring
+     * holds up to the one containing nowSeconds; -1 marks buckets the ring no longer holds.
+     */
+    public int[][] history(int zone, long nowSeconds) {
+        long now = Math.floorDiv(nowSeconds, bucketSeconds);
+        int[][] history = new int[2][ringBuckets];
+        for (int i = 0; i < ringBuckets; i++) {
+            long bucket = now - ringBuckets + 1 + i;
+            history[0][i] = counted(pickups, zone, bucket);
+            history[1][i] = counted(dropoffs, zone, bucket);
+        }
+        return history;
+    }
+
+    public GeoGrid getZones() {
+        return zones;
+    }
+}
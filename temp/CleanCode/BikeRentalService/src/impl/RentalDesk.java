@@ -0,0 +1,70 @@
+package impl;
+
+import interfaces.Customer;
+import interfaces.RentalObserver;
+
+import java.util.List;
+
+/**
+ * Rents out the items of one inventory under that inventory's policy. Every asset class gets
+ * its own desk, and the desk only ever calls final methods of {@link AssetInventory} and
+ * {@link InventoryAsset} and plain data from its {@link RentalPolicy}. Nothing on the rent and
+ * return path prints: a refusal is the return value.
+ */
+final class RentalDesk {
+    private final AssetInventory<?> inventory;
+    private final RentalPolicy policy;
+    private final RentalSessionStore sessions;
+    private final BillingPipeline billing;
+    private final List<RentalObserver> observers;
+
+    RentalDesk(AssetInventory<?> inventory, RentalPolicy policy, RentalSessionStore sessions, BillingPipeline billing,
+               List<RentalObserver> observers) {
+        this.inventory = inventory;
+        this.policy = policy;
+        this.sessions = sessions;
+        this.billing = billing;
+        this.observers = observers;
+    }
+
+    /**
+     * @return false if the customer is at the policy's limit or someone else has the item
+     */
+    boolean rent(Customer customer, InventoryAsset item, long timeSeconds) {
+        // Checked before renting: two rentals by one customer at the same instant may both pass
+        if (policy.getMaxOpenRentals() != Integer.MAX_VALUE
+                && sessions.openCount(customer.getCustomerId(), inventory) >= policy.getMaxOpenRentals()) {
+            return false;
+        }
+        // Renting is the check: the inventory's CAS lets only one customer have the item
+        if (!customer.rent(item)) {
+            return false;
+        }
+        RentalSession session = sessions.open(customer.getCustomerId(), item, timeSeconds);
+        for (RentalObserver observer : observers) {
+            observer.itemRented(session);
+        }
+        return true;
+    }
+
+    RentalSession giveBack(Customer customer, InventoryAsset item, long timeSeconds) {
+        // Closed before the item goes back, so nobody can rent it while it still has this session
+        RentalSession session = sessions.close(customer.getCustomerId(), item);
+        if (session == null) {
+            return null;
+        }
+        session.complete(timeSeconds, policy.getPricing().cost(session.getStartSeconds(), timeSeconds));
+        customer.giveBack(item);
+        for (RentalObserver observer : observers) {
+            observer.itemReturned(session);
+        }
+        if (billing != null) {
+            billing.submit(session);
+        }
+        return session;
+    }
+
+    RentalPolicy getPolicy() {
+        return policy;
+    }
+}
@@ -0,0 +1,88 @@
+package impl;
+
+import interfaces.Customer;
+import interfaces.Rentable;
+import interfaces.RentalObserver;
+import interfaces.RentalService;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Rents out items of any asset class: bikes, scooters, cars, each in its own typed
+ * {@link AssetInventory} with its own {@link RentalPolicy}.
+ *
+ * All classes share one session store and one billing pipeline, and each inventory keeps its
+ * own availability state and grid. A rental finds the item's desk by its inventory and runs the
+ * same code for every class, so adding a class adds no type checks or virtual calls to the
+ * rental path. Inventories that were never registered are rented out under the default policy.
+ * Observers hear about every rental and return of every class.
+ */
+public class RentalEngine implements RentalService {
+    private final RentalSessionStore sessions = new RentalSessionStore();
+    private final Map<AssetInventory<?>, RentalDesk> desks = new ConcurrentHashMap<>();
+    private final List<RentalObserver> observers = new CopyOnWriteArrayList<>();
+    private final RentalPolicy defaultPolicy;
+    private final BillingPipeline billing;
+
+    /**
+     * @param billing null to price returns without billing them
+     */
+    public RentalEngine(RentalPolicy defaultPolicy, BillingPipeline billing) {
+        this.defaultPolicy = defaultPolicy;
+        this.billing = billing;
+    }
+
+    /**
+     * Rents out the inventory's items under the given policy from now on.
+     */
+    public void register(AssetInventory<?> inventory, RentalPolicy policy) {
+        desks.put(inventory, new RentalDesk(inventory, policy, sessions, billing, observers));
+    }
+
+    public void addObserver(RentalObserver observer) {
+        observers.add(observer);
+    }
+
+    public void removeObserver(RentalObserver observer) {
+        observers.remove(observer);
+    }
+
+    public RentalPolicy policyOf(AssetInventory<?> inventory) {
+        RentalDesk desk = desks.get(inventory);
+        return desk == null ? defaultPolicy : desk.getPolicy();
+    }
+
+    @Override
+    public boolean processRental(Customer customer, Rentable item, long timeSeconds) {
+        InventoryAsset asset = asset(item);
+        return desk(asset).rent(customer, asset, timeSeconds);
+    }
+
+    @Override
+    public RentalSession processReturn(Customer customer, Rentable item, long timeSeconds) {
+        InventoryAsset asset = asset(item);
+        return desk(asset).giveBack(customer, asset, timeSeconds);
+    }
+
+    public RentalSessionStore getSessions() {
+        return sessions;
+    }
+
+    private RentalDesk desk(InventoryAsset asset) {
+        RentalDesk desk = desks.get(asset.inventory());
+        if (desk == null) {
+            desk = desks.computeIfAbsent(asset.inventory(), inventory -> new RentalDesk(inventory, defaultPolicy, sessions, billing, observers));
+        }
+        return desk;
+    }
+
+    private static InventoryAsset asset(Rentable item) {
+        if (!(item instanceof InventoryAsset)) {
+            throw new IllegalArgumentException(item + " does not come from an AssetInventory");
+        }
+        return (InventoryAsset) item;
+    }
+}
@@ -0,0 +1,27 @@
+package impl;
+
+/**
+ * How one asset class is rented out: its pricing and how many items of the class a customer may
+ * have out at once.
+ *
+ * A policy is data, not behaviour, so every class is priced by the same code path.
+ */
+public final class RentalPolicy {
+    public static final RentalPolicy DEFAULT = new RentalPolicy(RentalPricing.DEFAULT, Integer.MAX_VALUE);
+
+    private final RentalPricing pricing;
+    private final int maxOpenRentals;
+
+    public RentalPolicy(RentalPricing pricing, int maxOpenRentals) {
+        this.pricing = pricing;
+        this.maxOpenRentals = maxOpenRentals;
+    }
+
+    public RentalPricing getPricing() {
+        return pricing;
+    }
+
+    public int getMaxOpenRentals() {
+        return maxOpenRentals;
+    }
+}
@@ -0,0 +1,29 @@
+package impl;
+
+/**
+ * What a rental costs: an unlock fee, then a rate per started minute, capped per started day.
+ * Costs are rounded to cents.
+ */
+public final class RentalPricing {
+    private static final long DAY = 86_400;
+
+    public static final RentalPricing DEFAULT = new RentalPricing(1.00, 0.25, 20.00);
+
+    private final double unlockFee;
+    private final double perMinute;
+    private final double dailyCap;
+
+    public RentalPricing(double unlockFee, double perMinute, double dailyCap) {
+        this.unlockFee = unlockFee;
+        this.perMinute = perMinute;
+        this.dailyCap = dailyCap;
+    }
+
+    public double cost(long startSeconds, long endSeconds) {
+        long seconds = Math.max(0, endSeconds - startSeconds);
+        long days = seconds / DAY;
+        long minutes = (seconds % DAY + 59) / 60;
+        double cost = unlockFee + days * dailyCap + Math.min(minutes * perMinute, dailyCap);
+        return Math.round(cost * 100) / 100.0;
+    }
+}
@@ -0,0 +1,72 @@
+package impl;
+
+/**
+ * One customer renting one item, from rent to return. The item's position is taken at both
+ * ends (NaN where it is not known). The end, its position and the cost are filled in once, at
+ * return, before the session is handed to observers and billing.
+ */
+public class RentalSession {
+    private final String customerId;
+    private final InventoryAsset item;
+    private final long startSeconds;
+    private final double startLatitude;
+    private final double startLongitude;
+    private long endSeconds;
+    private double endLatitude = Double.NaN;
+    private double endLongitude = Double.NaN;
+    private double cost;
+
+    RentalSession(String customerId, InventoryAsset item, long startSeconds) {
+        this.customerId = customerId;
+        this.item = item;
+        this.startSeconds = startSeconds;
+        this.startLatitude = item.getLatitude();
+        this.startLongitude = item.getLongitude();
+    }
+
+    void complete(long endSeconds, double cost) {
+        this.endSeconds = endSeconds;
+        this.endLatitude = item.getLatitude();
+        this.endLongitude = item.getLongitude();
+        this.cost = cost;
+    }
+
+    public String getCustomerId() {
+        return customerId;
+    }
+
+    public InventoryAsset getItem() {
+        return item;
+    }
+
+    public long getStartSeconds() {
+        return startSeconds;
+    }
+
+    /**
+     * @return 0 while the item is still out
+     */
+    public long getEndSeconds() {
+        return endSeconds;
+    }
+
+    public double getStartLatitude() {
+        return startLatitude;
+    }
+
+    public double getStartLongitude() {
+        return startLongitude;
+    }
+
+    public double getEndLatitude() {
+        return endLatitude;
+    }
+
+    public double getEndLongitude() {
+        return endLongitude;
+    }
+
+    public double getCost() {
+        return cost;
+    }
+}
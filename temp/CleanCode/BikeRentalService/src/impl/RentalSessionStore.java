@@ -0,0 +1,85 @@
+package impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Open rentals of every asset class, by item and by customer.
+ *
+ * An item has at most one open session, so the item map is the source of truth: closing is a
+ * remove of that exact session, which also checks the customer. The per-customer sets only
+ * serve lookups. Whoever opens a session has just won the item's rent CAS, so a session still
+ * open on that item belongs to a rental that was given back outside the service; the new one
+ * replaces it. Items are keyed by identity: ids only need to be unique within their inventory.
+ */
+public class RentalSessionStore {
+    private final Map<InventoryAsset, RentalSession> byItem = new ConcurrentHashMap<>();
+    private final Map<String, Set<RentalSession>> byCustomer = new ConcurrentHashMap<>();
+
+    RentalSession open(String customerId, InventoryAsset item, long startSeconds) {
+        RentalSession session = new RentalSession(customerId, item, startSeconds);
+        RentalSession stale = byItem.put(item, session);
+        if (stale != null) {
+            forget(stale);
+        }
+        // Added inside compute, so a close emptying the same customer's set cannot drop it
+        byCustomer.compute(customerId, (id, sessions) -> {
+            Set<RentalSession> open = sessions == null ? ConcurrentHashMap.newKeySet() : sessions;
+            open.add(session);
+            return open;
+        });
+        return session;
+    }
+
+    /**
+     * @return the closed session, or null if this customer has no open session on the item
+     */
+    RentalSession close(String customerId, InventoryAsset item) {
+        RentalSession session = byItem.get(item);
+        if (session == null || !session.getCustomerId().equals(customerId) || !byItem.remove(item, session)) {
+            return null;
+        }
+        forget(session);
+        return session;
+    }
+
+    private void forget(RentalSession session) {
+        byCustomer.computeIfPresent(session.getCustomerId(), (id, sessions) -> {
+            sessions.remove(session);
+            return sessions.isEmpty() ? null : sessions;
+        });
+    }
+
+    public RentalSession find(InventoryAsset item) {
+        return byItem.get(item);
+    }
+
+    public List<RentalSession> openFor(String customerId) {
+        Set<RentalSession> sessions = byCustomer.get(customerId);
+        return sessions == null ? new ArrayList<>() : new ArrayList<>(sessions);
+    }
+
+    /**
+     * Open sessions of the customer on items of the given inventory.
+     */
+    public int openCount(String customerId, AssetInventory<?> inventory) {
+        Set<RentalSession> sessions = byCustomer.get(customerId);
+        if (sessions == null) {
+            return 0;
+        }
+        int count = 0;
+        for (RentalSession session : sessions) {
+            if (session.getItem().inventory() == inventory) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public int size() {
+        return byItem.size();
+    }
+}
@@ -0,0 +1,7 @@
+package impl;
+
+public class Scooter extends InventoryAsset {
+    Scooter(String scooterId, AssetInventory<Scooter> inventory, int slot) {
+        super("scooter", scooterId, inventory, slot);
+    }
+}
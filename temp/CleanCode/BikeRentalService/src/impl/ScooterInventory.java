@@ -0,0 +1,14 @@
+package impl;
+
+/**
+ * The {@link AssetInventory} of scooters.
+ */
+public class ScooterInventory extends AssetInventory<Scooter> {
+    public ScooterInventory() {
+        super(Scooter::new);
+    }
+
+    public ScooterInventory(GeoGrid grid) {
+        super(Scooter::new, grid);
+    }
+}
@@ -1,8 +1,10 @@
 package interfaces;
 
-import impl.Bike;
-
 public interface Customer {
-    void rentBike(Bike b);
-    void returnBike(Bike b);
+    String getCustomerId();
+    /**
+     * @return false if someone else has the item
+     */
+    boolean rent(Rentable item);
+    void giveBack(Rentable item);
 }
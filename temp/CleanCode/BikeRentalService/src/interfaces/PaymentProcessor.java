@@ -0,0 +1,15 @@
+package interfaces;
+
+import impl.Charge;
+
+import java.util.List;
+
+public interface PaymentProcessor {
+    /**
+     * Submits a batch of charges in one request.
+     *
+     * @throws RuntimeException if the request failed; the same charges, with the same ids, may be
+     *                          submitted again
+     */
+    void charge(List<Charge> charges);
+}
@@ -4,7 +4,17 @@ package interfaces;
  * Rentable Interface
  */
 public interface Rentable {
-    void rent();
+    String getId();
+    /**
+     * Rents the item if nobody has it; checking {@link #isRented()} first is not needed and would
+     * race with other renters.
+     *
+     * @return false if the item was already rented
+     */
+    boolean rent();
     boolean isRented();
-    void returnBike();
+    /**
+     * @return false if the item was not rented
+     */
+    boolean returnItem();
 }
@@ -0,0 +1,13 @@
+package interfaces;
+
+import impl.RentalSession;
+
+/**
+ * Told about every rental and return that goes through a RentalEngine, on the renting thread,
+ * right after it happened; implementations must be quick and thread-safe.
+ */
+public interface RentalObserver {
+    void itemRented(RentalSession session);
+
+    void itemReturned(RentalSession session);
+}
@@ -1,5 +1,23 @@
 package interfaces;
 
+import impl.RentalSession;
+
+import java.time.Instant;
+
 public interface RentalService {
-    void processRental(Customer customer, Rentable item);
-}
\ No newline at end of file
+    default boolean processRental(Customer customer, Rentable item) {
+        return processRental(customer, item, Instant.now().getEpochSecond());
+    }
+
+    /**
+     * @return false if the item was not rented to the customer
+     */
+    boolean processRental(Customer customer, Rentable item, long timeSeconds);
+
+    /**
+     * Ends the customer's rental of the item and prices it.
+     *
+     * @return the priced session, or null if the customer has not rented the item
+     */
+    RentalSession processReturn(Customer customer, Rentable item, long timeSeconds);
+}